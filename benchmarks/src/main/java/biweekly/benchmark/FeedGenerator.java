@@ -0,0 +1,232 @@
+package biweekly.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.TimeZone;
+
+import biweekly.ICalVersion;
+import biweekly.ICalendar;
+import biweekly.component.VEvent;
+import biweekly.component.VTimezone;
+import biweekly.io.ICalTimeZone;
+import biweekly.io.StreamWriter;
+import biweekly.io.TimezoneAssignment;
+import biweekly.io.TimezoneInfo;
+import biweekly.io.json.JCalWriter;
+import biweekly.io.text.ICalReader;
+import biweekly.io.text.ICalWriter;
+import biweekly.io.xml.XCalWriter;
+import biweekly.property.DateEnd;
+import biweekly.property.DateStart;
+import biweekly.property.ExceptionDates;
+import biweekly.util.DayOfWeek;
+import biweekly.util.Frequency;
+import biweekly.util.ICalDate;
+import biweekly.util.Recurrence;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * <p>
+ * Generates synthetic iCalendar feeds for the benchmarks.
+ * </p>
+ * <p>
+ * The generated feeds are deterministic, so the same event count always
+ * produces the same data. The events cycle through a mix of features:
+ * </p>
+ * <ul>
+ * <li>one third of the start/end dates are assigned to the
+ * "America/New_York" VTIMEZONE (TZID parameter), one third are floating, and
+ * one third are in UTC</li>
+ * <li>every other event has a weekly RRULE, and every fifth event has a daily
+ * RRULE with a COUNT</li>
+ * <li>every sixth event has an EXDATE</li>
+ * </ul>
+ * @author Michael Angstadt
+ */
+public final class FeedGenerator {
+	/**
+	 * The data formats that the benchmarks read and write.
+	 */
+	public enum Format {
+		ICAL("ics"), JCAL("json"), XCAL("xml");
+
+		private final String extension;
+
+		private Format(String extension) {
+			this.extension = extension;
+		}
+
+		/**
+		 * Gets the file extension of this format.
+		 * @return the file extension (e.g. "ics")
+		 */
+		public String getExtension() {
+			return extension;
+		}
+	}
+
+	private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+	/**
+	 * Loads the "America/New_York" VTIMEZONE component that is bundled with
+	 * the benchmarks.
+	 * @return the component
+	 */
+	public static VTimezone newYork() {
+		InputStream in = FeedGenerator.class.getResourceAsStream("New_York.ics");
+		ICalReader reader = new ICalReader(in);
+		try {
+			ICalendar ical = reader.readNext();
+			return ical.getTimezoneInfo().getComponents().iterator().next();
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		} finally {
+			try {
+				reader.close();
+			} catch (IOException e) {
+				//ignore
+			}
+		}
+	}
+
+	/**
+	 * Generates an iCalendar object.
+	 * @param eventCount the number of VEVENT components to create
+	 * @return the iCalendar object
+	 */
+	public static ICalendar generate(int eventCount) {
+		ICalendar ical = new ICalendar();
+		TimezoneInfo tzinfo = ical.getTimezoneInfo();
+
+		VTimezone component = newYork();
+		TimezoneAssignment newYork = new TimezoneAssignment(new ICalTimeZone(component), component);
+		tzinfo.getTimezones().add(newYork);
+
+		Calendar cal = Calendar.getInstance(UTC);
+		for (int i = 0; i < eventCount; i++) {
+			cal.clear();
+			cal.set(2015, Calendar.JANUARY, 1, 8, 0, 0);
+			cal.add(Calendar.HOUR_OF_DAY, i % 10000 * 7);
+			Date start = cal.getTime();
+			cal.add(Calendar.MINUTE, 30 + (i % 4) * 15);
+			Date end = cal.getTime();
+
+			VEvent event = new VEvent();
+			event.setUid("event-" + i + "@biweekly.benchmark");
+			event.setSummary("Event #" + i);
+			event.setLocation("Room " + (i % 50));
+			event.setDescription("Synthetic event number " + i + ", used for benchmarking.\nIt spans multiple lines, contains \"special\" characters; and, well, commas.");
+			event.addAttendee("attendee" + (i % 20) + "@example.com");
+			event.setOrganizer("organizer" + (i % 5) + "@example.com");
+
+			DateStart dtstart = event.setDateStart(start);
+			DateEnd dtend = event.setDateEnd(end);
+			switch (i % 3) {
+			case 0:
+				tzinfo.setTimezone(dtstart, newYork);
+				tzinfo.setTimezone(dtend, newYork);
+				break;
+			case 1:
+				tzinfo.setFloating(dtstart, true);
+				tzinfo.setFloating(dtend, true);
+				break;
+			}
+
+			if (i % 2 == 0) {
+				//@formatter:off
+				Recurrence recur = new Recurrence.Builder(Frequency.WEEKLY)
+					.byDay(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY)
+					.until(new ICalDate(new Date(start.getTime() + 365L * 24 * 60 * 60 * 1000), true))
+				.build();
+				//@formatter:on
+				event.setRecurrenceRule(recur);
+			} else if (i % 5 == 0) {
+				//@formatter:off
+				Recurrence recur = new Recurrence.Builder(Frequency.DAILY)
+					.interval(2)
+					.count(30)
+				.build();
+				//@formatter:on
+				event.setRecurrenceRule(recur);
+			}
+
+			if (i % 6 == 0) {
+				ExceptionDates exdate = new ExceptionDates();
+				exdate.getValues().add(new ICalDate(new Date(start.getTime() + 7L * 24 * 60 * 60 * 1000), true));
+				exdate.getValues().add(new ICalDate(new Date(start.getTime() + 14L * 24 * 60 * 60 * 1000), true));
+				event.addExceptionDates(exdate);
+				if (i % 3 == 0) {
+					tzinfo.setTimezone(exdate, newYork);
+				}
+			}
+
+			ical.addEvent(event);
+		}
+
+		return ical;
+	}
+
+	/**
+	 * Writes an iCalendar object to a temporary file.
+	 * @param ical the iCalendar object
+	 * @param format the data format to write in
+	 * @return the file (deleted when the JVM exits)
+	 * @throws IOException if there's a problem writing to the file
+	 */
+	public static File writeTempFile(ICalendar ical, Format format) throws IOException {
+		File file = File.createTempFile("biweekly-benchmark", "." + format.getExtension());
+		file.deleteOnExit();
+
+		StreamWriter writer;
+		switch (format) {
+		case JCAL:
+			writer = new JCalWriter(file);
+			break;
+		case XCAL:
+			writer = new XCalWriter(file);
+			break;
+		default:
+			writer = new ICalWriter(file, ICalVersion.V2_0);
+			break;
+		}
+
+		try {
+			writer.write(ical);
+		} finally {
+			writer.close();
+		}
+
+		return file;
+	}
+
+	private FeedGenerator() {
+		//hide
+	}
+}
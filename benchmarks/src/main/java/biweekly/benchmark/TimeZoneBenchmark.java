@@ -0,0 +1,102 @@
+package biweekly.benchmark;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import biweekly.component.VTimezone;
+import biweekly.io.ICalTimeZone;
+import biweekly.io.PrecomputedICalTimeZone;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * Measures how long it takes {@link ICalTimeZone#getOffset(long)} and
+ * {@link PrecomputedICalTimeZone#getOffset(long)} to compute the UTC offset of
+ * dates that are spread across several decades.
+ * @author Michael Angstadt
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TimeZoneBenchmark {
+	private static final int DATE_COUNT = 1024;
+
+	private ICalTimeZone timezone;
+	private PrecomputedICalTimeZone precomputed;
+	private long[] dates;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		VTimezone component = FeedGenerator.newYork();
+		timezone = new ICalTimeZone(component);
+		precomputed = new PrecomputedICalTimeZone(component);
+
+		Calendar cal = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+		dates = new long[DATE_COUNT];
+		for (int i = 0; i < dates.length; i++) {
+			cal.clear();
+			cal.set(1970 + (i % 60), i % 12, 1 + (i % 28), i % 24, 0, 0);
+			dates[i] = cal.getTimeInMillis();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(DATE_COUNT)
+	public int getOffset() {
+		int sum = 0;
+		for (long date : dates) {
+			sum += timezone.getOffset(date);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(DATE_COUNT)
+	public int getOffsetPrecomputed() {
+		int sum = 0;
+		for (long date : dates) {
+			sum += precomputed.getOffset(date);
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,118 @@
+package biweekly.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import biweekly.ICalVersion;
+import biweekly.ICalendar;
+import biweekly.benchmark.FeedGenerator.Format;
+import biweekly.io.StreamWriter;
+import biweekly.io.json.JCalWriter;
+import biweekly.io.text.ICalWriter;
+import biweekly.io.xml.XCalWriter;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * Measures how long it takes {@link ICalWriter}, {@link JCalWriter}, and
+ * {@link XCalWriter} to serialize an iCalendar object. The output is
+ * discarded, so only the cost of the writer itself is measured.
+ * @author Michael Angstadt
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class WriterBenchmark {
+	@Param({ "10", "10000", "1000000" })
+	public int eventCount;
+
+	@Param({ "ICAL", "JCAL", "XCAL" })
+	public Format format;
+
+	private ICalendar ical;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		ical = FeedGenerator.generate(eventCount);
+	}
+
+	@Benchmark
+	public long write() throws IOException {
+		CountingOutputStream out = new CountingOutputStream();
+		StreamWriter writer = createWriter(out);
+		try {
+			writer.write(ical);
+		} finally {
+			writer.close();
+		}
+		return out.count;
+	}
+
+	private StreamWriter createWriter(OutputStream out) {
+		switch (format) {
+		case JCAL:
+			return new JCalWriter(out);
+		case XCAL:
+			return new XCalWriter(out);
+		default:
+			return new ICalWriter(out, ICalVersion.V2_0);
+		}
+	}
+
+	/**
+	 * Discards everything written to it, keeping track of the number of bytes.
+	 */
+	private static class CountingOutputStream extends OutputStream {
+		private long count;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+	}
+}
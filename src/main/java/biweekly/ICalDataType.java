@@ -3,6 +3,7 @@ package biweekly;
 import java.util.Collection;
 
 import biweekly.util.CaseClasses;
+import biweekly.util.StringUtils;
 
 /*
  Copyright (c) 2013-2024, Michael Angstadt
@@ -46,6 +47,16 @@ public class ICalDataType {
 		protected boolean matches(ICalDataType dataType, String value) {
 			return dataType.name.equalsIgnoreCase(value);
 		}
+
+		@Override
+		protected Object keyOfValue(String value) {
+			return (value == null) ? null : StringUtils.caseInsensitiveKey(value);
+		}
+
+		@Override
+		protected Object keyOfObject(ICalDataType dataType) {
+			return keyOfValue(dataType.name);
+		}
 	};
 
 	/**
@@ -14,9 +14,11 @@ import biweekly.Messages;
 import biweekly.ValidationWarnings.WarningsGroup;
 import biweekly.ValidationWarning;
 import biweekly.property.ICalProperty;
+import biweekly.property.PropertyPlaceholder;
 import biweekly.property.RawProperty;
 import biweekly.property.Status;
 import biweekly.util.ListMultimap;
+import biweekly.util.ModificationStamps;
 import biweekly.util.StringUtils;
 
 /*
@@ -52,6 +54,13 @@ public abstract class ICalComponent {
 	protected final ListMultimap<Class<? extends ICalComponent>, ICalComponent> components;
 	protected final ListMultimap<Class<? extends ICalProperty>, ICalProperty> properties;
 
+	/**
+	 * The number of property placeholders that have not been parsed yet (see
+	 * {@link PropertyPlaceholder}). Every method that adds or removes a
+	 * placeholder must update this count.
+	 */
+	private int lazyProperties = 0;
+
 	protected ICalComponent() {
 		components = new ListMultimap<Class<? extends ICalComponent>, ICalComponent>();
 		properties = new ListMultimap<Class<? extends ICalProperty>, ICalProperty>();
@@ -64,6 +73,7 @@ public abstract class ICalComponent {
 	 */
 	protected ICalComponent(ICalComponent original) {
 		this();
+		original.parseLazyProperties();
 		for (ICalProperty property : original.properties.values()) {
 			addProperty(property.copy());
 		}
@@ -72,6 +82,39 @@ public abstract class ICalComponent {
 		}
 	}
 
+	/**
+	 * <p>
+	 * Gets the stamp of the last time this component, or any of its
+	 * properties, parameters, or sub-components, was modified (see
+	 * {@link ModificationStamps}). This is used to determine whether a cached
+	 * copy of the component's serialized form is still valid.
+	 * </p>
+	 * <p>
+	 * Adding, removing, or replacing a property or sub-component counts as a
+	 * modification. See {@link ICalProperty#getModificationStamp} for which
+	 * changes to a property are detected.
+	 * </p>
+	 * @return the stamp or 0 if nothing in the component has been modified
+	 * since it was created
+	 */
+	public long getModificationStamp() {
+		long stamp = Math.max(properties.getModificationStamp(), components.getModificationStamp());
+
+		//don't use the public getters, because they parse lazy properties
+		for (List<ICalProperty> list : properties.getMap().values()) {
+			for (ICalProperty property : list) {
+				stamp = Math.max(stamp, property.getModificationStamp());
+			}
+		}
+		for (List<ICalComponent> list : components.getMap().values()) {
+			for (ICalComponent component : list) {
+				stamp = Math.max(stamp, component.getModificationStamp());
+			}
+		}
+
+		return stamp;
+	}
+
 	/**
 	 * Gets the first property of a given class.
 	 * @param clazz the property class
@@ -79,6 +122,7 @@ public abstract class ICalComponent {
 	 * @return the property or null if not found
 	 */
 	public <T extends ICalProperty> T getProperty(Class<T> clazz) {
+		parseLazyProperties(clazz);
 		return clazz.cast(properties.first(clazz));
 	}
 
@@ -90,6 +134,7 @@ public abstract class ICalComponent {
 	 * @return the properties
 	 */
 	public <T extends ICalProperty> List<T> getProperties(Class<T> clazz) {
+		parseLazyProperties(clazz);
 		return new ICalPropertyList<T>(clazz);
 	}
 
@@ -98,14 +143,32 @@ public abstract class ICalComponent {
 	 * @return the properties
 	 */
 	public ListMultimap<Class<? extends ICalProperty>, ICalProperty> getProperties() {
+		parseLazyProperties();
 		return properties;
 	}
 
+	/**
+	 * Gets all the properties associated with this component without parsing
+	 * the properties whose values have not been parsed yet. Unlike
+	 * {@link #getProperties()}, the returned list may contain
+	 * {@link PropertyPlaceholder} placeholders.
+	 * @return the properties (this list is immutable)
+	 */
+	public List<ICalProperty> getPropertiesUnparsed() {
+		return properties.values();
+	}
+
 	/**
 	 * Adds a property to this component.
 	 * @param property the property to add
 	 */
 	public void addProperty(ICalProperty property) {
+		if (property instanceof PropertyPlaceholder) {
+			properties.put(((PropertyPlaceholder) property).getPropertyClass(), property);
+			lazyProperties++;
+			return;
+		}
+
 		properties.put(property.getClass(), property);
 	}
 
@@ -116,6 +179,7 @@ public abstract class ICalComponent {
 	 * @return the replaced properties (this list is immutable)
 	 */
 	public List<ICalProperty> setProperty(ICalProperty property) {
+		parseLazyProperties(property.getClass());
 		return properties.replace(property.getClass(), property);
 	}
 
@@ -130,6 +194,7 @@ public abstract class ICalComponent {
 	 * @return the replaced properties (this list is immutable)
 	 */
 	public <T extends ICalProperty> List<T> setProperty(Class<T> clazz, T property) {
+		parseLazyProperties(clazz);
 		List<ICalProperty> replaced = properties.replace(clazz, property);
 		return castList(replaced, clazz);
 	}
@@ -141,6 +206,14 @@ public abstract class ICalComponent {
 	 * @return true if it was removed, false if it wasn't found
 	 */
 	public <T extends ICalProperty> boolean removeProperty(T property) {
+		if (property instanceof PropertyPlaceholder) {
+			boolean removed = properties.remove(((PropertyPlaceholder) property).getPropertyClass(), property);
+			if (removed) {
+				lazyProperties--;
+			}
+			return removed;
+		}
+
 		return properties.remove(property.getClass(), property);
 	}
 
@@ -152,6 +225,7 @@ public abstract class ICalComponent {
 	 * @return the removed properties (this list is immutable)
 	 */
 	public <T extends ICalProperty> List<T> removeProperties(Class<T> clazz) {
+		parseLazyProperties(clazz);
 		List<ICalProperty> removed = properties.removeAll(clazz);
 		return castList(removed, clazz);
 	}
@@ -470,6 +544,7 @@ public abstract class ICalComponent {
 		hierarchy.add(this);
 
 		//validate properties
+		parseLazyProperties();
 		for (ICalProperty property : properties.values()) {
 			List<ValidationWarning> propWarnings = property.validate(hierarchy, version);
 			if (!propWarnings.isEmpty()) {
@@ -601,6 +676,7 @@ public abstract class ICalComponent {
 		sb.append(StringUtils.NEWLINE);
 
 		depth++;
+		parseLazyProperties();
 		for (ICalProperty property : properties.values()) {
 			StringUtils.repeat(' ', depth * 2, sb);
 			sb.append(property).append(StringUtils.NEWLINE);
@@ -663,12 +739,77 @@ public abstract class ICalComponent {
 		return Collections.unmodifiableList(casted);
 	}
 
+	/**
+	 * Parses all of this component's property placeholders (see
+	 * {@link PropertyPlaceholder}).
+	 */
+	private void parseLazyProperties() {
+		if (lazyProperties == 0) {
+			return;
+		}
+
+		for (Class<? extends ICalProperty> clazz : new ArrayList<Class<? extends ICalProperty>>(properties.keySet())) {
+			parseLazyProperties(clazz);
+		}
+
+		/*
+		 * Every placeholder has been parsed now, so reset the count in case it
+		 * drifted (for example, if a subclass removed a placeholder from the
+		 * "properties" field directly).
+		 */
+		lazyProperties = 0;
+	}
+
+	/**
+	 * Replaces the property placeholders of the given class with the parsed
+	 * properties (see {@link PropertyPlaceholder}). The parsed properties take the
+	 * places of their placeholders, so the original property order is
+	 * preserved.
+	 * @param clazz the property class
+	 */
+	private void parseLazyProperties(Class<? extends ICalProperty> clazz) {
+		if (lazyProperties == 0) {
+			return;
+		}
+
+		List<ICalProperty> list = properties.getMap().get(clazz);
+		if (list == null) {
+			return;
+		}
+
+		for (int i = 0; i < list.size(); i++) {
+			ICalProperty property = list.get(i);
+			if (!(property instanceof PropertyPlaceholder)) {
+				continue;
+			}
+
+			list.remove(i);
+			lazyProperties--;
+
+			List<ICalProperty> parsed = ((PropertyPlaceholder) property).parse(this);
+			for (ICalProperty parsedProperty : parsed) {
+				if (parsedProperty.getClass() == clazz) {
+					list.add(i++, parsedProperty);
+				} else {
+					//for example, a property that could not be parsed is converted to a RawProperty
+					addProperty(parsedProperty);
+				}
+			}
+			i--;
+		}
+
+		if (list.isEmpty()) {
+			properties.getMap().remove(clazz);
+		}
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
 
 		int propertiesHash = 1;
+		parseLazyProperties();
 		for (ICalProperty property : properties.values()) {
 			propertiesHash += property.hashCode();
 		}
@@ -690,6 +831,8 @@ public abstract class ICalComponent {
 		if (getClass() != obj.getClass()) return false;
 		ICalComponent other = (ICalComponent) obj;
 
+		parseLazyProperties();
+		other.parseLazyProperties();
 		if (properties.size() != other.properties.size()) return false;
 		if (components.size() != other.components.size()) return false;
 
@@ -0,0 +1,48 @@
+package biweekly.io;
+
+import biweekly.ICalendar;
+import biweekly.component.ICalComponent;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * Receives components one at a time as they are parsed from a data stream.
+ * @author Michael Angstadt
+ * @see StreamReader#readNext(ComponentListener)
+ */
+public interface ComponentListener {
+	/**
+	 * Called when a sub-component of the VCALENDAR component (such as a VEVENT)
+	 * has been completely read. The component is not added to the
+	 * {@link ICalendar} object.
+	 * @param component the component
+	 * @param tzinfo the timezones of the component's date-time properties
+	 * @param ical the iCalendar object that is being read. It contains the
+	 * VCALENDAR properties that have been read so far (most iCalendar objects
+	 * list them before any components)
+	 */
+	void onComponent(ICalComponent component, TimezoneInfo tzinfo, ICalendar ical);
+}
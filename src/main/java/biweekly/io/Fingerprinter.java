@@ -0,0 +1,410 @@
+package biweekly.io;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import biweekly.ICalDataType;
+import biweekly.ICalVersion;
+import biweekly.ICalendar;
+import biweekly.Messages;
+import biweekly.component.ICalComponent;
+import biweekly.io.scribe.ScribeIndex;
+import biweekly.io.scribe.component.ICalComponentScribe;
+import biweekly.io.scribe.property.ICalPropertyScribe;
+import biweekly.parameter.ICalParameters;
+import biweekly.property.ICalProperty;
+import biweekly.util.Fingerprint;
+import biweekly.util.ModificationStamps;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * <p>
+ * Computes content fingerprints of components and properties. Two components
+ * that have the same fingerprint have the same content, so a fingerprint can
+ * be persisted and used later on to determine whether a component has changed
+ * without having to compare it field by field against a stored copy.
+ * </p>
+ * <p>
+ * A fingerprint is an MD5 hash of the component's canonical form, which is
+ * built from the way each property is serialized to iCalendar 2.0 text. It
+ * does not depend on the order of the component's properties, sub-components,
+ * parameters, or parameter values. Date-time values are hashed as UTC
+ * instants, so the timezone a date-time value is formatted in does not affect
+ * its fingerprint. Floating date-time values (values without a timezone) are
+ * hashed as local date-times instead, so that their fingerprints do not depend
+ * on the JVM's default timezone. Whether a value is floating is stored in the
+ * {@link TimezoneInfo} of the iCalendar object the value belongs to, which is
+ * why it must be passed in when fingerprinting anything other than an entire
+ * {@link ICalendar} object. The canonical form is versioned so that
+ * fingerprints remain comparable across JVMs and library versions.
+ * </p>
+ * <p>
+ * Component fingerprints are cached and are only recomputed after the
+ * component or its iCalendar object's timezone settings are modified (see
+ * {@link ICalComponent#getModificationStamp}).
+ * Components are held with weak references, so they are removed from the
+ * cache once they are garbage collected. This class is thread-safe.
+ * </p>
+ * <p>
+ * <b>Example:</b>
+ * </p>
+ *
+ * <pre class="brush:java">
+ * Fingerprinter fingerprinter = new Fingerprinter();
+ * for (VEvent event : ical.getEvents()) {
+ *   String uid = event.getUid().getValue();
+ *   Fingerprint fingerprint = fingerprinter.fingerprint(event, ical.getTimezoneInfo());
+ *   if (!fingerprint.equals(stored.get(uid))) {
+ *     //event is new or has changed
+ *   }
+ * }
+ * </pre>
+ * @author Michael Angstadt
+ */
+public class Fingerprinter {
+	/**
+	 * The version of the canonical form. This must be incremented whenever the
+	 * canonical form changes.
+	 */
+	private static final byte FORMAT_VERSION = 1;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final Comparator<byte[]> DIGEST_ORDER = new Comparator<byte[]>() {
+		public int compare(byte[] a, byte[] b) {
+			for (int i = 0; i < a.length && i < b.length; i++) {
+				int cmp = (a[i] & 0xff) - (b[i] & 0xff);
+				if (cmp != 0) {
+					return cmp;
+				}
+			}
+			return a.length - b.length;
+		}
+	};
+
+	private final ScribeIndex index;
+	private final WeakIdentityMap<ICalComponent, Entry> cache = new WeakIdentityMap<ICalComponent, Entry>();
+
+	/**
+	 * Creates a fingerprinter that uses the default scribes.
+	 */
+	public Fingerprinter() {
+		this(ScribeIndex.getDefault());
+	}
+
+	/**
+	 * Creates a fingerprinter.
+	 * @param index the scribes to use to serialize the properties
+	 */
+	public Fingerprinter(ScribeIndex index) {
+		this.index = index;
+	}
+
+	/**
+	 * Computes the fingerprint of a component, including its properties and
+	 * sub-components. If the component is an {@link ICalendar} object, its
+	 * timezone settings are used to determine which date-time values are
+	 * floating. Otherwise, all date-time values are treated as non-floating.
+	 * @param component the component
+	 * @return the fingerprint
+	 * @throws IllegalArgumentException if a scribe has not been registered for
+	 * the component or one of its properties or sub-components
+	 */
+	public Fingerprint fingerprint(ICalComponent component) {
+		TimezoneInfo tzinfo = (component instanceof ICalendar) ? ((ICalendar) component).getTimezoneInfo() : null;
+		return fingerprint(component, tzinfo);
+	}
+
+	/**
+	 * Computes the fingerprint of a component, including its properties and
+	 * sub-components.
+	 * @param component the component
+	 * @param tzinfo the timezone settings of the iCalendar object the component
+	 * belongs to, used to determine which date-time values are floating (see
+	 * {@link ICalendar#getTimezoneInfo}), or null to treat all date-time values
+	 * as non-floating
+	 * @return the fingerprint
+	 * @throws IllegalArgumentException if a scribe has not been registered for
+	 * the component or one of its properties or sub-components
+	 */
+	public Fingerprint fingerprint(ICalComponent component, TimezoneInfo tzinfo) {
+		return new Fingerprint(digest(component, newContext(tzinfo)));
+	}
+
+	/**
+	 * Computes the fingerprint of a property. All date-time values are treated
+	 * as non-floating.
+	 * @param property the property
+	 * @return the fingerprint or null if the property's scribe does not write
+	 * the property to iCalendar 2.0 text
+	 * @throws IllegalArgumentException if a scribe has not been registered for
+	 * the property
+	 */
+	public Fingerprint fingerprint(ICalProperty property) {
+		return fingerprint(property, null);
+	}
+
+	/**
+	 * Computes the fingerprint of a property.
+	 * @param property the property
+	 * @param tzinfo the timezone settings of the iCalendar object the property
+	 * belongs to, used to determine whether its date-time values are floating
+	 * (see {@link ICalendar#getTimezoneInfo}), or null to treat its date-time
+	 * values as non-floating
+	 * @return the fingerprint or null if the property's scribe does not write
+	 * the property to iCalendar 2.0 text
+	 * @throws IllegalArgumentException if a scribe has not been registered for
+	 * the property
+	 */
+	public Fingerprint fingerprint(ICalProperty property, TimezoneInfo tzinfo) {
+		List<byte[]> digests = new ArrayList<byte[]>(1);
+		digest(property, null, newContext(tzinfo), digests);
+		return digests.isEmpty() ? null : new Fingerprint(digests.get(0));
+	}
+
+	/**
+	 * Gets the number of components in the cache.
+	 * @return the number of components
+	 */
+	public synchronized int size() {
+		return cache.size();
+	}
+
+	/**
+	 * Removes all components from the cache.
+	 */
+	public synchronized void clear() {
+		cache.clear();
+	}
+
+	private static WriteContext newContext(TimezoneInfo tzinfo) {
+		return new WriteContext(ICalVersion.V2_0, new FloatingTimezoneInfo(tzinfo), null);
+	}
+
+	/**
+	 * Gets the digest of a component, using its cached digest if it has not
+	 * been modified.
+	 * @param component the component
+	 * @param context the write context
+	 * @return the digest
+	 */
+	private byte[] digest(ICalComponent component, WriteContext context) {
+		TimezoneInfo tzinfo = ((FloatingTimezoneInfo) context.getTimezoneInfo()).tzinfo;
+		long stamp = component.getModificationStamp();
+		if (tzinfo != null) {
+			stamp = Math.max(stamp, tzinfo.getModificationStamp());
+		}
+		synchronized (this) {
+			Entry entry = cache.get(component);
+			if (entry != null && entry.tzinfo == tzinfo && entry.stamp >= stamp) {
+				return entry.digest;
+			}
+		}
+
+		/*
+		 * Take the stamp before computing the digest so that modifications
+		 * made while the digest is being computed invalidate the entry.
+		 */
+		long cacheStamp = ModificationStamps.current();
+		byte[] digest = computeDigest(component, context);
+		synchronized (this) {
+			cache.put(component, new Entry(cacheStamp, tzinfo, digest));
+		}
+		return digest;
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private byte[] computeDigest(ICalComponent component, WriteContext context) {
+		ICalComponentScribe scribe = index.getComponentScribe(component);
+		if (scribe == null) {
+			throw Messages.INSTANCE.getIllegalArgumentException(13, component.getClass().getName());
+		}
+
+		List<byte[]> propertyDigests = new ArrayList<byte[]>();
+		List<byte[]> componentDigests = new ArrayList<byte[]>();
+		for (Object property : scribe.getProperties(component)) {
+			digest((ICalProperty) property, component, context, propertyDigests);
+		}
+		for (Object subComponent : scribe.getComponents(component)) {
+			componentDigests.add(digest((ICalComponent) subComponent, context));
+		}
+
+		Hasher hasher = new Hasher();
+		hasher.add('C').add(scribe.getComponentName());
+		hasher.addDigests(propertyDigests);
+		hasher.addDigests(componentDigests);
+		return hasher.digest();
+	}
+
+	/**
+	 * Computes the digest of a property.
+	 * @param property the property
+	 * @param parent the property's component
+	 * @param context the write context
+	 * @param digests the list to add the digest to (nothing is added if the
+	 * property's scribe skips the property)
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private void digest(ICalProperty property, ICalComponent parent, WriteContext context, List<byte[]> digests) {
+		ICalPropertyScribe scribe = index.getPropertyScribe(property);
+		if (scribe == null) {
+			throw Messages.INSTANCE.getIllegalArgumentException(13, property.getClass().getName());
+		}
+
+		context.setParent(parent);
+		String value;
+		try {
+			value = scribe.writeText(property, context);
+		} catch (SkipMeException e) {
+			return;
+		} catch (DataModelConversionException e) {
+			for (ICalProperty p : e.getProperties()) {
+				digest(p, parent, context, digests);
+			}
+			for (ICalComponent c : e.getComponents()) {
+				digests.add(digest(c, context));
+			}
+			return;
+		}
+
+		ICalParameters parameters = scribe.prepareParameters(property, context);
+		ICalDataType dataType = scribe.dataType(property, ICalVersion.V2_0);
+
+		Hasher hasher = new Hasher();
+		hasher.add('P').add(scribe.getPropertyName(ICalVersion.V2_0));
+
+		List<String> names = new ArrayList<String>(parameters.keySet());
+		Collections.sort(names);
+		hasher.add(names.size());
+		for (String name : names) {
+			List<String> values = new ArrayList<String>();
+			for (String v : parameters.get(name)) {
+				values.add((v == null) ? "" : v);
+			}
+			Collections.sort(values);
+			hasher.add(name).add(values.size());
+			for (String v : values) {
+				hasher.add(v);
+			}
+		}
+
+		hasher.add((dataType == null) ? "" : dataType.getName());
+		hasher.add(value);
+		digests.add(hasher.digest());
+	}
+
+	/**
+	 * A cached component digest.
+	 */
+	private static class Entry {
+		private final long stamp;
+		private final TimezoneInfo tzinfo;
+		private final byte[] digest;
+
+		public Entry(long stamp, TimezoneInfo tzinfo, byte[] digest) {
+			this.stamp = stamp;
+			this.tzinfo = tzinfo;
+			this.digest = digest;
+		}
+	}
+
+	/**
+	 * Timezone settings that write floating date-time values as local
+	 * date-times and all other date-time values in UTC. Which values are
+	 * floating is determined by the timezone settings of the iCalendar object
+	 * that is being fingerprinted.
+	 */
+	private static class FloatingTimezoneInfo extends TimezoneInfo {
+		private final TimezoneInfo tzinfo;
+
+		public FloatingTimezoneInfo(TimezoneInfo tzinfo) {
+			this.tzinfo = tzinfo;
+		}
+
+		@Override
+		public boolean isFloating(ICalProperty property) {
+			return tzinfo != null && tzinfo.isFloating(property);
+		}
+	}
+
+	/**
+	 * Feeds the canonical form of a component or property into an MD5 digest.
+	 * Strings are prefixed with their length so that adjacent values cannot
+	 * run together.
+	 */
+	private static class Hasher {
+		private final MessageDigest md5;
+
+		public Hasher() {
+			try {
+				md5 = MessageDigest.getInstance("MD5");
+			} catch (NoSuchAlgorithmException e) {
+				//should never be thrown because all JVMs must support MD5
+				throw new RuntimeException(e);
+			}
+			md5.update(FORMAT_VERSION);
+		}
+
+		public Hasher add(char c) {
+			md5.update((byte) c);
+			return this;
+		}
+
+		public Hasher add(int i) {
+			md5.update((byte) (i >>> 24));
+			md5.update((byte) (i >>> 16));
+			md5.update((byte) (i >>> 8));
+			md5.update((byte) i);
+			return this;
+		}
+
+		public Hasher add(String s) {
+			byte[] bytes = s.getBytes(UTF8);
+			add(bytes.length);
+			md5.update(bytes);
+			return this;
+		}
+
+		public Hasher addDigests(List<byte[]> digests) {
+			Collections.sort(digests, DIGEST_ORDER);
+			add(digests.size());
+			for (byte[] digest : digests) {
+				md5.update(digest);
+			}
+			return this;
+		}
+
+		public byte[] digest() {
+			return md5.digest();
+		}
+	}
+}
@@ -65,7 +65,8 @@ import biweekly.util.com.google.ical.values.DateValue;
 
 /**
  * A timezone that is based on an iCalendar {@link VTimezone} component. This
- * class is not thread safe.
+ * class is not thread safe. Use {@link PrecomputedICalTimeZone} if the timezone
+ * needs to be shared between threads.
  * @author Michael Angstadt
  */
 @SuppressWarnings("serial")
@@ -0,0 +1,247 @@
+package biweekly.io;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import biweekly.component.ICalComponent;
+import biweekly.parameter.ICalParameters;
+import biweekly.property.Attendee;
+import biweekly.property.Categories;
+import biweekly.property.EnumProperty;
+import biweekly.property.ICalProperty;
+import biweekly.property.ListProperty;
+import biweekly.property.Location;
+import biweekly.property.Organizer;
+import biweekly.property.ProductId;
+import biweekly.property.Resources;
+import biweekly.property.TextProperty;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * <p>
+ * Deduplicates the strings and parameter lists of parsed properties. Large
+ * iCalendar feeds tend to repeat the same values over and over again (for
+ * example, "PARTSTAT=ACCEPTED", "TZID=Europe/Berlin", and the email addresses
+ * of organizers), so sharing a single instance of each value can greatly
+ * reduce the amount of memory the parsed {@link biweekly.ICalendar} objects
+ * use.
+ * </p>
+ * <p>
+ * Parameter lists are shared using {@link ICalParameters#sharedCopy}, so a
+ * property's parameters are copied the first time they are modified.
+ * Property values are only deduplicated for properties whose values are
+ * likely to repeat (such as ORGANIZER, ATTENDEE, CATEGORIES, LOCATION, and
+ * STATUS).
+ * </p>
+ * <p>
+ * The pool is bounded. Once it is full, values that are not already in the
+ * pool are left alone. This class is thread-safe, so one pool can be shared
+ * by multiple readers.
+ * </p>
+ * <p>
+ * <b>Example:</b>
+ * </p>
+ * 
+ * <pre class="brush:java">
+ * InternPool pool = new InternPool();
+ * ICalReader reader = new ICalReader(...);
+ * reader.setInternPool(pool);
+ * </pre>
+ * @author Michael Angstadt
+ * @see StreamReader#setInternPool
+ */
+public class InternPool {
+	private final int maxSize;
+	private final ConcurrentMap<String, String> strings = new ConcurrentHashMap<String, String>();
+	private final ConcurrentMap<List<Object>, ICalParameters> parameters = new ConcurrentHashMap<List<Object>, ICalParameters>();
+
+	/**
+	 * Creates a pool that holds up to 10,000 strings and 10,000 parameter
+	 * lists.
+	 */
+	public InternPool() {
+		this(10000);
+	}
+
+	/**
+	 * Creates a pool.
+	 * @param maxSize the maximum number of strings and the maximum number of
+	 * parameter lists the pool can hold
+	 */
+	public InternPool(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Gets the pooled instance of a string.
+	 * @param string the string (may be null)
+	 * @return the pooled instance or the given string if the pool is full
+	 */
+	public String intern(String string) {
+		if (string == null) {
+			return null;
+		}
+
+		String pooled = strings.get(string);
+		if (pooled != null) {
+			return pooled;
+		}
+
+		if (strings.size() >= maxSize) {
+			return string;
+		}
+
+		pooled = strings.putIfAbsent(string, string);
+		return (pooled == null) ? string : pooled;
+	}
+
+	/**
+	 * Gets a copy of a parameter list that shares its data with an identical,
+	 * pooled parameter list.
+	 * @param parameters the parameter list
+	 * @return the shared copy or the given parameter list if the pool is full
+	 */
+	public ICalParameters intern(ICalParameters parameters) {
+		/*
+		 * Flatten the parameters into a list of immutable objects so the key
+		 * is not affected if the parameter list is modified later.
+		 */
+		List<Object> key = new ArrayList<Object>();
+		for (Map.Entry<String, List<String>> entry : parameters.getMap().entrySet()) {
+			List<String> values = entry.getValue();
+			key.add(entry.getKey());
+			key.add(values.size());
+			key.addAll(values);
+		}
+
+		ICalParameters pooled = this.parameters.get(key);
+		if (pooled == null) {
+			if (this.parameters.size() >= maxSize) {
+				return parameters;
+			}
+
+			ICalParameters copy = new ICalParameters();
+			for (Map.Entry<String, List<String>> entry : parameters.getMap().entrySet()) {
+				String name = intern(entry.getKey());
+				for (String value : entry.getValue()) {
+					copy.put(name, intern(value));
+				}
+			}
+
+			pooled = this.parameters.putIfAbsent(key, copy);
+			if (pooled == null) {
+				pooled = copy;
+			}
+		}
+
+		return pooled.sharedCopy();
+	}
+
+	/**
+	 * Deduplicates the parameters and values of a property.
+	 * @param property the property
+	 */
+	@SuppressWarnings("unchecked")
+	public void intern(ICalProperty property) {
+		property.setParameters(intern(property.getParameters()));
+
+		if (property instanceof EnumProperty || property instanceof Location || property instanceof ProductId) {
+			TextProperty textProperty = (TextProperty) property;
+			textProperty.setValue(intern(textProperty.getValue()));
+			return;
+		}
+
+		if (property instanceof Categories || property instanceof Resources) {
+			List<String> values = ((ListProperty<String>) property).getValues();
+			for (int i = 0; i < values.size(); i++) {
+				values.set(i, intern(values.get(i)));
+			}
+			return;
+		}
+
+		if (property instanceof Organizer) {
+			Organizer organizer = (Organizer) property;
+			organizer.setCommonName(intern(organizer.getCommonName()));
+			organizer.setEmail(intern(organizer.getEmail()));
+			organizer.setUri(intern(organizer.getUri()));
+			return;
+		}
+
+		if (property instanceof Attendee) {
+			Attendee attendee = (Attendee) property;
+			attendee.setCommonName(intern(attendee.getCommonName()));
+			attendee.setEmail(intern(attendee.getEmail()));
+			attendee.setUri(intern(attendee.getUri()));
+		}
+	}
+
+	/**
+	 * Deduplicates the parameters and values of all the properties in a
+	 * component and its sub-components. Properties whose values have not been
+	 * parsed yet are left alone (see {@link LazyProperty}). They are
+	 * deduplicated when they are parsed.
+	 * @param component the component
+	 */
+	public void intern(ICalComponent component) {
+		for (ICalProperty property : component.getPropertiesUnparsed()) {
+			if (property instanceof LazyProperty) {
+				continue;
+			}
+			intern(property);
+		}
+		for (ICalComponent subComponent : component.getComponents().values()) {
+			intern(subComponent);
+		}
+	}
+
+	/**
+	 * Gets the number of strings in the pool.
+	 * @return the number of strings
+	 */
+	public int getStringCount() {
+		return strings.size();
+	}
+
+	/**
+	 * Gets the number of parameter lists in the pool.
+	 * @return the number of parameter lists
+	 */
+	public int getParametersCount() {
+		return parameters.size();
+	}
+
+	/**
+	 * Removes all values from the pool.
+	 */
+	public void clear() {
+		strings.clear();
+		parameters.clear();
+	}
+}
@@ -0,0 +1,184 @@
+package biweekly.io;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import biweekly.ICalDataType;
+import biweekly.ICalVersion;
+import biweekly.ICalendar;
+import biweekly.component.ICalComponent;
+import biweekly.io.scribe.property.ICalPropertyScribe;
+import biweekly.io.scribe.property.RawPropertyScribe;
+import biweekly.parameter.ICalParameters;
+import biweekly.property.ICalProperty;
+import biweekly.property.PropertyPlaceholder;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * <p>
+ * A placeholder for a property whose value has not been parsed yet. It holds
+ * the property's raw value, parameters, and data type.
+ * </p>
+ * <p>
+ * Placeholders are created by readers that are configured to parse property
+ * values lazily (see {@link biweekly.io.text.ICalReader#setLazyParsing}).
+ * They are replaced with the real property objects by {@link ICalComponent}
+ * the first time the properties of their class are accessed, so users never
+ * come into contact with them.
+ * </p>
+ * @author Michael Angstadt
+ */
+public class LazyProperty extends ICalProperty implements PropertyPlaceholder {
+	private final ICalPropertyScribe<? extends ICalProperty> scribe;
+	private final String name;
+	private final String value;
+	private final ICalDataType dataType;
+	private final ICalVersion version;
+	private final Integer lineNumber;
+	private final ICalendar ical;
+	private final TimezoneAssigner timezoneAssigner;
+	private final InternPool internPool;
+
+	/**
+	 * @param scribe the property's scribe
+	 * @param name the property name, as it appears in the data stream
+	 * @param value the raw property value
+	 * @param dataType the property's data type
+	 * @param parameters the property's parameters
+	 * @param version the version of the iCalendar object
+	 * @param lineNumber the line number the property is on or null if unknown
+	 * @param ical the iCalendar object the property belongs to
+	 * @param timezoneAssigner assigns timezones to the property's date values
+	 * @param internPool the pool to deduplicate the parsed properties with or
+	 * null not to deduplicate them
+	 */
+	LazyProperty(ICalPropertyScribe<? extends ICalProperty> scribe, String name, String value, ICalDataType dataType, ICalParameters parameters, ICalVersion version, Integer lineNumber, ICalendar ical, TimezoneAssigner timezoneAssigner, InternPool internPool) {
+		this.scribe = scribe;
+		this.name = name;
+		this.value = value;
+		this.dataType = dataType;
+		this.version = version;
+		this.lineNumber = lineNumber;
+		this.ical = ical;
+		this.timezoneAssigner = timezoneAssigner;
+		this.internPool = internPool;
+		setParameters(parameters);
+	}
+
+	@Override
+	public Class<? extends ICalProperty> getPropertyClass() {
+		return scribe.getPropertyClass();
+	}
+
+	/**
+	 * Gets the property name.
+	 * @return the property name, as it appears in the data stream
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets the raw property value.
+	 * @return the raw value
+	 */
+	public String getValue() {
+		return value;
+	}
+
+	/**
+	 * Gets the property's data type.
+	 * @return the data type
+	 */
+	public ICalDataType getDataType() {
+		return dataType;
+	}
+
+	/**
+	 * <p>
+	 * Parses the property value using the property's scribe, assigns
+	 * timezones to its date values, and deduplicates it using the reader's
+	 * {@link InternPool} (if it has one). This is called by
+	 * {@link ICalComponent} and should only be called once.
+	 * </p>
+	 * <p>
+	 * Any parse warnings that are generated are discarded. Parsing is
+	 * synchronized on the iCalendar object that the property belongs to,
+	 * because assigning timezones modifies that object's
+	 * {@link biweekly.io.TimezoneInfo}.
+	 * </p>
+	 * @param parent the component the property belongs to (vCal properties
+	 * that get converted to components are added to this component)
+	 * @return the parsed properties (typically, this list contains one
+	 * element)
+	 */
+	public List<ICalProperty> parse(ICalComponent parent) {
+		synchronized (ical) {
+			return parseUnsynchronized(parent);
+		}
+	}
+
+	private List<ICalProperty> parseUnsynchronized(ICalComponent parent) {
+		ParseContext context = new ParseContext();
+		context.setVersion(version);
+		context.setLineNumber(lineNumber);
+		context.setPropertyName(name);
+
+		List<ICalProperty> properties;
+		List<ICalComponent> components = Collections.emptyList();
+		try {
+			ICalProperty property = scribe.parseText(value, dataType, parameters, context);
+			properties = Collections.singletonList(property);
+		} catch (SkipMeException e) {
+			properties = Collections.emptyList();
+		} catch (CannotParseException e) {
+			ICalProperty property = new RawPropertyScribe(name).parseText(value, dataType, parameters, context);
+			properties = Collections.singletonList(property);
+		} catch (DataModelConversionException e) {
+			properties = e.getProperties();
+			components = e.getComponents();
+			for (ICalComponent component : components) {
+				parent.addComponent(component);
+			}
+		}
+
+		timezoneAssigner.assign(context, ical, ical.getTimezoneInfo(), new ArrayList<ParseWarning>());
+
+		//the TZID parameter is gone now, so the parameters can be shared
+		if (internPool != null) {
+			for (ICalProperty property : properties) {
+				internPool.intern(property);
+			}
+			for (ICalComponent component : components) {
+				internPool.intern(component);
+			}
+		}
+
+		return properties;
+	}
+}
@@ -28,17 +28,27 @@ import biweekly.Messages;
  */
 
 /**
+ * <p>
  * Represents a warning that occurred during the parsing of an iCalendar object.
+ * </p>
+ * <p>
+ * Warnings that are created from a message code store the code and its
+ * arguments. The message text is not looked up and formatted until
+ * {@link #getMessage} or {@link #toString} is called.
+ * </p>
  * @author Michael Angstadt
  */
 public class ParseWarning {
 	private final Integer code, lineNumber;
-	private final String propertyName, message;
+	private final String propertyName;
+	private final Object[] args;
+	private String message;
 
-	private ParseWarning(Integer lineNumber, String propertyName, Integer code, String message) {
+	private ParseWarning(Integer lineNumber, String propertyName, Integer code, Object[] args, String message) {
 		this.lineNumber = lineNumber;
 		this.propertyName = propertyName;
 		this.code = code;
+		this.args = args;
 		this.message = message;
 	}
 
@@ -63,6 +73,9 @@ public class ParseWarning {
 	 * @return the warning message
 	 */
 	public String getMessage() {
+		if (message == null && code != null) {
+			message = Messages.INSTANCE.getParseMessage(code, args);
+		}
 		return message;
 	}
 
@@ -76,7 +89,7 @@ public class ParseWarning {
 
 	@Override
 	public String toString() {
-		String message = this.message;
+		String message = getMessage();
 		if (code != null) {
 			message = "(" + code + ") " + message;
 		}
@@ -104,6 +117,7 @@ public class ParseWarning {
 	public static class Builder {
 		private Integer lineNumber, code;
 		private String propertyName, message;
+		private Object[] args;
 
 		/**
 		 * Creates an empty builder.
@@ -121,6 +135,18 @@ public class ParseWarning {
 			propertyName(context.getPropertyName());
 		}
 
+		/**
+		 * Initializes the builder with the data from an existing warning.
+		 * @param original the warning to copy
+		 */
+		public Builder(ParseWarning original) {
+			lineNumber = original.lineNumber;
+			code = original.code;
+			propertyName = original.propertyName;
+			args = original.args;
+			message = original.message;
+		}
+
 		/**
 		 * Sets the name of the property that the warning occurred on.
 		 * @param propertyName the property name (e.g. "DTSTART") or null if not
@@ -143,14 +169,16 @@ public class ParseWarning {
 		}
 
 		/**
-		 * Sets the warning message.
+		 * Sets the warning message. The message is not formatted until it is
+		 * needed.
 		 * @param code the message code
 		 * @param args the message arguments
 		 * @return this
 		 */
 		public Builder message(int code, Object... args) {
 			this.code = code;
-			message = Messages.INSTANCE.getParseMessage(code, args);
+			this.args = args;
+			message = null;
 			return this;
 		}
 
@@ -161,6 +189,7 @@ public class ParseWarning {
 		 */
 		public Builder message(String message) {
 			code = null;
+			args = null;
 			this.message = message;
 			return this;
 		}
@@ -180,7 +209,7 @@ public class ParseWarning {
 		 * @return the {@link ParseWarning} object
 		 */
 		public ParseWarning build() {
-			return new ParseWarning(lineNumber, propertyName, code, message);
+			return new ParseWarning(lineNumber, propertyName, code, args, message);
 		}
 	}
 }
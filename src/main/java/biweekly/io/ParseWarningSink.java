@@ -0,0 +1,193 @@
+package biweekly.io;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import biweekly.Messages;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * <p>
+ * Receives the warnings that a {@link StreamReader} generates. The sink
+ * decides which warnings are kept. It is cleared before each iCalendar object
+ * is read.
+ * </p>
+ * <p>
+ * The default sink, {@link #collect}, keeps every warning. Readers that parse
+ * large or messy feeds in production may want to use a sink that keeps fewer
+ * warnings, so that the warning lists do not grow without bounds.
+ * </p>
+ * <p>
+ * <b>Example:</b>
+ * </p>
+ *
+ * <pre class="brush:java">
+ * ICalReader reader = new ICalReader(...);
+ * reader.setWarningSink(ParseWarningSink.firstN(10));
+ * ICalendar ical;
+ * while ((ical = reader.readNext()) != null) {
+ *   int total = reader.getWarningSink().getCount();
+ *   List&lt;ParseWarning&gt; first10 = reader.getWarnings();
+ * }
+ * </pre>
+ * @author Michael Angstadt
+ * @see StreamReader#setWarningSink
+ */
+public abstract class ParseWarningSink {
+	/**
+	 * Creates a sink that keeps all warnings.
+	 * @return the sink
+	 */
+	public static ParseWarningSink collect() {
+		return new Collecting(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Creates a sink that keeps the first N warnings of each iCalendar object
+	 * and counts the rest.
+	 * @param max the maximum number of warnings to keep
+	 * @return the sink
+	 */
+	public static ParseWarningSink firstN(int max) {
+		if (max < 0) {
+			throw Messages.INSTANCE.getIllegalArgumentException(39);
+		}
+		return new Collecting(max);
+	}
+
+	/**
+	 * Creates a sink that does not keep any warnings, but counts them.
+	 * @return the sink
+	 */
+	public static ParseWarningSink countOnly() {
+		return new Collecting(0);
+	}
+
+	/**
+	 * Creates a sink that ignores all warnings.
+	 * @return the sink
+	 */
+	public static ParseWarningSink drop() {
+		return new Dropping();
+	}
+
+	/**
+	 * Called when a warning is generated.
+	 * @param warning the warning
+	 */
+	public abstract void add(ParseWarning warning);
+
+	/**
+	 * Gets the warnings that were kept.
+	 * @return the warnings (this list should not be modified)
+	 */
+	public abstract List<ParseWarning> getWarnings();
+
+	/**
+	 * Gets the total number of warnings that were generated, including the
+	 * ones that were not kept.
+	 * @return the number of warnings
+	 */
+	public abstract int getCount();
+
+	/**
+	 * Discards all warnings and resets the count. Called before each iCalendar
+	 * object is read.
+	 */
+	public abstract void clear();
+
+	/**
+	 * Determines whether this sink ignores every warning it is given, in which
+	 * case readers do not have to pass warnings to it at all.
+	 * @return true if all warnings are ignored, false if not
+	 */
+	public boolean ignoresAll() {
+		return false;
+	}
+
+	private static class Collecting extends ParseWarningSink {
+		private final int max;
+		private final List<ParseWarning> warnings = new ArrayList<ParseWarning>();
+		private int count;
+
+		public Collecting(int max) {
+			this.max = max;
+		}
+
+		@Override
+		public void add(ParseWarning warning) {
+			count++;
+			if (warnings.size() < max) {
+				warnings.add(warning);
+			}
+		}
+
+		@Override
+		public List<ParseWarning> getWarnings() {
+			return warnings;
+		}
+
+		@Override
+		public int getCount() {
+			return count;
+		}
+
+		@Override
+		public void clear() {
+			warnings.clear();
+			count = 0;
+		}
+	}
+
+	private static class Dropping extends ParseWarningSink {
+		@Override
+		public void add(ParseWarning warning) {
+			//empty
+		}
+
+		@Override
+		public List<ParseWarning> getWarnings() {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public int getCount() {
+			return 0;
+		}
+
+		@Override
+		public void clear() {
+			//empty
+		}
+
+		@Override
+		public boolean ignoresAll() {
+			return true;
+		}
+	}
+}
@@ -0,0 +1,546 @@
+package biweekly.io;
+
+import static biweekly.property.ValuedProperty.getValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import biweekly.Messages;
+import biweekly.component.DaylightSavingsTime;
+import biweekly.component.Observance;
+import biweekly.component.StandardTime;
+import biweekly.component.VTimezone;
+import biweekly.io.ICalTimeZone.Boundary;
+import biweekly.property.TimezoneName;
+import biweekly.property.UtcOffsetProperty;
+import biweekly.util.UtcOffset;
+import biweekly.util.com.google.ical.iter.RecurrenceIterator;
+import biweekly.util.com.google.ical.util.DTBuilder;
+import biweekly.util.com.google.ical.util.TimeUtils;
+import biweekly.util.com.google.ical.values.DateTimeValue;
+import biweekly.util.com.google.ical.values.DateValue;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * <p>
+ * A timezone that is based on an iCalendar {@link VTimezone} component, whose
+ * observance dates are computed up front. This class is thread safe, so a
+ * single instance can be shared by multiple threads.
+ * </p>
+ * <p>
+ * When the object is created, the RRULE, RDATE, EXRULE, and EXDATE properties
+ * of each observance are expanded into a sorted table of transition dates that
+ * fall within a given range of years. The offset of a particular date is then
+ * found with a binary search. The most recent transition that comes before the
+ * start of the year range is also kept, so dates that come before the range
+ * are handled correctly as long as no other transitions happen between that
+ * transition and the start of the range. Dates that come after the end of the
+ * range are treated as if they are in the last observance of the range.
+ * </p>
+ * <p>
+ * Unlike {@link ICalTimeZone}, the table stores the UTC instant of each
+ * transition (calculated by subtracting the observance's TZOFFSETFROM value
+ * from its start date). This means that the timezone observance of a
+ * {@link Date} object is determined by comparing it against the moment in time
+ * the observance started.
+ * </p>
+ * <p>
+ * Changes that are made to the {@link VTimezone} component after this object
+ * is created are not reflected in this object.
+ * </p>
+ * <p>
+ * <b>Example:</b>
+ * </p>
+ *
+ * <pre class="brush:java">
+ * VTimezone component = ...
+ * TimeZone tz = new PrecomputedICalTimeZone(component, 1970, 2050);
+ * </pre>
+ * @author Michael Angstadt
+ */
+@SuppressWarnings("serial")
+public class PrecomputedICalTimeZone extends TimeZone {
+	/**
+	 * The first year of the default transition table range.
+	 */
+	public static final int DEFAULT_START_YEAR = 1800;
+
+	/**
+	 * The last year of the default transition table range.
+	 */
+	public static final int DEFAULT_END_YEAR = 2100;
+
+	private static final long UNIX_EPOCH_SECS = TimeUtils.fixedFromGregorian(1970, 1, 1) * 60L * 60 * 24;
+
+	private final VTimezone component;
+	private final int startYear, endYear;
+	private final List<Observance> sortedObservances;
+
+	/*
+	 * The transition table, sorted by local start time. The elements at each
+	 * index of these arrays describe the same transition.
+	 */
+	private final long[] localStarts;
+	private final int[] offsets;
+	private final Observance[] observances;
+	private final DateTimeValue[] starts;
+
+	/*
+	 * The UTC start times of the transitions, sorted by UTC start time. If
+	 * this order differs from the order of the transition table, then
+	 * "utcOrder" holds the index of the transition that each element belongs
+	 * to. Otherwise, it is null.
+	 */
+	private final long[] utcStarts;
+	private final int[] utcOrder;
+
+	private final int initialOffset;
+	private final int rawOffset;
+	private final boolean useDaylightTime;
+
+	/**
+	 * Creates a new timezone based on an iCalendar VTIMEZONE component. The
+	 * transition table will contain the transitions that occur between the
+	 * years {@value #DEFAULT_START_YEAR} and {@value #DEFAULT_END_YEAR}.
+	 * @param component the VTIMEZONE component to wrap
+	 */
+	public PrecomputedICalTimeZone(VTimezone component) {
+		this(component, DEFAULT_START_YEAR, DEFAULT_END_YEAR);
+	}
+
+	/**
+	 * Creates a new timezone based on an iCalendar VTIMEZONE component.
+	 * @param component the VTIMEZONE component to wrap
+	 * @param startYear the first year of the transition table (inclusive)
+	 * @param endYear the last year of the transition table (inclusive)
+	 * @throws IllegalArgumentException if the start year comes after the end
+	 * year
+	 */
+	public PrecomputedICalTimeZone(VTimezone component, int startYear, int endYear) {
+		if (startYear > endYear) {
+			throw Messages.INSTANCE.getIllegalArgumentException(27, startYear, endYear);
+		}
+
+		this.component = component;
+		this.startYear = startYear;
+		this.endYear = endYear;
+
+		/*
+		 * ICalTimeZone is only used here to sort the observances and to create
+		 * their iterators. Neither of these operations touch its cache.
+		 */
+		ICalTimeZone icalTimeZone = new ICalTimeZone(component);
+		sortedObservances = icalTimeZone.sortedObservances;
+
+		List<Transition> transitions = calculateTransitions(icalTimeZone);
+		int size = transitions.size();
+		final long[] transitionUtcStarts = new long[size];
+		localStarts = new long[size];
+		offsets = new int[size];
+		observances = new Observance[size];
+		starts = new DateTimeValue[size];
+		for (int i = 0; i < size; i++) {
+			Transition transition = transitions.get(i);
+			transitionUtcStarts[i] = transition.utcStart;
+			localStarts[i] = transition.localStart;
+			offsets[i] = transition.offset;
+			observances[i] = transition.observance;
+			starts[i] = transition.start;
+		}
+
+		/*
+		 * The UTC start times are usually in the same order as the local
+		 * start times. They are not when two transitions are closer together
+		 * than the difference between their offsets, so the UTC lookups need
+		 * their own table in that case.
+		 */
+		if (isSorted(transitionUtcStarts)) {
+			utcStarts = transitionUtcStarts;
+			utcOrder = null;
+		} else {
+			Integer[] order = new Integer[size];
+			for (int i = 0; i < size; i++) {
+				order[i] = i;
+			}
+
+			//stable sort, so transitions that start at the same time keep their order
+			Arrays.sort(order, new Comparator<Integer>() {
+				public int compare(Integer left, Integer right) {
+					long l = transitionUtcStarts[left];
+					long r = transitionUtcStarts[right];
+					return (l < r) ? -1 : ((l == r) ? 0 : 1);
+				}
+			});
+
+			utcStarts = new long[size];
+			utcOrder = new int[size];
+			for (int i = 0; i < size; i++) {
+				utcOrder[i] = order[i];
+				utcStarts[i] = transitionUtcStarts[order[i]];
+			}
+		}
+
+		initialOffset = calculateInitialOffset();
+		useDaylightTime = calculateUseDaylightTime();
+		rawOffset = calculateRawOffset();
+
+		String id = getValue(component.getTimezoneId());
+		if (id != null) {
+			setID(id);
+		}
+	}
+
+	/**
+	 * Expands the start dates of each observance into a sorted list of
+	 * transitions.
+	 * @param icalTimeZone the timezone to use to create the observance
+	 * iterators
+	 * @return the transitions
+	 */
+	private List<Transition> calculateTransitions(ICalTimeZone icalTimeZone) {
+		List<Transition> transitions = new ArrayList<Transition>();
+		for (Observance observance : sortedObservances) {
+			int offsetFrom = offsetMillis(observance.getTimezoneOffsetFrom());
+			int offsetTo = offsetMillis(observance.getTimezoneOffsetTo());
+
+			DateValue lastBeforeRange = null;
+			RecurrenceIterator it = icalTimeZone.createIterator(observance);
+			while (it.hasNext()) {
+				DateValue value = it.next();
+				if (value.year() < startYear) {
+					lastBeforeRange = value;
+					continue;
+				}
+				if (value.year() > endYear) {
+					break;
+				}
+
+				transitions.add(new Transition(value, observance, offsetFrom, offsetTo));
+			}
+
+			if (lastBeforeRange != null) {
+				transitions.add(new Transition(lastBeforeRange, observance, offsetFrom, offsetTo));
+			}
+		}
+
+		/*
+		 * Sort by local start time to match the way ICalTimeZone orders the
+		 * observance dates. This is a stable sort, so transitions that start
+		 * at the same time remain in the order of the sorted observances.
+		 */
+		Collections.sort(transitions, new Comparator<Transition>() {
+			public int compare(Transition left, Transition right) {
+				return (left.localStart < right.localStart) ? -1 : ((left.localStart == right.localStart) ? 0 : 1);
+			}
+		});
+
+		return transitions;
+	}
+
+	/**
+	 * Determines the offset to use for dates that come before the first
+	 * transition.
+	 * @return the offset
+	 */
+	private int calculateInitialOffset() {
+		/*
+		 * Find the first observance that has a DTSTART property and a
+		 * TZOFFSETFROM property.
+		 */
+		for (Observance observance : sortedObservances) {
+			if (getValue(observance.getDateStart()) == null) {
+				continue;
+			}
+
+			UtcOffset offsetFrom = getValue(observance.getTimezoneOffsetFrom());
+			if (offsetFrom == null) {
+				continue;
+			}
+
+			return (int) offsetFrom.getMillis();
+		}
+		return 0;
+	}
+
+	private boolean calculateUseDaylightTime() {
+		for (Observance observance : sortedObservances) {
+			if (observance instanceof DaylightSavingsTime) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private int calculateRawOffset() {
+		int index = utcIndexOf(System.currentTimeMillis());
+		if (index < 0) {
+			//return the offset of the first STANDARD component
+			for (Observance observance : sortedObservances) {
+				if (!(observance instanceof StandardTime)) {
+					continue;
+				}
+
+				UtcOffset offsetTo = getValue(observance.getTimezoneOffsetTo());
+				if (offsetTo == null) {
+					continue;
+				}
+
+				return (int) offsetTo.getMillis();
+			}
+			return 0;
+		}
+
+		Observance observance = observances[index];
+		UtcOffset offset = getValue((observance instanceof StandardTime) ? observance.getTimezoneOffsetTo() : observance.getTimezoneOffsetFrom());
+		return (offset == null) ? 0 : (int) offset.getMillis();
+	}
+
+	@Override
+	public String getDisplayName(boolean daylight, int style, Locale locale) {
+		ListIterator<Observance> it = sortedObservances.listIterator(sortedObservances.size());
+		while (it.hasPrevious()) {
+			Observance observance = it.previous();
+
+			if ((daylight && observance instanceof DaylightSavingsTime) || (!daylight && observance instanceof StandardTime)) {
+				List<TimezoneName> names = observance.getTimezoneNames();
+				if (!names.isEmpty()) {
+					String name = names.get(0).getValue();
+					if (name != null) {
+						return name;
+					}
+				}
+			}
+		}
+
+		return super.getDisplayName(daylight, style, locale);
+	}
+
+	/**
+	 * Gets the offset of a date, where the date's components are in the
+	 * timezone's local time.
+	 */
+	@Override
+	public int getOffset(int era, int year, int month, int day, int dayOfWeek, int millis) {
+		long local = (TimeUtils.fixedFromGregorian(year, month + 1, day) * 60L * 60 * 24 - UNIX_EPOCH_SECS) * 1000 + millis;
+		int index = indexOf(localStarts, local);
+		return (index < 0) ? initialOffset : offsets[index];
+	}
+
+	@Override
+	public int getOffset(long date) {
+		int index = utcIndexOf(date);
+		return (index < 0) ? initialOffset : offsets[index];
+	}
+
+	@Override
+	public int getRawOffset() {
+		return rawOffset;
+	}
+
+	/**
+	 * This method is not supported by this class.
+	 * @throws UnsupportedOperationException thrown when this method is called
+	 */
+	@Override
+	public void setRawOffset(int offset) {
+		throw new UnsupportedOperationException(Messages.INSTANCE.getExceptionMessage(12));
+	}
+
+	@Override
+	public boolean useDaylightTime() {
+		return useDaylightTime;
+	}
+
+	@Override
+	public boolean inDaylightTime(Date date) {
+		if (!useDaylightTime) {
+			return false;
+		}
+
+		int index = utcIndexOf(date.getTime());
+		return (index < 0) ? false : (observances[index] instanceof DaylightSavingsTime);
+	}
+
+	/**
+	 * Gets the timezone information of a date.
+	 * @param date the date
+	 * @return the timezone information or null if the VTIMEZONE component
+	 * doesn't have any observances
+	 */
+	public Boundary getObservanceBoundary(Date date) {
+		if (sortedObservances.isEmpty()) {
+			return null;
+		}
+
+		int position = indexOf(utcStarts, date.getTime());
+		int index = (position < 0) ? -1 : transitionAt(position);
+		int afterIndex = (position + 1 < utcStarts.length) ? transitionAt(position + 1) : -1;
+
+		DateTimeValue observanceInStart = (index < 0) ? null : starts[index];
+		Observance observanceIn = (index < 0) ? null : observances[index];
+		DateTimeValue observanceAfterStart = (afterIndex < 0) ? null : starts[afterIndex];
+		Observance observanceAfter = (afterIndex < 0) ? null : observances[afterIndex];
+		return new Boundary(observanceInStart, observanceIn, observanceAfterStart, observanceAfter);
+	}
+
+	/**
+	 * Gets the observance that a date is effected by.
+	 * @param date the date
+	 * @return the observance or null if an observance cannot be found
+	 */
+	public Observance getObservance(Date date) {
+		int index = utcIndexOf(date.getTime());
+		return (index < 0) ? null : observances[index];
+	}
+
+	/**
+	 * Gets the VTIMEZONE component that this timezone was created from.
+	 * @return the VTIMEZONE component
+	 */
+	public VTimezone getComponent() {
+		return component;
+	}
+
+	/**
+	 * Gets the first year of the transition table.
+	 * @return the year (inclusive)
+	 */
+	public int getStartYear() {
+		return startYear;
+	}
+
+	/**
+	 * Gets the last year of the transition table.
+	 * @return the year (inclusive)
+	 */
+	public int getEndYear() {
+		return endYear;
+	}
+
+	/**
+	 * Gets the number of transitions in the transition table.
+	 * @return the number of transitions
+	 */
+	public int getTransitionCount() {
+		return utcStarts.length;
+	}
+
+	/**
+	 * Finds the transition that a UTC date belongs to.
+	 * @param date the date
+	 * @return the index of the transition in the transition table or -1 if
+	 * the date comes before the first transition
+	 */
+	private int utcIndexOf(long date) {
+		int position = indexOf(utcStarts, date);
+		return (position < 0) ? -1 : transitionAt(position);
+	}
+
+	/**
+	 * Converts a position in the UTC start time table to an index in the
+	 * transition table.
+	 * @param position the position in the UTC start time table
+	 * @return the index in the transition table
+	 */
+	private int transitionAt(int position) {
+		return (utcOrder == null) ? position : utcOrder[position];
+	}
+
+	private static boolean isSorted(long[] table) {
+		for (int i = 1; i < table.length; i++) {
+			if (table[i - 1] > table[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Finds the transition that a date belongs to.
+	 * @param table the table to search
+	 * @param date the date
+	 * @return the index of the last transition that starts on or before the
+	 * given date, or -1 if the date comes before the first transition. If
+	 * multiple transitions start at the same time, the first one is returned.
+	 */
+	private static int indexOf(long[] table, long date) {
+		int low = 0;
+		int high = table.length - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (table[mid] <= date) {
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+
+		int index = high;
+		while (index > 0 && table[index - 1] == table[index]) {
+			index--;
+		}
+		return index;
+	}
+
+	private static int offsetMillis(UtcOffsetProperty property) {
+		UtcOffset offset = getValue(property);
+		return (offset == null) ? 0 : (int) offset.getMillis();
+	}
+
+	private static long toMillis(DateValue value) {
+		return (TimeUtils.secsSinceEpoch(value) - UNIX_EPOCH_SECS) * 1000;
+	}
+
+	/**
+	 * Represents a single row in the transition table.
+	 */
+	private static class Transition {
+		private final long localStart, utcStart;
+		private final int offset;
+		private final Observance observance;
+		private final DateTimeValue start;
+
+		public Transition(DateValue start, Observance observance, int offsetFrom, int offsetTo) {
+			/*
+			 * If the DTSTART property is missing its time component, then
+			 * the observance starts at midnight (see Issue 77).
+			 */
+			this.start = (start instanceof DateTimeValue) ? (DateTimeValue) start : new DTBuilder(start).toDateTime();
+			this.observance = observance;
+			this.offset = offsetTo;
+			localStart = toMillis(start);
+			utcStart = localStart - offsetFrom;
+		}
+	}
+}
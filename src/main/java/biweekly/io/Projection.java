@@ -0,0 +1,231 @@
+package biweekly.io;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * <p>
+ * Defines which components and properties a {@link StreamReader} should
+ * parse. Everything else is skipped as it is read off the data stream, which
+ * means that it never has to be unmarshalled by a scribe. For plain-text
+ * data, the values of skipped properties are not even decoded into strings.
+ * </p>
+ * <p>
+ * Component and property names are case-insensitive. The following are
+ * always parsed, so that the iCalendar objects that are returned are still
+ * usable:
+ * </p>
+ * <ul>
+ * <li>VCALENDAR components and VERSION properties</li>
+ * <li>VTIMEZONE components, along with all of their properties and
+ * sub-components (unless VTIMEZONE is explicitly excluded)</li>
+ * </ul>
+ * <p>
+ * If a component is skipped, so are all of its sub-components.
+ * </p>
+ * <p>
+ * <b>Example:</b>
+ * </p>
+ *
+ * <pre class="brush:java">
+ * Projection projection = new Projection.Builder()
+ *   .includeComponents("VEVENT")
+ *   .includeProperties("UID", "DTSTART", "DTEND", "RRULE", "EXDATE", "RECURRENCE-ID", "SEQUENCE")
+ * .build();
+ *
+ * ICalReader reader = new ICalReader(...);
+ * reader.setProjection(projection);
+ * </pre>
+ * @author Michael Angstadt
+ * @see StreamReader#setProjection
+ */
+public class Projection {
+	private static final String VCALENDAR = "VCALENDAR";
+	private static final String VTIMEZONE = "VTIMEZONE";
+	private static final String VERSION = "VERSION";
+
+	private final Set<String> includedComponents, excludedComponents;
+	private final Set<String> includedProperties, excludedProperties;
+
+	private Projection(Builder builder) {
+		includedComponents = Collections.unmodifiableSet(new HashSet<String>(builder.includedComponents));
+		excludedComponents = Collections.unmodifiableSet(new HashSet<String>(builder.excludedComponents));
+		includedProperties = Collections.unmodifiableSet(new HashSet<String>(builder.includedProperties));
+		excludedProperties = Collections.unmodifiableSet(new HashSet<String>(builder.excludedProperties));
+	}
+
+	/**
+	 * Determines if a component should be parsed. This method assumes that
+	 * the component's parent is being parsed.
+	 * @param name the component name (e.g. "VEVENT")
+	 * @param parentName the name of the parent component or null if it
+	 * doesn't have a parent
+	 * @return true to parse the component, false to skip it
+	 */
+	public boolean includesComponent(String name, String parentName) {
+		name = name.toUpperCase();
+		if (excludedComponents.contains(name)) {
+			return false;
+		}
+
+		if (VCALENDAR.equals(name) || VTIMEZONE.equals(name) || (parentName != null && VTIMEZONE.equalsIgnoreCase(parentName))) {
+			return true;
+		}
+
+		return includedComponents.isEmpty() || includedComponents.contains(name);
+	}
+
+	/**
+	 * Determines if a property should be parsed. This method assumes that
+	 * the component that the property belongs to is being parsed.
+	 * @param name the property name (e.g. "DTSTART")
+	 * @param componentName the name of the component the property belongs to
+	 * or null if it doesn't belong to one
+	 * @return true to parse the property, false to skip it
+	 */
+	public boolean includesProperty(String name, String componentName) {
+		name = name.toUpperCase();
+		if (VERSION.equals(name) || (componentName != null && isTimezoneComponent(componentName))) {
+			return true;
+		}
+
+		if (excludedProperties.contains(name)) {
+			return false;
+		}
+
+		return includedProperties.isEmpty() || includedProperties.contains(name);
+	}
+
+	private boolean isTimezoneComponent(String name) {
+		return VTIMEZONE.equalsIgnoreCase(name) || "STANDARD".equalsIgnoreCase(name) || "DAYLIGHT".equalsIgnoreCase(name);
+	}
+
+	/**
+	 * Gets the names of the components that are parsed.
+	 * @return the component names (uppercase) or empty set to parse all
+	 * components that are not excluded
+	 */
+	public Set<String> getIncludedComponents() {
+		return includedComponents;
+	}
+
+	/**
+	 * Gets the names of the components that are skipped.
+	 * @return the component names (uppercase)
+	 */
+	public Set<String> getExcludedComponents() {
+		return excludedComponents;
+	}
+
+	/**
+	 * Gets the names of the properties that are parsed.
+	 * @return the property names (uppercase) or empty set to parse all
+	 * properties that are not excluded
+	 */
+	public Set<String> getIncludedProperties() {
+		return includedProperties;
+	}
+
+	/**
+	 * Gets the names of the properties that are skipped.
+	 * @return the property names (uppercase)
+	 */
+	public Set<String> getExcludedProperties() {
+		return excludedProperties;
+	}
+
+	/**
+	 * Constructs {@link Projection} objects.
+	 * @author Michael Angstadt
+	 */
+	public static class Builder {
+		private final Set<String> includedComponents = new HashSet<String>();
+		private final Set<String> excludedComponents = new HashSet<String>();
+		private final Set<String> includedProperties = new HashSet<String>();
+		private final Set<String> excludedProperties = new HashSet<String>();
+
+		/**
+		 * Only parses the given components (and the components that are
+		 * always parsed). Can be called multiple times.
+		 * @param names the component names (e.g. "VEVENT")
+		 * @return this
+		 */
+		public Builder includeComponents(String... names) {
+			addAll(includedComponents, names);
+			return this;
+		}
+
+		/**
+		 * Skips the given components. Exclusions take precedence over
+		 * inclusions. Can be called multiple times.
+		 * @param names the component names (e.g. "VALARM")
+		 * @return this
+		 */
+		public Builder excludeComponents(String... names) {
+			addAll(excludedComponents, names);
+			return this;
+		}
+
+		/**
+		 * Only parses the given properties (and the properties that are always
+		 * parsed). Can be called multiple times.
+		 * @param names the property names (e.g. "DTSTART")
+		 * @return this
+		 */
+		public Builder includeProperties(String... names) {
+			addAll(includedProperties, names);
+			return this;
+		}
+
+		/**
+		 * Skips the given properties. Exclusions take precedence over
+		 * inclusions. Can be called multiple times.
+		 * @param names the property names (e.g. "ATTACH")
+		 * @return this
+		 */
+		public Builder excludeProperties(String... names) {
+			addAll(excludedProperties, names);
+			return this;
+		}
+
+		private static void addAll(Set<String> set, String... names) {
+			for (String name : names) {
+				set.add(name.toUpperCase());
+			}
+		}
+
+		/**
+		 * Builds the {@link Projection} object.
+		 * @return the {@link Projection} object
+		 */
+		public Projection build() {
+			return new Projection(this);
+		}
+	}
+}
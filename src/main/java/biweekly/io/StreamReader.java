@@ -1,29 +1,24 @@
 package biweekly.io;
 
-import static biweekly.io.DataModelConverter.convert;
-
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.TimeZone;
 
+import biweekly.ICalDataType;
 import biweekly.ICalendar;
 import biweekly.component.ICalComponent;
 import biweekly.component.VTimezone;
-import biweekly.io.ParseContext.TimezonedDate;
 import biweekly.io.scribe.ScribeIndex;
 import biweekly.io.scribe.component.ICalComponentScribe;
 import biweekly.io.scribe.property.ICalPropertyScribe;
-import biweekly.property.Daylight;
+import biweekly.io.scribe.property.RawPropertyScribe;
+import biweekly.parameter.ICalParameters;
 import biweekly.property.ICalProperty;
-import biweekly.property.Timezone;
 import biweekly.property.ValuedProperty;
-import biweekly.util.ICalDate;
 
 /*
  Copyright (c) 2013-2024, Michael Angstadt
@@ -55,11 +50,23 @@ import biweekly.util.ICalDate;
  * @author Michael Angstadt
  */
 public abstract class StreamReader implements Closeable {
-	protected final List<ParseWarning> warnings = new ArrayList<ParseWarning>();
-	protected ScribeIndex index = new ScribeIndex();
+	/**
+	 * The warnings of the iCalendar object that is being read. Warnings that
+	 * are added to this list are passed to the reader's
+	 * {@link ParseWarningSink}.
+	 */
+	protected final List<ParseWarning> warnings = new SinkList();
+	private ParseWarningSink warningSink = ParseWarningSink.collect();
+	protected ScribeIndex index = ScribeIndex.getDefault();
 	protected ParseContext context;
 	private TimeZone defaultTimezone = TimeZone.getDefault();
 	private GlobalTimezoneIdResolver globalTimezoneIdResolver = new DefaultGlobalTimezoneIdResolver();
+	private InternPool internPool;
+	private Projection projection;
+
+	private ComponentListener componentListener;
+	private TimezoneAssigner timezoneAssigner;
+	private boolean suspended;
 
 	/**
 	 * <p>
@@ -70,9 +77,15 @@ public abstract class StreamReader implements Closeable {
 	 * <p>
 	 * {@code getScribeIndex().register(scribe)}.
 	 * </p>
+	 * <p>
+	 * If the scribe index is frozen, a modifiable copy of it is created first.
+	 * </p>
 	 * @param scribe the scribe to register
 	 */
 	public void registerScribe(ICalPropertyScribe<? extends ICalProperty> scribe) {
+		if (index.isFrozen()) {
+			index = new ScribeIndex(index);
+		}
 		index.register(scribe);
 	}
 
@@ -85,17 +98,28 @@ public abstract class StreamReader implements Closeable {
 	 * <p>
 	 * {@code getScribeIndex().register(scribe)}.
 	 * </p>
+	 * <p>
+	 * If the scribe index is frozen, a modifiable copy of it is created first.
+	 * </p>
 	 * @param scribe the scribe to register
 	 */
 	public void registerScribe(ICalComponentScribe<? extends ICalComponent> scribe) {
+		if (index.isFrozen()) {
+			index = new ScribeIndex(index);
+		}
 		index.register(scribe);
 	}
 
 	/**
-	 * Gets the object that manages the component/property scribes.
+	 * Gets the object that manages the component/property scribes. If no scribe
+	 * index has been assigned, a modifiable copy of the shared default index
+	 * (see {@link ScribeIndex#getDefault}) is created and returned.
 	 * @return the scribe index
 	 */
 	public ScribeIndex getScribeIndex() {
+		if (index == ScribeIndex.getDefault()) {
+			index = new ScribeIndex();
+		}
 		return index;
 	}
 
@@ -108,13 +132,32 @@ public abstract class StreamReader implements Closeable {
 	}
 
 	/**
-	 * Gets the warnings from the last iCalendar object that was read.
+	 * Gets the warnings from the last iCalendar object that was read. Only the
+	 * warnings that were kept by the warning sink are returned (see
+	 * {@link #setWarningSink}).
 	 * @return the warnings or empty list if there were no warnings
 	 */
 	public List<ParseWarning> getWarnings() {
 		return new ArrayList<ParseWarning>(warnings);
 	}
 
+	/**
+	 * Gets the object that receives the parse warnings.
+	 * @return the warning sink
+	 */
+	public ParseWarningSink getWarningSink() {
+		return warningSink;
+	}
+
+	/**
+	 * Sets the object that receives the parse warnings. By default, all
+	 * warnings are kept (see {@link ParseWarningSink#collect}).
+	 * @param warningSink the warning sink
+	 */
+	public void setWarningSink(ParseWarningSink warningSink) {
+		this.warningSink = warningSink;
+	}
+
 	/**
 	 * Gets the timezone that will be used for parsing date property values that
 	 * are floating or that have invalid timezone definitions assigned to them.
@@ -153,6 +196,44 @@ public abstract class StreamReader implements Closeable {
 		this.globalTimezoneIdResolver = globalTimezoneIdResolver;
 	}
 
+	/**
+	 * Gets the pool that is used to deduplicate the strings and parameters of
+	 * the parsed properties.
+	 * @return the pool or null if deduplication is disabled (the default)
+	 */
+	public InternPool getInternPool() {
+		return internPool;
+	}
+
+	/**
+	 * Sets the pool that is used to deduplicate the strings and parameters of
+	 * the parsed properties. This reduces the amount of memory that the parsed
+	 * iCalendar objects use, at the cost of a small amount of extra parsing
+	 * time. A pool can be shared by multiple readers.
+	 * @param internPool the pool or null to disable deduplication (the
+	 * default)
+	 */
+	public void setInternPool(InternPool internPool) {
+		this.internPool = internPool;
+	}
+
+	/**
+	 * Gets the components and properties that are parsed.
+	 * @return the projection or null if everything is parsed
+	 */
+	public Projection getProjection() {
+		return projection;
+	}
+
+	/**
+	 * Sets the components and properties that are parsed. Everything else is
+	 * skipped as it is read off the data stream.
+	 * @param projection the projection or null to parse everything (default)
+	 */
+	public void setProjection(Projection projection) {
+		this.projection = projection;
+	}
+
 	/**
 	 * Reads all iCalendar objects from the data stream.
 	 * @return the iCalendar objects
@@ -173,18 +254,187 @@ public abstract class StreamReader implements Closeable {
 	 * @throws IOException if there's a problem reading from the stream
 	 */
 	public ICalendar readNext() throws IOException {
-		warnings.clear();
-		context = new ParseContext();
-		ICalendar ical = _readNext();
+		return readNext(null);
+	}
+
+	/**
+	 * <p>
+	 * Reads the next iCalendar object from the data stream, passing each of
+	 * its sub-components to a listener as soon as the component has been
+	 * read.
+	 * </p>
+	 * <p>
+	 * This allows very large iCalendar objects to be processed without having
+	 * to hold all of their components in memory. The components that are
+	 * passed to the listener are not added to the returned {@link ICalendar}
+	 * object. VTIMEZONE components are never passed to the listener. Instead,
+	 * they are used to assign timezones to the date-time properties of the
+	 * components that follow them.
+	 * </p>
+	 * <p>
+	 * Since each component is handled before the rest of the data stream is
+	 * read, a component cannot use a VTIMEZONE component that comes after it.
+	 * Such TZID parameters are treated as if the VTIMEZONE component does not
+	 * exist.
+	 * </p>
+	 * @param listener the listener or null to add all components to the
+	 * returned {@link ICalendar} object (this is the same as calling
+	 * {@link #readNext()})
+	 * @return the next iCalendar object or null if there are no more
+	 * @throws IOException if there's a problem reading from the stream
+	 */
+	public ICalendar readNext(ComponentListener listener) throws IOException {
+		if (suspended) {
+			//pick up where the last call left off
+			suspended = false;
+		} else {
+			warnings.clear();
+			context = new ParseContext();
+			timezoneAssigner = new TimezoneAssigner(defaultTimezone, globalTimezoneIdResolver);
+		}
+		componentListener = listener;
+
+		ICalendar ical;
+		try {
+			ical = _readNext();
+		} finally {
+			componentListener = null;
+		}
 		if (ical == null) {
 			return null;
 		}
 
 		ical.setVersion(context.getVersion());
 		handleTimezones(ical);
+
+		/*
+		 * Deduplicate after the timezones are assigned, since assigning a
+		 * timezone removes the TZID parameter from the property.
+		 */
+		if (internPool != null) {
+			internPool.intern(ical);
+		}
+
 		return ical;
 	}
 
+	/**
+	 * Called by the reader implementation when it runs out of input in the
+	 * middle of an iCalendar object and cannot block to wait for more (see
+	 * {@link biweekly.io.text.ICalPushParser}). The implementation must then
+	 * return null from {@link #_readNext}. The next call to
+	 * {@link #readNext(ComponentListener)} keeps the warnings and parse state
+	 * of the partially-read object so that it can be resumed.
+	 */
+	protected void suspend() {
+		suspended = true;
+	}
+
+	/**
+	 * <p>
+	 * Called by the reader implementation whenever it finishes reading a
+	 * component.
+	 * </p>
+	 * <p>
+	 * If the user is streaming components (see
+	 * {@link #readNext(ComponentListener)}) and the component is a direct child
+	 * of the VCALENDAR component, then the component is removed from the
+	 * {@link ICalendar} object, its date-time properties are assigned their
+	 * timezones, and it is passed to the listener.
+	 * </p>
+	 * @param ical the iCalendar object that is being read
+	 * @param parent the component's parent
+	 * @param component the component that was read
+	 */
+	protected void onComponentRead(ICalendar ical, ICalComponent parent, ICalComponent component) {
+		if (componentListener == null || parent != ical) {
+			return;
+		}
+
+		if (component instanceof VTimezone) {
+			/*
+			 * Build the timezone now so it can be applied to the components
+			 * that follow. Invalid VTIMEZONE components are left alone so that
+			 * a warning is generated for them once the entire iCalendar object
+			 * is read.
+			 */
+			VTimezone vtimezone = (VTimezone) component;
+			TimeZone timezone = buildTimeZone(vtimezone);
+			if (timezone != null) {
+				ical.getTimezoneInfo().getTimezones().add(new TimezoneAssignment(timezone, vtimezone));
+				timezoneAssigner.forget(vtimezone.getTimezoneId().getValue());
+				removeComponent(ical, component);
+			}
+			return;
+		}
+
+		removeComponent(ical, component);
+
+		//the vCalendar timezone becomes the default timezone, so extract it first
+		timezoneAssigner.getVCalTimezone(ical);
+		TimezoneInfo icalTzinfo = ical.getTimezoneInfo();
+
+		TimezoneInfo tzinfo = new TimezoneInfo();
+		tzinfo.getTimezones().addAll(icalTzinfo.getTimezones());
+		if (icalTzinfo.getDefaultTimezone() != null) {
+			tzinfo.setDefaultTimezone(icalTzinfo.getDefaultTimezone());
+		}
+
+		timezoneAssigner.assign(context, ical, tzinfo, warnings);
+		context.getFloatingDates().clear();
+		context.getTimezonedDates().clear();
+
+		if (internPool != null) {
+			internPool.intern(component);
+		}
+
+		componentListener.onComponent(component, tzinfo, ical);
+	}
+
+	/**
+	 * Creates a placeholder for a property whose value will not be parsed
+	 * until the property is accessed (see {@link LazyProperty}).
+	 * @param ical the iCalendar object that is being read
+	 * @param parent the component the property belongs to
+	 * @param scribe the property's scribe
+	 * @param name the property name
+	 * @param value the raw property value
+	 * @param dataType the property's data type
+	 * @param parameters the property's parameters
+	 * @return the placeholder or null if the property must be parsed right
+	 * away
+	 */
+	protected LazyProperty lazyProperty(ICalendar ical, ICalComponent parent, ICalPropertyScribe<? extends ICalProperty> scribe, String name, String value, ICalDataType dataType, ICalParameters parameters) {
+		/*
+		 * The VCALENDAR component's properties are needed right away (for
+		 * example, the vCal DAYLIGHT and TZ properties), and unrecognized
+		 * properties are cheap to parse.
+		 * 
+		 * Components that are passed to a ComponentListener get their own
+		 * TimezoneInfo objects, which a placeholder does not know about.
+		 */
+		if (parent == ical || scribe instanceof RawPropertyScribe || componentListener != null) {
+			return null;
+		}
+
+		return new LazyProperty(scribe, name, value, dataType, parameters, context.getVersion(), context.getLineNumber(), ical, timezoneAssigner, internPool);
+	}
+
+	/**
+	 * Removes a component from its parent, using identity comparison.
+	 * @param parent the parent
+	 * @param component the component to remove
+	 */
+	private static void removeComponent(ICalComponent parent, ICalComponent component) {
+		List<ICalComponent> components = parent.getComponents().get(component.getClass());
+		for (int i = components.size() - 1; i >= 0; i--) {
+			if (components.get(i) == component) {
+				components.remove(i);
+				return;
+			}
+		}
+	}
+
 	/**
 	 * Reads the next iCalendar object from the data stream.
 	 * @return the next iCalendar object or null if there are no more
@@ -196,7 +446,7 @@ public abstract class StreamReader implements Closeable {
 		TimezoneInfo tzinfo = ical.getTimezoneInfo();
 
 		//convert vCalendar DAYLIGHT and TZ properties to a VTIMEZONE component
-		TimezoneAssignment vcalTimezone = extractVCalTimezone(ical);
+		timezoneAssigner.getVCalTimezone(ical);
 
 		//assign a TimeZone object to each VTIMEZONE component.
 		Iterator<VTimezone> it = ical.getComponents(VTimezone.class).iterator();
@@ -216,68 +466,7 @@ public abstract class StreamReader implements Closeable {
 			it.remove();
 		}
 
-		boolean userChangedTheDefaultTimezone = !defaultTimezone.equals(TimeZone.getDefault());
-
-		if (vcalTimezone != null) {
-			//vCal: parse floating dates according to the DAYLIGHT and TZ properties (which were converted to a VTIMEZONE component)
-			Calendar cal = Calendar.getInstance(vcalTimezone.getTimeZone());
-			for (TimezonedDate timezonedDate : context.getFloatingDates()) {
-				reparseDateUnderDifferentTimezone(timezonedDate, cal);
-			}
-		} else {
-			//iCal: treat floating dates as floating dates
-			for (TimezonedDate timezonedDate : context.getFloatingDates()) {
-				tzinfo.setFloating(timezonedDate.getProperty(), true);
-			}
-
-			//convert all floating dates to the default timezone
-			if (userChangedTheDefaultTimezone) {
-				Calendar cal = Calendar.getInstance(defaultTimezone);
-				for (TimezonedDate timezonedDate : context.getFloatingDates()) {
-					reparseDateUnderDifferentTimezone(timezonedDate, cal);
-				}
-			}
-		}
-
-		//convert all date values to their appropriate timezone
-		for (Map.Entry<String, List<TimezonedDate>> entry : context.getTimezonedDates()) {
-			String tzid = entry.getKey();
-
-			//determine which timezone is associated with the given TZID
-			TimezoneAssignment assignment = determineTimezoneAssignment(tzid, tzinfo);
-
-			/*
-			 * If a timezone assignment could not be found for the given TZID
-			 * and the user did not change the default timezone, then there is
-			 * no need to further process the properties that are assigned to
-			 * this TZID--the date value should remain unchanged (parsed under
-			 * the local machine's default timezone), and its TZID parameter
-			 * should also remain.
-			 */
-			if (assignment == null && !userChangedTheDefaultTimezone) {
-				continue;
-			}
-
-			//convert each property to the timezone
-			TimeZone tz = (assignment == null) ? defaultTimezone : assignment.getTimeZone();
-			Calendar cal = Calendar.getInstance(tz);
-			for (TimezonedDate timezonedDate : entry.getValue()) {
-				ICalProperty property = timezonedDate.getProperty();
-
-				if (assignment != null) {
-					tzinfo.setTimezone(property, assignment);
-
-					/*
-					 * Only remove the TZID parameter if the TZID is *valid*.
-					 * Invalid TZID parameters should remain so that user can
-					 * inspect the invalid information.
-					 */
-					property.getParameters().setTimezoneId(null);
-				}
-
-				reparseDateUnderDifferentTimezone(timezonedDate, cal);
-			}
-		}
+		timezoneAssigner.assign(context, ical, tzinfo, warnings);
 	}
 
 	private TimeZone buildTimeZone(VTimezone component) {
@@ -287,117 +476,50 @@ public abstract class StreamReader implements Closeable {
 		return idMissing ? null : new ICalTimeZone(component);
 	}
 
-	private void reparseDateUnderDifferentTimezone(TimezonedDate timezonedDate, Calendar cal) {
-		ICalDate date = timezonedDate.getDate();
-
-		//parse its raw date components under its real timezone
-		Date realDate = date.getRawComponents().toDate(cal);
+	/**
+	 * Passes the warnings that were generated while parsing a property (see
+	 * {@link ParseContext#getWarnings}) straight to the warning sink, unless
+	 * the sink ignores all warnings.
+	 * @param propertyWarnings the warnings
+	 */
+	protected void addPropertyWarnings(List<ParseWarning> propertyWarnings) {
+		if (propertyWarnings.isEmpty() || warningSink.ignoresAll()) {
+			return;
+		}
 
-		//update the Date object with the new timestamp
-		date.setTime(realDate.getTime());
+		for (ParseWarning warning : propertyWarnings) {
+			warningSink.add(warning);
+		}
 	}
 
 	/**
-	 * Determines the timezone definition that is associated with the given ID.
-	 * @param tzid the timezone ID
-	 * @param tzinfo the timezone settings of the iCalendar object
-	 * @return the timezone definition or null to use the default timezone
+	 * Passes warnings to the warning sink.
 	 */
-	private TimezoneAssignment determineTimezoneAssignment(String tzid, TimezoneInfo tzinfo) {
-		boolean isOlsenId = tzid.startsWith("/");
-
-		//HANDLE OLSEN IDS======================================================
-
-		if (isOlsenId) {
-			String globalId = tzid.substring(1);
-			TimeZone timezone = globalTimezoneIdResolver.resolve(globalId);
-			if (timezone != null) {
-				/*
-				 * Olsen ID is valid. Everything is Ok.
-				 */
-				TimezoneAssignment assignment = new TimezoneAssignment(timezone, globalId);
-				tzinfo.getTimezones().add(assignment);
-				return assignment;
-			}
-
-			/*
-			 * Even though the TZID is marked as an Olsen ID, and the timezone
-			 * isn't recognized by Java, try looking for a VTIMEZONE component
-			 * that matches it.
-			 *
-			 * This is done as a courtesy and is not required by the specs.
-			 */
-			TimezoneAssignment assignment = tzinfo.getTimezoneById(tzid);
-			int warning;
-			if (assignment == null) {
-				/*
-				 * TZID does not match any VTIMEZONE components, use the default
-				 * timezone.
-				 */
-				warning = 38;
-			} else {
-				warning = 43;
-			}
-
-			warnings.add(new ParseWarning.Builder().message(warning, tzid).build());
-			return assignment;
+	private class SinkList extends AbstractList<ParseWarning> {
+		@Override
+		public boolean add(ParseWarning warning) {
+			warningSink.add(warning);
+			return true;
 		}
 
-		//HANDLE VTIMEZONE COMPONENT IDS========================================
-
-		TimezoneAssignment assignment = tzinfo.getTimezoneById(tzid);
-		if (assignment != null) {
-			/*
-			 * VTIMEZONE component with the given TZID was found.
-			 * Everything is Ok.
-			 */
-			return assignment;
+		@Override
+		public void add(int index, ParseWarning warning) {
+			warningSink.add(warning);
 		}
 
-		/*
-		 * Try treating the TZID as an Olsen timezone ID, even though it does
-		 * not start with a forward slash.
-		 *
-		 * This is done as a courtesy for users who do not know they must prefix
-		 * Olsen IDs with a forward slash. It is not required by the specs.
-		 */
-		String globalId = tzid;
-		TimeZone timezone = globalTimezoneIdResolver.resolve(globalId);
-		int warning;
-		if (timezone == null) {
-			/*
-			 * TZID is not a valid Olsen ID, use the default timezone.
-			 */
-			warning = 38;
-			assignment = null;
-		} else {
-			/*
-			 * TZID was successfully parsed as an Olsen ID.
-			 */
-			warning = 37;
-			assignment = new TimezoneAssignment(timezone, globalId);
-			tzinfo.getTimezones().add(assignment);
+		@Override
+		public ParseWarning get(int index) {
+			return warningSink.getWarnings().get(index);
 		}
 
-		warnings.add(new ParseWarning.Builder().message(warning, globalId).build());
-		return assignment;
-	}
-
-	private TimezoneAssignment extractVCalTimezone(ICalendar ical) {
-		List<Daylight> daylights = ical.removeProperties(Daylight.class);
-		List<Timezone> timezones = ical.removeProperties(Timezone.class);
-
-		Timezone timezone = timezones.isEmpty() ? null : timezones.get(0);
-		VTimezone vcalComponent = convert(daylights, timezone);
-		if (vcalComponent == null) {
-			return null;
+		@Override
+		public int size() {
+			return warningSink.getWarnings().size();
 		}
 
-		TimeZone icalTimezone = new ICalTimeZone(vcalComponent);
-		TimezoneInfo tzinfo = ical.getTimezoneInfo();
-		TimezoneAssignment assignment = new TimezoneAssignment(icalTimezone, vcalComponent);
-		tzinfo.setDefaultTimezone(assignment);
-
-		return assignment;
+		@Override
+		public void clear() {
+			warningSink.clear();
+		}
 	}
 }
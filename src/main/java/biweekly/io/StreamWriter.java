@@ -2,14 +2,21 @@ package biweekly.io;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 import biweekly.ICalVersion;
 import biweekly.ICalendar;
@@ -54,10 +61,25 @@ import biweekly.property.Version;
  * @author Michael Angstadt
  */
 public abstract class StreamWriter implements Closeable {
-	protected ScribeIndex index = new ScribeIndex();
+	/**
+	 * The number of top-level components that each task of a parallel write
+	 * serializes.
+	 */
+	private static final int PARALLEL_BATCH_SIZE = 64;
+
+	/**
+	 * The maximum number of tasks of a parallel write whose output can be
+	 * waiting to be written at any one time. This puts a limit on how much
+	 * memory a parallel write uses.
+	 */
+	private static final int PARALLEL_WINDOW_SIZE = 64;
+
+	protected ScribeIndex index = ScribeIndex.getDefault();
 	protected WriteContext context;
 	protected TimezoneAssignment globalTimezone;
 	private TimezoneInfo tzinfo;
+	private ICalendar openCalendar;
+	private WriteCache cache;
 
 	/**
 	 * Writes an iCalendar object to the data stream.
@@ -69,20 +91,293 @@ public abstract class StreamWriter implements Closeable {
 	 * @throws IOException if there's a problem writing to the data stream
 	 */
 	public void write(ICalendar ical) throws IOException {
-		Collection<Class<?>> unregistered = findScribeless(ical);
-		if (!unregistered.isEmpty()) {
-			List<String> classNames = new ArrayList<String>(unregistered.size());
-			for (Class<?> clazz : unregistered) {
-				classNames.add(clazz.getName());
-			}
-			throw Messages.INSTANCE.getIllegalArgumentException(13, classNames);
+		if (openCalendar != null) {
+			throw new IllegalStateException(Messages.INSTANCE.getExceptionMessage(29));
 		}
 
+		checkForScribeless(ical);
+
 		tzinfo = ical.getTimezoneInfo();
 		context = new WriteContext(getTargetVersion(), tzinfo, globalTimezone);
 		_write(ical);
 	}
 
+	/**
+	 * <p>
+	 * Writes an iCalendar object to the data stream, serializing its top-level
+	 * components (e.g. VEVENTs) in parallel. The components are serialized in
+	 * batches by the given {@link Executor}, and the batches are written to
+	 * the data stream in their original order, so the output is the same as
+	 * that of {@link #write(ICalendar)}.
+	 * </p>
+	 * <p>
+	 * The iCalendar object (including its timezone settings) must not be
+	 * modified while it is being written. Component and property scribes must
+	 * be thread-safe (all of the standard scribes are).
+	 * </p>
+	 * <p>
+	 * The calling thread never waits on a batch that the executor has not
+	 * started yet. Instead, it serializes that batch itself. This means that
+	 * this method can safely be called from one of the executor's own worker
+	 * threads, even if the executor is bounded or single-threaded, and that
+	 * batches the executor rejects are serialized on the calling thread.
+	 * </p>
+	 * <p>
+	 * <b>Example:</b>
+	 * </p>
+	 *
+	 * <pre class="brush:java">
+	 * ExecutorService executor = Executors.newFixedThreadPool(8);
+	 * ICalWriter writer = new ICalWriter(out, ICalVersion.V2_0);
+	 * writer.write(ical, executor);
+	 * writer.close();
+	 * executor.shutdown();
+	 * </pre>
+	 * @param ical the iCalendar object to write
+	 * @param executor the executor to serialize the components with
+	 * @throws IllegalArgumentException if the scribe class for a component or
+	 * property object cannot be found
+	 * @throws IllegalStateException if another iCalendar object is being
+	 * written with {@link #beginCalendar}
+	 * @throws UnsupportedOperationException if this writer does not support
+	 * writing components in parallel
+	 * @throws IOException if there's a problem writing to the data stream
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public void write(ICalendar ical, Executor executor) throws IOException {
+		if (openCalendar != null) {
+			throw new IllegalStateException(Messages.INSTANCE.getExceptionMessage(29));
+		}
+
+		checkForScribeless(ical);
+
+		/*
+		 * Any VTIMEZONE components that the user added to the iCalendar object
+		 * are written along with the iCalendar object's properties, as are the
+		 * components that come before them. Everything after the last
+		 * VTIMEZONE is serialized in parallel.
+		 */
+		ICalComponentScribe scribe = index.getComponentScribe(ical);
+		List<ICalComponent> components = scribe.getComponents(ical);
+		int split = 0;
+		for (int i = 0; i < components.size(); i++) {
+			if (components.get(i) instanceof VTimezone) {
+				split = i + 1;
+			}
+		}
+
+		ICalendar shell = new ICalendar();
+		shell.getProperties().clear();
+		for (Map.Entry<Class<? extends ICalProperty>, List<ICalProperty>> entry : ical.getProperties()) {
+			shell.getProperties().putAll(entry.getKey(), entry.getValue());
+		}
+		for (ICalComponent component : components.subList(0, split)) {
+			shell.addComponent(component);
+		}
+		shell.setTimezoneInfo(ical.getTimezoneInfo());
+
+		beginCalendar(shell);
+		boolean success = false;
+		try {
+			writeInParallel(shell, components.subList(split, components.size()), executor);
+			success = true;
+		} finally {
+			if (!success) {
+				openCalendar = null;
+			}
+		}
+		endCalendar();
+	}
+
+	/**
+	 * Serializes components in parallel and writes them to the data stream in
+	 * order.
+	 * @param ical the iCalendar object that is being written
+	 * @param components the components
+	 * @param executor the executor to serialize the components with
+	 * @throws IOException if there's a problem writing to the data stream
+	 */
+	private void writeInParallel(final ICalendar ical, List<ICalComponent> components, Executor executor) throws IOException {
+		final ICalVersion version = getTargetVersion();
+		final TimezoneInfo tzinfo = this.tzinfo;
+		final TimezoneAssignment globalTimezone = this.globalTimezone;
+		final WriteCache cache = this.cache;
+		final Object settings = (cache == null) ? null : getCacheSettings();
+
+		LinkedList<FutureTask<BufferedBatch>> pending = new LinkedList<FutureTask<BufferedBatch>>();
+		int next = 0;
+		try {
+			while (next < components.size() || !pending.isEmpty()) {
+				while (next < components.size() && pending.size() < PARALLEL_WINDOW_SIZE) {
+					final List<ICalComponent> batch = components.subList(next, Math.min(next + PARALLEL_BATCH_SIZE, components.size()));
+					next += batch.size();
+
+					FutureTask<BufferedBatch> task = new FutureTask<BufferedBatch>(new Callable<BufferedBatch>() {
+						public BufferedBatch call() throws Exception {
+							if (cache == null) {
+								WriteContext context = new WriteContext(version, tzinfo, globalTimezone);
+								ComponentBuffer buffer = _bufferComponents(ical, batch, context);
+								return new BufferedBatch(Collections.singletonList(buffer), context.getDates());
+							}
+
+							List<ComponentBuffer> buffers = new ArrayList<ComponentBuffer>(batch.size());
+							List<Date> dates = new ArrayList<Date>();
+							for (ICalComponent component : batch) {
+								WriteCache.Entry entry = getCacheEntry(cache, settings, ical, component, tzinfo);
+								buffers.add(entry.buffer);
+								dates.addAll(entry.dates);
+							}
+							return new BufferedBatch(buffers, dates);
+						}
+					});
+					pending.add(task);
+					try {
+						executor.execute(task);
+					} catch (RejectedExecutionException e) {
+						//the task will be run on this thread when its turn comes
+					}
+				}
+
+				BufferedBatch batch = get(pending.removeFirst());
+				for (ComponentBuffer buffer : batch.buffers) {
+					buffer.writeTo(this);
+				}
+				if (version == ICalVersion.V1_0) {
+					context.getDates().addAll(batch.dates);
+				}
+			}
+		} finally {
+			for (FutureTask<BufferedBatch> task : pending) {
+				task.cancel(false);
+			}
+		}
+	}
+
+	/**
+	 * Waits for a task to complete and unwraps any exception it throws. If the
+	 * executor has not started the task yet, it is run on the calling thread,
+	 * so the calling thread never waits on a task that might be stuck in the
+	 * executor's queue behind the calling thread itself.
+	 * @param task the task
+	 * @return the task's result
+	 * @throws IOException if the task throws an {@link IOException} or if the
+	 * thread is interrupted
+	 */
+	private static <T> T get(FutureTask<T> task) throws IOException {
+		//does nothing if the task has already been started by the executor
+		task.run();
+
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Begins writing an iCalendar object whose components will be written one
+	 * at a time with {@link #writeComponent}. This allows very large iCalendar
+	 * objects to be written without having to hold all of their components in
+	 * memory. The iCalendar object's properties, timezone components, and any
+	 * components it already contains are written by this method.
+	 * </p>
+	 * <p>
+	 * All of the timezones that the components use must be registered with
+	 * the iCalendar object's {@link TimezoneInfo} object before this method is
+	 * called (or a global timezone must be set), because the VTIMEZONE
+	 * components are written at the start of the iCalendar object.
+	 * </p>
+	 * <p>
+	 * <b>Example:</b>
+	 * </p>
+	 *
+	 * <pre class="brush:java">
+	 * ICalWriter writer = new ICalWriter(out, ICalVersion.V2_0);
+	 * writer.beginCalendar(ical);
+	 * while (cursor.next()) {
+	 *   writer.writeComponent(toEvent(cursor));
+	 * }
+	 * writer.endCalendar();
+	 * writer.close();
+	 * </pre>
+	 * @param ical the iCalendar object
+	 * @throws IllegalArgumentException if the scribe class for a component or
+	 * property object cannot be found
+	 * @throws IllegalStateException if another iCalendar object is already
+	 * being written
+	 * @throws UnsupportedOperationException if this writer does not support
+	 * writing components incrementally
+	 * @throws IOException if there's a problem writing to the data stream
+	 */
+	public void beginCalendar(ICalendar ical) throws IOException {
+		if (openCalendar != null) {
+			throw new IllegalStateException(Messages.INSTANCE.getExceptionMessage(29));
+		}
+
+		checkForScribeless(ical);
+
+		tzinfo = ical.getTimezoneInfo();
+		context = new WriteContext(getTargetVersion(), tzinfo, globalTimezone);
+		_beginCalendar(ical);
+		openCalendar = ical;
+	}
+
+	/**
+	 * Writes a component to the iCalendar object that was started with
+	 * {@link #beginCalendar}.
+	 * @param component the component (e.g. a VEVENT)
+	 * @throws IllegalArgumentException if the scribe class for a component or
+	 * property object cannot be found
+	 * @throws IllegalStateException if {@link #beginCalendar} has not been
+	 * called
+	 * @throws IOException if there's a problem writing to the data stream
+	 */
+	public void writeComponent(ICalComponent component) throws IOException {
+		if (openCalendar == null) {
+			throw new IllegalStateException(Messages.INSTANCE.getExceptionMessage(30));
+		}
+
+		checkForScribeless(component);
+
+		_writeComponent(openCalendar, component);
+
+		if (getTargetVersion() != ICalVersion.V1_0) {
+			//dates are only needed when writing vCal timezone properties, so don't let them accumulate
+			context.getDates().clear();
+		}
+	}
+
+	/**
+	 * Finishes writing the iCalendar object that was started with
+	 * {@link #beginCalendar}.
+	 * @throws IllegalStateException if {@link #beginCalendar} has not been
+	 * called
+	 * @throws IOException if there's a problem writing to the data stream
+	 */
+	public void endCalendar() throws IOException {
+		if (openCalendar == null) {
+			throw new IllegalStateException(Messages.INSTANCE.getExceptionMessage(30));
+		}
+
+		ICalendar ical = openCalendar;
+		openCalendar = null;
+		_endCalendar(ical);
+	}
+
 	/**
 	 * Gets the {@link VTimezone} components that need to be written to the
 	 * output stream.
@@ -110,6 +405,182 @@ public abstract class StreamWriter implements Closeable {
 	 */
 	protected abstract void _write(ICalendar ical) throws IOException;
 
+	/**
+	 * Writes the beginning of an iCalendar object, including its properties
+	 * and sub-components, but not its end.
+	 * @param ical the iCalendar object
+	 * @throws IOException if there's a problem writing to the data stream
+	 */
+	protected void _beginCalendar(ICalendar ical) throws IOException {
+		throw new UnsupportedOperationException(Messages.INSTANCE.getExceptionMessage(31));
+	}
+
+	/**
+	 * Writes a component of the iCalendar object that is currently being
+	 * written.
+	 * @param ical the iCalendar object
+	 * @param component the component
+	 * @throws IOException if there's a problem writing to the data stream
+	 */
+	protected void _writeComponent(ICalendar ical, ICalComponent component) throws IOException {
+		throw new UnsupportedOperationException(Messages.INSTANCE.getExceptionMessage(31));
+	}
+
+	/**
+	 * Writes the end of the iCalendar object that is currently being written.
+	 * @param ical the iCalendar object
+	 * @throws IOException if there's a problem writing to the data stream
+	 */
+	protected void _endCalendar(ICalendar ical) throws IOException {
+		throw new UnsupportedOperationException(Messages.INSTANCE.getExceptionMessage(31));
+	}
+
+	/**
+	 * Serializes a batch of top-level components so that they can be written
+	 * to the data stream later. This method is called from the threads of the
+	 * {@link Executor} that was passed into {@link #write(ICalendar, Executor)},
+	 * so it must not write to the data stream or modify the state of this
+	 * writer.
+	 * @param ical the iCalendar object that is being written
+	 * @param components the components to serialize
+	 * @param context the context to serialize the components with (each batch
+	 * is given its own context)
+	 * @return the serialized components
+	 * @throws IOException if there's a problem serializing the components
+	 */
+	protected ComponentBuffer _bufferComponents(ICalendar ical, List<ICalComponent> components, WriteContext context) throws IOException {
+		throw new UnsupportedOperationException(Messages.INSTANCE.getExceptionMessage(32));
+	}
+
+	/**
+	 * Holds a batch of components that were serialized by
+	 * {@link StreamWriter#_bufferComponents}. Implementations must be
+	 * immutable and must not hold references to the writer that created them,
+	 * because they may be stored in a {@link WriteCache} and written by other
+	 * writers.
+	 */
+	protected interface ComponentBuffer {
+		/**
+		 * Writes the serialized components to a writer's data stream. This
+		 * method is called from the thread that is writing the iCalendar
+		 * object, in the order in which the components appear in the
+		 * iCalendar object.
+		 * @param writer the writer (it has the same class and the same
+		 * {@link StreamWriter#getCacheSettings settings} as the writer that
+		 * created the buffer)
+		 * @throws IOException if there's a problem writing to the data stream
+		 */
+		void writeTo(StreamWriter writer) throws IOException;
+	}
+
+	/**
+	 * Writes a top-level component using the {@link WriteCache}, if one has
+	 * been assigned to this writer. If the component is not cached, it is
+	 * serialized with {@link #_bufferComponents} and added to the cache.
+	 * @param ical the iCalendar object that is being written
+	 * @param component the component
+	 * @return true if the component was written, false if no cache has been
+	 * assigned
+	 * @throws IOException if there's a problem writing to the data stream
+	 */
+	protected boolean writeFromCache(ICalendar ical, ICalComponent component) throws IOException {
+		if (cache == null) {
+			return false;
+		}
+
+		WriteCache.Entry entry = getCacheEntry(cache, getCacheSettings(), ical, component, tzinfo);
+		entry.buffer.writeTo(this);
+		if (getTargetVersion() == ICalVersion.V1_0) {
+			context.getDates().addAll(entry.dates);
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the cached form of a component, serializing and caching the
+	 * component if it is not cached or if its cache entry is out of date.
+	 * @param cache the cache
+	 * @param settings this writer's settings
+	 * @param ical the iCalendar object that is being written
+	 * @param component the component
+	 * @param tzinfo the iCalendar object's timezone settings
+	 * @return the cache entry
+	 * @throws IOException if there's a problem serializing the component
+	 */
+	private WriteCache.Entry getCacheEntry(WriteCache cache, Object settings, ICalendar ical, ICalComponent component, TimezoneInfo tzinfo) throws IOException {
+		long stamp = Math.max(component.getModificationStamp(), tzinfo.getModificationStamp());
+		WriteCache.Entry entry = cache.get(component, settings, stamp);
+		if (entry != null) {
+			return entry;
+		}
+
+		WriteContext context = new WriteContext(getTargetVersion(), tzinfo, globalTimezone);
+		ComponentBuffer buffer = _bufferComponents(ical, Collections.singletonList(component), context);
+		return cache.put(component, settings, buffer, context.getDates());
+	}
+
+	/**
+	 * Gets the settings of this writer that affect how components are
+	 * serialized. A component that was cached by a writer with different
+	 * settings is not reused (see {@link WriteCache}). Child classes that have
+	 * settings of their own must add them to this list.
+	 * @return the settings (the list is compared with {@code equals()})
+	 */
+	protected List<Object> getCacheSettings() {
+		List<Object> settings = new ArrayList<Object>();
+		settings.add(getClass());
+		settings.add(getTargetVersion());
+		settings.add(tzinfo);
+		settings.add(globalTimezone);
+		settings.add(index);
+		return settings;
+	}
+
+	/**
+	 * Gets the cache that is used to avoid serializing top-level components
+	 * that have not changed since they were last written.
+	 * @return the cache or null if not set (defaults to null)
+	 */
+	public WriteCache getWriteCache() {
+		return cache;
+	}
+
+	/**
+	 * <p>
+	 * Sets the cache that is used to avoid serializing top-level components
+	 * (e.g. VEVENTs) that have not changed since they were last written. The
+	 * same cache can be assigned to many writers, so that the writers that
+	 * write the same iCalendar object share the cached components.
+	 * </p>
+	 * <p>
+	 * Changes that are made to components and properties through their
+	 * methods are detected automatically. Changes that are made directly to
+	 * mutable property values (such as dates) are not (see
+	 * {@link ICalProperty#getModificationStamp}). Components that contain
+	 * custom property classes are serialized every time, unless those classes
+	 * track their modifications (see
+	 * {@link ICalProperty#isModificationTracked}).
+	 * </p>
+	 * @param cache the cache or null not to use a cache (defaults to null)
+	 */
+	public void setWriteCache(WriteCache cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * A batch of components that was serialized by a task of a parallel
+	 * write.
+	 */
+	private static class BufferedBatch {
+		private final List<ComponentBuffer> buffers;
+		private final List<Date> dates;
+
+		public BufferedBatch(List<ComponentBuffer> buffers, List<Date> dates) {
+			this.buffers = buffers;
+			this.dates = dates;
+		}
+	}
+
 	/**
 	 * Gets the timezone that all date/time property values will be formatted
 	 * in. If set, this setting will override the timezone information
@@ -141,9 +612,15 @@ public abstract class StreamWriter implements Closeable {
 	 * <p>
 	 * {@code getScribeIndex().register(scribe)}.
 	 * </p>
+	 * <p>
+	 * If the scribe index is frozen, a modifiable copy of it is created first.
+	 * </p>
 	 * @param scribe the scribe to register
 	 */
 	public void registerScribe(ICalPropertyScribe<? extends ICalProperty> scribe) {
+		if (index.isFrozen()) {
+			index = new ScribeIndex(index);
+		}
 		index.register(scribe);
 	}
 
@@ -156,17 +633,28 @@ public abstract class StreamWriter implements Closeable {
 	 * <p>
 	 * {@code getScribeIndex().register(scribe)}.
 	 * </p>
+	 * <p>
+	 * If the scribe index is frozen, a modifiable copy of it is created first.
+	 * </p>
 	 * @param scribe the scribe to register
 	 */
 	public void registerScribe(ICalComponentScribe<? extends ICalComponent> scribe) {
+		if (index.isFrozen()) {
+			index = new ScribeIndex(index);
+		}
 		index.register(scribe);
 	}
 
 	/**
-	 * Gets the object that manages the component/property scribes.
+	 * Gets the object that manages the component/property scribes. If no scribe
+	 * index has been assigned, a modifiable copy of the shared default index
+	 * (see {@link ScribeIndex#getDefault}) is created and returned.
 	 * @return the scribe index
 	 */
 	public ScribeIndex getScribeIndex() {
+		if (index == ScribeIndex.getDefault()) {
+			index = new ScribeIndex();
+		}
 		return index;
 	}
 
@@ -178,16 +666,33 @@ public abstract class StreamWriter implements Closeable {
 		this.index = scribe;
 	}
 
+	/**
+	 * Makes sure that every component and property in a component tree has a
+	 * scribe.
+	 * @param component the root of the tree
+	 * @throws IllegalArgumentException if any scribes are missing
+	 */
+	private void checkForScribeless(ICalComponent component) {
+		Collection<Class<?>> unregistered = findScribeless(component);
+		if (!unregistered.isEmpty()) {
+			List<String> classNames = new ArrayList<String>(unregistered.size());
+			for (Class<?> clazz : unregistered) {
+				classNames.add(clazz.getName());
+			}
+			throw Messages.INSTANCE.getIllegalArgumentException(13, classNames);
+		}
+	}
+
 	/**
 	 * Gets the component/property classes that don't have scribes associated
 	 * with them.
-	 * @param ical the iCalendar object
+	 * @param root the root of the component tree
 	 * @return the component/property classes
 	 */
-	private Collection<Class<?>> findScribeless(ICalendar ical) {
+	private Collection<Class<?>> findScribeless(ICalComponent root) {
 		Set<Class<?>> unregistered = new HashSet<Class<?>>();
 		LinkedList<ICalComponent> components = new LinkedList<ICalComponent>();
-		components.add(ical);
+		components.add(root);
 
 		while (!components.isEmpty()) {
 			ICalComponent component = components.removeLast();
@@ -0,0 +1,289 @@
+package biweekly.io;
+
+import static biweekly.io.DataModelConverter.convert;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+import biweekly.ICalendar;
+import biweekly.component.VTimezone;
+import biweekly.io.ParseContext.TimezonedDate;
+import biweekly.property.Daylight;
+import biweekly.property.ICalProperty;
+import biweekly.property.Timezone;
+import biweekly.util.ICalDate;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * Assigns timezones to the floating and TZID date-time values that were
+ * collected by a {@link ParseContext} while an iCalendar object was being
+ * parsed. One instance is used per iCalendar object.
+ * @author Michael Angstadt
+ */
+class TimezoneAssigner {
+	private final TimeZone defaultTimezone;
+	private final boolean userChangedTheDefaultTimezone;
+	private final GlobalTimezoneIdResolver globalTimezoneIdResolver;
+	private final Map<String, TimezoneAssignment> tzidAssignments = new HashMap<String, TimezoneAssignment>();
+	private boolean vcalTimezoneExtracted;
+	private TimezoneAssignment vcalTimezone;
+
+	/**
+	 * @param defaultTimezone the timezone to use for floating dates and dates
+	 * with unknown TZIDs
+	 * @param globalTimezoneIdResolver resolves global timezone IDs
+	 */
+	public TimezoneAssigner(TimeZone defaultTimezone, GlobalTimezoneIdResolver globalTimezoneIdResolver) {
+		this.defaultTimezone = defaultTimezone;
+		this.globalTimezoneIdResolver = globalTimezoneIdResolver;
+		userChangedTheDefaultTimezone = !defaultTimezone.equals(TimeZone.getDefault());
+	}
+
+	/**
+	 * Converts the vCalendar DAYLIGHT and TZ properties to a VTIMEZONE
+	 * component. This is only done once per iCalendar object.
+	 * @param ical the iCalendar object
+	 * @return the timezone or null if the iCalendar object does not have these
+	 * properties
+	 */
+	public TimezoneAssignment getVCalTimezone(ICalendar ical) {
+		if (!vcalTimezoneExtracted) {
+			vcalTimezoneExtracted = true;
+			vcalTimezone = extractVCalTimezone(ical);
+		}
+		return vcalTimezone;
+	}
+
+	/**
+	 * Discards the cached timezone of the given TZID. Called when a new
+	 * VTIMEZONE component is encountered.
+	 * @param tzid the timezone ID
+	 */
+	public void forget(String tzid) {
+		tzidAssignments.remove(tzid);
+	}
+
+	/**
+	 * Applies timezones to the floating and TZID date-time values that have
+	 * been collected by the given parse context.
+	 * @param context the parse context
+	 * @param ical the iCalendar object (its timezone settings are used for
+	 * looking up TZIDs)
+	 * @param tzinfo the object to record each property's timezone in
+	 * @param warnings the list to add warnings to
+	 */
+	public void assign(ParseContext context, ICalendar ical, TimezoneInfo tzinfo, List<ParseWarning> warnings) {
+		TimezoneInfo icalTzinfo = ical.getTimezoneInfo();
+		TimezoneAssignment vcalTimezone = getVCalTimezone(ical);
+
+		if (vcalTimezone != null) {
+			//vCal: parse floating dates according to the DAYLIGHT and TZ properties (which were converted to a VTIMEZONE component)
+			Calendar cal = Calendar.getInstance(vcalTimezone.getTimeZone());
+			for (TimezonedDate timezonedDate : context.getFloatingDates()) {
+				reparseDateUnderDifferentTimezone(timezonedDate, cal);
+			}
+		} else {
+			//iCal: treat floating dates as floating dates
+			for (TimezonedDate timezonedDate : context.getFloatingDates()) {
+				tzinfo.setFloating(timezonedDate.getProperty(), true);
+			}
+
+			//convert all floating dates to the default timezone
+			if (userChangedTheDefaultTimezone) {
+				Calendar cal = Calendar.getInstance(defaultTimezone);
+				for (TimezonedDate timezonedDate : context.getFloatingDates()) {
+					reparseDateUnderDifferentTimezone(timezonedDate, cal);
+				}
+			}
+		}
+
+		//convert all date values to their appropriate timezone
+		for (Map.Entry<String, List<TimezonedDate>> entry : context.getTimezonedDates()) {
+			String tzid = entry.getKey();
+
+			//determine which timezone is associated with the given TZID
+			TimezoneAssignment assignment;
+			if (tzidAssignments.containsKey(tzid)) {
+				assignment = tzidAssignments.get(tzid);
+			} else {
+				assignment = determineTimezoneAssignment(tzid, icalTzinfo, warnings);
+				tzidAssignments.put(tzid, assignment);
+			}
+
+			/*
+			 * If a timezone assignment could not be found for the given TZID
+			 * and the user did not change the default timezone, then there is
+			 * no need to further process the properties that are assigned to
+			 * this TZID--the date value should remain unchanged (parsed under
+			 * the local machine's default timezone), and its TZID parameter
+			 * should also remain.
+			 */
+			if (assignment == null && !userChangedTheDefaultTimezone) {
+				continue;
+			}
+
+			//convert each property to the timezone
+			TimeZone tz = (assignment == null) ? defaultTimezone : assignment.getTimeZone();
+			Calendar cal = Calendar.getInstance(tz);
+			for (TimezonedDate timezonedDate : entry.getValue()) {
+				ICalProperty property = timezonedDate.getProperty();
+
+				if (assignment != null) {
+					tzinfo.setTimezone(property, assignment);
+
+					/*
+					 * Only remove the TZID parameter if the TZID is *valid*.
+					 * Invalid TZID parameters should remain so that user can
+					 * inspect the invalid information.
+					 */
+					property.getParameters().setTimezoneId(null);
+				}
+
+				reparseDateUnderDifferentTimezone(timezonedDate, cal);
+			}
+		}
+	}
+
+	private void reparseDateUnderDifferentTimezone(TimezonedDate timezonedDate, Calendar cal) {
+		ICalDate date = timezonedDate.getDate();
+
+		//parse its raw date components under its real timezone
+		Date realDate = date.getRawComponents().toDate(cal);
+
+		//update the Date object with the new timestamp
+		date.setTime(realDate.getTime());
+	}
+
+	/**
+	 * Determines the timezone definition that is associated with the given ID.
+	 * @param tzid the timezone ID
+	 * @param tzinfo the timezone settings of the iCalendar object
+	 * @param warnings the list to add warnings to
+	 * @return the timezone definition or null to use the default timezone
+	 */
+	private TimezoneAssignment determineTimezoneAssignment(String tzid, TimezoneInfo tzinfo, List<ParseWarning> warnings) {
+		boolean isOlsenId = tzid.startsWith("/");
+
+		//HANDLE OLSEN IDS======================================================
+
+		if (isOlsenId) {
+			String globalId = tzid.substring(1);
+			TimeZone timezone = globalTimezoneIdResolver.resolve(globalId);
+			if (timezone != null) {
+				/*
+				 * Olsen ID is valid. Everything is Ok.
+				 */
+				TimezoneAssignment assignment = new TimezoneAssignment(timezone, globalId);
+				tzinfo.getTimezones().add(assignment);
+				return assignment;
+			}
+
+			/*
+			 * Even though the TZID is marked as an Olsen ID, and the timezone
+			 * isn't recognized by Java, try looking for a VTIMEZONE component
+			 * that matches it.
+			 *
+			 * This is done as a courtesy and is not required by the specs.
+			 */
+			TimezoneAssignment assignment = tzinfo.getTimezoneById(tzid);
+			int warning;
+			if (assignment == null) {
+				/*
+				 * TZID does not match any VTIMEZONE components, use the default
+				 * timezone.
+				 */
+				warning = 38;
+			} else {
+				warning = 43;
+			}
+
+			warnings.add(new ParseWarning.Builder().message(warning, tzid).build());
+			return assignment;
+		}
+
+		//HANDLE VTIMEZONE COMPONENT IDS========================================
+
+		TimezoneAssignment assignment = tzinfo.getTimezoneById(tzid);
+		if (assignment != null) {
+			/*
+			 * VTIMEZONE component with the given TZID was found.
+			 * Everything is Ok.
+			 */
+			return assignment;
+		}
+
+		/*
+		 * Try treating the TZID as an Olsen timezone ID, even though it does
+		 * not start with a forward slash.
+		 *
+		 * This is done as a courtesy for users who do not know they must prefix
+		 * Olsen IDs with a forward slash. It is not required by the specs.
+		 */
+		String globalId = tzid;
+		TimeZone timezone = globalTimezoneIdResolver.resolve(globalId);
+		int warning;
+		if (timezone == null) {
+			/*
+			 * TZID is not a valid Olsen ID, use the default timezone.
+			 */
+			warning = 38;
+			assignment = null;
+		} else {
+			/*
+			 * TZID was successfully parsed as an Olsen ID.
+			 */
+			warning = 37;
+			assignment = new TimezoneAssignment(timezone, globalId);
+			tzinfo.getTimezones().add(assignment);
+		}
+
+		warnings.add(new ParseWarning.Builder().message(warning, globalId).build());
+		return assignment;
+	}
+
+	private TimezoneAssignment extractVCalTimezone(ICalendar ical) {
+		List<Daylight> daylights = ical.removeProperties(Daylight.class);
+		List<Timezone> timezones = ical.removeProperties(Timezone.class);
+
+		Timezone timezone = timezones.isEmpty() ? null : timezones.get(0);
+		VTimezone vcalComponent = convert(daylights, timezone);
+		if (vcalComponent == null) {
+			return null;
+		}
+
+		TimeZone icalTimezone = new ICalTimeZone(vcalComponent);
+		TimezoneInfo tzinfo = ical.getTimezoneInfo();
+		TimezoneAssignment assignment = new TimezoneAssignment(icalTimezone, vcalComponent);
+		tzinfo.setDefaultTimezone(assignment);
+
+		return assignment;
+	}
+}
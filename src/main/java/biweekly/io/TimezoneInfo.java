@@ -3,16 +3,18 @@ package biweekly.io;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import biweekly.component.VTimezone;
 import biweekly.property.ICalProperty;
 import biweekly.property.TimezoneId;
 import biweekly.property.ValuedProperty;
+import biweekly.util.ModificationStamps;
 
 /*
  Copyright (c) 2013-2024, Michael Angstadt
@@ -49,20 +51,30 @@ public class TimezoneInfo {
 		@Override
 		public boolean remove(Object assignment) {
 			//remove all property assignments
-			Collection<TimezoneAssignment> values = propertyTimezones.values();
-			while (values.remove(assignment)) {
-				//empty
-			}
+			propertyTimezones.values().removeAll(Collections.singleton(assignment));
+			modified();
 
 			return super.remove(assignment);
 		}
 	};
 	private final Map<ICalProperty, TimezoneAssignment> propertyTimezones = new IdentityHashMap<ICalProperty, TimezoneAssignment>();
-	private final List<ICalProperty> floatingProperties = new ArrayList<ICalProperty>();
+	private final Set<ICalProperty> floatingProperties = Collections.newSetFromMap(new IdentityHashMap<ICalProperty, Boolean>());
+
+	/**
+	 * Caches the results of {@link #getTimezoneById}. Entries are validated
+	 * before they are returned, since the assignments collection and the
+	 * {@link VTimezone} components can be modified at any time.
+	 */
+	private final Map<String, TimezoneAssignment> assignmentsById = new HashMap<String, TimezoneAssignment>();
 
 	private TimezoneAssignment defaultTimezone;
 	private boolean globalFloatingTime = false;
 
+	/**
+	 * The stamp of the last modification (see {@link ModificationStamps}).
+	 */
+	private long modificationStamp = 0;
+
 	/**
 	 * Gets all the timezones assigned to this object.
 	 * @return the timezones (collection is mutable)
@@ -107,6 +119,7 @@ public class TimezoneInfo {
 		}
 
 		defaultTimezone = timezone;
+		modified();
 	}
 
 	/**
@@ -121,11 +134,13 @@ public class TimezoneInfo {
 			if (existing != null && existing != defaultTimezone && !propertyTimezones.containsValue(existing)) {
 				assignments.remove(existing);
 			}
+			modified();
 			return;
 		}
 
 		assignments.add(timezone);
 		propertyTimezones.put(property, timezone);
+		modified();
 	}
 
 	/**
@@ -161,20 +176,44 @@ public class TimezoneInfo {
 	 * @return the timezone or null if not found
 	 */
 	public TimezoneAssignment getTimezoneById(String tzid) {
-		for (TimezoneAssignment assignment : assignments) {
-			VTimezone component = assignment.getComponent();
-			if (component == null) {
-				continue;
-			}
+		TimezoneAssignment cached = assignmentsById.get(tzid);
+		if (cached != null && tzid.equals(getTimezoneId(cached)) && assignments.contains(cached)) {
+			return cached;
+		}
 
-			String componentId = ValuedProperty.getValue(component.getTimezoneId());
-			if (tzid.equals(componentId)) {
+		for (TimezoneAssignment assignment : assignments) {
+			if (tzid.equals(getTimezoneId(assignment))) {
+				rebuildIdIndex();
 				return assignment;
 			}
 		}
 		return null;
 	}
 
+	/**
+	 * Rebuilds the cache that is used by {@link #getTimezoneById}.
+	 */
+	private void rebuildIdIndex() {
+		assignmentsById.clear();
+		for (TimezoneAssignment assignment : assignments) {
+			String tzid = getTimezoneId(assignment);
+			if (tzid != null && !assignmentsById.containsKey(tzid)) {
+				assignmentsById.put(tzid, assignment);
+			}
+		}
+	}
+
+	/**
+	 * Gets the value of the {@link TimezoneId} property of an assignment's
+	 * {@link VTimezone} component.
+	 * @param assignment the assignment
+	 * @return the TZID or null if the assignment does not have a component
+	 */
+	private static String getTimezoneId(TimezoneAssignment assignment) {
+		VTimezone component = assignment.getComponent();
+		return (component == null) ? null : ValuedProperty.getValue(component.getTimezoneId());
+	}
+
 	/**
 	 * <p>
 	 * Gets whether to format all date/time values as floating times (defaults
@@ -215,6 +254,7 @@ public class TimezoneInfo {
 	 */
 	public void setGlobalFloatingTime(boolean enable) {
 		globalFloatingTime = enable;
+		modified();
 	}
 
 	/**
@@ -224,7 +264,7 @@ public class TimezoneInfo {
 	 * @return true to format in floating time, false not to
 	 */
 	public boolean isFloating(ICalProperty property) {
-		if (containsIdentity(floatingProperties, property)) {
+		if (floatingProperties.contains(property)) {
 			return true;
 		}
 
@@ -254,52 +294,53 @@ public class TimezoneInfo {
 		if (enable) {
 			floatingProperties.add(property);
 		} else {
-			removeIdentity(floatingProperties, property);
+			floatingProperties.remove(property);
 		}
+		modified();
 	}
 
 	/**
-	 * Gets all of the iCalendar {@link VTimezone} components that have been
-	 * registered with this object.
-	 * @return the components (this collection is immutable)
+	 * Gets the stamp of the last time the settings in this object that affect
+	 * how properties are written were modified, including changes to the
+	 * {@link VTimezone} components (see {@link ModificationStamps}).
+	 * @return the stamp or 0 if this object has not been modified since it was
+	 * created
 	 */
-	public Collection<VTimezone> getComponents() {
-		List<VTimezone> components = new ArrayList<VTimezone>(assignments.size());
+	public long getModificationStamp() {
+		if (modificationStamp == ModificationStamps.PENDING) {
+			modificationStamp = ModificationStamps.next();
+		}
+
+		long stamp = modificationStamp;
 		for (TimezoneAssignment assignment : assignments) {
 			VTimezone component = assignment.getComponent();
 			if (component != null) {
-				components.add(component);
+				stamp = Math.max(stamp, component.getModificationStamp());
 			}
 		}
-		return Collections.unmodifiableList(components);
+		return stamp;
 	}
 
 	/**
-	 * Removes an object from a list using reference equality.
-	 * @param list the list
-	 * @param object the object to remove
+	 * Records that the settings in this object were modified.
 	 */
-	private static <T> void removeIdentity(List<T> list, T object) {
-		Iterator<T> it = list.iterator();
-		while (it.hasNext()) {
-			if (object == it.next()) {
-				it.remove();
-			}
-		}
+	private void modified() {
+		modificationStamp = ModificationStamps.PENDING;
 	}
 
 	/**
-	 * Searches for an item in a list using reference equality.
-	 * @param list the list
-	 * @param object the object to search for
-	 * @return true if the object was found, false if not
+	 * Gets all of the iCalendar {@link VTimezone} components that have been
+	 * registered with this object.
+	 * @return the components (this collection is immutable)
 	 */
-	private static <T> boolean containsIdentity(List<T> list, T object) {
-		for (T item : list) {
-			if (item == object) {
-				return true;
+	public Collection<VTimezone> getComponents() {
+		List<VTimezone> components = new ArrayList<VTimezone>(assignments.size());
+		for (TimezoneAssignment assignment : assignments) {
+			VTimezone component = assignment.getComponent();
+			if (component != null) {
+				components.add(component);
 			}
 		}
-		return false;
+		return Collections.unmodifiableList(components);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,117 @@
+package biweekly.io;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * A map whose keys are compared by identity and held with weak references.
+ * An entry is removed once its key is garbage collected. This class is not
+ * thread-safe.
+ * @author Michael Angstadt
+ * @param <K> the key
+ * @param <V> the value
+ */
+class WeakIdentityMap<K, V> {
+	private final Map<Key<K>, V> map = new HashMap<Key<K>, V>();
+	private final ReferenceQueue<K> queue = new ReferenceQueue<K>();
+
+	/**
+	 * Gets a value.
+	 * @param key the key
+	 * @return the value or null if not found
+	 */
+	public V get(K key) {
+		purge();
+		return map.get(new Key<K>(key, null));
+	}
+
+	/**
+	 * Adds a value, replacing any existing value.
+	 * @param key the key
+	 * @param value the value
+	 */
+	public void put(K key, V value) {
+		purge();
+		map.put(new Key<K>(key, queue), value);
+	}
+
+	/**
+	 * Gets the number of entries in the map.
+	 * @return the number of entries
+	 */
+	public int size() {
+		purge();
+		return map.size();
+	}
+
+	/**
+	 * Removes all entries from the map.
+	 */
+	public void clear() {
+		map.clear();
+		purge();
+	}
+
+	/**
+	 * Removes the entries whose keys have been garbage collected.
+	 */
+	private void purge() {
+		Reference<? extends K> reference;
+		while ((reference = queue.poll()) != null) {
+			map.remove(reference);
+		}
+	}
+
+	/**
+	 * Weakly references an object and compares it by identity.
+	 */
+	private static class Key<K> extends WeakReference<K> {
+		private final int hash;
+
+		public Key(K key, ReferenceQueue<K> queue) {
+			super(key, queue);
+			hash = System.identityHashCode(key);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) return true;
+			if (!(obj instanceof Key)) return false;
+			Object key = get();
+			return key != null && key == ((Key<?>) obj).get();
+		}
+	}
+}
@@ -0,0 +1,171 @@
+package biweekly.io;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import biweekly.component.ICalComponent;
+import biweekly.io.StreamWriter.ComponentBuffer;
+import biweekly.util.ModificationStamps;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * <p>
+ * Caches the serialized forms of the top-level components (e.g. VEVENTs) of
+ * iCalendar objects, so that a component that has not changed since it was
+ * last written does not have to be serialized again. This is useful when the
+ * same iCalendar object is written over and over again, and only a few of its
+ * components change in between.
+ * </p>
+ * <p>
+ * A cached component is reused if nothing in the component (see
+ * {@link ICalComponent#getModificationStamp}) and none of the iCalendar
+ * object's timezone settings (see {@link TimezoneInfo#getModificationStamp})
+ * have been modified since it was cached, and if the writer's settings (such
+ * as the target version) are the same. Components are held with weak
+ * references, so they are removed from the cache once they are garbage
+ * collected.
+ * </p>
+ * <p>
+ * Components that contain properties whose modifications are not tracked,
+ * such as property classes that are defined outside of this library (see
+ * {@link biweekly.property.ICalProperty#isModificationTracked}), are
+ * considered to be modified every time they are written, so they are never
+ * served from the cache.
+ * </p>
+ * <p>
+ * This class is thread-safe, so it can be shared by writers that are running
+ * on different threads. It is supported by the plain-text and JSON writers.
+ * </p>
+ * <p>
+ * <b>Example:</b>
+ * </p>
+ *
+ * <pre class="brush:java">
+ * WriteCache cache = new WriteCache();
+ *
+ * //for each request
+ * ICalWriter writer = new ICalWriter(out, ICalVersion.V2_0);
+ * writer.setWriteCache(cache);
+ * writer.write(ical);
+ * </pre>
+ * @author Michael Angstadt
+ * @see StreamWriter#setWriteCache
+ */
+public class WriteCache {
+	private final WeakIdentityMap<ICalComponent, Entry> entries = new WeakIdentityMap<ICalComponent, Entry>();
+	private long hits = 0;
+	private long misses = 0;
+
+	/**
+	 * Gets the cached form of a component.
+	 * @param component the component
+	 * @param settings the settings of the writer that is writing the
+	 * component
+	 * @param stamp the stamp of the last modification to the component or to
+	 * the timezone settings
+	 * @return the cache entry or null if the component is not cached or if the
+	 * cached entry is out of date
+	 */
+	synchronized Entry get(ICalComponent component, Object settings, long stamp) {
+		Entry entry = entries.get(component);
+		if (entry == null || entry.stamp < stamp || !entry.settings.equals(settings)) {
+			misses++;
+			return null;
+		}
+
+		hits++;
+		return entry;
+	}
+
+	/**
+	 * Adds a component to the cache, replacing any existing entry. This must
+	 * be called after the component is serialized.
+	 * @param component the component
+	 * @param settings the settings of the writer that serialized the component
+	 * @param buffer the serialized component
+	 * @param dates the timezoned date-time values that were recorded when the
+	 * component was serialized (see {@link WriteContext#getDates})
+	 * @return the new entry
+	 */
+	synchronized Entry put(ICalComponent component, Object settings, ComponentBuffer buffer, List<Date> dates) {
+		List<Date> datesCopy = dates.isEmpty() ? Collections.<Date> emptyList() : Collections.unmodifiableList(new ArrayList<Date>(dates));
+		Entry entry = new Entry(settings, ModificationStamps.current(), buffer, datesCopy);
+		entries.put(component, entry);
+		return entry;
+	}
+
+	/**
+	 * Gets the number of components in the cache.
+	 * @return the number of components
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Removes all components from the cache.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Gets the number of times a cached component was reused.
+	 * @return the hit count
+	 */
+	public synchronized long getHitCount() {
+		return hits;
+	}
+
+	/**
+	 * Gets the number of times a component had to be serialized because it was
+	 * not cached or its cache entry was out of date.
+	 * @return the miss count
+	 */
+	public synchronized long getMissCount() {
+		return misses;
+	}
+
+	/**
+	 * A serialized component.
+	 */
+	static class Entry {
+		private final Object settings;
+		private final long stamp;
+		final ComponentBuffer buffer;
+		final List<Date> dates;
+
+		private Entry(Object settings, long stamp, ComponentBuffer buffer, List<Date> dates) {
+			this.settings = settings;
+			this.stamp = stamp;
+			this.buffer = buffer;
+			this.dates = dates;
+		}
+	}
+}
@@ -0,0 +1,279 @@
+package biweekly.io.chain;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+import biweekly.io.StreamReader;
+import biweekly.io.json.JCalReader;
+import biweekly.io.text.ICalReader;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * Splits a data stream into the individual iCalendar objects it contains,
+ * without parsing them. This allows the iCalendar objects to be parsed in
+ * parallel.
+ * @author Michael Angstadt
+ */
+abstract class CalendarSplitter implements Closeable {
+	final BufferedReader reader;
+	int lineOffset = 0;
+
+	/**
+	 * @param reader the data stream
+	 */
+	CalendarSplitter(Reader reader) {
+		this.reader = (reader instanceof BufferedReader) ? (BufferedReader) reader : new BufferedReader(reader);
+	}
+
+	/**
+	 * Reads the next iCalendar object from the data stream.
+	 * @return the raw iCalendar object or null if there are no more
+	 * @throws IOException if there's a problem reading from the data stream
+	 */
+	abstract String next() throws IOException;
+
+	/**
+	 * Creates a reader that parses a single, raw iCalendar object that was
+	 * returned by {@link #next}.
+	 * @param raw the raw iCalendar object
+	 * @return the reader
+	 */
+	abstract StreamReader reader(String raw);
+
+	/**
+	 * Gets the number of lines that come before the iCalendar object that was
+	 * last returned by {@link #next}.
+	 * @return the number of lines or zero if the data format is not line-based
+	 */
+	int getLineOffset() {
+		return lineOffset;
+	}
+
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	/**
+	 * Splits plain-text iCalendar data at its "BEGIN:VCALENDAR" and
+	 * "END:VCALENDAR" lines.
+	 */
+	static class Text extends CalendarSplitter {
+		private static final String BEGIN = "BEGIN:VCALENDAR";
+		private static final String END = "END:VCALENDAR";
+
+		private final boolean caretDecoding;
+		private int lineNumber = 0;
+
+		/**
+		 * @param reader the data stream
+		 * @param caretDecoding true to enable circumflex accent decoding in
+		 * the readers that are created, false not to
+		 */
+		Text(Reader reader, boolean caretDecoding) {
+			super(reader);
+			this.caretDecoding = caretDecoding;
+		}
+
+		@Override
+		StreamReader reader(String raw) {
+			ICalReader reader = new ICalReader(raw);
+			reader.setCaretDecodingEnabled(caretDecoding);
+			return reader;
+		}
+
+		@Override
+		String next() throws IOException {
+			StringBuilder sb = null;
+			int depth = 0;
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+
+				if (sb == null) {
+					//ignore everything until a VCALENDAR component is found
+					if (!matches(line, BEGIN)) {
+						continue;
+					}
+					sb = new StringBuilder();
+					lineOffset = lineNumber - 1;
+				}
+
+				sb.append(line).append("\r\n");
+
+				if (matches(line, BEGIN)) {
+					depth++;
+				} else if (matches(line, END)) {
+					depth--;
+					if (depth == 0) {
+						break;
+					}
+				}
+			}
+
+			/*
+			 * If the stream ended before the VCALENDAR component was closed,
+			 * return what was read and let the parser deal with it.
+			 */
+			return (sb == null) ? null : sb.toString();
+		}
+
+		/**
+		 * Determines if a line is equal to the given component delimiter,
+		 * ignoring case and trailing whitespace. Lines that start with
+		 * whitespace are folded lines, so they never match.
+		 * @param line the line
+		 * @param delimiter the delimiter (e.g. "BEGIN:VCALENDAR")
+		 * @return true if it matches, false if not
+		 */
+		private static boolean matches(String line, String delimiter) {
+			if (line.length() < delimiter.length() || !line.regionMatches(true, 0, delimiter, 0, delimiter.length())) {
+				return false;
+			}
+
+			for (int i = delimiter.length(); i < line.length(); i++) {
+				if (!Character.isWhitespace(line.charAt(i))) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Splits jCal data at its "vcalendar" arrays. Like the jCal reader,
+	 * anything that is not part of a "vcalendar" array (such as an enclosing
+	 * array) is skipped.
+	 */
+	static class Json extends CalendarSplitter {
+		private static final String VCALENDAR = "\"vcalendar\"";
+
+		private int pushback = -2;
+
+		Json(Reader reader) {
+			super(reader);
+		}
+
+		@Override
+		StreamReader reader(String raw) {
+			return new JCalReader(raw);
+		}
+
+		@Override
+		String next() throws IOException {
+			int c;
+			while ((c = read()) != -1) {
+				if (c == '"') {
+					readString(null);
+					continue;
+				}
+
+				if (c != '[') {
+					continue;
+				}
+
+				StringBuilder sb = new StringBuilder();
+				sb.append('[');
+
+				//look for a "vcalendar" string at the start of the array
+				while ((c = read()) != -1 && Character.isWhitespace(c)) {
+					sb.append((char) c);
+				}
+				if (c != '"') {
+					//this may be the start of a nested array, so put it back
+					pushback = c;
+					continue;
+				}
+
+				int stringStart = sb.length();
+				sb.append('"');
+				readString(sb);
+				if (!VCALENDAR.equals(sb.substring(stringStart))) {
+					continue;
+				}
+
+				//read the rest of the array
+				int depth = 1;
+				while ((c = read()) != -1) {
+					sb.append((char) c);
+					if (c == '"') {
+						readString(sb);
+					} else if (c == '[') {
+						depth++;
+					} else if (c == ']') {
+						depth--;
+						if (depth == 0) {
+							break;
+						}
+					}
+				}
+
+				/*
+				 * If the stream ended before the array was closed, return what
+				 * was read and let the parser deal with it.
+				 */
+				return sb.toString();
+			}
+
+			return null;
+		}
+
+		/**
+		 * Reads the rest of a JSON string, including the closing quote.
+		 * @param sb the buffer to append the string to, or null to skip it
+		 * @throws IOException if there's a problem reading from the data
+		 * stream
+		 */
+		private void readString(StringBuilder sb) throws IOException {
+			boolean escaped = false;
+			int c;
+			while ((c = read()) != -1) {
+				if (sb != null) {
+					sb.append((char) c);
+				}
+
+				if (escaped) {
+					escaped = false;
+				} else if (c == '\\') {
+					escaped = true;
+				} else if (c == '"') {
+					return;
+				}
+			}
+		}
+
+		private int read() throws IOException {
+			if (pushback != -2) {
+				int c = pushback;
+				pushback = -2;
+				return c;
+			}
+			return reader.read();
+		}
+	}
+}
@@ -71,4 +71,9 @@ public class ChainingJsonParser<T extends ChainingJsonParser<?>> extends Chainin
 		}
 		return new JCalReader(file);
 	}
+
+	@Override
+	CalendarSplitter constructSplitter() throws IOException {
+		return new CalendarSplitter.Json(openReader());
+	}
 }
@@ -3,19 +3,28 @@ package biweekly.io.chain;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.Reader;
+import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import biweekly.ICalendar;
 import biweekly.component.ICalComponent;
 import biweekly.io.ParseWarning;
+import biweekly.io.Projection;
 import biweekly.io.StreamReader;
 import biweekly.io.scribe.ScribeIndex;
 import biweekly.io.scribe.component.ICalComponentScribe;
 import biweekly.io.scribe.property.ICalPropertyScribe;
 import biweekly.property.ICalProperty;
+import biweekly.util.Utf8Reader;
 
 /*
  Copyright (c) 2013-2024, Michael Angstadt
@@ -49,6 +58,12 @@ import biweekly.property.ICalProperty;
  * @param <T> the object instance's type (for method chaining)
  */
 abstract class ChainingParser<T extends ChainingParser<?>> {
+	/**
+	 * The maximum number of iCalendar objects that are held in memory at once
+	 * when parsing in parallel (see {@link #parallel}).
+	 */
+	private static final int PARALLEL_WINDOW_SIZE = 64;
+
 	final String string;
 	final InputStream in;
 	final Reader reader;
@@ -57,6 +72,8 @@ abstract class ChainingParser<T extends ChainingParser<?>> {
 	ScribeIndex index;
 	List<List<ParseWarning>> warnings;
 	TimeZone defaultTimezone;
+	ExecutorService executor;
+	Projection projection;
 
 	@SuppressWarnings("unchecked")
 	final T this_ = (T) this;
@@ -140,19 +157,47 @@ abstract class ChainingParser<T extends ChainingParser<?>> {
 		return this_;
 	}
 
+	/**
+	 * Sets the components and properties to parse. Everything else is skipped
+	 * as it is read off the data stream.
+	 * @param projection the projection or null to parse everything (default)
+	 * @return this
+	 * @see Projection
+	 */
+	public T projection(Projection projection) {
+		this.projection = projection;
+		return this_;
+	}
+
+	/**
+	 * <p>
+	 * Parses the iCalendar objects in parallel when {@link #all} is called.
+	 * The data stream is split into individual iCalendar objects on the
+	 * calling thread, and each iCalendar object is parsed by a task that is
+	 * submitted to the given executor. The parsed iCalendar objects (and
+	 * their warnings) are returned in the order in which they appear in the
+	 * data stream.
+	 * </p>
+	 * <p>
+	 * This is only supported for plain-text and jCal data. It has no effect
+	 * on xCal data. The executor is not shut down when parsing completes.
+	 * </p>
+	 * @param executor the executor to submit the parsing tasks to or null to
+	 * parse on the calling thread
+	 * @return this
+	 */
+	public T parallel(ExecutorService executor) {
+		this.executor = executor;
+		return this_;
+	}
+
 	/**
 	 * Reads the first iCalendar object from the stream.
 	 * @return the iCalendar object or null if there are none
 	 * @throws IOException if there's an I/O problem
 	 */
 	public ICalendar first() throws IOException {
-		StreamReader reader = constructReader();
-		if (index != null) {
-			reader.setScribeIndex(index);
-		}
-		if (defaultTimezone != null) {
-			reader.setDefaultTimezone(defaultTimezone);
-		}
+		StreamReader reader = configure(constructReader());
 
 		try {
 			ICalendar ical = reader.readNext();
@@ -173,14 +218,15 @@ abstract class ChainingParser<T extends ChainingParser<?>> {
 	 * @throws IOException if there's an I/O problem
 	 */
 	public List<ICalendar> all() throws IOException {
-		StreamReader reader = constructReader();
-		if (index != null) {
-			reader.setScribeIndex(index);
-		}
-		if (defaultTimezone != null) {
-			reader.setDefaultTimezone(defaultTimezone);
+		if (executor != null) {
+			CalendarSplitter splitter = constructSplitter();
+			if (splitter != null) {
+				return allParallel(splitter);
+			}
 		}
 
+		StreamReader reader = configure(constructReader());
+
 		try {
 			List<ICalendar> icals = new ArrayList<ICalendar>();
 			ICalendar ical;
@@ -198,9 +244,171 @@ abstract class ChainingParser<T extends ChainingParser<?>> {
 		}
 	}
 
+	private List<ICalendar> allParallel(CalendarSplitter splitter) throws IOException {
+		//the workers share the index, so make sure it cannot be modified while they run
+		ScribeIndex workerIndex = (index == null) ? null : index.freeze();
+
+		List<ICalendar> icals = new ArrayList<ICalendar>();
+		LinkedList<Future<ParseResult>> pending = new LinkedList<Future<ParseResult>>();
+		try {
+			boolean more = true;
+			while (more || !pending.isEmpty()) {
+				while (more && pending.size() < PARALLEL_WINDOW_SIZE) {
+					String raw = splitter.next();
+					if (raw == null) {
+						more = false;
+						break;
+					}
+
+					final StreamReader reader = configure(splitter.reader(raw), workerIndex);
+					final int lineOffset = splitter.getLineOffset();
+					pending.add(executor.submit(new Callable<ParseResult>() {
+						public ParseResult call() throws IOException {
+							try {
+								ICalendar ical = reader.readNext();
+								return new ParseResult(ical, offsetLineNumbers(reader.getWarnings(), lineOffset));
+							} finally {
+								reader.close();
+							}
+						}
+					}));
+				}
+
+				if (pending.isEmpty()) {
+					break;
+				}
+
+				ParseResult result = get(pending.removeFirst());
+				if (result.ical == null) {
+					continue;
+				}
+
+				if (warnings != null) {
+					warnings.add(result.warnings);
+				}
+				icals.add(result.ical);
+			}
+			return icals;
+		} finally {
+			//if something went wrong, do not leave any tasks running
+			for (Future<ParseResult> future : pending) {
+				future.cancel(true);
+			}
+			if (closeWhenDone()) {
+				splitter.close();
+			}
+		}
+	}
+
+	/**
+	 * Converts the line numbers of the given warnings, which are relative to
+	 * the start of an iCalendar object, to line numbers that are relative to
+	 * the start of the data stream.
+	 * @param warnings the warnings
+	 * @param lineOffset the number of lines that come before the iCalendar
+	 * object
+	 * @return the converted warnings
+	 */
+	private static List<ParseWarning> offsetLineNumbers(List<ParseWarning> warnings, int lineOffset) {
+		if (lineOffset == 0) {
+			return warnings;
+		}
+
+		List<ParseWarning> converted = new ArrayList<ParseWarning>(warnings.size());
+		for (ParseWarning warning : warnings) {
+			Integer lineNumber = warning.getLineNumber();
+			if (lineNumber != null) {
+				//@formatter:off
+				warning = new ParseWarning.Builder(warning)
+					.lineNumber(lineNumber + lineOffset)
+					.build();
+				//@formatter:on
+			}
+			converted.add(warning);
+		}
+		return converted;
+	}
+
+	private static <V> V get(Future<V> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			InterruptedIOException ioe = new InterruptedIOException();
+			ioe.initCause(e);
+			throw ioe;
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new RuntimeException(cause);
+		}
+	}
+
+	private StreamReader configure(StreamReader reader) {
+		return configure(reader, index);
+	}
+
+	private StreamReader configure(StreamReader reader, ScribeIndex index) {
+		if (index != null) {
+			reader.setScribeIndex(index);
+		}
+		if (defaultTimezone != null) {
+			reader.setDefaultTimezone(defaultTimezone);
+		}
+		reader.setProjection(projection);
+		return reader;
+	}
+
 	abstract StreamReader constructReader() throws IOException;
 
+	/**
+	 * Creates an object that splits the data stream into individual iCalendar
+	 * objects so they can be parsed in parallel.
+	 * @return the splitter or null if the data format does not support
+	 * parallel parsing
+	 * @throws IOException if there's a problem opening the data stream
+	 */
+	CalendarSplitter constructSplitter() throws IOException {
+		return null;
+	}
+
+	/**
+	 * Opens the data stream as a character stream.
+	 * @return the character stream
+	 * @throws IOException if there's a problem opening the data stream
+	 */
+	Reader openReader() throws IOException {
+		if (string != null) {
+			return new StringReader(string);
+		}
+		if (in != null) {
+			return new Utf8Reader(in);
+		}
+		if (reader != null) {
+			return reader;
+		}
+		return new Utf8Reader(file);
+	}
+
 	private boolean closeWhenDone() {
 		return in == null && reader == null;
 	}
+
+	private static class ParseResult {
+		private final ICalendar ical;
+		private final List<ParseWarning> warnings;
+
+		public ParseResult(ICalendar ical, List<ParseWarning> warnings) {
+			this.ical = ical;
+			this.warnings = warnings;
+		}
+	}
 }
@@ -82,6 +82,11 @@ public class ChainingTextParser<T extends ChainingTextParser<?>> extends Chainin
 		return reader;
 	}
 
+	@Override
+	CalendarSplitter constructSplitter() throws IOException {
+		return new CalendarSplitter.Text(openReader(), caretDecoding);
+	}
+
 	private ICalReader newReader() throws IOException {
 		if (string != null) {
 			return new ICalReader(string);
@@ -9,6 +9,7 @@ import java.util.List;
 import java.util.Map;
 
 import biweekly.ICalDataType;
+import biweekly.io.Projection;
 import biweekly.io.scribe.ScribeIndex;
 import biweekly.parameter.ICalParameters;
 
@@ -50,11 +51,18 @@ import com.fasterxml.jackson.core.JsonToken;
 public class JCalRawReader implements Closeable {
 	private static final String VCALENDAR_COMPONENT_NAME = ScribeIndex.getICalendarScribe().getComponentName().toLowerCase(); //"vcalendar"
 
+	/**
+	 * Creating a {@link JsonFactory} is expensive, and the factory is
+	 * thread-safe, so a single instance is shared.
+	 */
+	private static final JsonFactory factory = new JsonFactory();
+
 	private final Reader reader;
 	private JsonParser parser;
 	private boolean eof = false;
 	private JCalDataStreamListener listener;
 	private boolean strict = false;
+	private Projection projection;
 
 	/**
 	 * @param reader the reader to wrap
@@ -85,6 +93,16 @@ public class JCalRawReader implements Closeable {
 		return (parser == null) ? 0 : parser.getCurrentLocation().getLineNr();
 	}
 
+	/**
+	 * Sets the components and properties to read. The JSON arrays of skipped
+	 * components and properties are skipped over without being passed to the
+	 * listener.
+	 * @param projection the projection or null to read everything
+	 */
+	public void setProjection(Projection projection) {
+		this.projection = projection;
+	}
+
 	/**
 	 * Reads the next iCalendar object from the jCal data stream.
 	 * @param listener handles the iCalendar data as it is read off the wire
@@ -95,7 +113,6 @@ public class JCalRawReader implements Closeable {
 	 */
 	public void readNext(JCalDataStreamListener listener) throws IOException {
 		if (parser == null) {
-			JsonFactory factory = new JsonFactory();
 			parser = factory.createParser(reader);
 		}
 
@@ -142,6 +159,11 @@ public class JCalRawReader implements Closeable {
 	private void parseComponent(List<String> components) throws IOException {
 		checkCurrent(JsonToken.VALUE_STRING);
 		String componentName = parser.getValueAsString();
+		if (projection != null && !projection.includesComponent(componentName, last(components))) {
+			skipRestOfArray();
+			return;
+		}
+
 		listener.readComponent(components, componentName);
 		components.add(componentName);
 
@@ -167,12 +189,21 @@ public class JCalRawReader implements Closeable {
 
 		//read the end of the component array (e.g. the last bracket in this example: ["comp", [ /* props */ ], [ /* comps */] ])
 		checkNext(JsonToken.END_ARRAY);
+
+		if (listener instanceof ComponentEndListener) {
+			components.remove(components.size() - 1);
+			((ComponentEndListener) listener).endComponent(components, componentName);
+		}
 	}
 
 	private void parseProperty(List<String> components) throws IOException {
 		//get property name
 		checkCurrent(JsonToken.VALUE_STRING);
 		String propertyName = parser.getValueAsString().toLowerCase();
+		if (projection != null && !projection.includesProperty(propertyName, last(components))) {
+			skipRestOfArray();
+			return;
+		}
 
 		ICalParameters parameters = parseParameters();
 
@@ -273,6 +304,25 @@ public class JCalRawReader implements Closeable {
 		}
 	}
 
+	/**
+	 * Skips over the remaining elements of the current array, including the
+	 * closing bracket.
+	 * @throws IOException if there's a problem reading from the data stream
+	 */
+	private void skipRestOfArray() throws IOException {
+		JsonToken token;
+		while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+			if (token == null) {
+				throw new JCalParseException(JsonToken.END_ARRAY, null);
+			}
+			parser.skipChildren();
+		}
+	}
+
+	private static String last(List<String> components) {
+		return components.isEmpty() ? null : components.get(components.size() - 1);
+	}
+
 	private void checkNext(JsonToken expected) throws IOException {
 		JsonToken actual = parser.nextToken();
 		check(expected, actual);
@@ -321,6 +371,21 @@ public class JCalRawReader implements Closeable {
 		void readProperty(List<String> componentHierarchy, String propertyName, ICalParameters parameters, ICalDataType dataType, JCalValue value);
 	}
 
+	/**
+	 * A {@link JCalDataStreamListener} that is also notified when the parser
+	 * finishes reading a component.
+	 * @author Michael Angstadt
+	 */
+	public interface ComponentEndListener extends JCalDataStreamListener {
+		/**
+		 * Called when the parser finishes reading a component (including all
+		 * of its properties and sub-components).
+		 * @param parentHierarchy the component's parent components
+		 * @param componentName the component name (e.g. "vevent")
+		 */
+		void endComponent(List<String> parentHierarchy, String componentName);
+	}
+
 	/**
 	 * Closes the underlying {@link Reader} object.
 	 */
@@ -24,7 +24,7 @@ import biweekly.io.CannotParseException;
 import biweekly.io.ParseWarning;
 import biweekly.io.SkipMeException;
 import biweekly.io.StreamReader;
-import biweekly.io.json.JCalRawReader.JCalDataStreamListener;
+import biweekly.io.json.JCalRawReader.ComponentEndListener;
 import biweekly.io.scribe.ScribeIndex;
 import biweekly.io.scribe.component.ICalComponentScribe;
 import biweekly.io.scribe.component.ICalendarScribe;
@@ -87,7 +87,7 @@ import biweekly.util.Utf8Reader;
  */
 public class JCalReader extends StreamReader {
 	private static final ICalendarScribe icalScribe = ScribeIndex.getICalendarScribe();
-	private final JCalRawReader reader;
+	private JCalRawReader reader;
 
 	/**
 	 * @param json the JSON string to read from
@@ -125,6 +125,38 @@ public class JCalReader extends StreamReader {
 		this.reader = new JCalRawReader(parser, true);
 	}
 
+	/**
+	 * <p>
+	 * Discards the reader's state and starts reading from a new data stream.
+	 * This allows a single reader instance to be reused (for example, by an
+	 * object pool). The reader's settings (such as its scribe index and
+	 * default timezone) are retained.
+	 * </p>
+	 * <p>
+	 * The previous data stream is not closed.
+	 * </p>
+	 * @param in the input stream to read from
+	 */
+	public void reset(InputStream in) {
+		reset(new Utf8Reader(in));
+	}
+
+	/**
+	 * <p>
+	 * Discards the reader's state and starts reading from a new data stream.
+	 * This allows a single reader instance to be reused (for example, by an
+	 * object pool). The reader's settings (such as its scribe index and
+	 * default timezone) are retained.
+	 * </p>
+	 * <p>
+	 * The previous data stream is not closed.
+	 * </p>
+	 * @param reader the reader to read from
+	 */
+	public void reset(Reader reader) {
+		this.reader = new JCalRawReader(reader);
+	}
+
 	/**
 	 * Reads the next iCalendar object from the JSON data stream.
 	 * @return the iCalendar object or null if there are no more
@@ -142,6 +174,7 @@ public class JCalReader extends StreamReader {
 		context.setVersion(ICalVersion.V2_0);
 
 		JCalDataStreamListenerImpl listener = new JCalDataStreamListenerImpl();
+		reader.setProjection(getProjection());
 		reader.readNext(listener);
 
 		return listener.getICalendar();
@@ -152,7 +185,7 @@ public class JCalReader extends StreamReader {
 		reader.close();
 	}
 
-	private class JCalDataStreamListenerImpl implements JCalDataStreamListener {
+	private class JCalDataStreamListenerImpl implements ComponentEndListener {
 		private final Map<List<String>, ICalComponent> components = new HashMap<List<String>, ICalComponent>();
 
 		public void readProperty(List<String> componentHierarchy, String propertyName, ICalParameters parameters, ICalDataType dataType, JCalValue value) {
@@ -167,7 +200,7 @@ public class JCalReader extends StreamReader {
 			ICalPropertyScribe<? extends ICalProperty> scribe = index.getPropertyScribe(propertyName, ICalVersion.V2_0);
 			try {
 				ICalProperty property = scribe.parseJson(value, dataType, parameters, context);
-				warnings.addAll(context.getWarnings());
+				addPropertyWarnings(context.getWarnings());
 
 				//set "ICalendar.version" if the value of the VERSION property is recognized
 				//otherwise, unmarshal VERSION like a normal property
@@ -215,6 +248,22 @@ public class JCalReader extends StreamReader {
 			components.put(hierarchy, component);
 		}
 
+		public void endComponent(List<String> parentHierarchy, String componentName) {
+			if (parentHierarchy.isEmpty()) {
+				return;
+			}
+
+			ICalComponent parent = components.get(parentHierarchy);
+			List<String> hierarchy = new ArrayList<String>(parentHierarchy);
+			hierarchy.add(componentName);
+			ICalComponent component = components.get(hierarchy);
+
+			ICalendar ical = getICalendar();
+			if (ical != null) {
+				onComponentRead(ical, parent, component);
+			}
+		}
+
 		public ICalendar getICalendar() {
 			if (components.isEmpty()) {
 				//EOF
@@ -5,6 +5,7 @@ import java.io.Flushable;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.List;
 
 import com.fasterxml.jackson.core.JsonGenerator;
@@ -15,6 +16,7 @@ import biweekly.ICalendar;
 import biweekly.component.ICalComponent;
 import biweekly.io.SkipMeException;
 import biweekly.io.StreamWriter;
+import biweekly.io.WriteContext;
 import biweekly.io.scribe.component.ICalComponentScribe;
 import biweekly.io.scribe.property.ICalPropertyScribe;
 import biweekly.parameter.ICalParameters;
@@ -131,6 +133,13 @@ public class JCalWriter extends StreamWriter implements Flushable {
 		this.writer = new JCalRawWriter(generator);
 	}
 
+	/**
+	 * @param writer the raw writer to write to
+	 */
+	private JCalWriter(JCalRawWriter writer) {
+		this.writer = writer;
+	}
+
 	/**
 	 * Gets whether or not the JSON will be pretty-printed.
 	 * @return true if it will be pretty-printed, false if not (defaults to
@@ -151,7 +160,43 @@ public class JCalWriter extends StreamWriter implements Flushable {
 
 	@Override
 	protected void _write(ICalendar ical) throws IOException {
-		writeComponent(ical);
+		write((ICalComponent) ical);
+	}
+
+	@Override
+	protected void _beginCalendar(ICalendar ical) throws IOException {
+		writeComponentStart(ical);
+	}
+
+	@Override
+	protected void _writeComponent(ICalendar ical, ICalComponent component) throws IOException {
+		if (!writeFromCache(ical, component)) {
+			write(component);
+		}
+	}
+
+	@Override
+	protected void _endCalendar(ICalendar ical) throws IOException {
+		writer.writeEndComponent();
+	}
+
+	@Override
+	protected ComponentBuffer _bufferComponents(ICalendar ical, List<ICalComponent> components, WriteContext context) throws IOException {
+		/*
+		 * The components are marshalled by the worker thread, but the JSON is
+		 * generated by the thread that is writing the iCalendar object. This
+		 * keeps the output identical to that of a sequential write, including
+		 * its pretty-printing.
+		 */
+		RecordingWriter recorder = new RecordingWriter();
+		JCalWriter worker = new JCalWriter(recorder);
+		worker.index = index;
+		worker.context = context;
+		for (ICalComponent component : components) {
+			worker.write(component);
+		}
+
+		return recorder;
 	}
 
 	@Override
@@ -168,8 +213,19 @@ public class JCalWriter extends StreamWriter implements Flushable {
 	 * {@code registerScribe} method.)
 	 * @throws IOException if there's a problem writing to the data stream
 	 */
+	private void write(ICalComponent component) throws IOException {
+		writeComponentStart(component);
+		writer.writeEndComponent();
+	}
+
+	/**
+	 * Writes a component's properties and sub-components, but does not close
+	 * the component.
+	 * @param component the component to write
+	 * @throws IOException if there's a problem writing to the data stream
+	 */
 	@SuppressWarnings({ "rawtypes", "unchecked" })
-	private void writeComponent(ICalComponent component) throws IOException {
+	private void writeComponentStart(ICalComponent component) throws IOException {
 		ICalComponentScribe componentScribe = index.getComponentScribe(component);
 		writer.writeStartComponent(componentScribe.getComponentName().toLowerCase());
 
@@ -203,10 +259,11 @@ public class JCalWriter extends StreamWriter implements Flushable {
 		addTimezoneComponentsIfMissing(component, subComponents);
 		for (Object subComponentObj : subComponents) {
 			ICalComponent subComponent = (ICalComponent) subComponentObj;
-			writeComponent(subComponent);
+			if (component instanceof ICalendar && writeFromCache((ICalendar) component, subComponent)) {
+				continue;
+			}
+			write(subComponent);
 		}
-
-		writer.writeEndComponent();
 	}
 
 	/**
@@ -234,4 +291,70 @@ public class JCalWriter extends StreamWriter implements Flushable {
 	public void closeJsonStream() throws IOException {
 		writer.closeJsonStream();
 	}
+
+	/**
+	 * Records the calls that are made to it so they can be replayed on another
+	 * raw writer later.
+	 */
+	private static class RecordingWriter extends JCalRawWriter implements ComponentBuffer {
+		private final List<Call> calls = new ArrayList<Call>();
+
+		public RecordingWriter() {
+			super((Writer) null, false);
+		}
+
+		@Override
+		public void writeStartComponent(String componentName) {
+			calls.add(new Call(componentName, null, null, null));
+		}
+
+		@Override
+		public void writeEndComponent() {
+			calls.add(new Call(null, null, null, null));
+		}
+
+		@Override
+		public void writeProperty(String propertyName, ICalParameters parameters, ICalDataType dataType, JCalValue value) {
+			calls.add(new Call(propertyName, parameters, dataType, value));
+		}
+
+		public void writeTo(StreamWriter writer) throws IOException {
+			replay(((JCalWriter) writer).writer);
+		}
+
+		/**
+		 * Makes the recorded calls on another raw writer.
+		 * @param writer the raw writer
+		 * @throws IOException if there's an I/O problem
+		 */
+		public void replay(JCalRawWriter writer) throws IOException {
+			for (Call call : calls) {
+				if (call.value != null) {
+					writer.writeProperty(call.name, call.parameters, call.dataType, call.value);
+				} else if (call.name != null) {
+					writer.writeStartComponent(call.name);
+				} else {
+					writer.writeEndComponent();
+				}
+			}
+		}
+
+		/**
+		 * A recorded call. Property calls have a value, start component calls
+		 * only have a name, and end component calls have neither.
+		 */
+		private static class Call {
+			private final String name;
+			private final ICalParameters parameters;
+			private final ICalDataType dataType;
+			private final JCalValue value;
+
+			public Call(String name, ICalParameters parameters, ICalDataType dataType, JCalValue value) {
+				this.name = name;
+				this.parameters = parameters;
+				this.dataType = dataType;
+				this.value = value;
+			}
+		}
+	}
 }
@@ -1,5 +1,6 @@
 package biweekly.io.scribe;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -7,6 +8,7 @@ import javax.xml.namespace.QName;
 
 import biweekly.ICalVersion;
 import biweekly.ICalendar;
+import biweekly.Messages;
 import biweekly.component.ICalComponent;
 import biweekly.component.RawComponent;
 import biweekly.io.scribe.component.DaylightSavingsTimeScribe;
@@ -146,6 +148,14 @@ import biweekly.property.Xml;
  *   writer.write(ical);
  * }
  * </pre>
+ * <p>
+ * A ScribeIndex is not thread-safe while scribes are being registered. Once
+ * all scribes have been registered, call {@link #freeze} to get an immutable
+ * copy that can be shared by any number of readers and writers across
+ * threads. Readers and writers use a shared, frozen index by default (see
+ * {@link #getDefault}), so they do not have to build their own index unless
+ * a scribe is registered with them.
+ * </p>
  * @author Michael Angstadt
  */
 public class ScribeIndex {
@@ -240,12 +250,79 @@ public class ScribeIndex {
 		registerStandard(new RefreshIntervalScribe());
 	}
 
-	private final Map<String, ICalComponentScribe<? extends ICalComponent>> experimentalCompByName = new HashMap<String, ICalComponentScribe<? extends ICalComponent>>(0);
-	private final Map<Class<? extends ICalComponent>, ICalComponentScribe<? extends ICalComponent>> experimentalCompByClass = new HashMap<Class<? extends ICalComponent>, ICalComponentScribe<? extends ICalComponent>>(0);
+	private static final ScribeIndex DEFAULT = new ScribeIndex().freeze();
+
+	private final Map<String, ICalComponentScribe<? extends ICalComponent>> experimentalCompByName;
+	private final Map<Class<? extends ICalComponent>, ICalComponentScribe<? extends ICalComponent>> experimentalCompByClass;
+
+	private final Map<String, ICalPropertyScribe<? extends ICalProperty>> experimentalPropByName;
+	private final Map<Class<? extends ICalProperty>, ICalPropertyScribe<? extends ICalProperty>> experimentalPropByClass;
+	private final Map<QName, ICalPropertyScribe<? extends ICalProperty>> experimentalPropByQName;
 
-	private final Map<String, ICalPropertyScribe<? extends ICalProperty>> experimentalPropByName = new HashMap<String, ICalPropertyScribe<? extends ICalProperty>>(0);
-	private final Map<Class<? extends ICalProperty>, ICalPropertyScribe<? extends ICalProperty>> experimentalPropByClass = new HashMap<Class<? extends ICalProperty>, ICalPropertyScribe<? extends ICalProperty>>(0);
-	private final Map<QName, ICalPropertyScribe<? extends ICalProperty>> experimentalPropByQName = new HashMap<QName, ICalPropertyScribe<? extends ICalProperty>>(0);
+	private final boolean frozen;
+
+	/**
+	 * Creates an empty scribe index that only contains the standard scribes.
+	 */
+	public ScribeIndex() {
+		experimentalCompByName = new HashMap<String, ICalComponentScribe<? extends ICalComponent>>(0);
+		experimentalCompByClass = new HashMap<Class<? extends ICalComponent>, ICalComponentScribe<? extends ICalComponent>>(0);
+		experimentalPropByName = new HashMap<String, ICalPropertyScribe<? extends ICalProperty>>(0);
+		experimentalPropByClass = new HashMap<Class<? extends ICalProperty>, ICalPropertyScribe<? extends ICalProperty>>(0);
+		experimentalPropByQName = new HashMap<QName, ICalPropertyScribe<? extends ICalProperty>>(0);
+		frozen = false;
+	}
+
+	/**
+	 * Copy constructor. The copy is never frozen.
+	 * @param original the scribe index to copy
+	 */
+	public ScribeIndex(ScribeIndex original) {
+		experimentalCompByName = new HashMap<String, ICalComponentScribe<? extends ICalComponent>>(original.experimentalCompByName);
+		experimentalCompByClass = new HashMap<Class<? extends ICalComponent>, ICalComponentScribe<? extends ICalComponent>>(original.experimentalCompByClass);
+		experimentalPropByName = new HashMap<String, ICalPropertyScribe<? extends ICalProperty>>(original.experimentalPropByName);
+		experimentalPropByClass = new HashMap<Class<? extends ICalProperty>, ICalPropertyScribe<? extends ICalProperty>>(original.experimentalPropByClass);
+		experimentalPropByQName = new HashMap<QName, ICalPropertyScribe<? extends ICalProperty>>(original.experimentalPropByQName);
+		frozen = false;
+	}
+
+	private ScribeIndex(ScribeIndex original, boolean frozen) {
+		ScribeIndex copy = new ScribeIndex(original);
+		experimentalCompByName = Collections.unmodifiableMap(copy.experimentalCompByName);
+		experimentalCompByClass = Collections.unmodifiableMap(copy.experimentalCompByClass);
+		experimentalPropByName = Collections.unmodifiableMap(copy.experimentalPropByName);
+		experimentalPropByClass = Collections.unmodifiableMap(copy.experimentalPropByClass);
+		experimentalPropByQName = Collections.unmodifiableMap(copy.experimentalPropByQName);
+		this.frozen = frozen;
+	}
+
+	/**
+	 * Gets a shared, frozen scribe index that only contains the standard
+	 * scribes.
+	 * @return the scribe index
+	 */
+	public static ScribeIndex getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Creates an immutable copy of this scribe index. A frozen index can be
+	 * safely shared between threads. Attempting to register or unregister a
+	 * scribe with it will throw an {@link UnsupportedOperationException}.
+	 * @return the frozen copy (or this object if it is already frozen)
+	 */
+	public ScribeIndex freeze() {
+		return frozen ? this : new ScribeIndex(this, true);
+	}
+
+	/**
+	 * Determines if this scribe index is immutable.
+	 * @return true if it is frozen, false if not
+	 * @see #freeze
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
 
 	/**
 	 * Gets a component scribe by name.
@@ -380,8 +457,10 @@ public class ScribeIndex {
 	/**
 	 * Registers a component scribe.
 	 * @param scribe the scribe to register
+	 * @throws UnsupportedOperationException if this index is frozen
 	 */
 	public void register(ICalComponentScribe<? extends ICalComponent> scribe) {
+		checkNotFrozen();
 		experimentalCompByName.put(scribe.getComponentName().toUpperCase(), scribe);
 		experimentalCompByClass.put(scribe.getComponentClass(), scribe);
 	}
@@ -389,8 +468,10 @@ public class ScribeIndex {
 	/**
 	 * Registers a property scribe.
 	 * @param scribe the scribe to register
+	 * @throws UnsupportedOperationException if this index is frozen
 	 */
 	public void register(ICalPropertyScribe<? extends ICalProperty> scribe) {
+		checkNotFrozen();
 		for (ICalVersion version : ICalVersion.values()) {
 			experimentalPropByName.put(propertyNameKey(scribe, version), scribe);
 		}
@@ -401,8 +482,10 @@ public class ScribeIndex {
 	/**
 	 * Unregisters a component scribe.
 	 * @param scribe the scribe to unregister
+	 * @throws UnsupportedOperationException if this index is frozen
 	 */
 	public void unregister(ICalComponentScribe<? extends ICalComponent> scribe) {
+		checkNotFrozen();
 		experimentalCompByName.remove(scribe.getComponentName().toUpperCase());
 		experimentalCompByClass.remove(scribe.getComponentClass());
 	}
@@ -410,8 +493,10 @@ public class ScribeIndex {
 	/**
 	 * Unregisters a property scribe
 	 * @param scribe the scribe to unregister
+	 * @throws UnsupportedOperationException if this index is frozen
 	 */
 	public void unregister(ICalPropertyScribe<? extends ICalProperty> scribe) {
+		checkNotFrozen();
 		for (ICalVersion version : ICalVersion.values()) {
 			experimentalPropByName.remove(propertyNameKey(scribe, version));
 		}
@@ -428,6 +513,12 @@ public class ScribeIndex {
 		return (ICalendarScribe) standardCompByClass.get(ICalendar.class);
 	}
 
+	private void checkNotFrozen() {
+		if (frozen) {
+			throw new UnsupportedOperationException(Messages.INSTANCE.getExceptionMessage(28));
+		}
+	}
+
 	private static void registerStandard(ICalComponentScribe<? extends ICalComponent> scribe) {
 		standardCompByName.put(scribe.getComponentName().toUpperCase(), scribe);
 		standardCompByClass.put(scribe.getComponentClass(), scribe);
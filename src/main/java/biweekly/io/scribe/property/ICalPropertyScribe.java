@@ -259,7 +259,22 @@ public abstract class ICalPropertyScribe<T extends ICalProperty> {
 	 * {@link ICalendar} object
 	 */
 	public final T parseXml(Element element, ICalParameters parameters, ParseContext context) {
-		T property = _parseXml(new XCalElement(element), parameters, context);
+		return parseXml(new XCalElement(element), parameters, context);
+	}
+
+	/**
+	 * Unmarshals a property's value from an XML document (xCal).
+	 * @param element the property's XML element
+	 * @param parameters the property's parameters
+	 * @param context the context
+	 * @return the unmarshalled property
+	 * @throws CannotParseException if the scribe could not parse the property's
+	 * value
+	 * @throws SkipMeException if the property should not be added to the final
+	 * {@link ICalendar} object
+	 */
+	public final T parseXml(XCalElement element, ICalParameters parameters, ParseContext context) {
+		T property = _parseXml(element, parameters, context);
 		property.setParameters(parameters);
 		return property;
 	}
@@ -662,6 +677,7 @@ public abstract class ICalPropertyScribe<T extends ICalProperty> {
 	protected static class DateWriter {
 		private ICalDate date;
 		private TimeZone timezone;
+		private boolean floating = false;
 		private boolean observance = false;
 		private boolean extended = false;
 		private boolean utc = false;
@@ -705,6 +721,7 @@ public abstract class ICalPropertyScribe<T extends ICalProperty> {
 			if (floating) {
 				timezone = TimeZone.getDefault();
 			}
+			this.floating = floating;
 			this.timezone = timezone;
 			return this;
 		}
@@ -756,6 +773,17 @@ public abstract class ICalPropertyScribe<T extends ICalProperty> {
 		}
 
 		private String writeDateTime() {
+			if (floating) {
+				/*
+				 * Write the local date-time exactly as it was parsed so that
+				 * the value does not depend on the JVM's default timezone.
+				 */
+				DateTimeComponents components = date.getRawComponents();
+				if (components != null && !components.isUtc()) {
+					return components.toString(true, extended);
+				}
+			}
+
 			ICalDateFormat format;
 			if (timezone == null) {
 				format = extended ? ICalDateFormat.UTC_TIME_EXTENDED : ICalDateFormat.UTC_TIME_BASIC;
@@ -0,0 +1,218 @@
+package biweekly.io.scribe.property;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import biweekly.ICalVersion;
+import biweekly.Messages;
+import biweekly.io.ParseContext;
+import biweekly.io.ParseWarning;
+import biweekly.util.Recurrence;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * <p>
+ * Caches the {@link Recurrence} objects that are parsed from the plain-text
+ * values of RRULE and EXRULE properties. Calendars that contain many
+ * recurring events tend to repeat the same handful of rules, so each distinct
+ * rule only has to be parsed once.
+ * </p>
+ * <p>
+ * Entries are keyed by the raw property value and the iCalendar version. The
+ * parse warnings that were generated when a value was first parsed are stored
+ * along with it, and are added to the parse context again (with the current
+ * line number and property name) whenever the cached value is used. Because
+ * {@link Recurrence} objects are immutable, the same instance is shared by all
+ * of the properties that have the same value.
+ * </p>
+ * <p>
+ * This class is thread-safe. When the cache is full, arbitrary entries are
+ * evicted to make room for new ones.
+ * </p>
+ * @author Michael Angstadt
+ * @see RecurrencePropertyScribe#getCache
+ */
+public class RecurrenceCache {
+	/**
+	 * The default maximum number of entries.
+	 */
+	public static final int DEFAULT_MAX_SIZE = 1000;
+
+	private final ConcurrentMap<String, Entry> cache = new ConcurrentHashMap<String, Entry>();
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private volatile int maxSize;
+
+	/**
+	 * Creates a new cache.
+	 */
+	public RecurrenceCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Creates a new cache.
+	 * @param maxSize the maximum number of entries (0 to disable caching)
+	 */
+	public RecurrenceCache(int maxSize) {
+		setMaxSize(maxSize);
+	}
+
+	/**
+	 * Gets a cached recurrence. If one is found, the warnings that were
+	 * generated when the value was first parsed are added to the given parse
+	 * context.
+	 * @param version the iCalendar version
+	 * @param value the raw property value
+	 * @param context the parse context
+	 * @return the cached recurrence or null if the value is not cached
+	 */
+	public Recurrence get(ICalVersion version, String value, ParseContext context) {
+		if (maxSize == 0) {
+			return null;
+		}
+
+		Entry entry = cache.get(key(version, value));
+		if (entry == null) {
+			misses.incrementAndGet();
+			return null;
+		}
+
+		hits.incrementAndGet();
+		for (ParseWarning warning : entry.warnings) {
+			//@formatter:off
+			context.getWarnings().add(new ParseWarning.Builder(warning)
+				.lineNumber(context.getLineNumber())
+				.propertyName(context.getPropertyName())
+			.build());
+			//@formatter:on
+		}
+		return entry.recurrence;
+	}
+
+	/**
+	 * Adds a recurrence to the cache.
+	 * @param version the iCalendar version
+	 * @param value the raw property value
+	 * @param recurrence the recurrence that was parsed from the value
+	 * @param warnings the warnings that were generated while parsing the value
+	 */
+	public void put(ICalVersion version, String value, Recurrence recurrence, List<ParseWarning> warnings) {
+		if (maxSize == 0) {
+			return;
+		}
+
+		List<ParseWarning> copy = warnings.isEmpty() ? Collections.<ParseWarning> emptyList() : Collections.unmodifiableList(new ArrayList<ParseWarning>(warnings));
+		evictIfFull();
+		cache.put(key(version, value), new Entry(recurrence, copy));
+	}
+
+	/**
+	 * Gets the maximum number of entries.
+	 * @return the maximum number of entries
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Sets the maximum number of entries. Existing entries are evicted if the
+	 * cache is larger than the new size.
+	 * @param maxSize the maximum number of entries (0 to disable caching)
+	 */
+	public void setMaxSize(int maxSize) {
+		if (maxSize < 0) {
+			throw Messages.INSTANCE.getIllegalArgumentException(38);
+		}
+		this.maxSize = maxSize;
+		trim(maxSize);
+	}
+
+	/**
+	 * Gets the number of entries in the cache.
+	 * @return the number of entries
+	 */
+	public int size() {
+		return cache.size();
+	}
+
+	/**
+	 * Gets the number of times a value was found in the cache.
+	 * @return the hit count
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * Gets the number of times a value was not found in the cache.
+	 * @return the miss count
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * Removes all entries from the cache and resets the hit and miss counts.
+	 */
+	public void clear() {
+		cache.clear();
+		hits.set(0);
+		misses.set(0);
+	}
+
+	private void evictIfFull() {
+		trim(maxSize - 1);
+	}
+
+	private void trim(int size) {
+		Iterator<String> it = cache.keySet().iterator();
+		while (cache.size() > size && it.hasNext()) {
+			it.next();
+			it.remove();
+		}
+	}
+
+	private static String key(ICalVersion version, String value) {
+		return version.ordinal() + value;
+	}
+
+	private static class Entry {
+		private final Recurrence recurrence;
+		private final List<ParseWarning> warnings;
+
+		public Entry(Recurrence recurrence, List<ParseWarning> warnings) {
+			this.recurrence = recurrence;
+			this.warnings = warnings;
+		}
+	}
+}
@@ -5,8 +5,6 @@ import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.w3c.dom.Element;
-
 import com.github.mangstadt.vinnie.io.VObjectPropertyValues;
 
 import biweekly.ICalDataType;
@@ -32,7 +30,6 @@ import biweekly.util.Frequency;
 import biweekly.util.ICalDate;
 import biweekly.util.ListMultimap;
 import biweekly.util.Recurrence;
-import biweekly.util.XmlUtils;
 
 /*
  Copyright (c) 2013-2024, Michael Angstadt
@@ -80,6 +77,18 @@ public abstract class RecurrencePropertyScribe<T extends RecurrenceProperty> ext
 	private static final String BYSETPOS = "BYSETPOS";
 	private static final String WKST = "WKST";
 
+	private static final RecurrenceCache cache = new RecurrenceCache();
+
+	/**
+	 * Gets the cache that holds the recurrence rules that were parsed from
+	 * plain-text property values. The cache is shared by all RRULE and EXRULE
+	 * scribes.
+	 * @return the cache
+	 */
+	public static RecurrenceCache getCache() {
+		return cache;
+	}
+
 	protected RecurrencePropertyScribe(Class<T> clazz, String propertyName) {
 		super(clazz, propertyName);
 	}
@@ -142,7 +151,7 @@ public abstract class RecurrencePropertyScribe<T extends RecurrenceProperty> ext
 
 		List<String> rrules = RecurrenceParserV1.splitPropertyValue(value);
 		if (rrules.size() == 1) {
-			Recurrence recur = parser.parse(value);
+			Recurrence recur = parse(value, context, parser);
 			return newInstance(recur, context, parameters);
 		}
 
@@ -157,7 +166,7 @@ public abstract class RecurrencePropertyScribe<T extends RecurrenceProperty> ext
 
 			ICalProperty property;
 			try {
-				Recurrence recur = parser.parse(rrule);
+				Recurrence recur = parse(rrule, context, parser);
 				property = newInstance(recur, context, parameters);
 			} catch (CannotParseException e) {
 				//@formatter:off
@@ -176,6 +185,35 @@ public abstract class RecurrencePropertyScribe<T extends RecurrenceProperty> ext
 	}
 
 	private T parseTextV2(String value, ICalDataType dataType, ICalParameters parameters, ParseContext context) {
+		Recurrence recur = parse(value, context, null);
+		return newInstance(recur, context, parameters);
+	}
+
+	/**
+	 * Parses a plain-text recurrence rule, using the cache if possible.
+	 * @param value the rule
+	 * @param context the parse context
+	 * @param parserV1 the parser to use for version 1.0 rules (null for other
+	 * versions)
+	 * @return the parsed rule
+	 * @throws CannotParseException if the rule cannot be parsed (these are not
+	 * cached)
+	 */
+	private Recurrence parse(String value, ParseContext context, RecurrenceParserV1 parserV1) {
+		ICalVersion version = context.getVersion();
+		Recurrence recur = cache.get(version, value, context);
+		if (recur != null) {
+			return recur;
+		}
+
+		List<ParseWarning> warnings = context.getWarnings();
+		int warningsBefore = warnings.size();
+		recur = (parserV1 == null) ? parseV2(value, context) : parserV1.parse(value);
+		cache.put(version, value, recur, warnings.subList(warningsBefore, warnings.size()));
+		return recur;
+	}
+
+	private Recurrence parseV2(String value, ParseContext context) {
 		Recurrence.Builder builder = new Recurrence.Builder((Frequency) null);
 		ListMultimap<String, String> rules = new ListMultimap<String, String>(VObjectPropertyValues.parseMultimap(value));
 
@@ -195,7 +233,7 @@ public abstract class RecurrencePropertyScribe<T extends RecurrenceProperty> ext
 		parseWkst(rules, builder, context);
 		parseXRules(rules, builder); //must be called last
 
-		return newInstance(builder.build(), context, parameters);
+		return builder.build();
 	}
 
 	@Override
@@ -225,7 +263,7 @@ public abstract class RecurrencePropertyScribe<T extends RecurrenceProperty> ext
 		}
 
 		ListMultimap<String, String> rules = new ListMultimap<String, String>();
-		for (Element child : XmlUtils.toElementList(value.getElement().getChildNodes())) {
+		for (XCalElement child : value.children()) {
 			if (!XCalNamespaceContext.XCAL_NS.equals(child.getNamespaceURI())) {
 				continue;
 			}
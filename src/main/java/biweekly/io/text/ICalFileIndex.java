@@ -0,0 +1,624 @@
+package biweekly.io.text;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import biweekly.ICalVersion;
+import biweekly.ICalendar;
+import biweekly.Messages;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * <p>
+ * Records the byte offset of every top-level component (VEVENT, VTODO, etc)
+ * in an iCalendar file, allowing individual components to be parsed without
+ * parsing the rest of the file.
+ * </p>
+ * <p>
+ * The index is built by scanning the file once. The scan only looks at line
+ * boundaries and BEGIN/END lines. The UID, RECURRENCE-ID, and DTSTART values
+ * of each component are stored as raw, unparsed strings. The index can be
+ * saved to a stream and loaded again later so the file does not have to be
+ * rescanned.
+ * </p>
+ * <p>
+ * When a component is read, the properties and VTIMEZONE components of the
+ * VCALENDAR component it belongs to are read along with it, so timezones are
+ * applied to its date-time values. Line numbers in parse warnings are
+ * relative to this data, not to the file.
+ * </p>
+ * <p>
+ * <b>Example:</b>
+ * </p>
+ *
+ * <pre class="brush:java">
+ * File file = new File("archive.ics");
+ * ICalFileIndex index = ICalFileIndex.build(file);
+ * for (ICalFileIndex.Entry entry : index.getEntries("1234@example.com")) {
+ *   ICalendar ical = index.read(file, entry);
+ *   VEvent event = ical.getEvents().get(0);
+ * }
+ * </pre>
+ * @author Michael Angstadt
+ */
+public class ICalFileIndex {
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final byte[] END_VCALENDAR = "END:VCALENDAR\r\n".getBytes(UTF8);
+	private static final byte[] NEWLINE = "\r\n".getBytes(UTF8);
+
+	/**
+	 * Identifies the index format when an index is saved.
+	 */
+	private static final int MAGIC = 0x69436958; //"iCiX"
+	private static final int FORMAT_VERSION = 1;
+
+	private final long fileSize;
+	private final List<Calendar> calendars;
+	private final List<Entry> entries;
+	private final Map<String, List<Entry>> entriesByUid;
+
+	private ICalFileIndex(long fileSize, List<Calendar> calendars, List<Entry> entries) {
+		this.fileSize = fileSize;
+		this.calendars = calendars;
+		this.entries = Collections.unmodifiableList(entries);
+
+		entriesByUid = new HashMap<String, List<Entry>>();
+		for (Entry entry : entries) {
+			if (entry.uid == null) {
+				continue;
+			}
+
+			List<Entry> list = entriesByUid.get(entry.uid);
+			if (list == null) {
+				list = new ArrayList<Entry>(1);
+				entriesByUid.put(entry.uid, list);
+			}
+			list.add(entry);
+		}
+	}
+
+	/**
+	 * Builds an index by scanning an iCalendar file.
+	 * @param file the file
+	 * @return the index
+	 * @throws IOException if there's a problem reading the file
+	 */
+	public static ICalFileIndex build(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			LineScanner lines = new LineScanner(channel, channel.size());
+			Scanner scanner = new Scanner();
+			scanner.scan(lines);
+			return new ICalFileIndex(lines.size(), scanner.calendars, scanner.entries);
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Loads an index that was saved with {@link #save}.
+	 * @param in the input stream to read from (not closed)
+	 * @return the index
+	 * @throws IOException if there's a problem reading from the stream or the
+	 * stream does not contain an index
+	 */
+	public static ICalFileIndex load(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+		if (data.readInt() != MAGIC) {
+			throw new IOException(Messages.INSTANCE.getExceptionMessage(41));
+		}
+		int formatVersion = data.readInt();
+		if (formatVersion != FORMAT_VERSION) {
+			throw new IOException(Messages.INSTANCE.getExceptionMessage(42, formatVersion));
+		}
+
+		long fileSize = data.readLong();
+
+		int calendarCount = data.readInt();
+		List<Calendar> calendars = new ArrayList<Calendar>(calendarCount);
+		for (int i = 0; i < calendarCount; i++) {
+			Calendar calendar = new Calendar(data.readLong());
+			calendar.headerLength = data.readInt();
+			int timezoneCount = data.readInt();
+			for (int j = 0; j < timezoneCount; j++) {
+				calendar.timezoneOffsets.add(data.readLong());
+				calendar.timezoneLengths.add(data.readInt());
+			}
+			calendars.add(calendar);
+		}
+
+		int entryCount = data.readInt();
+		List<Entry> entries = new ArrayList<Entry>(entryCount);
+		for (int i = 0; i < entryCount; i++) {
+			int calendar = data.readInt();
+			String componentName = data.readUTF();
+			String uid = readNullable(data);
+			String recurrenceId = readNullable(data);
+			String dateStart = readNullable(data);
+			long offset = data.readLong();
+			int length = data.readInt();
+			entries.add(new Entry(calendar, componentName, uid, recurrenceId, dateStart, offset, length));
+		}
+
+		return new ICalFileIndex(fileSize, calendars, entries);
+	}
+
+	/**
+	 * Saves the index.
+	 * @param out the output stream to write to (not closed)
+	 * @throws IOException if there's a problem writing to the stream
+	 */
+	public void save(OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+		data.writeInt(MAGIC);
+		data.writeInt(FORMAT_VERSION);
+		data.writeLong(fileSize);
+
+		data.writeInt(calendars.size());
+		for (Calendar calendar : calendars) {
+			data.writeLong(calendar.offset);
+			data.writeInt(calendar.headerLength);
+			data.writeInt(calendar.timezoneOffsets.size());
+			for (int i = 0; i < calendar.timezoneOffsets.size(); i++) {
+				data.writeLong(calendar.timezoneOffsets.get(i));
+				data.writeInt(calendar.timezoneLengths.get(i));
+			}
+		}
+
+		data.writeInt(entries.size());
+		for (Entry entry : entries) {
+			data.writeInt(entry.calendar);
+			data.writeUTF(entry.componentName);
+			writeNullable(data, entry.uid);
+			writeNullable(data, entry.recurrenceId);
+			writeNullable(data, entry.dateStart);
+			data.writeLong(entry.offset);
+			data.writeInt(entry.length);
+		}
+
+		data.flush();
+	}
+
+	/**
+	 * Gets the size of the file at the time it was indexed.
+	 * @return the size in bytes
+	 */
+	public long getFileSize() {
+		return fileSize;
+	}
+
+	/**
+	 * Gets all of the indexed components, in the order they appear in the
+	 * file.
+	 * @return the entries (immutable)
+	 */
+	public List<Entry> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * Gets the indexed components that have a given UID. A UID can be shared
+	 * by multiple components if the components represent instances of a
+	 * recurring event (see {@link Entry#getRecurrenceId}).
+	 * @param uid the UID
+	 * @return the entries (immutable, may be empty)
+	 */
+	public List<Entry> getEntries(String uid) {
+		List<Entry> list = entriesByUid.get(uid);
+		return (list == null) ? Collections.<Entry> emptyList() : Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * Parses a single indexed component.
+	 * @param file the file that was indexed
+	 * @param entry the component
+	 * @return an iCalendar object that contains the component, along with
+	 * the properties and timezones of the VCALENDAR component that the
+	 * component belongs to
+	 * @throws IOException if there's a problem reading the file
+	 * @throws IllegalStateException if the file has changed size since it was
+	 * indexed or if the component is no longer at the indexed position
+	 */
+	public ICalendar read(File file, Entry entry) throws IOException {
+		ICalReader reader = reader(file, entry, ICalVersion.V2_0);
+		try {
+			return reader.readNext();
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Creates a reader that parses a single indexed component. Use this method
+	 * instead of {@link #read} to access the parse warnings or to configure the
+	 * reader.
+	 * @param file the file that was indexed
+	 * @param entry the component
+	 * @param defaultVersion the version to assume the iCalendar object is in
+	 * until a VERSION property is encountered
+	 * @return the reader
+	 * @throws IOException if there's a problem reading the file
+	 * @throws IllegalStateException if the file has changed size since it was
+	 * indexed or if the component is no longer at the indexed position
+	 */
+	public ICalReader reader(File file, Entry entry, ICalVersion defaultVersion) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			if (channel.size() != fileSize) {
+				throw new IllegalStateException(Messages.INSTANCE.getExceptionMessage(43, fileSize, channel.size()));
+			}
+
+			Calendar calendar = calendars.get(entry.calendar);
+			int length = calendar.headerLength + entry.length + NEWLINE.length + END_VCALENDAR.length;
+			for (int i = 0; i < calendar.timezoneLengths.size(); i++) {
+				length += calendar.timezoneLengths.get(i) + NEWLINE.length;
+			}
+
+			ByteBuffer buffer = ByteBuffer.allocate(length);
+			LineScanner lines = new LineScanner(buffer);
+
+			read(channel, calendar.offset, calendar.headerLength, buffer);
+			verify(lines, 0, "VCALENDAR", calendar.offset);
+			for (int i = 0; i < calendar.timezoneOffsets.size(); i++) {
+				int position = buffer.position();
+				read(channel, calendar.timezoneOffsets.get(i), calendar.timezoneLengths.get(i), buffer);
+				verify(lines, position, "VTIMEZONE", calendar.timezoneOffsets.get(i));
+			}
+			int position = buffer.position();
+			read(channel, entry.offset, entry.length, buffer);
+			verify(lines, position, entry.componentName, entry.offset);
+			buffer.put(END_VCALENDAR);
+			buffer.flip();
+
+			return new ICalReader(buffer, defaultVersion);
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Copies a byte range of the file into a buffer, making sure the data ends
+	 * with a newline.
+	 * @param channel the file
+	 * @param offset the start of the range
+	 * @param length the length of the range
+	 * @param buffer the buffer to copy into
+	 * @throws IOException if there's a problem reading the file
+	 */
+	private static void read(FileChannel channel, long offset, int length, ByteBuffer buffer) throws IOException {
+		int start = buffer.position();
+		int limit = buffer.limit();
+		buffer.limit(start + length);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, offset + buffer.position() - start) < 0) {
+				throw new IOException(Messages.INSTANCE.getExceptionMessage(44));
+			}
+		}
+		buffer.limit(limit);
+
+		if (length > 0) {
+			byte last = buffer.get(buffer.position() - 1);
+			if (last != '\r' && last != '\n') {
+				buffer.put(NEWLINE);
+			}
+		}
+	}
+
+	/**
+	 * Makes sure that a component that was copied out of the file begins with
+	 * the expected BEGIN line. If it doesn't, the file was modified after it
+	 * was indexed.
+	 * @param lines scans the copied data
+	 * @param position the position of the copied component in the data
+	 * @param componentName the expected component name
+	 * @param offset the position of the component in the file (for the error
+	 * message)
+	 * @throws IOException if there's a problem reading the data
+	 * @throws IllegalStateException if the component does not begin with the
+	 * expected BEGIN line
+	 */
+	private static void verify(LineScanner lines, int position, String componentName, long offset) throws IOException {
+		if (!componentName.equals(lines.componentName(position, LineScanner.BEGIN))) {
+			throw new IllegalStateException(Messages.INSTANCE.getExceptionMessage(52, componentName, offset));
+		}
+	}
+
+	private static String readNullable(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	private static void writeNullable(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	/**
+	 * An indexed component.
+	 */
+	public static class Entry {
+		private final int calendar;
+		private final String componentName;
+		private final String uid, recurrenceId, dateStart;
+		private final long offset;
+		private final int length;
+
+		private Entry(int calendar, String componentName, String uid, String recurrenceId, String dateStart, long offset, int length) {
+			this.calendar = calendar;
+			this.componentName = componentName;
+			this.uid = uid;
+			this.recurrenceId = recurrenceId;
+			this.dateStart = dateStart;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		/**
+		 * Gets the position of the VCALENDAR component that the component
+		 * belongs to (files can contain more than one VCALENDAR component).
+		 * @return the position (starts at 0)
+		 */
+		public int getCalendar() {
+			return calendar;
+		}
+
+		/**
+		 * Gets the component's name.
+		 * @return the name in uppercase (e.g. "VEVENT")
+		 */
+		public String getComponentName() {
+			return componentName;
+		}
+
+		/**
+		 * Gets the raw value of the component's UID property.
+		 * @return the value or null if not present
+		 */
+		public String getUid() {
+			return uid;
+		}
+
+		/**
+		 * Gets the raw value of the component's RECURRENCE-ID property.
+		 * @return the value (e.g. "20240101T100000") or null if not present
+		 */
+		public String getRecurrenceId() {
+			return recurrenceId;
+		}
+
+		/**
+		 * Gets the raw value of the component's DTSTART property.
+		 * @return the value (e.g. "20240101T100000") or null if not present
+		 */
+		public String getDateStart() {
+			return dateStart;
+		}
+
+		/**
+		 * Gets the position of the component's BEGIN line.
+		 * @return the byte offset
+		 */
+		public long getOffset() {
+			return offset;
+		}
+
+		/**
+		 * Gets the length of the component, up to and including its END line.
+		 * @return the length in bytes
+		 */
+		public int getLength() {
+			return length;
+		}
+
+		@Override
+		public String toString() {
+			return componentName + " [uid=" + uid + ", recurrenceId=" + recurrenceId + ", dateStart=" + dateStart + ", offset=" + offset + ", length=" + length + "]";
+		}
+	}
+
+	/**
+	 * The parts of a VCALENDAR component that are read along with each of its
+	 * child components.
+	 */
+	private static class Calendar {
+		private final long offset;
+
+		/**
+		 * The length of the BEGIN:VCALENDAR line plus the properties that come
+		 * before the first child component.
+		 */
+		private int headerLength;
+
+		private final List<Long> timezoneOffsets = new ArrayList<Long>();
+		private final List<Integer> timezoneLengths = new ArrayList<Integer>();
+
+		public Calendar(long offset) {
+			this.offset = offset;
+		}
+	}
+
+	/**
+	 * Scans a file for component boundaries.
+	 */
+	private static class Scanner {
+		private final List<Calendar> calendars = new ArrayList<Calendar>();
+		private final List<Entry> entries = new ArrayList<Entry>();
+
+		private long lineStart;
+
+		private int depth;
+		private Calendar calendar;
+		private boolean inHeader;
+		private long componentStart;
+		private String componentName;
+		private String uid, recurrenceId, dateStart;
+
+		/**
+		 * Reads the file, calling {@link #onLine} for each unfolded line.
+		 * @param lines the file
+		 * @throws IOException if there's a problem reading the file
+		 */
+		public void scan(LineScanner lines) throws IOException {
+			long offset = 0;
+			while (offset < lines.size()) {
+				lineStart = offset;
+				offset = lines.readLine(offset);
+				onLine(lines.getLine(), lines.getLineLength(), offset);
+			}
+		}
+
+		/**
+		 * Processes an unfolded line.
+		 * @param line the first {@link LineScanner#MAX_LINE_PREFIX} bytes of
+		 * the line
+		 * @param lineLength the number of bytes in the line buffer
+		 * @param lineEnd the offset of the start of the next line
+		 */
+		private void onLine(byte[] line, int lineLength, long lineEnd) {
+			String string = new String(line, 0, lineLength, UTF8);
+			int colon = valueStart(string);
+			if (colon < 0) {
+				return;
+			}
+
+			String name = string.substring(0, colon);
+			int semicolon = name.indexOf(';');
+			if (semicolon >= 0) {
+				name = name.substring(0, semicolon);
+			}
+			int dot = name.indexOf('.');
+			if (dot >= 0) {
+				name = name.substring(dot + 1);
+			}
+			name = name.trim().toUpperCase();
+			String value = string.substring(colon + 1);
+
+			if ("BEGIN".equals(name)) {
+				onBegin(value.trim().toUpperCase());
+				return;
+			}
+
+			if ("END".equals(name)) {
+				onEnd(lineEnd);
+				return;
+			}
+
+			if (depth != 2 || componentName == null) {
+				return;
+			}
+
+			if (uid == null && "UID".equals(name)) {
+				uid = value;
+			} else if (recurrenceId == null && "RECURRENCE-ID".equals(name)) {
+				recurrenceId = value;
+			} else if (dateStart == null && "DTSTART".equals(name)) {
+				dateStart = value;
+			}
+		}
+
+		private void onBegin(String name) {
+			if (depth == 0) {
+				if ("VCALENDAR".equals(name)) {
+					calendar = new Calendar(lineStart);
+					calendars.add(calendar);
+					inHeader = true;
+					depth++;
+				}
+				return;
+			}
+
+			if (depth == 1) {
+				if (inHeader) {
+					calendar.headerLength = (int) (lineStart - calendar.offset);
+					inHeader = false;
+				}
+				componentStart = lineStart;
+				componentName = "VTIMEZONE".equals(name) ? null : name;
+				uid = recurrenceId = dateStart = null;
+			}
+			depth++;
+		}
+
+		private void onEnd(long lineEnd) {
+			if (depth == 0) {
+				return;
+			}
+
+			depth--;
+			if (depth == 1) {
+				int length = (int) (lineEnd - componentStart);
+				if (componentName == null) {
+					calendar.timezoneOffsets.add(componentStart);
+					calendar.timezoneLengths.add(length);
+				} else {
+					entries.add(new Entry(calendars.size() - 1, componentName, uid, recurrenceId, dateStart, componentStart, length));
+				}
+			} else if (depth == 0 && inHeader) {
+				//VCALENDAR component does not contain any components
+				calendar.headerLength = (int) (lineStart - calendar.offset);
+				inHeader = false;
+			}
+		}
+
+		/**
+		 * Finds the colon that separates a property's name and parameters
+		 * from its value, skipping over quoted parameter values.
+		 * @param line the line
+		 * @return the index of the colon or -1 if not found
+		 */
+		private static int valueStart(String line) {
+			boolean quoted = false;
+			for (int i = 0; i < line.length(); i++) {
+				char c = line.charAt(i);
+				if (c == '"') {
+					quoted = !quoted;
+				} else if (c == ':' && !quoted) {
+					return i;
+				}
+			}
+			return -1;
+		}
+	}
+}
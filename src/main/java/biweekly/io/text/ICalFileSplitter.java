@@ -0,0 +1,252 @@
+package biweekly.io.text;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import biweekly.ICalVersion;
+import biweekly.ICalendar;
+import biweekly.Messages;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * <p>
+ * Reads a large iCalendar file through a memory-mapped {@link FileChannel},
+ * and allows the file to be divided into byte ranges that can be parsed
+ * independently of each other (for example, by different threads or on
+ * different machines).
+ * </p>
+ * <p>
+ * A range reader syncs forward from the start of its range to the first
+ * unfolded "BEGIN:VEVENT", "BEGIN:VTODO", "BEGIN:VJOURNAL", "BEGIN:VFREEBUSY",
+ * or "BEGIN:VCALENDAR" line. It reads all of the components that begin
+ * before the end of the range, even if they end after it. This means that
+ * every component is read by exactly one of a set of adjacent ranges.
+ * </p>
+ * <p>
+ * The file's header (the properties of the first VCALENDAR component and the
+ * VTIMEZONE components that come before its first non-timezone component) is
+ * parsed along with every range, so each {@link ICalendar} object that is
+ * returned has the properties and timezones it needs. Line numbers in parse
+ * warnings are relative to the header plus the range, not to the file.
+ * </p>
+ * <p>
+ * <b>Example:</b>
+ * </p>
+ *
+ * <pre class="brush:java">
+ * ICalFileSplitter splitter = new ICalFileSplitter(new File("huge.ics"));
+ * long[] bounds = splitter.split(8);
+ * for (int i = 0; i &lt; 8; i++) {
+ *   ICalReader reader = splitter.reader(bounds[i], bounds[i + 1]);
+ *   //hand reader off to a worker thread
+ * }
+ * //close splitter when all workers are done
+ * </pre>
+ * @author Michael Angstadt
+ */
+public class ICalFileSplitter implements Closeable {
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final String VCALENDAR = "VCALENDAR";
+	private static final String VTIMEZONE = "VTIMEZONE";
+	private static final Set<String> TOP_LEVEL_COMPONENTS = new HashSet<String>(Arrays.asList(VCALENDAR, "VEVENT", "VTODO", "VJOURNAL", "VFREEBUSY"));
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final long size;
+	private final long headerLength;
+	private final ICalVersion defaultVersion;
+
+	/**
+	 * Opens a file for reading.
+	 * @param file the file
+	 * @throws IOException if there's a problem opening or reading the file
+	 */
+	public ICalFileSplitter(File file) throws IOException {
+		this(file, ICalVersion.V2_0);
+	}
+
+	/**
+	 * Opens a file for reading.
+	 * @param file the file
+	 * @param defaultVersion the version to assume the iCalendar objects are
+	 * in until a VERSION property is encountered (defaults to 2.0)
+	 * @throws IOException if there's a problem opening or reading the file
+	 */
+	public ICalFileSplitter(File file, ICalVersion defaultVersion) throws IOException {
+		this.file = new RandomAccessFile(file, "r");
+		channel = this.file.getChannel();
+		size = channel.size();
+		this.defaultVersion = defaultVersion;
+		headerLength = findHeaderLength();
+	}
+
+	/**
+	 * Gets the size of the file.
+	 * @return the size in bytes
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Gets the length of the file's header. The header consists of the
+	 * properties of the first VCALENDAR component and the VTIMEZONE
+	 * components that come before its first non-timezone component.
+	 * @return the length in bytes or 0 if the file does not have a header
+	 */
+	public long getHeaderLength() {
+		return headerLength;
+	}
+
+	/**
+	 * Divides the file into ranges of roughly equal size.
+	 * @param count the number of ranges
+	 * @return the range boundaries (the array has a length of
+	 * {@code count + 1}, range {@code i} goes from {@code bounds[i]}
+	 * (inclusive) to {@code bounds[i+1]} (exclusive))
+	 */
+	public long[] split(int count) {
+		if (count < 1) {
+			throw Messages.INSTANCE.getIllegalArgumentException(36);
+		}
+
+		long[] bounds = new long[count + 1];
+		for (int i = 1; i < count; i++) {
+			bounds[i] = size / count * i;
+		}
+		bounds[count] = size;
+		return bounds;
+	}
+
+	/**
+	 * Creates a reader that reads the entire file.
+	 * @return the reader
+	 * @throws IOException if there's a problem reading the file
+	 */
+	public ICalReader reader() throws IOException {
+		return reader(0, size);
+	}
+
+	/**
+	 * Creates a reader that reads the components that begin in the given byte
+	 * range. Closing the reader does not close the file. This method may be
+	 * called from multiple threads.
+	 * @param from the start of the range (inclusive)
+	 * @param to the end of the range (exclusive)
+	 * @return the reader
+	 * @throws IOException if there's a problem reading the file
+	 */
+	public ICalReader reader(long from, long to) throws IOException {
+		if (from < 0 || to < from) {
+			throw Messages.INSTANCE.getIllegalArgumentException(37, from, to);
+		}
+
+		LineScanner scanner = new LineScanner(channel, size);
+		long start = sync(scanner, from);
+		if (start >= to) {
+			return new ICalReader(ByteBuffer.allocate(0), defaultVersion);
+		}
+
+		ByteBuffer header = null;
+		if (headerLength > 0 && !VCALENDAR.equals(scanner.componentName(start, LineScanner.BEGIN))) {
+			header = channel.map(MapMode.READ_ONLY, 0, headerLength);
+		}
+
+		Utf8VObjectReader byteReader = new Utf8VObjectReader(header, channel, start, ICalReader.syntaxRules(defaultVersion), UTF8);
+		return new ICalReader(byteReader, defaultVersion, to);
+	}
+
+	/**
+	 * Finds the end of the file's header.
+	 * @return the length of the header
+	 * @throws IOException if there's a problem reading the file
+	 */
+	private long findHeaderLength() throws IOException {
+		LineScanner scanner = new LineScanner(channel, size);
+		int depth = 0;
+		for (long offset = 0; offset < size; offset = scanner.nextLine(offset)) {
+			String begin = scanner.componentName(offset, LineScanner.BEGIN);
+			if (begin != null) {
+				if (depth == 0 && !VCALENDAR.equals(begin)) {
+					continue;
+				}
+				if (depth == 1 && !VTIMEZONE.equals(begin)) {
+					return offset;
+				}
+				depth++;
+				continue;
+			}
+
+			if (depth > 0 && scanner.componentName(offset, LineScanner.END) != null) {
+				depth--;
+				if (depth == 0) {
+					//the first VCALENDAR component does not contain any components
+					return 0;
+				}
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Finds the first BEGIN line of a top-level component that is at or after
+	 * the given offset.
+	 * @param scanner the scanner
+	 * @param from the offset
+	 * @return the offset of the start of the line or the file size if no such
+	 * line exists
+	 * @throws IOException if there's a problem reading the file
+	 */
+	private long sync(LineScanner scanner, long from) throws IOException {
+		long offset = scanner.lineStart(from);
+		while (offset < size) {
+			String begin = scanner.componentName(offset, LineScanner.BEGIN);
+			if (begin != null && TOP_LEVEL_COMPONENTS.contains(begin)) {
+				return offset;
+			}
+			offset = scanner.nextLine(offset);
+		}
+		return size;
+	}
+
+	/**
+	 * Closes the file.
+	 * @throws IOException if there's a problem closing the file
+	 */
+	public void close() throws IOException {
+		file.close();
+	}
+}
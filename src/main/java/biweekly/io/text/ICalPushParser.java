@@ -0,0 +1,185 @@
+package biweekly.io.text;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import biweekly.ICalVersion;
+import biweekly.ICalendar;
+import biweekly.Messages;
+import biweekly.io.ComponentListener;
+import biweekly.io.ParseWarning;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * <p>
+ * Parses UTF-8 encoded iCalendar data that is pushed to it in chunks, such as
+ * the chunks that are read from a non-blocking socket. Each call to
+ * {@link #feed} parses as much of the data as possible and returns without
+ * blocking. Partial lines are kept until the rest of the line arrives.
+ * </p>
+ * <p>
+ * Completed iCalendar objects are passed to the listener's
+ * {@link Listener#onICalendar onICalendar} method. If component streaming is
+ * enabled (see {@link #setStreamingComponents}), each sub-component of the
+ * VCALENDAR component is passed to the listener's
+ * {@link Listener#onComponent onComponent} method as soon as it has been read,
+ * instead of being added to the {@link ICalendar} object.
+ * </p>
+ * <p>
+ * <b>Example:</b>
+ * </p>
+ *
+ * <pre class="brush:java">
+ * ICalPushParser parser = new ICalPushParser(listener);
+ *
+ * //whenever data arrives
+ * parser.feed(buffer);
+ *
+ * //when the upload is complete
+ * parser.end();
+ * </pre>
+ * <p>
+ * This class is not thread-safe. The listener is called from the thread that
+ * calls {@link #feed} or {@link #end}.
+ * </p>
+ * @author Michael Angstadt
+ */
+public class ICalPushParser {
+	private final Utf8VObjectReader byteReader;
+	private final ICalReader reader;
+	private final Listener listener;
+	private boolean streamingComponents = false;
+	private boolean ended = false;
+
+	/**
+	 * Creates a new push parser.
+	 * @param listener the listener
+	 */
+	public ICalPushParser(Listener listener) {
+		this(listener, ICalVersion.V2_0);
+	}
+
+	/**
+	 * Creates a new push parser.
+	 * @param listener the listener
+	 * @param defaultVersion the version to assume the iCalendar object is in
+	 * until a VERSION property is encountered (defaults to 2.0)
+	 */
+	public ICalPushParser(Listener listener, ICalVersion defaultVersion) {
+		this.listener = listener;
+		byteReader = new Utf8VObjectReader(ICalReader.syntaxRules(defaultVersion), Charset.forName("UTF-8"));
+		reader = new ICalReader(byteReader, defaultVersion, -1);
+	}
+
+	/**
+	 * Gets the reader that does the parsing. It can be used to configure the
+	 * parser (for example, to register scribes or to set the default
+	 * timezone). Its reading methods should not be called directly.
+	 * @return the reader
+	 */
+	public ICalReader getReader() {
+		return reader;
+	}
+
+	/**
+	 * Gets whether the sub-components of each VCALENDAR component are passed
+	 * to the listener as soon as they are read (disabled by default).
+	 * @return true if components are streamed, false if they are added to
+	 * their {@link ICalendar} objects
+	 */
+	public boolean isStreamingComponents() {
+		return streamingComponents;
+	}
+
+	/**
+	 * Sets whether the sub-components of each VCALENDAR component are passed
+	 * to the listener as soon as they are read (disabled by default).
+	 * Streaming components means that large iCalendar objects do not have to
+	 * be held in memory.
+	 * @param streamingComponents true to stream components, false to add them
+	 * to their {@link ICalendar} objects
+	 */
+	public void setStreamingComponents(boolean streamingComponents) {
+		this.streamingComponents = streamingComponents;
+	}
+
+	/**
+	 * Parses the next chunk of data. The data is copied, so the buffer can be
+	 * reused once this method returns.
+	 * @param data the data (read from the buffer's current position up to its
+	 * limit)
+	 * @throws IllegalStateException if {@link #end} has already been called
+	 */
+	public void feed(ByteBuffer data) {
+		if (ended) {
+			throw new IllegalStateException(Messages.INSTANCE.getExceptionMessage(40));
+		}
+
+		byteReader.feed(data);
+		parse();
+	}
+
+	/**
+	 * Parses the data that is left over, and signals that no more data will be
+	 * fed to the parser.
+	 */
+	public void end() {
+		if (ended) {
+			return;
+		}
+
+		ended = true;
+		byteReader.endInput();
+		parse();
+	}
+
+	private void parse() {
+		ICalendar ical;
+		try {
+			while ((ical = reader.readNext(streamingComponents ? listener : null)) != null) {
+				listener.onICalendar(ical, reader.getWarnings());
+			}
+		} catch (IOException e) {
+			//should never be thrown because the data is in memory
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Receives the data from an {@link ICalPushParser}.
+	 */
+	public interface Listener extends ComponentListener {
+		/**
+		 * Called when an iCalendar object has been completely read.
+		 * @param ical the iCalendar object
+		 * @param warnings the parse warnings
+		 */
+		void onICalendar(ICalendar ical, List<ParseWarning> warnings);
+	}
+}
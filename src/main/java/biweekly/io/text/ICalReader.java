@@ -1,12 +1,15 @@
 package biweekly.io.text;
 
-import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
@@ -17,7 +20,9 @@ import biweekly.ICalendar;
 import biweekly.component.ICalComponent;
 import biweekly.io.CannotParseException;
 import biweekly.io.DataModelConversionException;
+import biweekly.io.LazyProperty;
 import biweekly.io.ParseWarning;
+import biweekly.io.Projection;
 import biweekly.io.SkipMeException;
 import biweekly.io.StreamReader;
 import biweekly.io.scribe.ScribeIndex;
@@ -27,13 +32,13 @@ import biweekly.io.scribe.property.RawPropertyScribe;
 import biweekly.parameter.Encoding;
 import biweekly.parameter.ICalParameters;
 import biweekly.property.ICalProperty;
-import biweekly.util.Utf8Reader;
 
 import com.github.mangstadt.vinnie.VObjectProperty;
 import com.github.mangstadt.vinnie.io.Context;
 import com.github.mangstadt.vinnie.io.SyntaxRules;
 import com.github.mangstadt.vinnie.io.VObjectDataListener;
 import com.github.mangstadt.vinnie.io.VObjectReader;
+import com.github.mangstadt.vinnie.io.Warning;
 
 /*
  Copyright (c) 2013-2024, Michael Angstadt
@@ -81,6 +86,12 @@ import com.github.mangstadt.vinnie.io.VObjectReader;
  *   if (reader != null) reader.close();
  * }
  * </pre>
+ * <p>
+ * When reading from an {@link InputStream}, {@link File}, or
+ * {@link ByteBuffer}, the data is assumed to be UTF-8 encoded and is parsed
+ * directly from its raw bytes. Only the parts of each line that become
+ * strings (property names, parameters, and values) are decoded.
+ * </p>
  * @author Michael Angstadt
  * @see <a href="http://www.imc.org/pdi/pdiproddev.html">1.0 specs</a>
  * @see <a href="https://tools.ietf.org/html/rfc2445">RFC 2445</a>
@@ -88,9 +99,25 @@ import com.github.mangstadt.vinnie.io.VObjectReader;
  */
 public class ICalReader extends StreamReader {
 	private static final String VCALENDAR_COMPONENT_NAME = ScribeIndex.getICalendarScribe().getComponentName(); //"VCALENDAR"
+	private static final String VTIMEZONE_COMPONENT_NAME = "VTIMEZONE";
 
-	private final VObjectReader reader;
+	private VObjectReader reader;
+	private Utf8VObjectReader byteReader;
 	private final ICalVersion defaultVersion;
+	private boolean lazyParsing = false;
+
+	/**
+	 * The byte offset at which to stop reading or -1 to read the entire
+	 * stream (see {@link ICalFileSplitter}).
+	 */
+	private long rangeEnd;
+	private boolean rangeEndReached = false;
+
+	/**
+	 * The state of the iCalendar object that was being read when the reader
+	 * ran out of pushed data (see {@link ICalPushParser}).
+	 */
+	private VObjectDataListenerImpl suspendedListener;
 
 	/**
 	 * Creates a new iCalendar reader.
@@ -125,7 +152,7 @@ public class ICalReader extends StreamReader {
 	 * @param in the input stream to read from
 	 */
 	public ICalReader(InputStream in, ICalVersion defaultVersion) {
-		this(new Utf8Reader(in), defaultVersion);
+		this(Channels.newChannel(in), defaultVersion, Charset.forName("UTF-8"));
 	}
 
 	/**
@@ -145,7 +172,31 @@ public class ICalReader extends StreamReader {
 	 * @throws FileNotFoundException if the file doesn't exist
 	 */
 	public ICalReader(File file, ICalVersion defaultVersion) throws FileNotFoundException {
-		this(new BufferedReader(new Utf8Reader(file)), defaultVersion);
+		this(new FileInputStream(file).getChannel(), defaultVersion, Charset.defaultCharset());
+	}
+
+	/**
+	 * Creates a new iCalendar reader.
+	 * @param buffer the UTF-8 encoded data to read (read from the buffer's
+	 * current position up to its limit)
+	 */
+	public ICalReader(ByteBuffer buffer) {
+		this(buffer, ICalVersion.V2_0);
+	}
+
+	/**
+	 * Creates a new iCalendar reader.
+	 * @param buffer the UTF-8 encoded data to read (read from the buffer's
+	 * current position up to its limit)
+	 * @param defaultVersion the version to assume the iCalendar object is in
+	 * until a VERSION property is encountered (defaults to 2.0)
+	 */
+	public ICalReader(ByteBuffer buffer, ICalVersion defaultVersion) {
+		this(null, new Utf8VObjectReader(buffer, syntaxRules(defaultVersion), Charset.forName("UTF-8")), defaultVersion, -1);
+	}
+
+	private ICalReader(ReadableByteChannel channel, ICalVersion defaultVersion, Charset defaultQuotedPrintableCharset) {
+		this(null, new Utf8VObjectReader(channel, syntaxRules(defaultVersion), defaultQuotedPrintableCharset), defaultVersion, -1);
 	}
 
 	/**
@@ -163,10 +214,33 @@ public class ICalReader extends StreamReader {
 	 * until a VERSION property is encountered (defaults to 2.0)
 	 */
 	public ICalReader(Reader reader, ICalVersion defaultVersion) {
+		this(new VObjectReader(reader, syntaxRules(defaultVersion)), null, defaultVersion, -1);
+	}
+
+	/**
+	 * Creates a reader that stops reading when it reaches a VCALENDAR
+	 * component or top-level component (other than VTIMEZONE) that begins at
+	 * or after the given byte offset.
+	 * @param byteReader the reader to read from
+	 * @param defaultVersion the version to assume the iCalendar object is in
+	 * until a VERSION property is encountered
+	 * @param rangeEnd the byte offset
+	 */
+	ICalReader(Utf8VObjectReader byteReader, ICalVersion defaultVersion, long rangeEnd) {
+		this(null, byteReader, defaultVersion, rangeEnd);
+	}
+
+	private ICalReader(VObjectReader reader, Utf8VObjectReader byteReader, ICalVersion defaultVersion, long rangeEnd) {
+		this.reader = reader;
+		this.byteReader = byteReader;
+		this.defaultVersion = defaultVersion;
+		this.rangeEnd = rangeEnd;
+	}
+
+	static SyntaxRules syntaxRules(ICalVersion defaultVersion) {
 		SyntaxRules rules = SyntaxRules.iCalendar();
 		rules.setDefaultSyntaxStyle(defaultVersion.getSyntaxStyle());
-		this.reader = new VObjectReader(reader, rules);
-		this.defaultVersion = defaultVersion;
+		return rules;
 	}
 
 	/**
@@ -177,7 +251,7 @@ public class ICalReader extends StreamReader {
 	 * @see VObjectReader#isCaretDecodingEnabled()
 	 */
 	public boolean isCaretDecodingEnabled() {
-		return reader.isCaretDecodingEnabled();
+		return (byteReader == null) ? reader.isCaretDecodingEnabled() : byteReader.isCaretDecodingEnabled();
 	}
 
 	/**
@@ -189,7 +263,11 @@ public class ICalReader extends StreamReader {
 	 * @see VObjectReader#setCaretDecodingEnabled(boolean)
 	 */
 	public void setCaretDecodingEnabled(boolean enable) {
-		reader.setCaretDecodingEnabled(enable);
+		if (byteReader == null) {
+			reader.setCaretDecodingEnabled(enable);
+		} else {
+			byteReader.setCaretDecodingEnabled(enable);
+		}
 	}
 
 	/**
@@ -206,7 +284,7 @@ public class ICalReader extends StreamReader {
 	 * @return the character set
 	 */
 	public Charset getDefaultQuotedPrintableCharset() {
-		return reader.getDefaultQuotedPrintableCharset();
+		return (byteReader == null) ? reader.getDefaultQuotedPrintableCharset() : byteReader.getDefaultQuotedPrintableCharset();
 	}
 
 	/**
@@ -223,7 +301,11 @@ public class ICalReader extends StreamReader {
 	 * @param charset the character set
 	 */
 	public void setDefaultQuotedPrintableCharset(Charset charset) {
-		reader.setDefaultQuotedPrintableCharset(charset);
+		if (byteReader == null) {
+			reader.setDefaultQuotedPrintableCharset(charset);
+		} else {
+			byteReader.setDefaultQuotedPrintableCharset(charset);
+		}
 	}
 
 	/**
@@ -244,24 +326,236 @@ public class ICalReader extends StreamReader {
 		return defaultVersion;
 	}
 
+	/**
+	 * Gets whether property values are parsed lazily (disabled by default).
+	 * @return true if property values are parsed lazily, false if they are
+	 * parsed as soon as they are read
+	 * @see #setLazyParsing(boolean)
+	 */
+	public boolean isLazyParsing() {
+		return lazyParsing;
+	}
+
+	/**
+	 * <p>
+	 * Sets whether property values are parsed lazily (disabled by default).
+	 * </p>
+	 * <p>
+	 * When enabled, the raw value, parameters, and data type of each
+	 * component property are stored in a placeholder object. The value is
+	 * parsed the first time the property is accessed through its component
+	 * (for example, by calling {@link ICalComponent#getProperty(Class)}), and
+	 * its date values are assigned their timezones at that point. This saves
+	 * time when only a handful of properties are going to be accessed.
+	 * </p>
+	 * <p>
+	 * Properties that belong to the VCALENDAR component itself are always
+	 * parsed right away. Values are also parsed right away when the iCalendar
+	 * object's components are streamed to a
+	 * {@link biweekly.io.ComponentListener}.
+	 * </p>
+	 * <p>
+	 * Warnings that are generated while a value is parsed lazily are
+	 * discarded. This means that {@link #getWarnings} reports fewer warnings
+	 * when lazy parsing is enabled. Disable lazy parsing if the warnings are
+	 * needed.
+	 * </p>
+	 * <p>
+	 * Parsing a property lazily modifies the component that the property
+	 * belongs to and the {@link biweekly.io.TimezoneInfo} of its iCalendar
+	 * object, even though it is triggered by a getter method. The parsing
+	 * is synchronized on the {@link ICalendar} object, so different
+	 * components of the same iCalendar object can be accessed from different
+	 * threads. However, a single component must not be accessed by multiple
+	 * threads at the same time until all of its properties have been parsed
+	 * (for example, by calling {@link ICalComponent#getProperties()} once).
+	 * </p>
+	 * @param lazyParsing true to parse property values lazily, false to parse
+	 * them as soon as they are read
+	 */
+	public void setLazyParsing(boolean lazyParsing) {
+		this.lazyParsing = lazyParsing;
+	}
+
+	/**
+	 * <p>
+	 * Discards the reader's state and starts reading from a new data stream.
+	 * This allows a single reader instance to be reused (for example, by an
+	 * object pool). The reader's settings (such as its scribe index, default
+	 * timezone, and whether circumflex accent decoding is enabled) are
+	 * retained. The internal buffers are reused if the reader was already
+	 * reading from an input stream.
+	 * </p>
+	 * <p>
+	 * The data is assumed to be UTF-8 encoded. The previous data stream is
+	 * not closed.
+	 * </p>
+	 * @param in the input stream to read from
+	 */
+	public void reset(InputStream in) {
+		boolean caretDecodingEnabled = isCaretDecodingEnabled();
+		ReadableByteChannel channel = Channels.newChannel(in);
+		Charset utf8 = Charset.forName("UTF-8");
+
+		if (byteReader == null) {
+			byteReader = new Utf8VObjectReader(channel, syntaxRules(defaultVersion), utf8);
+			reader = null;
+		} else {
+			byteReader.reset(channel);
+			byteReader.setDefaultQuotedPrintableCharset(utf8);
+		}
+		byteReader.setCaretDecodingEnabled(caretDecodingEnabled);
+		resetState();
+	}
+
+	/**
+	 * <p>
+	 * Discards the reader's state and starts reading from a new data stream.
+	 * This allows a single reader instance to be reused (for example, by an
+	 * object pool). The reader's settings (such as its scribe index, default
+	 * timezone, and whether circumflex accent decoding is enabled) are
+	 * retained.
+	 * </p>
+	 * <p>
+	 * The previous data stream is not closed.
+	 * </p>
+	 * @param reader the reader to read from
+	 */
+	public void reset(Reader reader) {
+		boolean caretDecodingEnabled = isCaretDecodingEnabled();
+
+		this.reader = new VObjectReader(reader, syntaxRules(defaultVersion));
+		this.reader.setCaretDecodingEnabled(caretDecodingEnabled);
+		byteReader = null;
+		resetState();
+	}
+
+	private void resetState() {
+		rangeEnd = -1;
+		rangeEndReached = false;
+		suspendedListener = null;
+	}
+
 	@Override
 	protected ICalendar _readNext() throws IOException {
-		VObjectDataListenerImpl listener = new VObjectDataListenerImpl();
-		reader.parse(listener);
+		if (rangeEndReached) {
+			return null;
+		}
+
+		VObjectDataListenerImpl listener = (suspendedListener == null) ? new VObjectDataListenerImpl() : suspendedListener;
+		suspendedListener = null;
+		if (byteReader == null) {
+			reader.parse(listener);
+		} else {
+			byteReader.setProjection(getProjection());
+			byteReader.parse(listener);
+			if (byteReader.isSuspended()) {
+				suspendedListener = listener;
+				suspend();
+				return null;
+			}
+		}
 		return listener.ical;
 	}
 
-	private class VObjectDataListenerImpl implements VObjectDataListener {
+	/**
+	 * Receives the data from either vinnie's {@link VObjectReader} or the
+	 * {@link Utf8VObjectReader}, depending on how the reader was constructed.
+	 */
+	private class VObjectDataListenerImpl implements VObjectDataListener, Utf8VObjectReader.Listener {
 		private ICalendar ical = null;
 		private ICalVersion version = defaultVersion;
 		private ComponentStack stack = new ComponentStack();
 
+		/**
+		 * The number of levels deep the vinnie reader is inside of a component
+		 * that is being skipped (the {@link Utf8VObjectReader} applies the
+		 * projection itself).
+		 */
+		private int skipDepth = 0;
+
 		public void onComponentBegin(String name, Context vobjectContext) {
+			if (skipDepth > 0) {
+				skipDepth++;
+				return;
+			}
+
+			Projection projection = getProjection();
+			if (projection != null && !projection.includesComponent(name, parentName(vobjectContext))) {
+				skipDepth = 1;
+				return;
+			}
+
+			onComponentBegin(name);
+		}
+
+		public void onComponentEnd(String name, Context vobjectContext) {
+			if (skipDepth > 0) {
+				skipDepth--;
+				return;
+			}
+
+			if (componentEnded(name)) {
+				vobjectContext.stop();
+			}
+		}
+
+		public void onProperty(VObjectProperty vobjectProperty, Context vobjectContext) {
+			if (skipDepth > 0) {
+				return;
+			}
+
+			Projection projection = getProjection();
+			if (projection != null && !projection.includesProperty(vobjectProperty.getName(), parentName(vobjectContext))) {
+				return;
+			}
+
+			onProperty(vobjectProperty, vobjectContext.getLineNumber());
+		}
+
+		public void onVersion(String value, Context vobjectContext) {
+			onVersion(value);
+		}
+
+		public void onWarning(Warning warning, VObjectProperty property, Exception thrown, Context vobjectContext) {
+			if (skipDepth > 0) {
+				return;
+			}
+
+			onWarning(warning, property, vobjectContext.getLineNumber());
+		}
+
+		private String parentName(Context vobjectContext) {
+			List<String> parents = vobjectContext.getParentComponents();
+			return parents.isEmpty() ? null : parents.get(parents.size() - 1);
+		}
+
+		public void onComponentEnd(String name) {
+			if (componentEnded(name)) {
+				byteReader.stop();
+			}
+		}
+
+		public void onProperty(VObjectProperty vobjectProperty) {
+			onProperty(vobjectProperty, byteReader.getLineNumber());
+		}
+
+		public void onWarning(Warning warning, VObjectProperty property, Exception thrown) {
+			onWarning(warning, property, byteReader.getLineNumber());
+		}
+
+		public void onComponentBegin(String name) {
 			//ignore everything until a VCALENDAR component is read
 			if (ical == null && !isVCalendarComponent(name)) {
 				return;
 			}
 
+			if (isPastRangeEnd(name)) {
+				rangeEndReached = true;
+				byteReader.stop();
+				return;
+			}
+
 			ICalComponent parentComponent = stack.peek();
 
 			ICalComponentScribe<? extends ICalComponent> scribe = index.getComponentScribe(name, version);
@@ -276,10 +570,16 @@ public class ICalReader extends StreamReader {
 			}
 		}
 
-		public void onComponentEnd(String name, Context vobjectContext) {
+		/**
+		 * Handles the end of a component.
+		 * @param name the component name
+		 * @return true if the end of the iCalendar object was reached and
+		 * parsing should stop, false if not
+		 */
+		private boolean componentEnded(String name) {
 			//VCALENDAR component not read yet, ignore
 			if (ical == null) {
-				return;
+				return false;
 			}
 
 			/*
@@ -287,15 +587,18 @@ public class ICalReader extends StreamReader {
 			 * begin/end callback invocations (see javadocs), so we can pop
 			 * blindly without checking if the component name matches.
 			 */
-			stack.pop();
+			ICalComponent component = stack.pop();
 
 			//stop reading when "END:VCALENDAR" is reached
 			if (stack.isEmpty()) {
-				vobjectContext.stop();
+				return true;
 			}
+
+			onComponentRead(ical, stack.peek(), component);
+			return false;
 		}
 
-		public void onProperty(VObjectProperty vobjectProperty, Context vobjectContext) {
+		private void onProperty(VObjectProperty vobjectProperty, int lineNumber) {
 			//VCALENDAR component not read yet, ignore
 			if (ical == null) {
 				return;
@@ -306,7 +609,7 @@ public class ICalReader extends StreamReader {
 			String value = vobjectProperty.getValue();
 			
 			context.getWarnings().clear();
-			context.setLineNumber(vobjectContext.getLineNumber());
+			context.setLineNumber(lineNumber);
 			context.setPropertyName(propertyName);
 
 			ICalPropertyScribe<? extends ICalProperty> scribe = index.getPropertyScribe(propertyName, version);
@@ -323,6 +626,14 @@ public class ICalReader extends StreamReader {
 			}
 
 			ICalComponent parentComponent = stack.peek();
+			if (lazyParsing) {
+				LazyProperty property = lazyProperty(ical, parentComponent, scribe, propertyName, value, dataType, parameters);
+				if (property != null) {
+					parentComponent.addProperty(property);
+					return;
+				}
+			}
+
 			try {
 				ICalProperty property = scribe.parseText(value, dataType, parameters, context);
 				parentComponent.addProperty(property);
@@ -351,10 +662,10 @@ public class ICalReader extends StreamReader {
 				}
 			}
 
-			warnings.addAll(context.getWarnings());
+			addPropertyWarnings(context.getWarnings());
 		}
 
-		public void onVersion(String value, Context vobjectContext) {
+		public void onVersion(String value) {
 			//ignore if we are not directly under the root VCALENDAR component
 			if (stack.size() != 1) {
 				return;
@@ -364,7 +675,7 @@ public class ICalReader extends StreamReader {
 			context.setVersion(version);
 		}
 
-		public void onWarning(com.github.mangstadt.vinnie.io.Warning warning, VObjectProperty property, Exception thrown, Context vobjectContext) {
+		private void onWarning(Warning warning, VObjectProperty property, int lineNumber) {
 			//VCALENDAR component not read yet, ignore
 			if (ical == null) {
 				return;
@@ -372,7 +683,7 @@ public class ICalReader extends StreamReader {
 
 			//@formatter:off
 			warnings.add(new ParseWarning.Builder()
-				.lineNumber(vobjectContext.getLineNumber())
+				.lineNumber(lineNumber)
 				.propertyName((property == null) ? null : property.getName())
 				.message(warning.getMessage())
 				.build()
@@ -384,6 +695,22 @@ public class ICalReader extends StreamReader {
 			return VCALENDAR_COMPONENT_NAME.equals(componentName);
 		}
 
+		/**
+		 * Determines if the given component begins a new VCALENDAR or
+		 * top-level component at or after the end of the byte range that is
+		 * being read.
+		 * @param componentName the component name
+		 * @return true if reading should stop, false if not
+		 */
+		private boolean isPastRangeEnd(String componentName) {
+			if (rangeEnd < 0) {
+				return false;
+			}
+
+			boolean topLevel = (ical == null) || (stack.size() == 1 && !VTIMEZONE_COMPONENT_NAME.equals(componentName));
+			return topLevel && byteReader.getOffset() >= rangeEnd;
+		}
+
 		/**
 		 * Assigns names to all nameless parameters. v2.0 requires all
 		 * parameters to have names, but v1.0 does not.
@@ -482,6 +809,10 @@ public class ICalReader extends StreamReader {
 	 * @throws IOException if there's a problem closing the input stream
 	 */
 	public void close() throws IOException {
-		reader.close();
+		if (byteReader == null) {
+			reader.close();
+		} else {
+			byteReader.close();
+		}
 	}
 }
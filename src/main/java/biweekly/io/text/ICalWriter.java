@@ -2,13 +2,18 @@ package biweekly.io.text;
 
 import static biweekly.io.DataModelConverter.convert;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.Flushable;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.util.Collection;
 import java.util.List;
 
@@ -21,6 +26,7 @@ import biweekly.io.DataModelConversionException;
 import biweekly.io.DataModelConverter.VCalTimezoneProperties;
 import biweekly.io.SkipMeException;
 import biweekly.io.StreamWriter;
+import biweekly.io.WriteContext;
 import biweekly.io.scribe.component.ICalComponentScribe;
 import biweekly.io.scribe.property.ICalPropertyScribe;
 import biweekly.parameter.ICalParameters;
@@ -30,6 +36,7 @@ import biweekly.property.Timezone;
 import biweekly.util.Utf8Writer;
 
 import com.github.mangstadt.vinnie.VObjectParameters;
+import com.github.mangstadt.vinnie.io.FoldedLineWriter;
 import com.github.mangstadt.vinnie.io.VObjectWriter;
 
 /*
@@ -96,6 +103,22 @@ import com.github.mangstadt.vinnie.io.VObjectWriter;
  * writer.getVObjectWriter().getFoldedLineWriter().setIndent("\t");
  *
  * </pre>
+ * 
+ * <p>
+ * <b>Writing directly to bytes:</b>
+ * </p>
+ * <p>
+ * A writer that is created with a {@link WritableByteChannel} or
+ * {@link ByteBuffer} encodes the data into UTF-8 bytes itself, instead of
+ * passing it through a {@link Writer}. It folds lines at 75 characters and
+ * its output is identical to that of a writer created with a UTF-8
+ * {@link Writer}, but its line folding settings cannot be changed.
+ * </p>
+ * 
+ * <pre class="brush:java">
+ * FileChannel channel = new FileOutputStream("out.ics").getChannel();
+ * ICalWriter writer = new ICalWriter(channel, ICalVersion.V2_0);
+ * </pre>
  * @author Michael Angstadt
  * @see <a href="http://www.imc.org/pdi/pdiproddev.html">1.0 specs</a>
  * @see <a href="https://tools.ietf.org/html/rfc2445">RFC 2445</a>
@@ -103,6 +126,7 @@ import com.github.mangstadt.vinnie.io.VObjectWriter;
  */
 public class ICalWriter extends StreamWriter implements Flushable {
 	private final VObjectWriter writer;
+	private final Utf8VObjectWriter byteWriter;
 	private ICalVersion targetVersion;
 
 	/**
@@ -143,13 +167,40 @@ public class ICalWriter extends StreamWriter implements Flushable {
 	 */
 	public ICalWriter(Writer writer, ICalVersion targetVersion) {
 		this.writer = new VObjectWriter(writer, targetVersion.getSyntaxStyle());
+		this.byteWriter = null;
+		this.targetVersion = targetVersion;
+	}
+
+	/**
+	 * Creates a new iCalendar writer that encodes the data directly into UTF-8
+	 * bytes.
+	 * @param channel the channel to write to (e.g. a file or socket channel).
+	 * The channel must be in blocking mode.
+	 * @param targetVersion the iCalendar version to adhere to
+	 * @throws IllegalArgumentException if the channel is in non-blocking mode
+	 */
+	public ICalWriter(WritableByteChannel channel, ICalVersion targetVersion) {
+		this.writer = null;
+		this.byteWriter = new Utf8VObjectWriter(channel, targetVersion.getSyntaxStyle());
 		this.targetVersion = targetVersion;
 	}
 
+	/**
+	 * Creates a new iCalendar writer that encodes the data directly into UTF-8
+	 * bytes.
+	 * @param buffer the buffer to write to (a
+	 * {@link java.nio.BufferOverflowException} is thrown if it fills up)
+	 * @param targetVersion the iCalendar version to adhere to
+	 */
+	public ICalWriter(ByteBuffer buffer, ICalVersion targetVersion) {
+		this(Utf8VObjectWriter.channel(buffer), targetVersion);
+	}
+
 	/**
 	 * Gets the writer object that is used internally to write to the output
 	 * stream.
-	 * @return the raw writer
+	 * @return the raw writer or null if this writer encodes the data directly
+	 * into bytes
 	 */
 	public VObjectWriter getVObjectWriter() {
 		return writer;
@@ -170,7 +221,11 @@ public class ICalWriter extends StreamWriter implements Flushable {
 	 */
 	public void setTargetVersion(ICalVersion targetVersion) {
 		this.targetVersion = targetVersion;
-		writer.setSyntaxStyle(targetVersion.getSyntaxStyle());
+		if (byteWriter == null) {
+			writer.setSyntaxStyle(targetVersion.getSyntaxStyle());
+		} else {
+			byteWriter.setSyntaxStyle(targetVersion.getSyntaxStyle());
+		}
 	}
 
 	/**
@@ -184,7 +239,7 @@ public class ICalWriter extends StreamWriter implements Flushable {
 	 * @see VObjectWriter#isCaretEncodingEnabled()
 	 */
 	public boolean isCaretEncodingEnabled() {
-		return writer.isCaretEncodingEnabled();
+		return (byteWriter == null) ? writer.isCaretEncodingEnabled() : byteWriter.isCaretEncodingEnabled();
 	}
 
 	/**
@@ -203,7 +258,11 @@ public class ICalWriter extends StreamWriter implements Flushable {
 	 * @see VObjectWriter#setCaretEncodingEnabled(boolean)
 	 */
 	public void setCaretEncodingEnabled(boolean enable) {
-		writer.setCaretEncodingEnabled(enable);
+		if (byteWriter == null) {
+			writer.setCaretEncodingEnabled(enable);
+		} else {
+			byteWriter.setCaretEncodingEnabled(enable);
+		}
 	}
 
 	@Override
@@ -211,6 +270,76 @@ public class ICalWriter extends StreamWriter implements Flushable {
 		writeComponent(ical, null);
 	}
 
+	@Override
+	protected void _beginCalendar(ICalendar ical) throws IOException {
+		writeComponentStart(ical, index.getComponentScribe(ical));
+	}
+
+	@Override
+	protected void _writeComponent(ICalendar ical, ICalComponent component) throws IOException {
+		if (!writeFromCache(ical, component)) {
+			writeComponent(component, ical);
+		}
+	}
+
+	@Override
+	protected void _endCalendar(ICalendar ical) throws IOException {
+		writeComponentEnd(ical, index.getComponentScribe(ical));
+	}
+
+	@Override
+	protected ComponentBuffer _bufferComponents(ICalendar ical, List<ICalComponent> components, WriteContext context) throws IOException {
+		if (byteWriter == null) {
+			StringWriter sw = new StringWriter();
+			ICalWriter worker = new ICalWriter(sw, targetVersion);
+			worker.index = index;
+			FoldedLineWriter folder = writer.getFoldedLineWriter();
+			worker.writer.getFoldedLineWriter().setLineLength(folder.getLineLength());
+			worker.writer.getFoldedLineWriter().setIndent(folder.getIndent());
+			worker.writer.setCaretEncodingEnabled(writer.isCaretEncodingEnabled());
+			worker.writeComponents(ical, components, context);
+
+			return new TextBuffer(sw.toString());
+		}
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ICalWriter worker = new ICalWriter(Channels.newChannel(out), targetVersion);
+		worker.index = index;
+		worker.byteWriter.setCaretEncodingEnabled(byteWriter.isCaretEncodingEnabled());
+		worker.writeComponents(ical, components, context);
+		worker.byteWriter.flush();
+
+		return new EncodedBuffer(out.toByteArray());
+	}
+
+	@Override
+	protected List<Object> getCacheSettings() {
+		List<Object> settings = super.getCacheSettings();
+		if (byteWriter == null) {
+			settings.add(writer.isCaretEncodingEnabled());
+			settings.add(writer.getFoldedLineWriter().getLineLength());
+			settings.add(writer.getFoldedLineWriter().getIndent());
+		} else {
+			settings.add(byteWriter.isCaretEncodingEnabled());
+			settings.add(ByteBuffer.class);
+		}
+		return settings;
+	}
+
+	/**
+	 * Writes a list of top-level components to the data stream.
+	 * @param ical the iCalendar object the components belong to
+	 * @param components the components
+	 * @param context the write context
+	 * @throws IOException if there's a problem writing to the data stream
+	 */
+	private void writeComponents(ICalendar ical, List<ICalComponent> components, WriteContext context) throws IOException {
+		this.context = context;
+		for (ICalComponent component : components) {
+			writeComponent(component, ical);
+		}
+	}
+
 	/**
 	 * Writes a component to the data stream.
 	 * @param component the component to write
@@ -232,7 +361,23 @@ public class ICalWriter extends StreamWriter implements Flushable {
 			return;
 		}
 
-		writer.writeBeginComponent(componentScribe.getComponentName());
+		writeComponentStart(component, componentScribe);
+		writeComponentEnd(component, componentScribe);
+	}
+
+	/**
+	 * Writes a component's BEGIN line, properties, and sub-components.
+	 * @param component the component
+	 * @param componentScribe the component's scribe
+	 * @throws IOException if there's a problem writing to the data stream
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private void writeComponentStart(ICalComponent component, ICalComponentScribe componentScribe) throws IOException {
+		if (byteWriter == null) {
+			writer.writeBeginComponent(componentScribe.getComponentName());
+		} else {
+			byteWriter.writeBeginComponent(componentScribe.getComponentName());
+		}
 
 		List propertyObjs = componentScribe.getProperties(component);
 		addVersionPropertyIfMissing(component, propertyObjs);
@@ -250,15 +395,30 @@ public class ICalWriter extends StreamWriter implements Flushable {
 
 		for (Object subComponentObj : subComponents) {
 			ICalComponent subComponent = (ICalComponent) subComponentObj;
+			if (component instanceof ICalendar && writeFromCache((ICalendar) component, subComponent)) {
+				continue;
+			}
 			writeComponent(subComponent, component);
 		}
+	}
 
+	/**
+	 * Writes a component's END line.
+	 * @param component the component
+	 * @param componentScribe the component's scribe
+	 * @throws IOException if there's a problem writing to the data stream
+	 */
+	private void writeComponentEnd(ICalComponent component, ICalComponentScribe<?> componentScribe) throws IOException {
 		boolean inVCalRoot = (component instanceof ICalendar) && (getTargetVersion() == ICalVersion.V1_0);
 		if (inVCalRoot) {
 			writeVCalTimezones();
 		}
 
-		writer.writeEndComponent(componentScribe.getComponentName());
+		if (byteWriter == null) {
+			writer.writeEndComponent(componentScribe.getComponentName());
+		} else {
+			byteWriter.writeEndComponent(componentScribe.getComponentName());
+		}
 	}
 
 	private void writeVCalTimezones() throws IOException {
@@ -318,7 +478,42 @@ public class ICalWriter extends StreamWriter implements Flushable {
 		String propertyName = scribe.getPropertyName(getTargetVersion());
 
 		//write property to data stream
-		writer.writeProperty(null, propertyName, new VObjectParameters(parameters.getMap()), value);
+		if (byteWriter == null) {
+			writer.writeProperty(null, propertyName, new VObjectParameters(parameters.getMap()), value);
+		} else {
+			byteWriter.writeProperty(propertyName, parameters, value);
+		}
+	}
+
+	/**
+	 * Components that were serialized to text.
+	 */
+	private static class TextBuffer implements ComponentBuffer {
+		private final String text;
+
+		public TextBuffer(String text) {
+			this.text = text;
+		}
+
+		public void writeTo(StreamWriter writer) throws IOException {
+			//the text is already folded, so bypass the FoldedLineWriter
+			((ICalWriter) writer).writer.getFoldedLineWriter().getWriter().write(text);
+		}
+	}
+
+	/**
+	 * Components that were serialized to UTF-8 bytes.
+	 */
+	private static class EncodedBuffer implements ComponentBuffer {
+		private final byte[] bytes;
+
+		public EncodedBuffer(byte[] bytes) {
+			this.bytes = bytes;
+		}
+
+		public void writeTo(StreamWriter writer) throws IOException {
+			((ICalWriter) writer).byteWriter.writeRaw(ByteBuffer.wrap(bytes));
+		}
 	}
 
 	/**
@@ -326,7 +521,11 @@ public class ICalWriter extends StreamWriter implements Flushable {
 	 * @throws IOException if there's a problem flushing the output stream
 	 */
 	public void flush() throws IOException {
-		writer.flush();
+		if (byteWriter == null) {
+			writer.flush();
+		} else {
+			byteWriter.flush();
+		}
 	}
 
 	/**
@@ -334,6 +533,10 @@ public class ICalWriter extends StreamWriter implements Flushable {
 	 * @throws IOException if there's a problem closing the output stream
 	 */
 	public void close() throws IOException {
-		writer.close();
+		if (byteWriter == null) {
+			writer.close();
+		} else {
+			byteWriter.close();
+		}
 	}
 }
@@ -0,0 +1,260 @@
+package biweekly.io.text;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * <p>
+ * Finds line boundaries and BEGIN/END lines in an iCalendar file without
+ * parsing it. Used by {@link ICalFileSplitter} and {@link ICalFileIndex}.
+ * </p>
+ * <p>
+ * The file is read one aligned block at a time into a buffer that is reused,
+ * so scanning a large file does not create any garbage. Not thread-safe.
+ * </p>
+ * @author Michael Angstadt
+ */
+class LineScanner {
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	static final byte[] BEGIN = "BEGIN".getBytes(UTF8);
+	static final byte[] END = "END".getBytes(UTF8);
+
+	/**
+	 * The size of the blocks that the file is read in. Blocks are aligned to
+	 * multiples of this size.
+	 */
+	private static final int WINDOW_SIZE = 1 << 16;
+
+	/**
+	 * The maximum number of bytes of each line that are copied by
+	 * {@link #readLine} and {@link #componentName}.
+	 */
+	static final int MAX_LINE_PREFIX = 4096;
+
+	private final FileChannel channel;
+	private final long size;
+	private final ByteBuffer window;
+	private long windowStart;
+
+	private final byte[] line = new byte[MAX_LINE_PREFIX];
+	private int lineLength;
+
+	/**
+	 * Creates a scanner that reads from a file.
+	 * @param channel the file
+	 * @param size the size of the file
+	 */
+	public LineScanner(FileChannel channel, long size) {
+		this.channel = channel;
+		this.size = size;
+		window = ByteBuffer.allocate((int) Math.min(WINDOW_SIZE, size));
+		windowStart = -1;
+	}
+
+	/**
+	 * Creates a scanner that scans data that is already in memory.
+	 * @param data the data (from index 0 up to the buffer's limit)
+	 */
+	public LineScanner(ByteBuffer data) {
+		channel = null;
+		size = data.limit();
+		window = data;
+		windowStart = 0;
+	}
+
+	/**
+	 * Gets the size of the data.
+	 * @return the size in bytes
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Gets the start of the first line that starts at or after the given
+	 * offset.
+	 * @param offset the offset
+	 * @return the start of the line
+	 * @throws IOException if there's a problem reading the file
+	 */
+	public long lineStart(long offset) throws IOException {
+		if (offset == 0) {
+			return 0;
+		}
+
+		int prev = byteAt(offset - 1);
+		if (prev == '\n') {
+			return offset;
+		}
+		if (prev == '\r') {
+			return (byteAt(offset) == '\n') ? offset + 1 : offset;
+		}
+		return nextLine(offset);
+	}
+
+	/**
+	 * Gets the start of the line that follows the line at the given offset.
+	 * Folded lines are treated as separate lines.
+	 * @param offset the offset
+	 * @return the start of the next line or the size of the data if there are
+	 * no more lines
+	 * @throws IOException if there's a problem reading the file
+	 */
+	public long nextLine(long offset) throws IOException {
+		for (long i = offset; i < size; i++) {
+			int b = byteAt(i);
+			if (b == '\n') {
+				return i + 1;
+			}
+			if (b == '\r') {
+				return (byteAt(i + 1) == '\n') ? i + 2 : i + 1;
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Reads the unfolded line that starts at the given offset. The first
+	 * {@link #MAX_LINE_PREFIX} bytes of the unfolded line can then be
+	 * retrieved with {@link #getLine} and {@link #getLineLength}.
+	 * @param offset the start of the line
+	 * @return the start of the next unfolded line or the size of the data if
+	 * there are no more lines
+	 * @throws IOException if there's a problem reading the file
+	 */
+	public long readLine(long offset) throws IOException {
+		lineLength = 0;
+		long i = offset;
+		while (i < size) {
+			int b = byteAt(i++);
+			if (b != '\r' && b != '\n') {
+				if (lineLength < line.length) {
+					line[lineLength++] = (byte) b;
+				}
+				continue;
+			}
+
+			if (b == '\r' && byteAt(i) == '\n') {
+				i++;
+			}
+
+			int next = byteAt(i);
+			if (next != ' ' && next != '\t') {
+				return i;
+			}
+
+			//folded line
+			i++;
+		}
+		return size;
+	}
+
+	/**
+	 * Gets the line that was read by the last call to {@link #readLine}.
+	 * @return the line (only the first {@link #getLineLength} bytes are part
+	 * of the line)
+	 */
+	public byte[] getLine() {
+		return line;
+	}
+
+	/**
+	 * Gets the length of the line that was read by the last call to
+	 * {@link #readLine}.
+	 * @return the length in bytes
+	 */
+	public int getLineLength() {
+		return lineLength;
+	}
+
+	/**
+	 * Gets the component name from a BEGIN or END line. The property name is
+	 * compared against the data directly, so the line is only decoded if it
+	 * matches. Folded lines are not unfolded.
+	 * @param offset the start of the line
+	 * @param propertyName {@link #BEGIN} or {@link #END}
+	 * @return the component name (in uppercase) or null if the line is not a
+	 * property with the given name
+	 * @throws IOException if there's a problem reading the file
+	 */
+	public String componentName(long offset, byte[] propertyName) throws IOException {
+		long i = offset;
+		for (byte expected : propertyName) {
+			int b = byteAt(i++);
+			if (b != expected && b != expected + ('a' - 'A')) {
+				return null;
+			}
+		}
+
+		int b = byteAt(i++);
+		while (b == ' ' || b == '\t') {
+			b = byteAt(i++);
+		}
+		if (b != ':') {
+			return null;
+		}
+
+		int length = 0;
+		for (b = byteAt(i++); b >= 0 && b != '\r' && b != '\n' && length < line.length; b = byteAt(i++)) {
+			line[length++] = (byte) b;
+		}
+
+		return new String(line, 0, length, UTF8).trim().toUpperCase();
+	}
+
+	private int byteAt(long offset) throws IOException {
+		if (offset >= size) {
+			return -1;
+		}
+
+		if (windowStart < 0 || offset < windowStart || offset >= windowStart + window.limit()) {
+			if (channel == null) {
+				return -1;
+			}
+
+			windowStart = offset - offset % WINDOW_SIZE;
+			window.clear();
+			window.limit((int) Math.min(window.capacity(), size - windowStart));
+			while (window.hasRemaining()) {
+				if (channel.read(window, windowStart + window.position()) < 0) {
+					break;
+				}
+			}
+			window.flip();
+
+			if (offset >= windowStart + window.limit()) {
+				//the file was truncated
+				return -1;
+			}
+		}
+		return window.get((int) (offset - windowStart)) & 0xff;
+	}
+}
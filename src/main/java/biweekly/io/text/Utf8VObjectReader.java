@@ -0,0 +1,1054 @@
+package biweekly.io.text;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.mangstadt.vinnie.SyntaxStyle;
+import com.github.mangstadt.vinnie.Utils;
+import com.github.mangstadt.vinnie.VObjectProperty;
+import com.github.mangstadt.vinnie.codec.DecoderException;
+import com.github.mangstadt.vinnie.codec.QuotedPrintableCodec;
+import com.github.mangstadt.vinnie.io.SyntaxRules;
+import com.github.mangstadt.vinnie.io.VObjectReader;
+import com.github.mangstadt.vinnie.io.Warning;
+
+import biweekly.Messages;
+import biweekly.io.Projection;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * <p>
+ * Parses a UTF-8 encoded vobject data stream directly from its bytes.
+ * </p>
+ * <p>
+ * This class follows the same parsing rules as vinnie's
+ * {@link VObjectReader}, but it skips the step of decoding the entire stream
+ * into characters. All of the characters that have a special meaning in the
+ * vobject syntax (colons, semicolons, newlines, etc) are ASCII, and the bytes
+ * of a multi-byte UTF-8 sequence are never in the ASCII range. This means that
+ * line unfolding and the splitting of each line into its group, name,
+ * parameters, and value can be done on the raw bytes. Only the slices that
+ * become strings are decoded.
+ * </p>
+ * <p>
+ * Files can be read through a memory-mapped {@link FileChannel}, in which
+ * case the file is mapped into memory one window at a time.
+ * </p>
+ * <p>
+ * Data can also be pushed to the reader as it arrives (see {@link #feed}).
+ * When the reader runs out of data in the middle of a property, it rewinds to
+ * the start of the property and returns from {@link #parse}. Parsing resumes
+ * from that point once more data has been fed to it. The same happens when a
+ * non-blocking channel has no data available. Since a property can only end
+ * at a line that is not folded, the property is not scanned again until such
+ * a line boundary has arrived.
+ * </p>
+ * @author Michael Angstadt
+ */
+class Utf8VObjectReader implements Closeable {
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final String NEWLINE = System.getProperty("line.separator");
+
+	/**
+	 * The size of each memory-mapped window of a file.
+	 */
+	private static final long MAP_WINDOW_SIZE = 1L << 26;
+
+	private ReadableByteChannel channel;
+	private FileChannel file;
+	private long filePosition, fileEnd;
+	private ByteBuffer input;
+	private long inputOffset;
+	private final SyntaxRules syntaxRules;
+	private boolean caretDecodingEnabled = true;
+	private Charset defaultQuotedPrintableCharset;
+
+	private final List<String> componentNames = new ArrayList<String>();
+	private final List<SyntaxStyle> componentSyntax = new ArrayList<SyntaxStyle>();
+
+	private final ByteBuilder buffer = new ByteBuilder();
+	private boolean lineRead;
+	private int leftOver = -1;
+	private int lineNumber = 1;
+	private int propertyLineNumber;
+	private long propertyOffset;
+	private boolean eos = false;
+	private boolean stop;
+
+	private boolean push, pushEnded, suspended;
+
+	/**
+	 * The offset of the end of the input at the point when the reader was
+	 * suspended (everything before it has been checked for the end of the
+	 * suspended property).
+	 */
+	private long suspendedAt;
+
+	/**
+	 * The position in {@link #input} of the start of the property that is
+	 * being parsed. The reader rewinds to this position when it is suspended.
+	 */
+	private int propertyStart;
+
+	private Projection projection;
+
+	/**
+	 * The depth of the outermost component that is being skipped (the size of
+	 * {@link #componentNames} after it was pushed) or 0 if no component is
+	 * being skipped.
+	 */
+	private int skipDepth;
+
+	/**
+	 * Whether the value of the property that is being parsed is being
+	 * skipped.
+	 */
+	private boolean skipValue;
+
+	/**
+	 * Creates a reader that reads from a channel.
+	 * @param channel the channel to read from
+	 * @param syntaxRules the syntax rules to follow
+	 * @param defaultQuotedPrintableCharset the character set to use when
+	 * decoding quoted-printable values that do not have a valid CHARSET
+	 * parameter
+	 */
+	public Utf8VObjectReader(ReadableByteChannel channel, SyntaxRules syntaxRules, Charset defaultQuotedPrintableCharset) {
+		this(channel, null, ByteBuffer.allocate(8192), syntaxRules, defaultQuotedPrintableCharset);
+		input.flip();
+	}
+
+	/**
+	 * Creates a reader that reads from a buffer. Data is read from the
+	 * buffer's current position up to its limit.
+	 * @param input the buffer to read from
+	 * @param syntaxRules the syntax rules to follow
+	 * @param defaultQuotedPrintableCharset the character set to use when
+	 * decoding quoted-printable values that do not have a valid CHARSET
+	 * parameter
+	 */
+	public Utf8VObjectReader(ByteBuffer input, SyntaxRules syntaxRules, Charset defaultQuotedPrintableCharset) {
+		this(null, null, input, syntaxRules, defaultQuotedPrintableCharset);
+	}
+
+	/**
+	 * Creates a reader that reads a file through memory-mapped windows. The
+	 * reader does not close the file channel.
+	 * @param prefix data to read before the file data or null if none (its
+	 * byte offsets are the buffer's indexes)
+	 * @param file the file to read from
+	 * @param position the byte offset in the file to start reading from
+	 * @param syntaxRules the syntax rules to follow
+	 * @param defaultQuotedPrintableCharset the character set to use when
+	 * decoding quoted-printable values that do not have a valid CHARSET
+	 * parameter
+	 * @throws IOException if there's a problem determining the size of the
+	 * file
+	 */
+	public Utf8VObjectReader(ByteBuffer prefix, FileChannel file, long position, SyntaxRules syntaxRules, Charset defaultQuotedPrintableCharset) throws IOException {
+		this(null, file, (prefix == null) ? ByteBuffer.allocate(0) : prefix, syntaxRules, defaultQuotedPrintableCharset);
+		filePosition = position;
+		fileEnd = file.size();
+	}
+
+	/**
+	 * Creates a reader whose data is pushed to it with {@link #feed}.
+	 * @param syntaxRules the syntax rules to follow
+	 * @param defaultQuotedPrintableCharset the character set to use when
+	 * decoding quoted-printable values that do not have a valid CHARSET
+	 * parameter
+	 */
+	public Utf8VObjectReader(SyntaxRules syntaxRules, Charset defaultQuotedPrintableCharset) {
+		this(null, null, ByteBuffer.allocate(8192), syntaxRules, defaultQuotedPrintableCharset);
+		input.flip();
+		push = true;
+	}
+
+	private Utf8VObjectReader(ReadableByteChannel channel, FileChannel file, ByteBuffer input, SyntaxRules syntaxRules, Charset defaultQuotedPrintableCharset) {
+		this.channel = channel;
+		this.file = file;
+		this.input = input;
+		this.syntaxRules = syntaxRules;
+		this.defaultQuotedPrintableCharset = defaultQuotedPrintableCharset;
+		componentSyntax.add(syntaxRules.getDefaultSyntaxStyle());
+	}
+
+	/**
+	 * Discards the reader's state and starts reading from a new channel. The
+	 * reader's internal buffers are reused. The old channel is not closed.
+	 * @param channel the channel to read from
+	 */
+	public void reset(ReadableByteChannel channel) {
+		if (this.channel == null) {
+			//the current buffer belongs to the caller
+			input = ByteBuffer.allocate(8192);
+		}
+		input.clear();
+		input.flip();
+		reset(channel, input);
+	}
+
+	/**
+	 * Discards the reader's state and starts reading from a new buffer. Data
+	 * is read from the buffer's current position up to its limit.
+	 * @param input the buffer to read from
+	 */
+	public void reset(ByteBuffer input) {
+		reset(null, input);
+	}
+
+	private void reset(ReadableByteChannel channel, ByteBuffer input) {
+		this.channel = channel;
+		this.input = input;
+		file = null;
+		filePosition = fileEnd = inputOffset = propertyOffset = 0;
+
+		componentNames.clear();
+		componentSyntax.clear();
+		componentSyntax.add(syntaxRules.getDefaultSyntaxStyle());
+		buffer.clear();
+		leftOver = -1;
+		lineNumber = 1;
+		propertyLineNumber = 0;
+		eos = false;
+		stop = false;
+		push = pushEnded = suspended = false;
+		skipDepth = 0;
+	}
+
+	/**
+	 * Sets the components and properties to parse. Skipped components and
+	 * properties are not passed to the listener, and the values of skipped
+	 * properties are not decoded.
+	 * @param projection the projection or null to parse everything
+	 */
+	public void setProjection(Projection projection) {
+		this.projection = projection;
+	}
+
+	/**
+	 * Appends data to the reader's input. The data is copied, so the buffer
+	 * can be reused once this method returns. Can only be called on readers
+	 * that were created with {@link #Utf8VObjectReader(SyntaxRules, Charset)}.
+	 * @param data the data (read from its current position up to its limit)
+	 * @throws IllegalStateException if the reader does not accept pushed data
+	 * or if {@link #endInput} has been called
+	 */
+	public void feed(ByteBuffer data) {
+		if (!push || pushEnded) {
+			throw new IllegalStateException(Messages.INSTANCE.getExceptionMessage(35));
+		}
+
+		//discard the data that has already been parsed
+		inputOffset += input.position();
+		input.compact();
+
+		if (input.remaining() < data.remaining()) {
+			ByteBuffer bigger = ByteBuffer.allocate(Math.max(input.capacity() * 2, input.position() + data.remaining()));
+			input.flip();
+			bigger.put(input);
+			input = bigger;
+		}
+
+		input.put(data);
+		input.flip();
+	}
+
+	/**
+	 * Signals that no more data will be fed to the reader. The next call to
+	 * {@link #parse} will read the rest of the input.
+	 */
+	public void endInput() {
+		pushEnded = true;
+	}
+
+	/**
+	 * Determines if the last call to {@link #parse} returned because the
+	 * reader needs more data.
+	 * @return true if the reader needs more data, false if not
+	 */
+	public boolean isSuspended() {
+		return suspended;
+	}
+
+	/**
+	 * @see VObjectReader#getDefaultQuotedPrintableCharset()
+	 * @return the character set
+	 */
+	public Charset getDefaultQuotedPrintableCharset() {
+		return defaultQuotedPrintableCharset;
+	}
+
+	/**
+	 * @see VObjectReader#setDefaultQuotedPrintableCharset(Charset)
+	 * @param charset the character set
+	 */
+	public void setDefaultQuotedPrintableCharset(Charset charset) {
+		defaultQuotedPrintableCharset = charset;
+	}
+
+	/**
+	 * @see VObjectReader#isCaretDecodingEnabled()
+	 * @return true if circumflex accent decoding is enabled, false if not
+	 */
+	public boolean isCaretDecodingEnabled() {
+		return caretDecodingEnabled;
+	}
+
+	/**
+	 * @see VObjectReader#setCaretDecodingEnabled(boolean)
+	 * @param enable true to use circumflex accent decoding, false not to
+	 */
+	public void setCaretDecodingEnabled(boolean enable) {
+		caretDecodingEnabled = enable;
+	}
+
+	/**
+	 * Gets the line number of the property that is currently being processed.
+	 * @return the line number
+	 */
+	public int getLineNumber() {
+		return propertyLineNumber;
+	}
+
+	/**
+	 * Gets the byte offset of the property that is currently being processed.
+	 * When reading from a file, this is the offset in the file.
+	 * @return the byte offset
+	 */
+	public long getOffset() {
+		return propertyOffset;
+	}
+
+	/**
+	 * Instructs the reader to stop parsing after the current callback returns.
+	 * Parsing resumes where it left off the next time {@link #parse} is
+	 * called.
+	 */
+	public void stop() {
+		stop = true;
+	}
+
+	/**
+	 * Parses the data stream, passing its contents to the given listener.
+	 * @param listener the listener
+	 * @throws IOException if there's a problem reading from the data stream
+	 * @see VObjectReader#parse
+	 */
+	public void parse(Listener listener) throws IOException {
+		stop = false;
+		if (suspended && !resume()) {
+			//the property still can't be complete, so don't bother scanning it again
+			return;
+		}
+
+		while (!eos && !stop) {
+			propertyStart = input.position();
+			int prevLeftOver = leftOver;
+			int prevLineNumber = lineNumber;
+
+			propertyLineNumber = lineNumber;
+			propertyOffset = inputOffset + input.position() - ((leftOver >= 0) ? 1 : 0);
+			buffer.clear();
+			lineRead = false;
+
+			VObjectProperty property = parseProperty(listener);
+
+			if (suspended) {
+				//out of data, rewind to the start of the property
+				suspendedAt = inputOffset + input.limit();
+				input.position(propertyStart);
+				leftOver = prevLeftOver;
+				lineNumber = prevLineNumber;
+				return;
+			}
+
+			if (!lineRead) {
+				//input stream was empty
+				return;
+			}
+
+			if (property == null) {
+				if (skipDepth == 0) {
+					listener.onWarning(Warning.MALFORMED_LINE, null, null);
+				}
+				continue;
+			}
+
+			/*
+			 * Property names are trimmed when checking for BEGIN and END
+			 * properties because old style syntax allows there to be
+			 * whitespace around the colon character for these two properties.
+			 * Component names are trimmed for the same reason.
+			 */
+			if ("BEGIN".equalsIgnoreCase(property.getName().trim())) {
+				String componentName = property.getValue().trim().toUpperCase();
+				if (componentName.length() == 0) {
+					if (skipDepth == 0) {
+						listener.onWarning(Warning.EMPTY_BEGIN, null, null);
+					}
+					continue;
+				}
+
+				if (skipDepth == 0) {
+					if (projection == null || projection.includesComponent(componentName, peekComponentName())) {
+						listener.onComponentBegin(componentName);
+					} else {
+						skipDepth = componentNames.size() + 1;
+					}
+				}
+				componentNames.add(componentName);
+				componentSyntax.add(peekSyntax());
+				continue;
+			}
+
+			if ("END".equalsIgnoreCase(property.getName().trim())) {
+				String componentName = property.getValue().trim().toUpperCase();
+				if (componentName.length() == 0) {
+					if (skipDepth == 0) {
+						listener.onWarning(Warning.EMPTY_END, null, null);
+					}
+					continue;
+				}
+
+				//find the component that this END property matches up with
+				int index = componentNames.lastIndexOf(componentName);
+				if (index < 0) {
+					//END property does not match up with any BEGIN properties, so ignore
+					if (skipDepth == 0) {
+						listener.onWarning(Warning.UNMATCHED_END, null, null);
+					}
+					continue;
+				}
+
+				for (int popCount = componentNames.size() - index; popCount > 0; popCount--) {
+					componentSyntax.remove(componentSyntax.size() - 1);
+					String poppedName = componentNames.remove(componentNames.size() - 1);
+					if (skipDepth == 0) {
+						listener.onComponentEnd(poppedName);
+					} else if (componentNames.size() < skipDepth) {
+						//the skipped component ended
+						skipDepth = 0;
+					}
+				}
+				continue;
+			}
+
+			if (skipValue) {
+				continue;
+			}
+
+			if ("VERSION".equalsIgnoreCase(property.getName())) {
+				String parentComponent = componentNames.isEmpty() ? null : componentNames.get(componentNames.size() - 1);
+				if (syntaxRules.hasSyntaxRules(parentComponent)) {
+					SyntaxStyle style = syntaxRules.getSyntaxStyle(parentComponent, property.getValue());
+					if (style == null) {
+						listener.onWarning(Warning.UNKNOWN_VERSION, property, null);
+					} else {
+						listener.onVersion(property.getValue());
+						componentSyntax.set(componentSyntax.size() - 1, style);
+						continue;
+					}
+				}
+			}
+
+			listener.onProperty(property);
+		}
+	}
+
+	private SyntaxStyle peekSyntax() {
+		return componentSyntax.get(componentSyntax.size() - 1);
+	}
+
+	private String peekComponentName() {
+		return componentNames.isEmpty() ? null : componentNames.get(componentNames.size() - 1);
+	}
+
+	/**
+	 * Determines if the value of a property should be skipped.
+	 * @param name the property name
+	 * @return true to skip the value, false not to
+	 */
+	private boolean skipValue(String name) {
+		String trimmed = name.trim();
+		if ("BEGIN".equalsIgnoreCase(trimmed) || "END".equalsIgnoreCase(trimmed)) {
+			return false;
+		}
+
+		if (skipDepth > 0) {
+			return true;
+		}
+
+		return projection != null && !projection.includesProperty(name, peekComponentName());
+	}
+
+	/**
+	 * Determines if the suspended property may be complete now. If it cannot
+	 * be, the reader stays suspended.
+	 * @return true to parse the property again, false to stay suspended
+	 * @throws IOException if there's a problem reading from the channel
+	 */
+	private boolean resume() throws IOException {
+		suspended = false;
+
+		if (channel != null) {
+			while (true) {
+				int read = readChannel();
+				if (read < 0 || lineBoundarySince(suspendedAt)) {
+					return true;
+				}
+
+				suspendedAt = inputOffset + input.limit();
+				if (read == 0) {
+					suspended = true;
+					return false;
+				}
+			}
+		}
+
+		if (pushEnded || lineBoundarySince(suspendedAt)) {
+			return true;
+		}
+
+		suspendedAt = inputOffset + input.limit();
+		suspended = true;
+		return false;
+	}
+
+	/**
+	 * Determines if the input contains a line boundary after the given
+	 * offset. A line boundary is a newline that is followed by a character
+	 * other than whitespace (in other words, the start of a line that is not
+	 * folded). A property cannot end without one.
+	 * @param offset the offset (the newline may be the character right before
+	 * this offset)
+	 * @return true if there is a line boundary, false if not
+	 */
+	private boolean lineBoundarySince(long offset) {
+		int start = (int) Math.max(input.position(), offset - inputOffset - 1);
+		for (int i = start + 1; i < input.limit(); i++) {
+			int b = input.get(i);
+			if (isNewline(input.get(i - 1)) && !isNewline(b) && !isWhitespace(b)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Parses the next property off the input stream.
+	 * @param listener the data listener (for reporting warnings)
+	 * @return the parsed property or null if the property could not be parsed
+	 * @throws IOException if there was a problem reading from the input stream
+	 */
+	private VObjectProperty parseProperty(Listener listener) throws IOException {
+		VObjectProperty property = new VObjectProperty();
+		SyntaxStyle syntax = peekSyntax();
+		skipValue = false;
+
+		/*
+		 * The name of the parameter we're currently inside of.
+		 */
+		String curParamName = null;
+
+		/*
+		 * The character that was used to escape the current character (for
+		 * parameter values).
+		 */
+		int paramValueEscapeChar = 0;
+
+		/*
+		 * Are we currently inside a parameter value that is surrounded with
+		 * double quotes?
+		 */
+		boolean inQuotes = false;
+
+		/*
+		 * Are we currently inside the property value?
+		 */
+		boolean inValue = false;
+
+		/*
+		 * Does the line use quoted-printable encoding, and does it end all of
+		 * its folded lines with a "=" character?
+		 */
+		boolean quotedPrintableLine = false;
+
+		/*
+		 * Are we currently inside the whitespace that prepends a folded line?
+		 */
+		boolean inFoldedLineWhitespace = false;
+
+		/*
+		 * The current byte.
+		 */
+		int b = 0;
+
+		while (true) {
+			int prev = b;
+
+			int read = nextByte();
+			if (read < 0) {
+				if (suspended) {
+					return null;
+				}
+				eos = true;
+				break;
+			}
+
+			b = read;
+
+			if (prev == '\r' && b == '\n') {
+				/*
+				 * The newline was already processed when the "\r" character
+				 * was encountered, so ignore the accompanying "\n" character.
+				 */
+				continue;
+			}
+
+			if (isNewline(b)) {
+				quotedPrintableLine = (inValue && prev == '=' && property.getParameters().isQuotedPrintable());
+				if (quotedPrintableLine) {
+					/*
+					 * Remove the "=" character that sometimes appears at the
+					 * end of quoted-printable lines that are followed by a
+					 * folded line.
+					 */
+					buffer.chop();
+				}
+
+				//keep track of the current line number
+				lineNumber++;
+
+				continue;
+			}
+
+			if (isNewline(prev)) {
+				if (isWhitespace(b)) {
+					/*
+					 * This line is a continuation of the previous line (the
+					 * line is folded).
+					 */
+					inFoldedLineWhitespace = true;
+					continue;
+				}
+
+				if (!quotedPrintableLine) {
+					/*
+					 * We're reached the end of the property.
+					 */
+					leftOver = b;
+					break;
+				}
+
+				/*
+				 * The property's parameters indicate that the property value
+				 * is quoted-printable. And the previous line ended with an
+				 * equals sign. This means that folding whitespace may not be
+				 * prepended to folded lines like it should.
+				 */
+			}
+
+			if (inFoldedLineWhitespace) {
+				if (isWhitespace(b) && syntax == SyntaxStyle.OLD) {
+					/*
+					 * 2.1 allows multiple whitespace characters to be used for
+					 * folding (section 2.1.3).
+					 */
+					continue;
+				}
+				inFoldedLineWhitespace = false;
+			}
+
+			lineRead = true;
+
+			if (inValue) {
+				if (!skipValue) {
+					buffer.append(b);
+				}
+				continue;
+			}
+
+			//decode escaped parameter value character
+			if (paramValueEscapeChar != 0) {
+				int escapeChar = paramValueEscapeChar;
+				paramValueEscapeChar = 0;
+
+				switch (escapeChar) {
+				case '\\':
+					switch (b) {
+					case '\\':
+					case ';':
+						buffer.append(b);
+						continue;
+					}
+					break;
+
+				case '^':
+					switch (b) {
+					case '^':
+						buffer.append(b);
+						continue;
+					case 'n':
+						buffer.append(NEWLINE);
+						continue;
+					case '\'':
+						buffer.append('"');
+						continue;
+					}
+					break;
+				}
+
+				//treat the escape character as a normal character because it's not a valid escape sequence
+				buffer.append(escapeChar).append(b);
+
+				continue;
+			}
+
+			//check for a parameter value escape character
+			if (curParamName != null) {
+				switch (syntax) {
+				case OLD:
+					if (b == '\\') {
+						paramValueEscapeChar = b;
+						continue;
+					}
+					break;
+				case NEW:
+					if (b == '^' && caretDecodingEnabled) {
+						paramValueEscapeChar = b;
+						continue;
+					}
+					break;
+				}
+			}
+
+			//set the group
+			if (b == '.' && property.getGroup() == null && property.getName() == null) {
+				property.setGroup(buffer.getAndClear());
+				continue;
+			}
+
+			if ((b == ';' || b == ':') && !inQuotes) {
+				if (property.getName() == null) {
+					//set the property name
+					property.setName(buffer.getAndClear());
+					skipValue = skipValue(property.getName());
+				} else {
+					//set a parameter value
+					String paramValue = buffer.getAndClear();
+					if (syntax == SyntaxStyle.OLD) {
+						//old style allows whitespace to surround the "=", so remove it
+						paramValue = Utils.ltrim(paramValue);
+					}
+					property.getParameters().put(curParamName, paramValue);
+					curParamName = null;
+				}
+
+				if (b == ':') {
+					//the rest of the line is the property value
+					inValue = true;
+				}
+				continue;
+			}
+
+			if (property.getName() != null) {
+				//it's a multi-valued parameter
+				if (b == ',' && curParamName != null && !inQuotes && syntax != SyntaxStyle.OLD) {
+					String paramValue = buffer.getAndClear();
+					property.getParameters().put(curParamName, paramValue);
+					continue;
+				}
+
+				//set the parameter name
+				if (b == '=' && curParamName == null) {
+					String paramName = buffer.getAndClear().toUpperCase();
+					if (syntax == SyntaxStyle.OLD) {
+						//old style allows whitespace to surround the "=", so remove it
+						paramName = Utils.rtrim(paramName);
+					}
+					curParamName = paramName;
+					continue;
+				}
+
+				//entering/leaving a double-quoted parameter value (new style only)
+				if (b == '"' && curParamName != null && syntax != SyntaxStyle.OLD) {
+					inQuotes = !inQuotes;
+					continue;
+				}
+			}
+
+			buffer.append(b);
+		}
+
+		if (!inValue) {
+			return null;
+		}
+
+		property.setValue(buffer.getAndClear());
+		if (property.getParameters().isQuotedPrintable() && !skipValue) {
+			decodeQuotedPrintable(property, listener);
+		}
+
+		return property;
+	}
+
+	/**
+	 * Decodes the given property's value from quoted-printable encoding.
+	 * @param property the property
+	 * @param listener the data listener
+	 */
+	private void decodeQuotedPrintable(VObjectProperty property, Listener listener) {
+		Charset charset = getCharset(property, listener);
+		if (charset == null) {
+			charset = defaultQuotedPrintableCharset;
+		}
+
+		String value = property.getValue();
+		QuotedPrintableCodec codec = new QuotedPrintableCodec(charset.name());
+		try {
+			value = codec.decode(value);
+		} catch (DecoderException e) {
+			listener.onWarning(Warning.QUOTED_PRINTABLE_ERROR, property, e);
+			return;
+		}
+
+		property.setValue(value);
+	}
+
+	/**
+	 * Gets the character set the given property is encoded in.
+	 * @param property the property
+	 * @param listener the data listener
+	 * @return the character set or null if the character is not set or could
+	 * not be determined
+	 */
+	private Charset getCharset(VObjectProperty property, Listener listener) {
+		Exception thrown;
+		try {
+			return property.getParameters().getCharset();
+		} catch (IllegalCharsetNameException e) {
+			//name contains illegal characters
+			thrown = e;
+		} catch (UnsupportedCharsetException e) {
+			//not recognized by the JVM
+			thrown = e;
+		}
+
+		listener.onWarning(Warning.UNKNOWN_CHARSET, property, thrown);
+		return null;
+	}
+
+	/**
+	 * Gets the next byte in the input stream.
+	 * @return the next byte or -1 if the end of stream has been reached
+	 * @throws IOException if there's a problem reading from the input stream
+	 */
+	private int nextByte() throws IOException {
+		if (leftOver >= 0) {
+			/*
+			 * Use the character that was left over from the previous
+			 * invocation of "readLine()".
+			 */
+			int ch = leftOver;
+			leftOver = -1;
+			return ch;
+		}
+
+		if (!input.hasRemaining()) {
+			if (channel != null) {
+				int read = readChannel();
+				if (read == 0) {
+					//non-blocking channel has no data available
+					suspended = true;
+					return -1;
+				}
+				if (read < 0) {
+					return -1;
+				}
+			} else if (file != null && filePosition < fileEnd) {
+				long size = Math.min(MAP_WINDOW_SIZE, fileEnd - filePosition);
+				input = file.map(MapMode.READ_ONLY, filePosition, size);
+				inputOffset = filePosition;
+				filePosition += size;
+			} else if (push && !pushEnded) {
+				suspended = true;
+				return -1;
+			} else {
+				return -1;
+			}
+		}
+
+		return input.get() & 0xff;
+	}
+
+	/**
+	 * Reads more data from the channel. The data that comes before the
+	 * property that is being parsed is discarded, but the property's data is
+	 * kept so that the reader can rewind to the start of the property if it is
+	 * suspended. The buffer grows if less than half of it is free.
+	 * @return the number of bytes read, 0 if the channel is non-blocking and
+	 * has no data available, or -1 if the end of the stream has been reached
+	 * @throws IOException if there's a problem reading from the channel
+	 */
+	private int readChannel() throws IOException {
+		int position = input.position() - propertyStart;
+		inputOffset += propertyStart;
+		input.position(propertyStart);
+		input.compact();
+		propertyStart = 0;
+
+		if (input.remaining() < input.capacity() / 2) {
+			ByteBuffer bigger = ByteBuffer.allocate(input.capacity() * 2);
+			input.flip();
+			bigger.put(input);
+			input = bigger;
+		}
+
+		int read = channel.read(input);
+		input.flip();
+		input.position(position);
+		return read;
+	}
+
+	private static boolean isNewline(int b) {
+		return b == '\n' || b == '\r';
+	}
+
+	private static boolean isWhitespace(int b) {
+		return b == ' ' || b == '\t';
+	}
+
+	/**
+	 * Closes the underlying channel. Memory-mapped file channels are not
+	 * closed.
+	 * @throws IOException if there's a problem closing the channel
+	 */
+	public void close() throws IOException {
+		if (channel != null) {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Receives the data that is parsed by a {@link Utf8VObjectReader}. The
+	 * methods mirror those of vinnie's
+	 * {@link com.github.mangstadt.vinnie.io.VObjectDataListener}.
+	 */
+	interface Listener {
+		/**
+		 * Called when a component begins (when a BEGIN property is
+		 * encountered).
+		 * @param name the component name (will always be in uppercase)
+		 */
+		void onComponentBegin(String name);
+
+		/**
+		 * Called when a component ends (when an END property is encountered).
+		 * @param name the component name (will always be in uppercase)
+		 */
+		void onComponentEnd(String name);
+
+		/**
+		 * Called when a property is read.
+		 * @param property the property
+		 */
+		void onProperty(VObjectProperty property);
+
+		/**
+		 * Called when a VERSION property is read.
+		 * @param value the version
+		 */
+		void onVersion(String value);
+
+		/**
+		 * Called when a non-fatal error occurs during parsing.
+		 * @param warning the warning
+		 * @param property the property that the warning is associated with,
+		 * or null if the warning is not associated with a property
+		 * @param thrown the exception that was thrown or null if no exception
+		 * was thrown
+		 */
+		void onWarning(Warning warning, VObjectProperty property, Exception thrown);
+	}
+
+	/**
+	 * A growable byte array that holds the UTF-8 bytes of the token that is
+	 * currently being read.
+	 */
+	private static class ByteBuilder {
+		private byte[] bytes = new byte[256];
+		private int size = 0;
+
+		public ByteBuilder append(int b) {
+			if (size == bytes.length) {
+				byte[] copy = new byte[bytes.length * 2];
+				System.arraycopy(bytes, 0, copy, 0, size);
+				bytes = copy;
+			}
+			bytes[size++] = (byte) b;
+			return this;
+		}
+
+		public ByteBuilder append(String string) {
+			byte[] encoded = string.getBytes(UTF8);
+			for (byte b : encoded) {
+				append(b);
+			}
+			return this;
+		}
+
+		public void chop() {
+			if (size > 0) {
+				size--;
+			}
+		}
+
+		public void clear() {
+			size = 0;
+		}
+
+		/**
+		 * Decodes the contents of the buffer and then clears it.
+		 * @return the decoded string
+		 */
+		public String getAndClear() {
+			String string = new String(bytes, 0, size, UTF8);
+			size = 0;
+			return string;
+		}
+	}
+}
@@ -0,0 +1,666 @@
+package biweekly.io.text;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Map;
+
+import biweekly.Messages;
+import biweekly.parameter.ICalParameters;
+
+import com.github.mangstadt.vinnie.SyntaxStyle;
+import com.github.mangstadt.vinnie.Utils;
+import com.github.mangstadt.vinnie.VObjectParameters;
+import com.github.mangstadt.vinnie.codec.EncoderException;
+import com.github.mangstadt.vinnie.codec.QuotedPrintableCodec;
+import com.github.mangstadt.vinnie.io.FoldedLineWriter;
+import com.github.mangstadt.vinnie.io.VObjectWriter;
+import com.github.mangstadt.vinnie.validate.AllowedCharacters;
+import com.github.mangstadt.vinnie.validate.VObjectValidator;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * <p>
+ * Writes a vobject data stream directly to UTF-8 encoded bytes.
+ * </p>
+ * <p>
+ * This class produces the same output as vinnie's {@link VObjectWriter}
+ * (wrapped around a UTF-8 {@link java.io.Writer}), but it skips the
+ * {@link java.io.Writer} layers. Characters are encoded into a reusable byte
+ * buffer as they are written, and lines are folded in the same pass. The
+ * buffer is drained to a {@link WritableByteChannel} when it fills up or when
+ * the writer is flushed.
+ * </p>
+ * <p>
+ * The channel must be in blocking mode. A non-blocking channel may accept
+ * fewer bytes than it was given (or none at all), and this class does not wait
+ * for the channel to become writable.
+ * </p>
+ * <p>
+ * Line folding follows the rules of vinnie's {@link FoldedLineWriter}: lines
+ * are folded after 75 characters, a fold is never placed in the middle of a
+ * surrogate pair or a quoted-printable escape sequence, and whitespace at a
+ * fold point stays on the line that is being folded.
+ * </p>
+ * @author Michael Angstadt
+ */
+class Utf8VObjectWriter implements Closeable, Flushable {
+	private static final int LINE_LENGTH = 75;
+	private static final byte[] CRLF = { '\r', '\n' };
+	private static final String INDENT = " ";
+	private static final ICalParameters NO_PARAMETERS = new ICalParameters();
+
+	private final WritableByteChannel channel;
+	private final ByteBuffer buffer;
+	private final byte[] bytes;
+	private int pos;
+
+	private SyntaxStyle syntaxStyle;
+	private boolean caretEncodingEnabled = false;
+	private final AllowedCharacters allowedPropertyNameChars;
+	private final AllowedCharacters allowedParameterNameChars;
+	private AllowedCharacters allowedParameterValueChars;
+
+	/**
+	 * The number of characters that have been written to the current line.
+	 */
+	private int curLineLength = 0;
+
+	/**
+	 * @param channel the channel to write to (must be in blocking mode)
+	 * @param syntaxStyle the syntax style to use
+	 * @throws IllegalArgumentException if the channel is a
+	 * {@link SelectableChannel} that is in non-blocking mode
+	 */
+	public Utf8VObjectWriter(WritableByteChannel channel, SyntaxStyle syntaxStyle) {
+		if (channel instanceof SelectableChannel && !((SelectableChannel) channel).isBlocking()) {
+			throw Messages.INSTANCE.getIllegalArgumentException(51);
+		}
+
+		this.channel = channel;
+		this.syntaxStyle = syntaxStyle;
+		buffer = ByteBuffer.allocate(8192);
+		bytes = buffer.array();
+
+		allowedPropertyNameChars = VObjectValidator.allowedCharactersPropertyName(syntaxStyle, false);
+		allowedParameterNameChars = VObjectValidator.allowedCharactersParameterName(syntaxStyle, false);
+		allowedParameterValueChars = VObjectValidator.allowedCharactersParameterValue(syntaxStyle, false, false);
+	}
+
+	/**
+	 * Creates a channel that writes to a byte buffer.
+	 * @param buffer the buffer
+	 * @return the channel (throws a {@link BufferOverflowException} if the
+	 * buffer fills up)
+	 */
+	public static WritableByteChannel channel(final ByteBuffer buffer) {
+		return new WritableByteChannel() {
+			private boolean open = true;
+
+			public int write(ByteBuffer src) {
+				int length = src.remaining();
+				buffer.put(src);
+				return length;
+			}
+
+			public boolean isOpen() {
+				return open;
+			}
+
+			public void close() {
+				open = false;
+			}
+		};
+	}
+
+	/**
+	 * Gets the syntax style the writer is using.
+	 * @return the syntax style
+	 */
+	public SyntaxStyle getSyntaxStyle() {
+		return syntaxStyle;
+	}
+
+	/**
+	 * Sets the syntax style that the writer should use.
+	 * @param syntaxStyle the syntax style
+	 */
+	public void setSyntaxStyle(SyntaxStyle syntaxStyle) {
+		this.syntaxStyle = syntaxStyle;
+	}
+
+	/**
+	 * Gets whether the writer will apply circumflex accent encoding on
+	 * parameter values (disabled by default).
+	 * @return true if circumflex accent encoding is enabled, false if not
+	 * @see VObjectWriter#isCaretEncodingEnabled
+	 */
+	public boolean isCaretEncodingEnabled() {
+		return caretEncodingEnabled;
+	}
+
+	/**
+	 * Sets whether the writer will apply circumflex accent encoding on
+	 * parameter values (disabled by default).
+	 * @param enable true to use circumflex accent encoding, false not to
+	 * @see VObjectWriter#setCaretEncodingEnabled
+	 */
+	public void setCaretEncodingEnabled(boolean enable) {
+		caretEncodingEnabled = enable;
+		allowedParameterValueChars = VObjectValidator.allowedCharactersParameterValue(syntaxStyle, enable, false);
+	}
+
+	/**
+	 * Writes a BEGIN property.
+	 * @param componentName the component name (e.g. "VEVENT")
+	 * @throws IOException if there's a problem writing to the channel
+	 */
+	public void writeBeginComponent(String componentName) throws IOException {
+		writeProperty("BEGIN", NO_PARAMETERS, componentName);
+	}
+
+	/**
+	 * Writes an END property.
+	 * @param componentName the component name (e.g. "VEVENT")
+	 * @throws IOException if there's a problem writing to the channel
+	 */
+	public void writeEndComponent(String componentName) throws IOException {
+		writeProperty("END", NO_PARAMETERS, componentName);
+	}
+
+	/**
+	 * Writes a property.
+	 * @param name the property name
+	 * @param parameters the parameters
+	 * @param value the property value
+	 * @throws IllegalArgumentException if the property data contains one or
+	 * more characters which break the syntax and cannot be written
+	 * @throws IOException if there's a problem writing to the channel
+	 */
+	public void writeProperty(String name, ICalParameters parameters, String value) throws IOException {
+		Map<String, List<String>> map = parameters.getMap();
+		validate(name, map);
+
+		if (value == null) {
+			value = "";
+		}
+
+		switch (syntaxStyle) {
+		case OLD:
+			if (containsNewlines(value) && !isQuotedPrintable(map)) {
+				VObjectParameters copy = new VObjectParameters(new VObjectParameters(map));
+				copy.put("ENCODING", "QUOTED-PRINTABLE");
+				map = copy.getMap();
+			}
+			break;
+		case NEW:
+			value = Utils.escapeNewlines(value);
+			break;
+		}
+
+		Charset charset = null;
+		boolean quotedPrintable = isQuotedPrintable(map);
+		if (quotedPrintable) {
+			VObjectParameters vparams = new VObjectParameters(map);
+			try {
+				charset = vparams.getCharset();
+			} catch (Exception e) {
+				//ignore
+			}
+
+			if (charset == null) {
+				charset = Charset.forName("UTF-8");
+				VObjectParameters copy = new VObjectParameters(vparams);
+				copy.replace("CHARSET", charset.name());
+				map = copy.getMap();
+			}
+		}
+
+		write(name);
+
+		for (Map.Entry<String, List<String>> parameter : map.entrySet()) {
+			String parameterName = parameter.getKey();
+			List<String> parameterValues = parameter.getValue();
+			if (parameterValues.isEmpty()) {
+				continue;
+			}
+
+			if (syntaxStyle == SyntaxStyle.OLD) {
+				//e.g. ADR;TYPE=home;TYPE=work;TYPE=another,value:
+				for (String parameterValue : parameterValues) {
+					parameterValue = sanitizeOldStyleParameterValue(parameterValue);
+					write(";");
+					if (parameterName != null) {
+						write(parameterName);
+						write("=");
+					}
+					write(parameterValue);
+				}
+			} else {
+				//e.g. ADR;TYPE=home,work,"another,value":
+				write(";");
+				if (parameterName != null) {
+					write(parameterName);
+					write("=");
+				}
+
+				boolean first = true;
+				for (String parameterValue : parameterValues) {
+					if (caretEncodingEnabled) {
+						parameterValue = applyCaretEncoding(parameterValue);
+					}
+
+					if (!first) {
+						write(",");
+					}
+
+					if (shouldQuoteParameterValue(parameterValue)) {
+						write("\"");
+						write(parameterValue);
+						write("\"");
+					} else {
+						write(parameterValue);
+					}
+
+					first = false;
+				}
+			}
+		}
+
+		write(":");
+		if (quotedPrintable) {
+			try {
+				value = new QuotedPrintableCodec(charset.name()).encode(value);
+			} catch (EncoderException e) {
+				throw new IOException(e);
+			}
+		}
+		write(value, quotedPrintable);
+		writeln();
+	}
+
+	private void validate(String name, Map<String, List<String>> parameters) {
+		if (name.length() == 0) {
+			throw Messages.INSTANCE.getIllegalArgumentException(45);
+		}
+		if (!allowedPropertyNameChars.check(name)) {
+			throw Messages.INSTANCE.getIllegalArgumentException(46, name, allowedPropertyNameChars.flip());
+		}
+		if (beginsWithWhitespace(name)) {
+			throw Messages.INSTANCE.getIllegalArgumentException(47, name);
+		}
+
+		for (Map.Entry<String, List<String>> parameter : parameters.entrySet()) {
+			String parameterName = parameter.getKey();
+			if (parameterName == null && syntaxStyle == SyntaxStyle.NEW) {
+				throw Messages.INSTANCE.getIllegalArgumentException(48, name);
+			}
+			if (parameterName != null && !allowedParameterNameChars.check(parameterName)) {
+				throw Messages.INSTANCE.getIllegalArgumentException(49, name, parameterName, allowedParameterNameChars.flip());
+			}
+
+			for (String parameterValue : parameter.getValue()) {
+				if (!allowedParameterValueChars.check(parameterValue)) {
+					throw Messages.INSTANCE.getIllegalArgumentException(50, name, parameterName, allowedParameterValueChars.flip());
+				}
+			}
+		}
+	}
+
+	private static boolean isQuotedPrintable(Map<String, List<String>> parameters) {
+		return new VObjectParameters(parameters).isQuotedPrintable();
+	}
+
+	private static boolean containsNewlines(String string) {
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			if (c == '\r' || c == '\n') {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean shouldQuoteParameterValue(String value) {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == ',' || c == ':' || c == ';') {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean beginsWithWhitespace(String string) {
+		if (string.length() == 0) {
+			return false;
+		}
+		char c = string.charAt(0);
+		return c == ' ' || c == '\t';
+	}
+
+	/**
+	 * Escapes backslashes and semicolons in an old style parameter value.
+	 * @param value the parameter value
+	 * @return the sanitized value
+	 */
+	private static String sanitizeOldStyleParameterValue(String value) {
+		StringBuilder sb = null;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '\\' || c == ';') {
+				if (sb == null) {
+					sb = new StringBuilder(value.length() * 2);
+					sb.append(value, 0, i);
+				}
+				sb.append('\\');
+			}
+			if (sb != null) {
+				sb.append(c);
+			}
+		}
+		return (sb == null) ? value : sb.toString();
+	}
+
+	/**
+	 * Applies circumflex accent encoding to a parameter value.
+	 * @param value the parameter value
+	 * @return the encoded value
+	 */
+	private static String applyCaretEncoding(String value) {
+		StringBuilder sb = null;
+		char prev = 0;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '^' || c == '"' || c == '\r' || c == '\n') {
+				if (c == '\n' && prev == '\r') {
+					/*
+					 * Do not write a second newline escape sequence if the
+					 * newline sequence is "\r\n".
+					 */
+				} else {
+					if (sb == null) {
+						sb = new StringBuilder(value.length() * 2);
+						sb.append(value, 0, i);
+					}
+					sb.append('^');
+
+					switch (c) {
+					case '\r':
+					case '\n':
+						sb.append('n');
+						break;
+					case '"':
+						sb.append('\'');
+						break;
+					default:
+						sb.append(c);
+					}
+				}
+			} else if (sb != null) {
+				sb.append(c);
+			}
+			prev = c;
+		}
+		return (sb == null) ? value : sb.toString();
+	}
+
+	private void write(String string) throws IOException {
+		write(string, false);
+	}
+
+	/**
+	 * Writes a string, folding the line if it gets too long. Each call to
+	 * this method mirrors a single {@link FoldedLineWriter#write} call, since
+	 * the folding behavior depends on where those calls begin and end.
+	 * @param string the string to write
+	 * @param quotedPrintable true if the string is quoted-printable encoded
+	 * @throws IOException if there's a problem writing to the channel
+	 */
+	private void write(String string, boolean quotedPrintable) throws IOException {
+		int effectiveLineLength = LINE_LENGTH;
+		if (quotedPrintable) {
+			/*
+			 * Account for the "=" character that must be appended onto each
+			 * line.
+			 */
+			effectiveLineLength -= 1;
+		}
+
+		int encodedCharPos = -1;
+		int start = 0;
+		int end = string.length();
+		for (int i = start; i < end; i++) {
+			char c = string.charAt(i);
+
+			/*
+			 * Keep track of the quoted-printable characters to prevent them
+			 * from being cut in two at a folding boundary.
+			 */
+			if (encodedCharPos >= 0) {
+				encodedCharPos++;
+				if (encodedCharPos == 3) {
+					encodedCharPos = -1;
+				}
+			}
+
+			if (c == '\n') {
+				encode(string, start, i + 1);
+				curLineLength = 0;
+				start = i + 1;
+				continue;
+			}
+
+			if (c == '\r') {
+				if (i == end - 1 || string.charAt(i + 1) != '\n') {
+					encode(string, start, i + 1);
+					curLineLength = 0;
+					start = i + 1;
+				} else {
+					curLineLength++;
+				}
+				continue;
+			}
+
+			if (c == '=' && quotedPrintable) {
+				encodedCharPos = 0;
+			}
+
+			if (curLineLength >= effectiveLineLength) {
+				/*
+				 * If the last character on the line is whitespace, then exceed
+				 * the max line length in order to include the whitespace on
+				 * the same line. Otherwise, the whitespace will be lost when
+				 * the line is unfolded.
+				 */
+				if (Character.isWhitespace(c)) {
+					while (Character.isWhitespace(c) && i < end - 1) {
+						i++;
+						c = string.charAt(i);
+					}
+					if (i >= end - 1) {
+						//the rest of the string is whitespace
+						break;
+					}
+				}
+
+				/*
+				 * If we are in the middle of a quoted-printable encoded
+				 * character, then exceed the max line length so the sequence
+				 * doesn't get split up across multiple lines.
+				 */
+				if (encodedCharPos > 0) {
+					i += 3 - encodedCharPos;
+					if (i >= end - 1) {
+						//the rest of the string was a quoted-printable encoded char
+						break;
+					}
+				}
+
+				/*
+				 * If the last character is the low (second) character of a
+				 * surrogate pair, don't split the pair across two lines.
+				 */
+				if (Character.isLowSurrogate(c)) {
+					i++;
+					if (i >= end - 1) {
+						//the rest of the string was a surrogate pair
+						break;
+					}
+				}
+
+				encode(string, start, i);
+				if (quotedPrintable) {
+					ensureCapacity(1);
+					bytes[pos++] = '=';
+				}
+				writeBytes(CRLF);
+
+				/*
+				 * Do not include indentation whitespace if the value is
+				 * quoted-printable.
+				 */
+				curLineLength = 1;
+				if (!quotedPrintable) {
+					encode(INDENT, 0, INDENT.length());
+					curLineLength += INDENT.length();
+				}
+				start = i;
+				continue;
+			}
+
+			curLineLength++;
+		}
+
+		encode(string, start, end);
+	}
+
+	private void writeln() throws IOException {
+		writeBytes(CRLF);
+		curLineLength = 0;
+	}
+
+	/**
+	 * Encodes a range of characters into the buffer.
+	 * @param string the characters
+	 * @param start the start of the range (inclusive)
+	 * @param end the end of the range (exclusive)
+	 * @throws IOException if there's a problem writing to the channel
+	 */
+	private void encode(String string, int start, int end) throws IOException {
+		for (int i = start; i < end; i++) {
+			ensureCapacity(4);
+
+			char c = string.charAt(i);
+			if (c < 0x80) {
+				bytes[pos++] = (byte) c;
+			} else if (c < 0x800) {
+				bytes[pos++] = (byte) (0xc0 | (c >> 6));
+				bytes[pos++] = (byte) (0x80 | (c & 0x3f));
+			} else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(string.charAt(i + 1))) {
+				int codePoint = Character.toCodePoint(c, string.charAt(++i));
+				bytes[pos++] = (byte) (0xf0 | (codePoint >> 18));
+				bytes[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+				bytes[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+				bytes[pos++] = (byte) (0x80 | (codePoint & 0x3f));
+			} else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+				//unpaired surrogate, which is what a UTF-8 OutputStreamWriter does
+				bytes[pos++] = '?';
+			} else {
+				bytes[pos++] = (byte) (0xe0 | (c >> 12));
+				bytes[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+				bytes[pos++] = (byte) (0x80 | (c & 0x3f));
+			}
+		}
+	}
+
+	private void writeBytes(byte[] data) throws IOException {
+		ensureCapacity(data.length);
+		System.arraycopy(data, 0, bytes, pos, data.length);
+		pos += data.length;
+	}
+
+	private void ensureCapacity(int length) throws IOException {
+		if (pos + length > bytes.length) {
+			drain();
+		}
+	}
+
+	/**
+	 * Writes data that was produced by another instance of this class. The
+	 * data must end with a newline.
+	 * @param data the data
+	 * @throws IOException if there's a problem writing to the channel
+	 */
+	public void writeRaw(ByteBuffer data) throws IOException {
+		drain();
+		while (data.hasRemaining()) {
+			channel.write(data);
+		}
+		curLineLength = 0;
+	}
+
+	/**
+	 * Writes the contents of the buffer to the channel.
+	 * @throws IOException if there's a problem writing to the channel
+	 */
+	private void drain() throws IOException {
+		buffer.clear();
+		buffer.limit(pos);
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		pos = 0;
+	}
+
+	/**
+	 * Writes any buffered data to the channel.
+	 * @throws IOException if there's a problem writing to the channel
+	 */
+	public void flush() throws IOException {
+		drain();
+	}
+
+	/**
+	 * Writes any buffered data to the channel and closes the channel.
+	 * @throws IOException if there's a problem writing to or closing the
+	 * channel
+	 */
+	public void close() throws IOException {
+		try {
+			drain();
+		} finally {
+			channel.close();
+		}
+	}
+}
@@ -581,7 +581,7 @@ public class XCalDocument {
 			ICalPropertyScribe<? extends ICalProperty> scribe = index.getPropertyScribe(qname);
 			try {
 				ICalProperty property = scribe.parseXml(propertyElement, parameters, context);
-				warnings.addAll(context.getWarnings());
+				addPropertyWarnings(context.getWarnings());
 				return property;
 			} catch (SkipMeException e) {
 				//@formatter:off
@@ -42,8 +42,9 @@ import biweekly.util.XmlUtils;
  * @author Michael Angstadt
  */
 public class XCalElement {
-	private final Element element;
-	private final Document document;
+	private final XCalNode node;
+	private Element element;
+	private Document document;
 
 	/**
 	 * Creates a new xCal element.
@@ -52,6 +53,41 @@ public class XCalElement {
 	public XCalElement(Element element) {
 		this.element = element;
 		document = element.getOwnerDocument();
+		node = null;
+	}
+
+	/**
+	 * Creates a new xCal element that is backed by a lightweight element
+	 * instead of a DOM element. A DOM element is only created if
+	 * {@link #getElement} or one of the "append" methods is called.
+	 * @param node the element to wrap
+	 */
+	XCalElement(XCalNode node) {
+		this.node = node;
+	}
+
+	/**
+	 * Gets the local name of the wrapped XML element.
+	 * @return the local name
+	 */
+	public String getLocalName() {
+		return (element != null) ? element.getLocalName() : node.getLocalName();
+	}
+
+	/**
+	 * Gets the namespace URI of the wrapped XML element.
+	 * @return the namespace URI
+	 */
+	public String getNamespaceURI() {
+		return (element != null) ? element.getNamespaceURI() : node.getNamespaceURI();
+	}
+
+	/**
+	 * Gets the text content of the wrapped XML element.
+	 * @return the text content
+	 */
+	public String getTextContent() {
+		return (element != null) ? element.getTextContent() : node.getTextContent();
 	}
 
 	/**
@@ -71,7 +107,7 @@ public class XCalElement {
 	 * @return the element's text or null if not found
 	 */
 	public String first(String localName) {
-		for (Element child : children()) {
+		for (XCalElement child : children()) {
 			if (localName.equals(child.getLocalName()) && XCAL_NS.equals(child.getNamespaceURI())) {
 				return child.getTextContent();
 			}
@@ -97,7 +133,7 @@ public class XCalElement {
 	 */
 	public List<String> all(String localName) {
 		List<String> childrenText = new ArrayList<String>();
-		for (Element child : children()) {
+		for (XCalElement child : children()) {
 			if (localName.equals(child.getLocalName()) && XCAL_NS.equals(child.getNamespaceURI())) {
 				String text = child.getTextContent();
 				childrenText.add(text);
@@ -124,9 +160,10 @@ public class XCalElement {
 	 * @return the created element
 	 */
 	public Element append(String name, String value) {
+		Element parent = getElement();
 		Element child = document.createElementNS(XCAL_NS, name);
 		child.setTextContent(value);
-		element.appendChild(child);
+		parent.appendChild(child);
 		return child;
 	}
 
@@ -167,6 +204,7 @@ public class XCalElement {
 	 * @return the owner document
 	 */
 	public Document document() {
+		getElement();
 		return document;
 	}
 
@@ -175,6 +213,10 @@ public class XCalElement {
 	 * @return the wrapped XML element
 	 */
 	public Element getElement() {
+		if (element == null) {
+			document = XmlUtils.createDocument();
+			element = node.toElement(document);
+		}
 		return element;
 	}
 
@@ -182,8 +224,22 @@ public class XCalElement {
 	 * Gets the child elements of the wrapped XML element.
 	 * @return the child elements
 	 */
-	private List<Element> children() {
-		return XmlUtils.toElementList(element.getChildNodes());
+	public List<XCalElement> children() {
+		List<XCalElement> children;
+		if (element != null) {
+			List<Element> elements = XmlUtils.toElementList(element.getChildNodes());
+			children = new ArrayList<XCalElement>(elements.size());
+			for (Element child : elements) {
+				children.add(new XCalElement(child));
+			}
+		} else {
+			List<XCalNode> nodes = node.childElements();
+			children = new ArrayList<XCalElement>(nodes.size());
+			for (XCalNode child : nodes) {
+				children.add(new XCalElement(child));
+			}
+		}
+		return children;
 	}
 
 	/**
@@ -194,9 +250,9 @@ public class XCalElement {
 	public List<XCalElement> children(ICalDataType dataType) {
 		String localName = dataType.getName().toLowerCase();
 		List<XCalElement> children = new ArrayList<XCalElement>();
-		for (Element child : children()) {
+		for (XCalElement child : children()) {
 			if (localName.equals(child.getLocalName()) && XCAL_NS.equals(child.getNamespaceURI())) {
-				children.add(new XCalElement(child));
+				children.add(child);
 			}
 		}
 		return children;
@@ -209,9 +265,9 @@ public class XCalElement {
 	 */
 	public XCalElement child(ICalDataType dataType) {
 		String localName = dataType.getName().toLowerCase();
-		for (Element child : children()) {
+		for (XCalElement child : children()) {
 			if (localName.equals(child.getLocalName()) && XCAL_NS.equals(child.getNamespaceURI())) {
-				return new XCalElement(child);
+				return child;
 			}
 		}
 		return null;
@@ -225,7 +281,7 @@ public class XCalElement {
 	 * @return the value and data type
 	 */
 	public XCalValue firstValue() {
-		for (Element child : children()) {
+		for (XCalElement child : children()) {
 			String childNamespace = child.getNamespaceURI();
 			if (XCAL_NS.equals(childNamespace)) {
 				ICalDataType dataType = toDataType(child.getLocalName());
@@ -234,7 +290,7 @@ public class XCalElement {
 			}
 		}
 
-		return new XCalValue(null, element.getTextContent());
+		return new XCalValue(null, getTextContent());
 	}
 
 	/**
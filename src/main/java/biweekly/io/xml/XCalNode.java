@@ -0,0 +1,178 @@
+package biweekly.io.xml;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+ The views and conclusions contained in the software and documentation are those
+ of the authors and should not be interpreted as representing official policies, 
+ either expressed or implied, of the FreeBSD Project.
+ */
+
+/**
+ * A lightweight, read-only XML element that {@link XCalReader} builds for each
+ * property it parses. It holds only what the property scribes need (the
+ * element's name, attributes, text, and child elements), so no DOM objects are
+ * created unless a scribe asks for one (see {@link #toElement}).
+ * @author Michael Angstadt
+ */
+final class XCalNode {
+	private final String namespace;
+	private final String localName;
+	private Map<String, String> attributes;
+
+	/**
+	 * Each item is either a {@link String} (a text node) or an
+	 * {@link XCalNode} (a child element).
+	 */
+	private final List<Object> children = new ArrayList<Object>(2);
+
+	/**
+	 * @param namespace the element's namespace URI
+	 * @param localName the element's local name
+	 */
+	public XCalNode(String namespace, String localName) {
+		this.namespace = namespace;
+		this.localName = localName;
+	}
+
+	/**
+	 * Gets the element's namespace URI.
+	 * @return the namespace URI
+	 */
+	public String getNamespaceURI() {
+		return namespace;
+	}
+
+	/**
+	 * Gets the element's local name.
+	 * @return the local name
+	 */
+	public String getLocalName() {
+		return localName;
+	}
+
+	/**
+	 * Sets an attribute.
+	 * @param name the attribute's local name
+	 * @param value the attribute value
+	 */
+	public void setAttribute(String name, String value) {
+		if (attributes == null) {
+			attributes = new LinkedHashMap<String, String>();
+		}
+		attributes.put(name, value);
+	}
+
+	/**
+	 * Adds a text node.
+	 * @param text the text
+	 */
+	public void appendText(String text) {
+		children.add(text);
+	}
+
+	/**
+	 * Adds a child element.
+	 * @param child the child element
+	 */
+	public void appendChild(XCalNode child) {
+		children.add(child);
+	}
+
+	/**
+	 * Gets the child elements.
+	 * @return the child elements
+	 */
+	public List<XCalNode> childElements() {
+		if (children.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		List<XCalNode> elements = new ArrayList<XCalNode>(children.size());
+		for (Object child : children) {
+			if (child instanceof XCalNode) {
+				elements.add((XCalNode) child);
+			}
+		}
+		return elements;
+	}
+
+	/**
+	 * Gets the text content of this element and all of its descendants, just
+	 * like {@link Element#getTextContent}.
+	 * @return the text content
+	 */
+	public String getTextContent() {
+		if (children.size() == 1 && children.get(0) instanceof String) {
+			return (String) children.get(0);
+		}
+
+		StringBuilder sb = new StringBuilder();
+		appendTextContent(sb);
+		return sb.toString();
+	}
+
+	private void appendTextContent(StringBuilder sb) {
+		for (Object child : children) {
+			if (child instanceof String) {
+				sb.append((String) child);
+			} else {
+				((XCalNode) child).appendTextContent(sb);
+			}
+		}
+	}
+
+	/**
+	 * Converts this element to a DOM element.
+	 * @param document the document to create the DOM element with
+	 * @return the DOM element
+	 */
+	public Element toElement(Document document) {
+		Element element = document.createElementNS(namespace, localName);
+		if (attributes != null) {
+			for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+				element.setAttribute(attribute.getKey(), attribute.getValue());
+			}
+		}
+
+		for (Object child : children) {
+			if (child instanceof String) {
+				element.appendChild(document.createTextNode((String) child));
+			} else {
+				element.appendChild(((XCalNode) child).toElement(document));
+			}
+		}
+
+		return element;
+	}
+}
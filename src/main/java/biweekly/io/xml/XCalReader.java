@@ -19,26 +19,16 @@ import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
 
 import javax.xml.namespace.QName;
-import javax.xml.transform.ErrorListener;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Source;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerConfigurationException;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.sax.SAXResult;
 import javax.xml.transform.stream.StreamSource;
 
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
 import org.w3c.dom.Node;
-import org.xml.sax.Attributes;
-import org.xml.sax.SAXException;
-import org.xml.sax.helpers.DefaultHandler;
 
 import biweekly.ICalVersion;
 import biweekly.ICalendar;
@@ -46,6 +36,7 @@ import biweekly.component.ICalComponent;
 import biweekly.io.CannotParseException;
 import biweekly.io.ParseContext;
 import biweekly.io.ParseWarning;
+import biweekly.io.Projection;
 import biweekly.io.SkipMeException;
 import biweekly.io.StreamReader;
 import biweekly.io.scribe.component.ICalComponentScribe;
@@ -90,6 +81,11 @@ import biweekly.util.XmlUtils;
  * Reads xCals (XML-encoded iCalendar objects) in a streaming fashion.
  * </p>
  * <p>
+ * The XML is parsed with a StAX {@link XMLStreamReader} on the calling thread.
+ * Each call to {@link #readNext} reads just enough of the stream to return the
+ * next {@code <vcalendar>} element.
+ * </p>
+ * <p>
  * <b>Example:</b>
  * </p>
  * 
@@ -110,16 +106,29 @@ import biweekly.util.XmlUtils;
  * @see <a href="http://tools.ietf.org/html/rfc6321">RFC 6321</a>
  */
 public class XCalReader extends StreamReader {
-	private final Source source;
-	private final Closeable stream;
+	private Source source;
+	private Closeable stream;
+
+	private XMLInputFactory factory;
+	private XMLStreamReader xmlReader;
+	private boolean finished = false, closed = false;
 
-	private volatile ICalendar readICal;
-	private volatile TransformerException thrown;
+	private final XCalStructure structure = new XCalStructure();
+	private final StringBuilder characterBuffer = new StringBuilder();
+	private final LinkedList<ICalComponent> componentStack = new LinkedList<ICalComponent>();
+	private final LinkedList<XCalNode> propertyElementStack = new LinkedList<XCalNode>();
 
-	private final ReadThread thread = new ReadThread();
-	private final Object lock = new Object();
-	private final BlockingQueue<Object> readerBlock = new ArrayBlockingQueue<Object>(1);
-	private final BlockingQueue<Object> threadBlock = new ArrayBlockingQueue<Object>(1);
+	private ICalendar readICal;
+	private XCalNode propertyElement;
+	private QName paramName;
+	private ICalComponent curComponent;
+	private ICalParameters parameters;
+
+	/**
+	 * The number of levels deep the reader is inside of an element that is
+	 * being skipped due to the projection.
+	 */
+	private int skipDepth;
 
 	/**
 	 * @param str the string to read from
@@ -156,8 +165,11 @@ public class XCalReader extends StreamReader {
 	 * @param node the DOM node to read from
 	 */
 	public XCalReader(Node node) {
-		source = new DOMSource(node);
-		stream = null;
+		/*
+		 * StAX implementations are not required to support DOM sources, so
+		 * serialize the node first.
+		 */
+		this(XmlUtils.toString(node));
 	}
 
 	@Override
@@ -165,342 +177,407 @@ public class XCalReader extends StreamReader {
 		readICal = null;
 		warnings.clear();
 		context = new ParseContext();
-		thrown = null;
 
-		if (!thread.started) {
-			thread.start();
-		} else {
-			if (thread.finished || thread.closed) {
-				return null;
-			}
-
-			try {
-				threadBlock.put(lock);
-			} catch (InterruptedException e) {
-				return null;
-			}
-		}
-
-		//wait until thread reads xCard
-		try {
-			readerBlock.take();
-		} catch (InterruptedException e) {
+		if (finished || closed) {
 			return null;
 		}
 
-		if (thrown != null) {
-			throw new IOException(thrown);
-		}
-
-		return readICal;
-	}
-
-	private class ReadThread extends Thread {
-		private final SAXResult result;
-		private final Transformer transformer;
-		private volatile boolean finished = false, started = false, closed = false;
-
-		public ReadThread() {
-			setName(getClass().getSimpleName());
-
-			//create the transformer
-			try {
-				TransformerFactory factory = TransformerFactory.newInstance();
-				XmlUtils.applyXXEProtection(factory);
-
-				transformer = factory.newTransformer();
-			} catch (TransformerConfigurationException e) {
-				//shouldn't be thrown because it's a simple configuration
-				throw new RuntimeException(e);
+		try {
+			if (xmlReader == null) {
+				xmlReader = createXmlReader();
 			}
 
-			//prevent error messages from being printed to stderr
-			transformer.setErrorListener(new NoOpErrorListener());
-
-			result = new SAXResult(new ContentHandlerImpl());
-		}
+			while (xmlReader.hasNext()) {
+				int event = xmlReader.next();
+				switch (event) {
+				case XMLStreamConstants.START_ELEMENT:
+					if (skipDepth > 0) {
+						skipDepth++;
+						break;
+					}
+					startElement();
+					break;
 
-		@Override
-		public void run() {
-			started = true;
+				case XMLStreamConstants.END_ELEMENT:
+					if (skipDepth > 0) {
+						skipDepth--;
+						break;
+					}
+					if (endElement()) {
+						//</vcalendar>
+						return readICal;
+					}
+					break;
 
-			try {
-				transformer.transform(source, result);
-			} catch (TransformerException e) {
-				if (!thread.closed) {
-					thrown = e;
-				}
-			} finally {
-				finished = true;
-				try {
-					readerBlock.put(lock);
-				} catch (InterruptedException e) {
-					//ignore
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.CDATA:
+				case XMLStreamConstants.SPACE:
+					if (skipDepth > 0) {
+						break;
+					}
+					characterBuffer.append(xmlReader.getTextCharacters(), xmlReader.getTextStart(), xmlReader.getTextLength());
+					break;
 				}
 			}
+		} catch (XMLStreamException e) {
+			finished = true;
+			if (closed) {
+				return null;
+			}
+			throw new IOException(e);
 		}
+
+		finished = true;
+		return readICal;
 	}
 
-	private class ContentHandlerImpl extends DefaultHandler {
-		private final Document DOC = XmlUtils.createDocument();
-		private final XCalStructure structure = new XCalStructure();
-		private final StringBuilder characterBuffer = new StringBuilder();
-		private final LinkedList<ICalComponent> componentStack = new LinkedList<ICalComponent>();
+	/**
+	 * <p>
+	 * Discards the reader's state and starts reading from a new data stream.
+	 * This allows a single reader instance to be reused (for example, by an
+	 * object pool). The reader's settings (such as its scribe index and
+	 * default timezone) are retained, as is its {@link XMLInputFactory}.
+	 * </p>
+	 * <p>
+	 * The previous data stream is not closed, but the {@link XMLStreamReader}
+	 * that was reading it is (closing an {@link XMLStreamReader} does not close
+	 * its underlying stream).
+	 * </p>
+	 * @param in the input stream to read from
+	 */
+	public void reset(InputStream in) {
+		reset(new StreamSource(in), in);
+	}
 
-		private Element propertyElement, parent;
-		private QName paramName;
-		private ICalComponent curComponent;
-		private ICalParameters parameters;
+	/**
+	 * <p>
+	 * Discards the reader's state and starts reading from a new data stream.
+	 * This allows a single reader instance to be reused (for example, by an
+	 * object pool). The reader's settings (such as its scribe index and
+	 * default timezone) are retained, as is its {@link XMLInputFactory}.
+	 * </p>
+	 * <p>
+	 * The previous data stream is not closed, but the {@link XMLStreamReader}
+	 * that was reading it is (closing an {@link XMLStreamReader} does not close
+	 * its underlying stream).
+	 * </p>
+	 * @param reader the reader to read from
+	 */
+	public void reset(Reader reader) {
+		reset(new StreamSource(reader), reader);
+	}
+
+	private void reset(Source source, Closeable stream) {
+		this.source = source;
+		this.stream = stream;
+
+		closeXmlReader();
+		xmlReader = null;
+		finished = closed = false;
+		structure.clear();
+		characterBuffer.setLength(0);
+		componentStack.clear();
+		propertyElementStack.clear();
+		readICal = null;
+		propertyElement = null;
+		paramName = null;
+		curComponent = null;
+		parameters = null;
+		skipDepth = 0;
+	}
 
-		@Override
-		public void characters(char[] buffer, int start, int length) throws SAXException {
-			characterBuffer.append(buffer, start, length);
+	private XMLStreamReader createXmlReader() throws XMLStreamException {
+		if (factory == null) {
+			factory = XMLInputFactory.newInstance();
+			XmlUtils.applyXXEProtection(factory);
 		}
+		return factory.createXMLStreamReader(source);
+	}
 
-		@Override
-		public void startElement(String namespace, String localName, String qName, Attributes attributes) throws SAXException {
-			QName qname = new QName(namespace, localName);
-			String textContent = emptyCharacterBuffer();
+	private void startElement() {
+		String namespace = namespace();
+		String localName = xmlReader.getLocalName();
+		QName qname = new QName(namespace, localName);
+		String textContent = emptyCharacterBuffer();
 
-			if (structure.isEmpty()) {
-				//<icalendar>
-				if (ICALENDAR.equals(qname)) {
-					structure.push(ElementType.icalendar);
-				}
-				return;
+		if (structure.isEmpty()) {
+			//<icalendar>
+			if (ICALENDAR.equals(qname)) {
+				structure.push(ElementType.icalendar);
 			}
+			return;
+		}
 
-			ElementType parentType = structure.peek();
-			ElementType typeToPush = null;
-			if (parentType != null) {
-				switch (parentType) {
+		ElementType parentType = structure.peek();
+		ElementType typeToPush = null;
+		if (parentType != null) {
+			switch (parentType) {
 
-				case icalendar:
-					//<vcalendar>
-					if (VCALENDAR.equals(qname)) {
-						ICalComponentScribe<? extends ICalComponent> scribe = index.getComponentScribe(localName, ICalVersion.V2_0);
-						ICalComponent component = scribe.emptyInstance();
+			case icalendar:
+				//<vcalendar>
+				if (VCALENDAR.equals(qname)) {
+					ICalComponentScribe<? extends ICalComponent> scribe = index.getComponentScribe(localName, ICalVersion.V2_0);
+					ICalComponent component = scribe.emptyInstance();
 
-						curComponent = component;
-						readICal = (ICalendar) component;
-						typeToPush = ElementType.component;
-					}
-					break;
+					curComponent = component;
+					readICal = (ICalendar) component;
+					typeToPush = ElementType.component;
+				}
+				break;
+
+			case component:
+				if (PROPERTIES.equals(qname)) {
+					//<properties>
+					typeToPush = ElementType.properties;
+				} else if (COMPONENTS.equals(qname)) {
+					//<components>
+					componentStack.add(curComponent);
+					curComponent = null;
 
-				case component:
-					if (PROPERTIES.equals(qname)) {
-						//<properties>
-						typeToPush = ElementType.properties;
-					} else if (COMPONENTS.equals(qname)) {
-						//<components>
-						componentStack.add(curComponent);
-						curComponent = null;
+					typeToPush = ElementType.components;
+				}
+				break;
 
-						typeToPush = ElementType.components;
+			case components:
+				//start component element
+				if (XCAL_NS.equals(namespace)) {
+					if (!projectionIncludesComponent(localName, componentStack.getLast())) {
+						skipDepth = 1;
+						return;
 					}
-					break;
 
-				case components:
-					//start component element
-					if (XCAL_NS.equals(namespace)) {
-						ICalComponentScribe<? extends ICalComponent> scribe = index.getComponentScribe(localName, ICalVersion.V2_0);
-						curComponent = scribe.emptyInstance();
+					ICalComponentScribe<? extends ICalComponent> scribe = index.getComponentScribe(localName, ICalVersion.V2_0);
+					curComponent = scribe.emptyInstance();
 
-						ICalComponent parent = componentStack.getLast();
-						parent.addComponent(curComponent);
+					ICalComponent parent = componentStack.getLast();
+					parent.addComponent(curComponent);
 
-						typeToPush = ElementType.component;
-					}
-					break;
-
-				case properties:
-					//start property element
-					propertyElement = createElement(namespace, localName, attributes);
-					parameters = new ICalParameters();
-					parent = propertyElement;
-					typeToPush = ElementType.property;
-					break;
+					typeToPush = ElementType.component;
+				}
+				break;
 
-				case property:
-					//<parameters>
-					if (PARAMETERS.equals(qname)) {
-						typeToPush = ElementType.parameters;
-					}
-					break;
+			case properties:
+				//start property element
+				if (!projectionIncludesProperty(localName, curComponent)) {
+					skipDepth = 1;
+					return;
+				}
 
-				case parameters:
-					//inside of <parameters>
-					if (XCAL_NS.equals(namespace)) {
-						paramName = qname;
-						typeToPush = ElementType.parameter;
-					}
-					break;
+				propertyElement = createElement(namespace, localName);
+				parameters = new ICalParameters();
+				propertyElementStack.clear();
+				propertyElementStack.add(propertyElement);
+				typeToPush = ElementType.property;
+				break;
+
+			case property:
+				//<parameters>
+				if (PARAMETERS.equals(qname)) {
+					typeToPush = ElementType.parameters;
+				}
+				break;
 
-				case parameter:
-					//inside of a parameter element
-					if (XCAL_NS.equals(namespace)) {
-						typeToPush = ElementType.parameterValue;
-					}
-					break;
-				case parameterValue:
-					//should never have child elements
-					break;
+			case parameters:
+				//inside of <parameters>
+				if (XCAL_NS.equals(namespace)) {
+					paramName = qname;
+					typeToPush = ElementType.parameter;
 				}
-			}
+				break;
 
-			//append element to property element
-			if (propertyElement != null && typeToPush != ElementType.property && typeToPush != ElementType.parameters && !structure.isUnderParameters()) {
-				if (textContent.length() > 0) {
-					parent.appendChild(DOC.createTextNode(textContent));
+			case parameter:
+				//inside of a parameter element
+				if (XCAL_NS.equals(namespace)) {
+					typeToPush = ElementType.parameterValue;
 				}
+				break;
+			case parameterValue:
+				//should never have child elements
+				break;
+			}
+		}
 
-				Element element = createElement(namespace, localName, attributes);
-				parent.appendChild(element);
-				parent = element;
+		//append element to property element
+		if (propertyElement != null && typeToPush != ElementType.property && typeToPush != ElementType.parameters && !structure.isUnderParameters()) {
+			XCalNode parent = propertyElementStack.getLast();
+			if (textContent.length() > 0) {
+				parent.appendText(textContent);
 			}
 
-			structure.push(typeToPush);
+			XCalNode element = createElement(namespace, localName);
+			parent.appendChild(element);
+			propertyElementStack.add(element);
 		}
 
-		@Override
-		public void endElement(String namespace, String localName, String qName) throws SAXException {
-			String textContent = emptyCharacterBuffer();
+		structure.push(typeToPush);
+	}
 
-			if (structure.isEmpty()) {
-				//no <icalendar> elements were read yet
-				return;
-			}
+	private boolean projectionIncludesComponent(String name, ICalComponent parent) {
+		Projection projection = getProjection();
+		return projection == null || projection.includesComponent(name, componentName(parent));
+	}
 
-			ElementType type = structure.pop();
-			if (type == null && (propertyElement == null || structure.isUnderParameters())) {
-				//it's a non-xCal element
-				return;
-			}
+	private boolean projectionIncludesProperty(String name, ICalComponent component) {
+		Projection projection = getProjection();
+		return projection == null || projection.includesProperty(name, componentName(component));
+	}
 
-			if (type != null) {
-				switch (type) {
-				case parameterValue:
-					parameters.put(paramName.getLocalPart(), textContent);
-					break;
+	private String componentName(ICalComponent component) {
+		if (component == null) {
+			return null;
+		}
 
-				case parameter:
-					//do nothing
-					break;
+		ICalComponentScribe<? extends ICalComponent> scribe = index.getComponentScribe(component);
+		return (scribe == null) ? null : scribe.getComponentName();
+	}
 
-				case parameters:
-					//do nothing
-					break;
+	/**
+	 * Handles an end element event.
+	 * @return true if a {@code <vcalendar>} element was closed, false if not
+	 */
+	private boolean endElement() {
+		String namespace = namespace();
+		String localName = xmlReader.getLocalName();
+		String textContent = emptyCharacterBuffer();
+
+		if (structure.isEmpty()) {
+			//no <icalendar> elements were read yet
+			return false;
+		}
 
-				case property:
-					context.getWarnings().clear();
-					context.setPropertyName(localName);
-
-					propertyElement.appendChild(DOC.createTextNode(textContent));
-
-					//unmarshal property and add to parent component
-					QName propertyQName = new QName(propertyElement.getNamespaceURI(), propertyElement.getLocalName());
-					ICalPropertyScribe<? extends ICalProperty> scribe = index.getPropertyScribe(propertyQName);
-					try {
-						ICalProperty property = scribe.parseXml(propertyElement, parameters, context);
-						if (property instanceof Version && curComponent instanceof ICalendar) {
-							Version versionProp = (Version) property;
-							ICalVersion version = versionProp.toICalVersion();
-							if (version != null) {
-								ICalendar ical = (ICalendar) curComponent;
-								ical.setVersion(version);
-								context.setVersion(version);
-
-								propertyElement = null;
-								break;
-							}
-						}
-
-						curComponent.addProperty(property);
-						warnings.addAll(context.getWarnings());
-					} catch (SkipMeException e) {
-						//@formatter:off
-						warnings.add(new ParseWarning.Builder(context)
-							.message(0, e.getMessage())
-							.build()
-						);
-						//@formatter:on
-					} catch (CannotParseException e) {
-						//@formatter:off
-						warnings.add(new ParseWarning.Builder(context)
-							.message(e)
-							.build()
-						);
-						//@formatter:on
-
-						scribe = index.getPropertyScribe(Xml.class);
-						ICalProperty property = scribe.parseXml(propertyElement, parameters, context);
-						curComponent.addProperty(property);
-					}
+		ElementType type = structure.pop();
+		if (type == null && (propertyElement == null || structure.isUnderParameters())) {
+			//it's a non-xCal element
+			return false;
+		}
 
-					propertyElement = null;
-					break;
+		if (type != null) {
+			switch (type) {
+			case parameterValue:
+				parameters.put(paramName.getLocalPart(), textContent);
+				break;
 
-				case component:
-					curComponent = null;
+			case parameter:
+				//do nothing
+				break;
 
-					//</vcalendar>
-					if (VCALENDAR.getNamespaceURI().equals(namespace) && VCALENDAR.getLocalPart().equals(localName)) {
-						//wait for readNext() to be called again
-						try {
-							readerBlock.put(lock);
-							threadBlock.take();
-						} catch (InterruptedException e) {
-							throw new SAXException(e);
-						}
-						return;
-					}
-					break;
+			case parameters:
+				//do nothing
+				break;
 
-				case properties:
-					break;
+			case property:
+				context.getWarnings().clear();
+				context.setPropertyName(localName);
 
-				case components:
-					curComponent = componentStack.removeLast();
-					break;
+				propertyElement.appendText(textContent);
+				parseProperty();
+				propertyElement = null;
+				break;
 
-				case icalendar:
-					break;
+			case component:
+				ICalComponent component = curComponent;
+				curComponent = null;
+
+				//</vcalendar>
+				if (VCALENDAR.getNamespaceURI().equals(namespace) && VCALENDAR.getLocalPart().equals(localName)) {
+					return true;
 				}
-			}
 
-			//append element to property element
-			if (propertyElement != null && type != ElementType.property && type != ElementType.parameters && !structure.isUnderParameters()) {
-				if (textContent.length() > 0) {
-					parent.appendChild(DOC.createTextNode(textContent));
+				if (component != null && !componentStack.isEmpty()) {
+					onComponentRead(readICal, componentStack.getLast(), component);
 				}
-				parent = (Element) parent.getParentNode();
+				break;
+
+			case properties:
+				break;
+
+			case components:
+				curComponent = componentStack.removeLast();
+				break;
+
+			case icalendar:
+				break;
 			}
 		}
 
-		private String emptyCharacterBuffer() {
-			String textContent = characterBuffer.toString();
-			characterBuffer.setLength(0);
-			return textContent;
+		//append element to property element
+		if (propertyElement != null && type != ElementType.property && type != ElementType.parameters && !structure.isUnderParameters()) {
+			if (textContent.length() > 0) {
+				propertyElementStack.getLast().appendText(textContent);
+			}
+			propertyElementStack.removeLast();
 		}
 
-		private Element createElement(String namespace, String localName, Attributes attributes) {
-			Element element = DOC.createElementNS(namespace, localName);
-			applyAttributesTo(element, attributes);
-			return element;
-		}
+		return false;
+	}
 
-		private void applyAttributesTo(Element element, Attributes attributes) {
-			for (int i = 0; i < attributes.getLength(); i++) {
-				String qname = attributes.getQName(i);
-				if (qname.startsWith("xmlns:")) {
-					continue;
+	/**
+	 * Unmarshals the property that was just read and adds it to the current
+	 * component.
+	 */
+	private void parseProperty() {
+		XCalElement element = new XCalElement(propertyElement);
+		QName propertyQName = new QName(propertyElement.getNamespaceURI(), propertyElement.getLocalName());
+		ICalPropertyScribe<? extends ICalProperty> scribe = index.getPropertyScribe(propertyQName);
+		try {
+			ICalProperty property = scribe.parseXml(element, parameters, context);
+			if (property instanceof Version && curComponent instanceof ICalendar) {
+				Version versionProp = (Version) property;
+				ICalVersion version = versionProp.toICalVersion();
+				if (version != null) {
+					ICalendar ical = (ICalendar) curComponent;
+					ical.setVersion(version);
+					context.setVersion(version);
+					return;
 				}
-
-				String name = attributes.getLocalName(i);
-				String value = attributes.getValue(i);
-				element.setAttribute(name, value);
 			}
+
+			curComponent.addProperty(property);
+			addPropertyWarnings(context.getWarnings());
+		} catch (SkipMeException e) {
+			//@formatter:off
+			warnings.add(new ParseWarning.Builder(context)
+				.message(0, e.getMessage())
+				.build()
+			);
+			//@formatter:on
+		} catch (CannotParseException e) {
+			//@formatter:off
+			warnings.add(new ParseWarning.Builder(context)
+				.message(e)
+				.build()
+			);
+			//@formatter:on
+
+			scribe = index.getPropertyScribe(Xml.class);
+			ICalProperty property = scribe.parseXml(element, parameters, context);
+			curComponent.addProperty(property);
+		}
+	}
+
+	/**
+	 * Gets the namespace of the current element.
+	 * @return the namespace or empty string if it doesn't have one
+	 */
+	private String namespace() {
+		String namespace = xmlReader.getNamespaceURI();
+		return (namespace == null) ? "" : namespace;
+	}
+
+	private String emptyCharacterBuffer() {
+		String textContent = characterBuffer.toString();
+		characterBuffer.setLength(0);
+		return textContent;
+	}
+
+	private XCalNode createElement(String namespace, String localName) {
+		XCalNode element = new XCalNode(namespace, localName);
+		for (int i = 0; i < xmlReader.getAttributeCount(); i++) {
+			String name = xmlReader.getAttributeLocalName(i);
+			String value = xmlReader.getAttributeValue(i);
+			element.setAttribute(name, value);
 		}
+		return element;
 	}
 
 	private enum ElementType {
@@ -585,36 +662,40 @@ public class XCalReader extends StreamReader {
 		public boolean isEmpty() {
 			return stack.isEmpty();
 		}
+
+		/**
+		 * Removes all element types from the stack.
+		 */
+		public void clear() {
+			stack.clear();
+		}
 	}
 
 	/**
-	 * An implementation of {@link ErrorListener} that doesn't do anything.
+	 * Closes the underlying input stream.
 	 */
-	private static class NoOpErrorListener implements ErrorListener {
-		public void error(TransformerException e) {
-			//do nothing
-		}
-
-		public void fatalError(TransformerException e) {
-			//do nothing
-		}
+	public void close() throws IOException {
+		closed = true;
+		closeXmlReader();
 
-		public void warning(TransformerException e) {
-			//do nothing
+		if (stream != null) {
+			stream.close();
 		}
 	}
 
 	/**
-	 * Closes the underlying input stream.
+	 * Releases the resources held by the {@link XMLStreamReader}, if one has
+	 * been created. This does not close the underlying stream.
 	 */
-	public void close() throws IOException {
-		if (thread.isAlive()) {
-			thread.closed = true;
-			thread.interrupt();
+	private void closeXmlReader() {
+		if (xmlReader == null) {
+			return;
 		}
 
-		if (stream != null) {
-			stream.close();
+		try {
+			xmlReader.close();
+		} catch (XMLStreamException e) {
+			//ignore
 		}
 	}
 }
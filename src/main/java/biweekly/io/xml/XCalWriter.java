@@ -286,51 +286,77 @@ public class XCalWriter extends XCalWriterBase {
 	@Override
 	protected void _write(ICalendar ical) throws IOException {
 		try {
-			if (!started) {
-				handler.startDocument();
+			startDocument();
+			write((ICalComponent) ical);
+		} catch (SAXException e) {
+			throw new IOException(e);
+		}
+	}
 
-				if (!icalendarElementExists) {
-					//don't output a <icalendar> element if the parent is a <icalendar> element
-					start(ICALENDAR);
-				}
+	@Override
+	protected void _beginCalendar(ICalendar ical) throws IOException {
+		try {
+			startDocument();
 
-				started = true;
-			}
+			String name = index.getComponentScribe(ical).getComponentName().toLowerCase();
+			start(name);
+			writeProperties(ical);
+			start(COMPONENTS);
+			writeComponents(ical);
+		} catch (SAXException e) {
+			throw new IOException(e);
+		}
+	}
 
-			write((ICalComponent) ical);
+	@Override
+	protected void _writeComponent(ICalendar ical, ICalComponent component) throws IOException {
+		try {
+			write(component);
 		} catch (SAXException e) {
 			throw new IOException(e);
 		}
 	}
 
-	@SuppressWarnings({ "rawtypes", "unchecked" })
-	private void write(ICalComponent component) throws SAXException {
-		ICalComponentScribe scribe = index.getComponentScribe(component);
-		String name = scribe.getComponentName().toLowerCase();
+	@Override
+	protected void _endCalendar(ICalendar ical) throws IOException {
+		try {
+			end(COMPONENTS);
+			end(index.getComponentScribe(ical).getComponentName().toLowerCase());
+		} catch (SAXException e) {
+			throw new IOException(e);
+		}
+	}
 
-		start(name);
+	/**
+	 * Writes the start of the XML document if it hasn't been written yet.
+	 * @throws SAXException if there's a problem writing to the data stream
+	 */
+	private void startDocument() throws SAXException {
+		if (started) {
+			return;
+		}
 
-		List properties = scribe.getProperties(component);
-		addVersionPropertyIfMissing(component, properties);
+		handler.startDocument();
 
-		if (!properties.isEmpty()) {
-			start(PROPERTIES);
+		if (!icalendarElementExists) {
+			//don't output a <icalendar> element if the parent is a <icalendar> element
+			start(ICALENDAR);
+		}
 
-			for (Object propertyObj : properties) {
-				context.setParent(component); //set parent here incase a scribe resets the parent
-				ICalProperty property = (ICalProperty) propertyObj;
-				write(property);
-			}
+		started = true;
+	}
 
-			end(PROPERTIES);
-		}
+	private void write(ICalComponent component) throws SAXException {
+		String name = index.getComponentScribe(component).getComponentName().toLowerCase();
 
-		List subComponents = scribe.getComponents(component);
-		addTimezoneComponentsIfMissing(component, subComponents);
+		start(name);
+
+		writeProperties(component);
+
+		List<ICalComponent> subComponents = getComponents(component);
 		if (!subComponents.isEmpty()) {
 			start(COMPONENTS);
-			for (Object subComponentObj : subComponents) {
-				ICalComponent subComponent = (ICalComponent) subComponentObj;
+			for (ICalComponent subComponent : subComponents) {
 				write(subComponent);
 			}
 			end(COMPONENTS);
@@ -339,6 +365,58 @@ public class XCalWriter extends XCalWriterBase {
 		end(name);
 	}
 
+	/**
+	 * Writes a component's {@code <properties>} element.
+	 * @param component the component
+	 * @throws SAXException if there's a problem writing to the data stream
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private void writeProperties(ICalComponent component) throws SAXException {
+		ICalComponentScribe scribe = index.getComponentScribe(component);
+		List properties = scribe.getProperties(component);
+		addVersionPropertyIfMissing(component, properties);
+
+		if (properties.isEmpty()) {
+			return;
+		}
+
+		start(PROPERTIES);
+
+		for (Object propertyObj : properties) {
+			context.setParent(component); //set parent here incase a scribe resets the parent
+			ICalProperty property = (ICalProperty) propertyObj;
+			write(property);
+		}
+
+		end(PROPERTIES);
+	}
+
+	/**
+	 * Writes a component's sub-components, without the enclosing
+	 * {@code <components>} element.
+	 * @param component the component
+	 * @throws SAXException if there's a problem writing to the data stream
+	 */
+	private void writeComponents(ICalComponent component) throws SAXException {
+		for (ICalComponent subComponent : getComponents(component)) {
+			write(subComponent);
+		}
+	}
+
+	/**
+	 * Gets the sub-components to write, including the VTIMEZONE components of
+	 * the root component.
+	 * @param component the component
+	 * @return the sub-components
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private List<ICalComponent> getComponents(ICalComponent component) {
+		ICalComponentScribe scribe = index.getComponentScribe(component);
+		List subComponents = scribe.getComponents(component);
+		addTimezoneComponentsIfMissing(component, subComponents);
+		return subComponents;
+	}
+
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	private void write(ICalProperty property) throws SAXException {
 		ICalPropertyScribe scribe = index.getPropertyScribe(property);
@@ -4,6 +4,7 @@ import java.lang.reflect.Constructor;
 
 import biweekly.ICalVersion;
 import biweekly.util.CaseClasses;
+import biweekly.util.StringUtils;
 
 /*
  Copyright (c) 2013-2024, Michael Angstadt
@@ -65,4 +66,14 @@ public class ICalParameterCaseClasses<T extends EnumParameterValue> extends Case
 	protected boolean matches(T object, String value) {
 		return object.value.equalsIgnoreCase(value);
 	}
+
+	@Override
+	protected Object keyOfValue(String value) {
+		return (value == null) ? null : StringUtils.caseInsensitiveKey(value);
+	}
+
+	@Override
+	protected Object keyOfObject(T object) {
+		return keyOfValue(object.value);
+	}
 }
@@ -351,6 +351,20 @@ public class ICalParameters extends ListMultimap<String, String> {
 		super(map);
 	}
 
+	/**
+	 * Creates a copy of this parameter list that shares its underlying data
+	 * with this list. The data is not copied until one of the two lists is
+	 * modified, which makes this cheaper than the copy constructor when the
+	 * copy is unlikely to change.
+	 * @return the copy
+	 */
+	public ICalParameters sharedCopy() {
+		ICalParameters copy = new ICalParameters(getMap());
+		markShared();
+		copy.markShared();
+		return copy;
+	}
+
 	/**
 	 * <p>
 	 * Gets the ALTREP (alternate representation) parameter value.
@@ -1518,9 +1532,10 @@ public class ICalParameters extends ListMultimap<String, String> {
 		for (Map.Entry<String, List<String>> entry : this) {
 			String key = entry.getKey();
 			List<String> value = entry.getValue();
-			List<String> otherValue = other.get(key);
+			//use the backing map so that shared parameter lists are not copied (see "sharedCopy")
+			List<String> otherValue = other.getMap().get(key);
 
-			if (value.size() != otherValue.size()) {
+			if (otherValue == null || value.size() != otherValue.size()) {
 				return false;
 			}
 
@@ -138,6 +138,7 @@ public class Attachment extends BinaryProperty {
 		this.contentId = contentId;
 		uri = null;
 		data = null;
+		modified();
 	}
 
 	@Override
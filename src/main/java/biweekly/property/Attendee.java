@@ -9,6 +9,7 @@ import biweekly.ValidationWarning;
 import biweekly.component.ICalComponent;
 import biweekly.component.VAlarm;
 import biweekly.parameter.CalendarUserType;
+import biweekly.parameter.EnumParameterValue;
 import biweekly.parameter.ParticipationLevel;
 import biweekly.parameter.ParticipationStatus;
 import biweekly.parameter.Role;
@@ -127,6 +128,7 @@ public class Attendee extends ICalProperty {
 	 */
 	public void setEmail(String email) {
 		this.email = email;
+		modified();
 	}
 
 	/**
@@ -143,6 +145,7 @@ public class Attendee extends ICalProperty {
 	 */
 	public void setUri(String uri) {
 		this.uri = uri;
+		modified();
 	}
 
 	/**
@@ -213,6 +216,7 @@ public class Attendee extends ICalProperty {
 	 */
 	public void setRole(Role role) {
 		this.role = role;
+		modified();
 	}
 
 	/**
@@ -235,6 +239,7 @@ public class Attendee extends ICalProperty {
 	 */
 	public void setParticipationLevel(ParticipationLevel level) {
 		this.participationLevel = level;
+		modified();
 	}
 
 	/**
@@ -257,6 +262,7 @@ public class Attendee extends ICalProperty {
 	 */
 	public void setParticipationStatus(ParticipationStatus status) {
 		this.status = status;
+		modified();
 	}
 
 	/**
@@ -278,6 +284,7 @@ public class Attendee extends ICalProperty {
 	 */
 	public void setRsvp(Boolean rsvp) {
 		this.rsvp = rsvp;
+		modified();
 	}
 
 	/**
@@ -332,6 +339,7 @@ public class Attendee extends ICalProperty {
 	@Override
 	public void setCommonName(String commonName) {
 		this.name = commonName;
+		modified();
 	}
 
 	@Override
@@ -389,10 +397,10 @@ public class Attendee extends ICalProperty {
 		int result = super.hashCode();
 		result = prime * result + ((email == null) ? 0 : email.hashCode());
 		result = prime * result + ((name == null) ? 0 : name.hashCode());
-		result = prime * result + ((participationLevel == null) ? 0 : participationLevel.hashCode());
-		result = prime * result + ((role == null) ? 0 : role.hashCode());
+		result = prime * result + ((participationLevel == null) ? 0 : key(participationLevel).hashCode());
+		result = prime * result + ((role == null) ? 0 : key(role).hashCode());
 		result = prime * result + ((rsvp == null) ? 0 : rsvp.hashCode());
-		result = prime * result + ((status == null) ? 0 : status.hashCode());
+		result = prime * result + ((status == null) ? 0 : key(status).hashCode());
 		result = prime * result + ((uri == null) ? 0 : uri.hashCode());
 		return result;
 	}
@@ -408,15 +416,32 @@ public class Attendee extends ICalProperty {
 		if (name == null) {
 			if (other.name != null) return false;
 		} else if (!name.equals(other.name)) return false;
-		if (participationLevel != other.participationLevel) return false;
-		if (role != other.role) return false;
+		if (!sameKey(key(participationLevel), key(other.participationLevel))) return false;
+		if (!sameKey(key(role), key(other.role))) return false;
 		if (rsvp == null) {
 			if (other.rsvp != null) return false;
 		} else if (!rsvp.equals(other.rsvp)) return false;
-		if (status != other.status) return false;
+		if (!sameKey(key(status), key(other.status))) return false;
 		if (uri == null) {
 			if (other.uri != null) return false;
 		} else if (!uri.equals(other.uri)) return false;
 		return true;
 	}
+
+	/*
+	 * The parameter values are compared by value instead of by identity,
+	 * because only the first runtime-defined values of each parameter are
+	 * guaranteed to be canonical instances (see CaseClasses).
+	 */
+	private static String key(EnumParameterValue value) {
+		return (value == null) ? null : String.valueOf(value.getValue()).toLowerCase();
+	}
+
+	private static String key(ParticipationLevel value) {
+		return (value == null) ? null : String.valueOf(value.getValue(ICalVersion.V2_0)).toLowerCase();
+	}
+
+	private static boolean sameKey(String one, String two) {
+		return (one == null) ? (two == null) : one.equals(two);
+	}
 }
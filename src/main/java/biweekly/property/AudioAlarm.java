@@ -64,6 +64,7 @@ public class AudioAlarm extends VCalAlarmProperty {
 		this.contentId = contentId;
 		this.uri = null;
 		this.data = null;
+		modified();
 	}
 
 	public String getUri() {
@@ -74,6 +75,7 @@ public class AudioAlarm extends VCalAlarmProperty {
 		this.uri = uri;
 		this.contentId = null;
 		this.data = null;
+		modified();
 	}
 
 	public byte[] getData() {
@@ -84,6 +86,7 @@ public class AudioAlarm extends VCalAlarmProperty {
 		this.data = data;
 		this.uri = null;
 		this.contentId = null;
+		modified();
 	}
 
 	public String getType() {
@@ -96,6 +96,7 @@ public class BinaryProperty extends ICalProperty {
 	public void setData(byte[] data) {
 		this.data = data;
 		uri = null;
+		modified();
 	}
 
 	/**
@@ -113,6 +114,7 @@ public class BinaryProperty extends ICalProperty {
 	public void setUri(String uri) {
 		this.uri = uri;
 		data = null;
+		modified();
 	}
 
 	@Override
@@ -87,6 +87,7 @@ public class Conference extends ICalProperty {
 	public void setUri(String uri) {
 		this.uri = uri;
 		text = null;
+		modified();
 	}
 
 	/**
@@ -104,6 +105,7 @@ public class Conference extends ICalProperty {
 	public void setText(String text) {
 		this.text = text;
 		uri = null;
+		modified();
 	}
 
 	/**
@@ -102,6 +102,7 @@ public class Daylight extends ICalProperty {
 	 */
 	public void setDaylight(boolean daylight) {
 		this.daylight = daylight;
+		modified();
 	}
 
 	/**
@@ -118,6 +119,7 @@ public class Daylight extends ICalProperty {
 	 */
 	public void setOffset(UtcOffset offset) {
 		this.offset = offset;
+		modified();
 	}
 
 	/**
@@ -134,6 +136,7 @@ public class Daylight extends ICalProperty {
 	 */
 	public void setStart(ICalDate start) {
 		this.start = start;
+		modified();
 	}
 
 	/**
@@ -150,6 +153,7 @@ public class Daylight extends ICalProperty {
 	 */
 	public void setEnd(ICalDate end) {
 		this.end = end;
+		modified();
 	}
 
 	/**
@@ -166,6 +170,7 @@ public class Daylight extends ICalProperty {
 	 */
 	public void setStandardName(String name) {
 		this.standardName = name;
+		modified();
 	}
 
 	/**
@@ -182,6 +187,7 @@ public class Daylight extends ICalProperty {
 	 */
 	public void setDaylightName(String name) {
 		this.daylightName = name;
+		modified();
 	}
 
 	@Override
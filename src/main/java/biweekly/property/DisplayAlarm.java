@@ -66,6 +66,7 @@ public class DisplayAlarm extends VCalAlarmProperty {
 	 */
 	public void setText(String text) {
 		this.text = text;
+		modified();
 	}
 
 	@Override
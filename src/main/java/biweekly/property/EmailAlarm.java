@@ -67,6 +67,7 @@ public class EmailAlarm extends VCalAlarmProperty {
 	 */
 	public void setEmail(String email) {
 		this.email = email;
+		modified();
 	}
 
 	/**
@@ -83,6 +84,7 @@ public class EmailAlarm extends VCalAlarmProperty {
 	 */
 	public void setNote(String note) {
 		this.note = note;
+		modified();
 	}
 
 	@Override
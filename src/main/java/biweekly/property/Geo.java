@@ -90,6 +90,7 @@ public class Geo extends ICalProperty {
 	 */
 	public void setLatitude(Double latitude) {
 		this.latitude = latitude;
+		modified();
 	}
 
 	/**
@@ -106,6 +107,7 @@ public class Geo extends ICalProperty {
 	 */
 	public void setLongitude(Double longitude) {
 		this.longitude = longitude;
+		modified();
 	}
 
 	/**
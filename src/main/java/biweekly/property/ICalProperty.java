@@ -1,11 +1,13 @@
 package biweekly.property;
 
 import java.lang.reflect.Constructor;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 
 import biweekly.ICalVersion;
 import biweekly.ICalendar;
@@ -13,6 +15,7 @@ import biweekly.Messages;
 import biweekly.ValidationWarning;
 import biweekly.component.ICalComponent;
 import biweekly.parameter.ICalParameters;
+import biweekly.util.ModificationStamps;
 
 /*
  Copyright (c) 2013-2024, Michael Angstadt
@@ -49,6 +52,17 @@ public abstract class ICalProperty {
 	 */
 	protected ICalParameters parameters;
 
+	/**
+	 * The stamp of the last modification (see {@link ModificationStamps}).
+	 */
+	private long modificationStamp = 0;
+
+	/**
+	 * The package that the library's property classes are in (see
+	 * {@link #isModificationTracked}).
+	 */
+	private static final String BUILT_IN_PACKAGE = ICalProperty.class.getName().substring(0, ICalProperty.class.getName().lastIndexOf('.') + 1);
+
 	protected ICalProperty() {
 		parameters = new ICalParameters();
 	}
@@ -78,6 +92,80 @@ public abstract class ICalProperty {
 			throw new NullPointerException(Messages.INSTANCE.getExceptionMessage(16));
 		}
 		this.parameters = parameters;
+		modified();
+	}
+
+	/**
+	 * <p>
+	 * Gets the stamp of the last time this property's value or parameters were
+	 * modified (see {@link ModificationStamps}). This is used to determine
+	 * whether a cached copy of the property's serialized form is still valid.
+	 * </p>
+	 * <p>
+	 * Changes made through the property's setter methods, its parameters, and
+	 * the mutable lists that it returns are detected. Changes made directly to
+	 * mutable value objects (for example, calling {@link java.util.Date#setTime}
+	 * on a date value) are not. To record such a change, pass the value object
+	 * back into the property's setter method.
+	 * </p>
+	 * <p>
+	 * Properties that do not track their modifications (see
+	 * {@link #isModificationTracked}) always return
+	 * {@link ModificationStamps#ALWAYS_MODIFIED}, so they are never served
+	 * from a cache.
+	 * </p>
+	 * @return the stamp or 0 if the property has not been modified since it
+	 * was created
+	 */
+	public long getModificationStamp() {
+		if (!isModificationTracked()) {
+			return ModificationStamps.ALWAYS_MODIFIED;
+		}
+
+		if (modificationStamp == ModificationStamps.PENDING) {
+			modificationStamp = ModificationStamps.next();
+		}
+		return Math.max(modificationStamp, parameters.getModificationStamp());
+	}
+
+	/**
+	 * <p>
+	 * Determines whether this property records every change made to its value
+	 * by calling {@link #modified}. If it does not, caches that rely on
+	 * {@link #getModificationStamp} (such as {@link biweekly.io.WriteCache})
+	 * treat the property as always modified.
+	 * </p>
+	 * <p>
+	 * All of the property classes in this library track their modifications.
+	 * Subclasses that are defined elsewhere are assumed not to, because their
+	 * fields might change without {@link #modified} being called. Such a
+	 * subclass should override this method to return true once it calls
+	 * {@link #modified} from all of its mutator methods.
+	 * </p>
+	 * @return true if modifications are tracked, false if not
+	 */
+	protected boolean isModificationTracked() {
+		return getClass().getName().startsWith(BUILT_IN_PACKAGE);
+	}
+
+	/**
+	 * Records that the property's value was modified. Child classes should
+	 * call this method whenever they modify one of their fields (see
+	 * {@link #isModificationTracked}).
+	 */
+	protected void modified() {
+		modificationStamp = ModificationStamps.PENDING;
+	}
+
+	/**
+	 * Wraps a list so that changes made to it are recorded as modifications of
+	 * this property (see {@link #getModificationStamp}).
+	 * @param list the list to wrap
+	 * @param <T> the list element class
+	 * @return the wrapped list
+	 */
+	protected <T> List<T> trackModifications(List<T> list) {
+		return new ModificationTrackingList<T>(list);
 	}
 
 	/**
@@ -455,4 +543,47 @@ public abstract class ICalProperty {
 		if (!parameters.equals(other.parameters)) return false;
 		return true;
 	}
+
+	/**
+	 * A list that records the changes made to it as modifications of the
+	 * property.
+	 * @param <T> the list element class
+	 */
+	private class ModificationTrackingList<T> extends AbstractList<T> implements RandomAccess {
+		private final List<T> delegate;
+
+		public ModificationTrackingList(List<T> delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public T get(int index) {
+			return delegate.get(index);
+		}
+
+		@Override
+		public int size() {
+			return delegate.size();
+		}
+
+		@Override
+		public T set(int index, T element) {
+			T previous = delegate.set(index, element);
+			modified();
+			return previous;
+		}
+
+		@Override
+		public void add(int index, T element) {
+			delegate.add(index, element);
+			modified();
+		}
+
+		@Override
+		public T remove(int index) {
+			T removed = delegate.remove(index);
+			modified();
+			return removed;
+		}
+	}
 }
@@ -10,6 +10,7 @@ import biweekly.ICalVersion;
 import biweekly.Messages;
 import biweekly.ValidationWarning;
 import biweekly.component.ICalComponent;
+import biweekly.util.ModificationStamps;
 
 /*
  Copyright (c) 2013-2024, Michael Angstadt
@@ -44,11 +45,18 @@ import biweekly.component.ICalComponent;
 public class ListProperty<T> extends ICalProperty {
 	protected final List<T> values;
 
+	/**
+	 * True if {@link #values} records its changes as modifications of this
+	 * property, false if it is a list that was passed in by the caller.
+	 */
+	private final boolean valuesTracked;
+
 	/**
 	 * Creates a new list property.
 	 */
 	public ListProperty() {
-		values = new ArrayList<T>();
+		values = trackModifications(new ArrayList<T>());
+		valuesTracked = true;
 	}
 
 	/**
@@ -56,11 +64,14 @@ public class ListProperty<T> extends ICalProperty {
 	 * @param values the values to initialize the property with
 	 */
 	public ListProperty(T... values) {
-		this.values = new ArrayList<T>(Arrays.asList(values));
+		this.values = trackModifications(new ArrayList<T>(Arrays.asList(values)));
+		valuesTracked = true;
 	}
 
 	/**
-	 * Creates a new list property.
+	 * Creates a new list property. The given list is used as the property's
+	 * value, so changes made to it cannot be detected. Such a property is
+	 * always considered to be modified (see {@link #getModificationStamp}).
 	 * @param values the values to initialize the property with (cannot be null)
 	 */
 	public ListProperty(List<T> values) {
@@ -68,6 +79,7 @@ public class ListProperty<T> extends ICalProperty {
 			throw new NullPointerException(Messages.INSTANCE.getExceptionMessage(18));
 		}
 		this.values = values;
+		valuesTracked = false;
 	}
 
 	/**
@@ -76,7 +88,8 @@ public class ListProperty<T> extends ICalProperty {
 	 */
 	public ListProperty(ListProperty<T> original) {
 		super(original);
-		values = new ArrayList<T>(original.values);
+		values = trackModifications(new ArrayList<T>(original.values));
+		valuesTracked = true;
 	}
 
 	/**
@@ -87,6 +100,11 @@ public class ListProperty<T> extends ICalProperty {
 		return values;
 	}
 
+	@Override
+	public long getModificationStamp() {
+		return valuesTracked ? super.getModificationStamp() : ModificationStamps.ALWAYS_MODIFIED;
+	}
+
 	@Override
 	protected void validate(List<ICalComponent> components, ICalVersion version, List<ValidationWarning> warnings) {
 		if (values.isEmpty()) {
@@ -99,6 +99,7 @@ public class Organizer extends ICalProperty {
 	 */
 	public void setEmail(String email) {
 		this.email = email;
+		modified();
 	}
 
 	/**
@@ -115,6 +116,7 @@ public class Organizer extends ICalProperty {
 	 */
 	public void setUri(String uri) {
 		this.uri = uri;
+		modified();
 	}
 
 	@Override
@@ -135,6 +137,7 @@ public class Organizer extends ICalProperty {
 	@Override
 	public void setCommonName(String commonName) {
 		this.name = commonName;
+		modified();
 	}
 
 	@Override
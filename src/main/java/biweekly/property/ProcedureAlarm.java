@@ -72,6 +72,7 @@ public class ProcedureAlarm extends VCalAlarmProperty {
 	 */
 	public void getPath(String path) {
 		this.path = path;
+		modified();
 	}
 
 	@Override
@@ -0,0 +1,63 @@
+package biweekly.property;
+
+import java.util.List;
+
+import biweekly.component.ICalComponent;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * <p>
+ * A placeholder for a property whose value has not been parsed yet. Readers
+ * that parse property values lazily add placeholders to their components
+ * instead of the real property objects (see
+ * {@link biweekly.io.text.ICalReader#setLazyParsing}).
+ * </p>
+ * <p>
+ * {@link ICalComponent} replaces a placeholder with the real property objects
+ * the first time the properties of its class are accessed, so users never come
+ * into contact with them. Classes that implement this interface must extend
+ * {@link ICalProperty}.
+ * </p>
+ * @author Michael Angstadt
+ */
+public interface PropertyPlaceholder {
+	/**
+	 * Gets the class of the property that this placeholder stands for.
+	 * @return the property class
+	 */
+	Class<? extends ICalProperty> getPropertyClass();
+
+	/**
+	 * Parses the property value. This is called by {@link ICalComponent} and
+	 * is only called once.
+	 * @param parent the component the property belongs to (properties that
+	 * get converted to components are added to this component)
+	 * @return the parsed properties (typically, this list contains one
+	 * element)
+	 */
+	List<ICalProperty> parse(ICalComponent parent);
+}
@@ -93,6 +93,7 @@ public class RawProperty extends ICalProperty {
 	 */
 	public void setValue(String value) {
 		this.value = value;
+		modified();
 	}
 
 	/**
@@ -109,6 +110,7 @@ public class RawProperty extends ICalProperty {
 	 */
 	public void setDataType(ICalDataType dataType) {
 		this.dataType = dataType;
+		modified();
 	}
 
 	/**
@@ -125,6 +127,7 @@ public class RawProperty extends ICalProperty {
 	 */
 	public void setName(String name) {
 		this.name = name;
+		modified();
 	}
 
 	@Override
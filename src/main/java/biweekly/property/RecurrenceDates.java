@@ -79,8 +79,8 @@ public class RecurrenceDates extends ICalProperty {
 	private final List<Period> periods;
 
 	public RecurrenceDates() {
-		dates = new ArrayList<ICalDate>();
-		periods = new ArrayList<Period>();
+		dates = trackModifications(new ArrayList<ICalDate>());
+		periods = trackModifications(new ArrayList<Period>());
 	}
 
 	/**
@@ -90,12 +90,12 @@ public class RecurrenceDates extends ICalProperty {
 	public RecurrenceDates(RecurrenceDates original) {
 		super(original);
 
-		dates = new ArrayList<ICalDate>(original.dates.size());
+		dates = trackModifications(new ArrayList<ICalDate>(original.dates.size()));
 		for (ICalDate date : original.dates) {
 			dates.add(new ICalDate(date));
 		}
 
-		periods = new ArrayList<Period>(original.periods.size());
+		periods = trackModifications(new ArrayList<Period>(original.periods.size()));
 		for (Period period : original.periods) {
 			periods.add(new Period(period));
 		}
@@ -123,6 +123,7 @@ public class RequestStatus extends ICalProperty {
 	 */
 	public void setStatusCode(String statusCode) {
 		this.statusCode = statusCode;
+		modified();
 	}
 
 	/**
@@ -139,6 +140,7 @@ public class RequestStatus extends ICalProperty {
 	 */
 	public void setDescription(String description) {
 		this.description = description;
+		modified();
 	}
 
 	/**
@@ -155,6 +157,7 @@ public class RequestStatus extends ICalProperty {
 	 */
 	public void setExceptionText(String exceptionText) {
 		this.exceptionText = exceptionText;
+		modified();
 	}
 
 	@Override
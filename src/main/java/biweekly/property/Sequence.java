@@ -73,6 +73,7 @@ public class Sequence extends IntegerProperty {
 		} else {
 			value++;
 		}
+		modified();
 	}
 
 	@Override
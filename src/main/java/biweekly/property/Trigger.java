@@ -104,6 +104,7 @@ public class Trigger extends ICalProperty {
 		this.date = null;
 		this.duration = duration;
 		setRelated(related);
+		modified();
 	}
 
 	/**
@@ -122,6 +123,7 @@ public class Trigger extends ICalProperty {
 		this.date = date;
 		this.duration = null;
 		setRelated(null);
+		modified();
 	}
 
 	/**
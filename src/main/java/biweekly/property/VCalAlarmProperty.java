@@ -72,6 +72,7 @@ public class VCalAlarmProperty extends ICalProperty {
 
 	public void setStart(Date start) {
 		this.start = start;
+		modified();
 	}
 
 	public Duration getSnooze() {
@@ -80,6 +81,7 @@ public class VCalAlarmProperty extends ICalProperty {
 
 	public void setSnooze(Duration snooze) {
 		this.snooze = snooze;
+		modified();
 	}
 
 	public Integer getRepeat() {
@@ -88,6 +90,7 @@ public class VCalAlarmProperty extends ICalProperty {
 
 	public void setRepeat(Integer repeat) {
 		this.repeat = repeat;
+		modified();
 	}
 
 	@Override
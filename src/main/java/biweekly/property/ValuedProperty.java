@@ -73,6 +73,7 @@ public class ValuedProperty<T> extends ICalProperty {
 	 */
 	public void setValue(T value) {
 		this.value = value;
+		modified();
 	}
 
 	@Override
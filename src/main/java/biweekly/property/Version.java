@@ -162,6 +162,7 @@ public class Version extends ICalProperty {
 	 */
 	public void setMinVersion(VersionNumber minVersion) {
 		this.minVersion = minVersion;
+		modified();
 	}
 
 	/**
@@ -180,6 +181,7 @@ public class Version extends ICalProperty {
 	 */
 	public void setMaxVersion(VersionNumber maxVersion) {
 		this.maxVersion = maxVersion;
+		modified();
 	}
 
 	/**
@@ -5,6 +5,13 @@ import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 /*
  Copyright (c) 2013-2024, Michael Angstadt
@@ -32,27 +39,67 @@ import java.util.Collections;
  */
 
 /**
+ * <p>
  * Manages objects that are like enums in that they are constant, but unlike
  * enums in that new instances can be created during runtime. This class ensures
  * that all instances of a class are unique, so they can be safely compared
  * using "==" (provided their constructors are private). It mimics the
  * "case class" feature in Scala.
+ * </p>
+ * <p>
+ * Runtime-defined instances are cached so that a value maps to the same
+ * instance every time it is requested. The cache is bounded so that input
+ * with many distinct values cannot make it grow without limit. Once it is
+ * full, values that are not in the cache get a new, uncached instance each
+ * time they are requested. This means that "==" comparisons are only
+ * guaranteed to work for the static constants and the first N
+ * runtime-defined values (see {@link #DEFAULT_MAX_RUNTIME_DEFINED}). Cached
+ * instances are never evicted.
+ * </p>
+ * <p>
+ * If the subclass implements {@link #keyOfValue} and {@link #keyOfObject},
+ * lookups are done using hash tables. Otherwise, each lookup compares the value
+ * against every instance using {@link #matches}.
+ * </p>
  * @author Michael Angstadt
  * 
  * @param <T> the class
  * @param <V> the value that the class holds (e.g. String)
  */
 public abstract class CaseClasses<T, V> {
+	/**
+	 * The default maximum number of runtime-defined instances that are cached.
+	 */
+	public static final int DEFAULT_MAX_RUNTIME_DEFINED = 1000;
+
 	protected final Class<T> clazz;
 	protected volatile Collection<T> preDefined = null;
-	protected Collection<T> runtimeDefined = null;
+	private Map<Object, T> preDefinedIndex;
+
+	private final int maxRuntimeDefined;
+	private final ConcurrentMap<Object, T> runtimeDefined = new ConcurrentHashMap<Object, T>();
+	private final List<T> runtimeDefinedUnhashed = new CopyOnWriteArrayList<T>();
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
 
 	/**
-	 * Creates a new case class collection.
+	 * Creates a new case class collection that caches up to
+	 * {@value #DEFAULT_MAX_RUNTIME_DEFINED} runtime-defined instances.
 	 * @param clazz the case class
 	 */
 	protected CaseClasses(Class<T> clazz) {
+		this(clazz, DEFAULT_MAX_RUNTIME_DEFINED);
+	}
+
+	/**
+	 * Creates a new case class collection.
+	 * @param clazz the case class
+	 * @param maxRuntimeDefined the maximum number of runtime-defined instances
+	 * to cache
+	 */
+	protected CaseClasses(Class<T> clazz, int maxRuntimeDefined) {
 		this.clazz = clazz;
+		this.maxRuntimeDefined = maxRuntimeDefined;
 	}
 
 	/**
@@ -70,6 +117,32 @@ public abstract class CaseClasses<T, V> {
 	 */
 	protected abstract boolean matches(T object, V value);
 
+	/**
+	 * <p>
+	 * Gets the hash key of a value. Two values must have equal keys if and only
+	 * if they match the same case object (see {@link #matches}).
+	 * </p>
+	 * <p>
+	 * This method must be overridden along with {@link #keyOfObject}. The
+	 * default implementation returns null, which disables the hash lookups.
+	 * </p>
+	 * @param value the value
+	 * @return the key or null to not use a hash lookup
+	 */
+	protected Object keyOfValue(V value) {
+		return null;
+	}
+
+	/**
+	 * Gets the hash key of a case object. The key must be equal to the key of
+	 * every value that matches the object (see {@link #keyOfValue}).
+	 * @param object the object
+	 * @return the key or null to not use a hash lookup
+	 */
+	protected Object keyOfObject(T object) {
+		return null;
+	}
+
 	/**
 	 * Searches for a case object by value, only looking at the case class'
 	 * static constants (does not include runtime-defined objects).
@@ -78,6 +151,13 @@ public abstract class CaseClasses<T, V> {
 	 */
 	public T find(V value) {
 		checkInit();
+		return find(value, keyOfValue(value));
+	}
+
+	private T find(V value, Object key) {
+		if (key != null && preDefinedIndex != null) {
+			return preDefinedIndex.get(key);
+		}
 
 		for (T obj : preDefined) {
 			if (matches(obj, value)) {
@@ -89,29 +169,85 @@ public abstract class CaseClasses<T, V> {
 
 	/**
 	 * Searches for a case object by value, creating a new object if one cannot
-	 * be found.
+	 * be found. If the cache of runtime-defined objects is full, the new
+	 * object is not cached, so it will not be the same instance as the object
+	 * that is returned the next time this value is requested.
 	 * @param value the value
 	 * @return the object
 	 */
 	public T get(V value) {
-		T found = find(value);
+		checkInit();
+
+		Object key = keyOfValue(value);
+		T found = find(value, key);
 		if (found != null) {
+			hits.incrementAndGet();
 			return found;
 		}
 
-		synchronized (runtimeDefined) {
-			for (T obj : runtimeDefined) {
-				if (matches(obj, value)) {
-					return obj;
-				}
+		if (key == null) {
+			return getBySearch(value);
+		}
+
+		found = runtimeDefined.get(key);
+		if (found != null) {
+			hits.incrementAndGet();
+			return found;
+		}
+
+		misses.incrementAndGet();
+		T created = create(value);
+		if (runtimeDefined.size() >= maxRuntimeDefined) {
+			return created;
+		}
+
+		found = runtimeDefined.putIfAbsent(key, created);
+		return (found == null) ? created : found;
+	}
+
+	/**
+	 * Searches the runtime-defined objects using {@link #matches}. Used when
+	 * the subclass does not provide hash keys.
+	 * @param value the value
+	 * @return the object
+	 */
+	private T getBySearch(V value) {
+		T found = search(value);
+		if (found != null) {
+			hits.incrementAndGet();
+			return found;
+		}
+
+		misses.incrementAndGet();
+		T created = create(value);
+		if (runtimeDefinedUnhashed.size() >= maxRuntimeDefined) {
+			return created;
+		}
+
+		/*
+		 * Lookups do not lock. Only adding does, so that two threads cannot
+		 * add different instances for the same value.
+		 */
+		synchronized (runtimeDefinedUnhashed) {
+			found = search(value);
+			if (found != null) {
+				return found;
 			}
 
-			T created = create(value);
-			runtimeDefined.add(created);
+			runtimeDefinedUnhashed.add(created);
 			return created;
 		}
 	}
 
+	private T search(V value) {
+		for (T obj : runtimeDefinedUnhashed) {
+			if (matches(obj, value)) {
+				return obj;
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Gets all the static constants of the case class.
 	 * @return all static constants
@@ -121,6 +257,31 @@ public abstract class CaseClasses<T, V> {
 		return preDefined;
 	}
 
+	/**
+	 * Gets the number of times {@link #get} found an existing object, either
+	 * a static constant or a cached runtime-defined object.
+	 * @return the hit count
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * Gets the number of times {@link #get} had to create a new object.
+	 * @return the miss count
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * Gets the number of runtime-defined objects that are currently cached.
+	 * @return the number of cached objects
+	 */
+	public int getRuntimeDefinedCount() {
+		return runtimeDefined.size() + runtimeDefinedUnhashed.size();
+	}
+
 	private void checkInit() {
 		if (preDefined == null) {
 			synchronized (this) {
@@ -156,7 +317,21 @@ public abstract class CaseClasses<T, V> {
 			}
 		}
 
-		runtimeDefined = new ArrayList<T>(0);
+		Map<Object, T> preDefinedIndex = new HashMap<Object, T>();
+		for (T obj : preDefined) {
+			Object key = keyOfObject(obj);
+			if (key == null) {
+				preDefinedIndex = null;
+				break;
+			}
+
+			//the first constant wins, just like with the linear search
+			if (!preDefinedIndex.containsKey(key)) {
+				preDefinedIndex.put(key, obj);
+			}
+		}
+
+		this.preDefinedIndex = preDefinedIndex;
 		this.preDefined = Collections.unmodifiableCollection(preDefined);
 	}
 }
@@ -6,8 +6,6 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
 import java.util.TimeZone;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import biweekly.Messages;
 
@@ -64,7 +62,6 @@ import biweekly.Messages;
  */
 public final class DateTimeComponents implements Comparable<DateTimeComponents>, Serializable {
 	private static final long serialVersionUID = 7668029303206402368L;
-	private static final Pattern regex = Pattern.compile("^(\\d{4})-?(\\d{2})-?(\\d{2})(T(\\d{2}):?(\\d{2}):?(\\d{2})(Z?))?.*");
 	private final int year, month, date, hour, minute, second;
 	private final boolean hasTime, utc;
 
@@ -90,37 +87,99 @@ public final class DateTimeComponents implements Comparable<DateTimeComponents>,
 	 * @throws IllegalArgumentException if the date string cannot be parsed
 	 */
 	public static DateTimeComponents parse(String dateString, Boolean hasTime) {
-		Matcher m = regex.matcher(dateString);
-		if (!m.find()) {
+		/*
+		 * Equivalent to the following regular expression:
+		 * ^(\d{4})-?(\d{2})-?(\d{2})(T(\d{2}):?(\d{2}):?(\d{2})(Z?))?.*
+		 */
+		int pos = 0;
+		int year = digits(dateString, pos, 4);
+		if (year < 0) {
 			throw Messages.INSTANCE.getIllegalArgumentException(19, dateString);
 		}
+		pos = skip(dateString, pos + 4, '-');
 
-		int i = 1;
-		int year = Integer.parseInt(m.group(i++));
-		int month = Integer.parseInt(m.group(i++));
-		int date = Integer.parseInt(m.group(i++));
+		int month = digits(dateString, pos, 2);
+		if (month < 0) {
+			throw Messages.INSTANCE.getIllegalArgumentException(19, dateString);
+		}
+		pos = skip(dateString, pos + 2, '-');
 
-		i++; //skip
+		int date = digits(dateString, pos, 2);
+		if (date < 0) {
+			throw Messages.INSTANCE.getIllegalArgumentException(19, dateString);
+		}
+		pos += 2;
+
+		/*
+		 * The time component is only used if it is complete.
+		 */
+		int hour = -1, minute = -1, second = -1;
+		boolean utc = false;
+		if (pos < dateString.length() && dateString.charAt(pos) == 'T') {
+			pos++;
+			hour = digits(dateString, pos, 2);
+			if (hour >= 0) {
+				pos = skip(dateString, pos + 2, ':');
+				minute = digits(dateString, pos, 2);
+			}
+			if (minute >= 0) {
+				pos = skip(dateString, pos + 2, ':');
+				second = digits(dateString, pos, 2);
+			}
+			if (second >= 0) {
+				pos += 2;
+				utc = (pos < dateString.length() && dateString.charAt(pos) == 'Z');
+			} else {
+				hour = minute = -1;
+			}
+		}
 
-		String hourStr = m.group(i++);
 		if (hasTime == null) {
-			hasTime = (hourStr != null);
+			hasTime = (hour >= 0);
 		}
 		if (!hasTime) {
 			return new DateTimeComponents(year, month, date);
 		}
 
-		int hour = (hourStr == null) ? 0 : Integer.parseInt(hourStr);
+		if (hour < 0) {
+			hour = minute = second = 0;
+		}
 
-		String minuteStr = m.group(i++);
-		int minute = (minuteStr == null) ? 0 : Integer.parseInt(minuteStr);
+		return new DateTimeComponents(year, month, date, hour, minute, second, utc);
+	}
 
-		String secondStr = m.group(i++);
-		int second = (secondStr == null) ? 0 : Integer.parseInt(secondStr);
+	/**
+	 * Reads a fixed number of digits from a string.
+	 * @param str the string
+	 * @param pos the index of the first digit
+	 * @param count the number of digits to read
+	 * @return the number or -1 if there aren't enough digits
+	 */
+	private static int digits(String str, int pos, int count) {
+		if (pos + count > str.length()) {
+			return -1;
+		}
 
-		boolean utc = "Z".equals(m.group(i++));
+		int value = 0;
+		for (int i = pos; i < pos + count; i++) {
+			char c = str.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			value = value * 10 + (c - '0');
+		}
+		return value;
+	}
 
-		return new DateTimeComponents(year, month, date, hour, minute, second, utc);
+	/**
+	 * Advances past an optional character.
+	 * @param str the string
+	 * @param pos the current index
+	 * @param c the character to skip
+	 * @return the new index
+	 */
+	private static int skip(String str, int pos, char c) {
+		return (pos < str.length() && str.charAt(pos) == c) ? pos + 1 : pos;
 	}
 
 	/**
@@ -300,26 +359,58 @@ public final class DateTimeComponents implements Comparable<DateTimeComponents>,
 	 * @return the date string
 	 */
 	public String toString(boolean includeTime, boolean extended) {
-		NumberFormat nf = NumberFormat.getNumberInstance(Locale.ENGLISH);
-		nf.setMinimumIntegerDigits(2);
-		nf.setMaximumIntegerDigits(2);
-		String dash = extended ? "-" : "";
-		String colon = extended ? ":" : "";
-		String z = utc ? "Z" : "";
-
-		StringBuilder sb = new StringBuilder();
-		sb.append(year).append(dash).append(nf.format(month)).append(dash).append(nf.format(date));
+		StringBuilder sb = new StringBuilder(20);
+		sb.append(year);
+		if (extended) sb.append('-');
+		appendTwoDigits(sb, month);
+		if (extended) sb.append('-');
+		appendTwoDigits(sb, date);
+
 		if (includeTime) {
-			sb.append("T").append(nf.format(hour)).append(colon).append(nf.format(minute)).append(colon).append(nf.format(second)).append(z);
+			sb.append('T');
+			appendTwoDigits(sb, hour);
+			if (extended) sb.append(':');
+			appendTwoDigits(sb, minute);
+			if (extended) sb.append(':');
+			appendTwoDigits(sb, second);
+			if (utc) sb.append('Z');
 		}
 		return sb.toString();
 	}
 
+	/**
+	 * Appends a number to a buffer, formatting it with exactly two digits.
+	 * @param sb the buffer
+	 * @param value the number
+	 */
+	private static void appendTwoDigits(StringBuilder sb, int value) {
+		if (value < 0) {
+			NumberFormat nf = NumberFormat.getNumberInstance(Locale.ENGLISH);
+			nf.setMinimumIntegerDigits(2);
+			nf.setMaximumIntegerDigits(2);
+			sb.append(nf.format(value));
+			return;
+		}
+
+		value %= 100;
+		if (value < 10) {
+			sb.append('0');
+		}
+		sb.append(value);
+	}
+
 	/**
 	 * Converts the date-time components to a {@link Date} object.
 	 * @return the date object
 	 */
 	public Date toDate() {
+		if (utc) {
+			long millis = ICalDateFormat.epochMillis(year, month, date, hour, minute, second);
+			if (ICalDateFormat.isInFastPathRange(millis)) {
+				return new Date(millis);
+			}
+		}
+
 		TimeZone timezone = utc ? TimeZone.getTimeZone("UTC") : TimeZone.getDefault();
 		return toDate(timezone);
 	}
@@ -0,0 +1,125 @@
+package biweekly.util;
+
+import biweekly.Messages;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * A 128-bit hash of the content of a component or property. Fingerprints are
+ * stable across JVMs and library versions, so they can be persisted and
+ * compared later on.
+ * @author Michael Angstadt
+ * @see biweekly.io.Fingerprinter
+ */
+public final class Fingerprint {
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final long high, low;
+
+	/**
+	 * Creates a fingerprint.
+	 * @param bytes the fingerprint (must be 16 bytes long)
+	 * @throws IllegalArgumentException if the array is not 16 bytes long
+	 */
+	public Fingerprint(byte[] bytes) {
+		if (bytes.length != 16) {
+			throw Messages.INSTANCE.getIllegalArgumentException(34);
+		}
+
+		long high = 0, low = 0;
+		for (int i = 0; i < 8; i++) {
+			high = (high << 8) | (bytes[i] & 0xff);
+			low = (low << 8) | (bytes[i + 8] & 0xff);
+		}
+		this.high = high;
+		this.low = low;
+	}
+
+	/**
+	 * Parses a fingerprint from its string representation.
+	 * @param text the text to parse (32 hexadecimal characters)
+	 * @return the parsed fingerprint
+	 * @throws IllegalArgumentException if the text cannot be parsed
+	 */
+	public static Fingerprint parse(String text) {
+		if (text.length() != 32) {
+			throw Messages.INSTANCE.getIllegalArgumentException(33, text);
+		}
+
+		byte[] bytes = new byte[16];
+		for (int i = 0; i < bytes.length; i++) {
+			int hi = Character.digit(text.charAt(i * 2), 16);
+			int lo = Character.digit(text.charAt(i * 2 + 1), 16);
+			if (hi < 0 || lo < 0) {
+				throw Messages.INSTANCE.getIllegalArgumentException(33, text);
+			}
+			bytes[i] = (byte) ((hi << 4) | lo);
+		}
+		return new Fingerprint(bytes);
+	}
+
+	/**
+	 * Gets the bytes of this fingerprint.
+	 * @return the bytes (16 bytes long)
+	 */
+	public byte[] toByteArray() {
+		byte[] bytes = new byte[16];
+		for (int i = 0; i < 8; i++) {
+			bytes[i] = (byte) (high >>> (56 - i * 8));
+			bytes[i + 8] = (byte) (low >>> (56 - i * 8));
+		}
+		return bytes;
+	}
+
+	/**
+	 * Converts this fingerprint to its string representation.
+	 * @return the string representation (32 lowercase hexadecimal characters)
+	 */
+	@Override
+	public String toString() {
+		char[] chars = new char[32];
+		byte[] bytes = toByteArray();
+		for (int i = 0; i < bytes.length; i++) {
+			chars[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+			chars[i * 2 + 1] = HEX[bytes[i] & 0xf];
+		}
+		return new String(chars);
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) (high ^ (high >>> 32) ^ low ^ (low >>> 32));
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null) return false;
+		if (getClass() != obj.getClass()) return false;
+		Fingerprint other = (Fingerprint) obj;
+		return high == other.high && low == other.low;
+	}
+}
@@ -7,8 +7,6 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
 import java.util.TimeZone;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /*
  Copyright (c) 2013-2024, Michael Angstadt
@@ -47,31 +45,31 @@ public enum ICalDateFormat {
 	 * Example: 20120701
 	 */
 	DATE_BASIC(
-	"yyyyMMdd"),
+	"yyyyMMdd", false, Fields.DATE),
 	
 	/**
 	 * Example: 2012-07-01
 	 */
 	DATE_EXTENDED(
-	"yyyy-MM-dd"),
+	"yyyy-MM-dd", true, Fields.DATE),
 	
 	/**
 	 * Example: 20120701T142110-0500
 	 */
 	DATE_TIME_BASIC(
-	"yyyyMMdd'T'HHmmssZ"),
+	"yyyyMMdd'T'HHmmssZ", false, Fields.DATE_TIME_OFFSET),
 	
 	/**
 	 * Example: 20120701T142110
 	 */
 	DATE_TIME_BASIC_WITHOUT_TZ(
-	"yyyyMMdd'T'HHmmss"),
+	"yyyyMMdd'T'HHmmss", false, Fields.DATE_TIME),
 	
 	/**
 	 * Example: 2012-07-01T14:21:10-05:00
 	 */
 	DATE_TIME_EXTENDED(
-	"yyyy-MM-dd'T'HH:mm:ssZ"){
+	"yyyy-MM-dd'T'HH:mm:ssZ", true, Fields.DATE_TIME_OFFSET){
 		@Override
 		public DateFormat getDateFormat(TimeZone timezone) {
 			DateFormat df = new SimpleDateFormat(formatStr, Locale.ROOT){
@@ -100,13 +98,13 @@ public enum ICalDateFormat {
 	 * Example: 2012-07-01T14:21:10
 	 */
 	DATE_TIME_EXTENDED_WITHOUT_TZ(
-	"yyyy-MM-dd'T'HH:mm:ss"),
+	"yyyy-MM-dd'T'HH:mm:ss", true, Fields.DATE_TIME),
 	
 	/**
 	 * Example: 20120701T192110Z
 	 */
 	UTC_TIME_BASIC(
-	"yyyyMMdd'T'HHmmss'Z'"){
+	"yyyyMMdd'T'HHmmss'Z'", false, Fields.DATE_TIME_UTC){
 		@Override
 		public DateFormat getDateFormat(TimeZone timezone) {
 			//always use the UTC timezone
@@ -119,7 +117,7 @@ public enum ICalDateFormat {
 	 * Example: 2012-07-01T19:21:10Z
 	 */
 	UTC_TIME_EXTENDED(
-	"yyyy-MM-dd'T'HH:mm:ss'Z'"){
+	"yyyy-MM-dd'T'HH:mm:ss'Z'", true, Fields.DATE_TIME_UTC){
 		@Override
 		public DateFormat getDateFormat(TimeZone timezone) {
 			//always use the UTC timezone
@@ -129,17 +127,42 @@ public enum ICalDateFormat {
 	};
 	//@formatter:on
 
+	private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+
+	/*
+	 * Dates within this range are formatted and parsed without the help of a
+	 * Calendar object. Calendar switches to the Julian calendar for dates
+	 * before October 15, 1582, so those dates (and dates with more than four
+	 * year digits) are left to the JDK.
+	 */
+	private static final long FAST_PATH_START = epochMillis(1583, 1, 1, 0, 0, 0);
+	private static final long FAST_PATH_END = epochMillis(10000, 1, 1, 0, 0, 0);
+
+	/**
+	 * The parts of a date that a format contains.
+	 */
+	private enum Fields {
+		DATE, DATE_TIME, DATE_TIME_OFFSET, DATE_TIME_UTC
+	}
+
 	/**
 	 * The {@link SimpleDateFormat} format string used for parsing dates.
 	 */
 	protected final String formatStr;
 
+	private final boolean extended;
+	private final Fields fields;
+
 	/**
 	 * @param formatStr the {@link SimpleDateFormat} format string used for
 	 * parsing dates.
+	 * @param extended true if the format uses dashes and colons, false if not
+	 * @param fields the parts of the date that the format contains
 	 */
-	ICalDateFormat(String formatStr) {
+	ICalDateFormat(String formatStr, boolean extended, Fields fields) {
 		this.formatStr = formatStr;
+		this.extended = extended;
+		this.fields = fields;
 	}
 
 	/**
@@ -183,8 +206,125 @@ public enum ICalDateFormat {
 	 * @return the date string
 	 */
 	public String format(Date date, TimeZone timezone) {
-		DateFormat df = getDateFormat(timezone);
-		return df.format(date);
+		return format(date, timezone, new StringBuilder(25)).toString();
+	}
+
+	/**
+	 * <p>
+	 * Formats a date in this ISO format and appends it to the given buffer.
+	 * </p>
+	 * <p>
+	 * The date's fields are computed directly from its timestamp and the
+	 * timezone's offset (see {@link TimeZone#getOffset(long)}), so no
+	 * {@link DateFormat} or {@link Calendar} objects are created. The output is
+	 * identical to the output of {@link #getDateFormat(TimeZone)}.
+	 * </p>
+	 * @param date the date to format
+	 * @param timezone the timezone to format the date in or null for the
+	 * default timezone
+	 * @param sb the buffer to append to
+	 * @return the buffer
+	 */
+	public StringBuilder format(Date date, TimeZone timezone, StringBuilder sb) {
+		long millis = date.getTime();
+
+		int offset;
+		if (fields == Fields.DATE_TIME_UTC) {
+			offset = 0;
+		} else {
+			if (timezone == null) {
+				timezone = TimeZone.getDefault();
+			}
+			offset = timezone.getOffset(millis);
+		}
+
+		long local = millis + offset;
+		if (local < FAST_PATH_START || local >= FAST_PATH_END) {
+			return sb.append(getDateFormat(timezone).format(date));
+		}
+
+		long days = floorDiv(local, MILLIS_PER_DAY);
+		int millisOfDay = (int) (local - days * MILLIS_PER_DAY);
+
+		/*
+		 * Convert the number of days since the epoch to a year, month, and day.
+		 * See: http://howardhinnant.github.io/date_algorithms.html#civil_from_days
+		 */
+		long z = days + 719468;
+		long era = floorDiv(z, 146097);
+		int dayOfEra = (int) (z - era * 146097);
+		int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		int mp = (5 * dayOfYear + 2) / 153;
+		int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+		int month = (mp < 10) ? mp + 3 : mp - 9;
+		int year = (int) (yearOfEra + era * 400) + ((month <= 2) ? 1 : 0);
+
+		append(sb, year, 4);
+		if (extended) sb.append('-');
+		append(sb, month, 2);
+		if (extended) sb.append('-');
+		append(sb, day, 2);
+
+		if (fields == Fields.DATE) {
+			return sb;
+		}
+
+		int seconds = millisOfDay / 1000;
+		sb.append('T');
+		append(sb, seconds / 3600, 2);
+		if (extended) sb.append(':');
+		append(sb, seconds / 60 % 60, 2);
+		if (extended) sb.append(':');
+		append(sb, seconds % 60, 2);
+
+		switch (fields) {
+		case DATE_TIME_UTC:
+			sb.append('Z');
+			break;
+		case DATE_TIME_OFFSET:
+			appendOffset(sb, offset);
+			break;
+		default:
+			break;
+		}
+
+		return sb;
+	}
+
+	/**
+	 * Appends a UTC offset the same way that {@link SimpleDateFormat} does for
+	 * the "Z" pattern letter (e.g. "-0500"). Seconds are truncated.
+	 * @param sb the buffer
+	 * @param offset the offset in milliseconds
+	 */
+	private void appendOffset(StringBuilder sb, int offset) {
+		int value = offset / 60000;
+		if (value >= 0) {
+			sb.append('+');
+		} else {
+			sb.append('-');
+			value = -value;
+		}
+
+		append(sb, value / 60, 2);
+		if (extended) sb.append(':');
+		append(sb, value % 60, 2);
+	}
+
+	/**
+	 * Appends a non-negative number to a buffer, left-padding it with zeros.
+	 * @param sb the buffer
+	 * @param value the number
+	 * @param width the minimum number of digits
+	 */
+	private static void append(StringBuilder sb, int value, int width) {
+		for (int limit = 10, i = 1; i < width; i++, limit *= 10) {
+			if (value < limit) {
+				sb.append('0');
+			}
+		}
+		sb.append(value);
 	}
 
 	/**
@@ -209,12 +349,21 @@ public enum ICalDateFormat {
 	 * accepted ISO8601 formats
 	 */
 	public static Date parse(String dateStr, TimeZone timezone) {
-		TimestampPattern p = new TimestampPattern(dateStr);
-		if (!p.matches()) {
+		Timestamp t = Timestamp.parse(dateStr);
+		if (t == null) {
 			throw parseException(dateStr);
 		}
 
-		if (p.hasOffset()) {
+		if (t.hasOffset) {
+			/*
+			 * The date string contains its own offset, so the timestamp can be
+			 * calculated without a Calendar object.
+			 */
+			long millis = epochMillis(t.year, t.month, t.date, t.hour, t.minute, t.second);
+			if (millis >= FAST_PATH_START && millis < FAST_PATH_END) {
+				return new Date(millis + t.millisecond - t.offsetMillis);
+			}
+
 			timezone = TimeZone.getTimeZone("UTC");
 		} else if (timezone == null) {
 			timezone = TimeZone.getDefault();
@@ -223,18 +372,18 @@ public enum ICalDateFormat {
 		Calendar c = Calendar.getInstance(timezone);
 		c.clear();
 
-		c.set(Calendar.YEAR, p.year());
-		c.set(Calendar.MONTH, p.month() - 1);
-		c.set(Calendar.DATE, p.date());
+		c.set(Calendar.YEAR, t.year);
+		c.set(Calendar.MONTH, t.month - 1);
+		c.set(Calendar.DATE, t.date);
 
-		if (p.hasTime()) {
-			c.set(Calendar.HOUR_OF_DAY, p.hour());
-			c.set(Calendar.MINUTE, p.minute());
-			c.set(Calendar.SECOND, p.second());
-			c.set(Calendar.MILLISECOND, p.millisecond());
+		if (t.hasTime) {
+			c.set(Calendar.HOUR_OF_DAY, t.hour);
+			c.set(Calendar.MINUTE, t.minute);
+			c.set(Calendar.SECOND, t.second);
+			c.set(Calendar.MILLISECOND, t.millisecond);
 
-			if (p.hasOffset()) {
-				c.set(Calendar.ZONE_OFFSET, p.offsetMillis());
+			if (t.hasOffset) {
+				c.set(Calendar.ZONE_OFFSET, t.offsetMillis);
 			}
 		}
 
@@ -242,96 +391,219 @@ public enum ICalDateFormat {
 	}
 
 	/**
-	 * Wrapper for a complex regular expression that parses multiple date
-	 * formats.
+	 * Calculates the number of milliseconds since the epoch of a UTC date using
+	 * the proleptic Gregorian calendar. Like a lenient {@link Calendar}, values
+	 * that are out of range roll over into the next larger field (for example,
+	 * month 13 is January of the following year).
+	 * @param year the year
+	 * @param month the month (1-12)
+	 * @param date the day of the month
+	 * @param hour the hour
+	 * @param minute the minute
+	 * @param second the second
+	 * @return the number of milliseconds since the epoch
 	 */
-	private static class TimestampPattern {
-		//@formatter:off
-		private static final Pattern regex = Pattern.compile(
-			"^(\\d{4})-?(\\d{2})-?(\\d{2})" +
-			"(" +
-				"T(\\d{2}):?(\\d{2}):?(\\d{2})(\\.\\d+)?" +
-				"(" +
-					"Z|([-+])((\\d{2})|((\\d{2}):?(\\d{2})))" +
-				")?" +
-			")?$"
-		);
-		//@formatter:on
-
-		private final Matcher m;
-		private final boolean matches;
-
-		public TimestampPattern(String str) {
-			m = regex.matcher(str);
-			matches = m.find();
+	static long epochMillis(int year, int month, int date, int hour, int minute, int second) {
+		long y = year + floorDiv(month - 1, 12);
+		int m = (int) (month - 1 - floorDiv(month - 1, 12) * 12) + 1;
+
+		/*
+		 * See:
+		 * http://howardhinnant.github.io/date_algorithms.html#days_from_civil
+		 */
+		if (m <= 2) {
+			y--;
 		}
+		long era = floorDiv(y, 400);
+		int yearOfEra = (int) (y - era * 400);
+		int dayOfYear = (153 * (m + ((m > 2) ? -3 : 9)) + 2) / 5;
+		int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		long days = era * 146097 + dayOfEra - 719468 + (date - 1);
 
-		public boolean matches() {
-			return matches;
-		}
+		return days * MILLIS_PER_DAY + ((hour * 60L + minute) * 60 + second) * 1000;
+	}
 
-		public int year() {
-			return parseInt(1);
-		}
+	/**
+	 * Determines if the given timestamp can be converted to and from date
+	 * components without the help of a {@link Calendar} object.
+	 * @param millis the timestamp
+	 * @return true if it can, false if not
+	 */
+	static boolean isInFastPathRange(long millis) {
+		return millis >= FAST_PATH_START && millis < FAST_PATH_END;
+	}
 
-		public int month() {
-			return parseInt(2);
+	private static long floorDiv(long x, long y) {
+		long q = x / y;
+		if ((x % y != 0) && ((x ^ y) < 0)) {
+			q--;
 		}
+		return q;
+	}
 
-		public int date() {
-			return parseInt(3);
+	/**
+	 * Parses the date formats that are accepted by the {@link #parse} method.
+	 * This is a hand-written equivalent of the following regular expression:
+	 * 
+	 * <pre>
+	 * ^(\d{4})-?(\d{2})-?(\d{2})(T(\d{2}):?(\d{2}):?(\d{2})(\.\d+)?(Z|([-+])((\d{2})|((\d{2}):?(\d{2}))))?)?$
+	 * </pre>
+	 */
+	private static class Timestamp {
+		private final String str;
+		private final int end;
+		private int pos = 0;
+
+		private int year, month, date;
+		private boolean hasTime;
+		private int hour, minute, second, millisecond;
+		private boolean hasOffset;
+		private int offsetMillis;
+
+		private Timestamp(String str) {
+			this.str = str;
+			end = str.length() - lineTerminatorLength(str);
 		}
 
-		public boolean hasTime() {
-			return m.group(5) != null;
-		}
+		/**
+		 * Like the "$" regex token, a single line terminator is allowed at the
+		 * end of the string.
+		 * @param str the string
+		 * @return the length of the line terminator at the end of the string or
+		 * zero if there isn't one
+		 */
+		private static int lineTerminatorLength(String str) {
+			int length = str.length();
+			if (length == 0) {
+				return 0;
+			}
 
-		public int hour() {
-			return parseInt(5);
+			switch (str.charAt(length - 1)) {
+			case '\n':
+				return (length > 1 && str.charAt(length - 2) == '\r') ? 2 : 1;
+			case '\r':
+			case '\u0085':
+			case '\u2028':
+			case '\u2029':
+				return 1;
+			default:
+				return 0;
+			}
 		}
 
-		public int minute() {
-			return parseInt(6);
+		/**
+		 * Parses a date string.
+		 * @param str the date string
+		 * @return the parsed components or null if the string is invalid
+		 */
+		public static Timestamp parse(String str) {
+			Timestamp t = new Timestamp(str);
+			return t.parse() ? t : null;
 		}
 
-		public int second() {
-			return parseInt(7);
-		}
+		private boolean parse() {
+			if ((year = digits(4)) < 0) return false;
+			skip('-');
+			if ((month = digits(2)) < 0) return false;
+			skip('-');
+			if ((date = digits(2)) < 0) return false;
 
-		public int millisecond() {
-			if (m.group(8) == null) {
-				return 0;
+			if (atEnd()) {
+				return true;
 			}
 
-			double ms = Double.parseDouble(m.group(8)) * 1000;
-			return (int) Math.round(ms);
-		}
+			if (!skip('T')) return false;
+			hasTime = true;
+			if ((hour = digits(2)) < 0) return false;
+			skip(':');
+			if ((minute = digits(2)) < 0) return false;
+			skip(':');
+			if ((second = digits(2)) < 0) return false;
+
+			if (skip('.')) {
+				int start = pos - 1;
+				while (!atEnd() && isDigit(str.charAt(pos))) {
+					pos++;
+				}
+				if (pos - start < 2) return false;
 
-		public boolean hasOffset() {
-			return m.group(9) != null;
-		}
+				double ms = Double.parseDouble(str.substring(start, pos)) * 1000;
+				millisecond = (int) Math.round(ms);
+			}
 
-		public int offsetMillis() {
-			if (m.group(9).equals("Z")) {
-				return 0;
+			if (atEnd()) {
+				return true;
 			}
 
-			int positive = m.group(10).equals("+") ? 1 : -1;
+			hasOffset = true;
+			if (skip('Z')) {
+				return atEnd();
+			}
+
+			int sign;
+			if (skip('+')) {
+				sign = 1;
+			} else if (skip('-')) {
+				sign = -1;
+			} else {
+				return false;
+			}
 
 			int offsetHour, offsetMinute;
-			if (m.group(12) != null) {
-				offsetHour = parseInt(12);
+			if (end - pos == 2) {
+				if ((offsetHour = digits(2)) < 0) return false;
 				offsetMinute = 0;
 			} else {
-				offsetHour = parseInt(14);
-				offsetMinute = parseInt(15);
+				if ((offsetHour = digits(2)) < 0) return false;
+				skip(':');
+				if ((offsetMinute = digits(2)) < 0) return false;
+			}
+
+			offsetMillis = (offsetHour * 60 * 60 * 1000 + offsetMinute * 60 * 1000) * sign;
+			return atEnd();
+		}
+
+		/**
+		 * Reads a fixed number of digits.
+		 * @param count the number of digits to read
+		 * @return the number or -1 if there aren't enough digits
+		 */
+		private int digits(int count) {
+			if (pos + count > end) {
+				return -1;
+			}
+
+			int value = 0;
+			for (int i = 0; i < count; i++) {
+				char c = str.charAt(pos + i);
+				if (!isDigit(c)) {
+					return -1;
+				}
+				value = value * 10 + (c - '0');
 			}
+			pos += count;
+			return value;
+		}
+
+		/**
+		 * Advances past the given character if it is the next character.
+		 * @param c the character
+		 * @return true if the character was skipped, false if not
+		 */
+		private boolean skip(char c) {
+			if (!atEnd() && str.charAt(pos) == c) {
+				pos++;
+				return true;
+			}
+			return false;
+		}
 
-			return (offsetHour * 60 * 60 * 1000 + offsetMinute * 60 * 1000) * positive;
+		private boolean atEnd() {
+			return pos >= end;
 		}
 
-		private int parseInt(int group) {
-			return Integer.parseInt(m.group(group));
+		private static boolean isDigit(char c) {
+			return c >= '0' && c <= '9';
 		}
 	}
 
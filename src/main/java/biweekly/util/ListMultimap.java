@@ -62,7 +62,18 @@ import java.util.Set;
  * @param <V> the value
  */
 public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
-	private final Map<K, List<V>> map;
+	private Map<K, List<V>> map;
+
+	/**
+	 * True if the backing map is shared with another multimap and must be
+	 * copied before it is modified (see {@link #markShared}).
+	 */
+	private boolean shared = false;
+
+	/**
+	 * The stamp of the last modification (see {@link ModificationStamps}).
+	 */
+	private long modificationStamp = 0;
 
 	/**
 	 * Creates an empty multimap.
@@ -118,6 +129,7 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 	 * @param value the value to add
 	 */
 	public void put(K key, V value) {
+		unshare();
 		key = sanitizeKey(key);
 		List<V> list = map.get(key);
 		if (list == null) {
@@ -125,6 +137,7 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 			map.put(key, list);
 		}
 		list.add(value);
+		modified();
 	}
 
 	/**
@@ -137,6 +150,7 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 			return;
 		}
 
+		unshare();
 		key = sanitizeKey(key);
 		List<V> list = map.get(key);
 		if (list == null) {
@@ -144,6 +158,7 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 			map.put(key, list);
 		}
 		list.addAll(values);
+		modified();
 	}
 
 	/**
@@ -153,6 +168,8 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 	 * @return the list of values or empty list if the key doesn't exist
 	 */
 	public List<V> get(K key) {
+		//the returned list is a live view, so the map cannot be shared anymore
+		unshare();
 		key = sanitizeKey(key);
 		List<V> value = map.get(key);
 		if (value == null) {
@@ -194,6 +211,7 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 	 * @return true if the multimap contained the value, false if not
 	 */
 	public boolean remove(K key, V value) {
+		unshare();
 		key = sanitizeKey(key);
 		List<V> values = map.get(key);
 		if (values == null) {
@@ -204,6 +222,9 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 		if (values.isEmpty()) {
 			map.remove(key);
 		}
+		if (success) {
+			modified();
+		}
 		return success;
 	}
 
@@ -214,6 +235,7 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 	 * (this list is immutable)
 	 */
 	public List<V> removeAll(K key) {
+		unshare();
 		key = sanitizeKey(key);
 		List<V> removed = map.remove(key);
 		if (removed == null) {
@@ -222,6 +244,7 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 
 		List<V> unmodifiableCopy = Collections.unmodifiableList(new ArrayList<V>(removed));
 		removed.clear();
+		modified();
 		return unmodifiableCopy;
 	}
 
@@ -256,11 +279,14 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 	 * Clears all entries from the multimap.
 	 */
 	public void clear() {
+		unshare();
+
 		//clear each collection to make previously returned lists empty
 		for (List<V> value : map.values()) {
 			value.clear();
 		}
 		map.clear();
+		modified();
 	}
 
 	/**
@@ -320,13 +346,61 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 	/**
 	 * Gets the {@link Map} that backs this multimap. This method is here for
 	 * performances reasons. The returned map should NOT be modified by anything
-	 * other than the {@link ListMultimap} object that owns it.
+	 * other than the {@link ListMultimap} object that owns it (changes made to
+	 * it are not reflected in {@link #getModificationStamp}).
 	 * @return the map
 	 */
 	public Map<K, List<V>> getMap() {
 		return map;
 	}
 
+	/**
+	 * <p>
+	 * Marks the backing map as being shared with another multimap (see
+	 * {@link #ListMultimap(Map)}). The map, along with its value lists, will be
+	 * copied the first time this multimap is modified, so that the other
+	 * multimap is not affected.
+	 * </p>
+	 * <p>
+	 * Since {@link #get} returns a live view of the values, it also causes
+	 * the map to be copied.
+	 * </p>
+	 */
+	protected void markShared() {
+		shared = true;
+	}
+
+	/**
+	 * Gets the stamp of the last time this multimap was modified. This
+	 * includes changes that are made through the lists returned by
+	 * {@link #get}.
+	 * @return the stamp (see {@link ModificationStamps}) or 0 if the multimap
+	 * has not been modified since it was created
+	 */
+	public long getModificationStamp() {
+		if (modificationStamp == ModificationStamps.PENDING) {
+			modificationStamp = ModificationStamps.next();
+		}
+		return modificationStamp;
+	}
+
+	/**
+	 * Records that the multimap was modified.
+	 */
+	private void modified() {
+		modificationStamp = ModificationStamps.PENDING;
+	}
+
+	/**
+	 * Copies the backing map if it is shared with another multimap.
+	 */
+	private void unshare() {
+		if (shared) {
+			map = copy(map);
+			shared = false;
+		}
+	}
+
 	/**
 	 * Modifies a given key before it is used to interact with the internal map.
 	 * This method is meant to be overridden by child classes if necessary.
@@ -439,6 +513,9 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 			if (changed && oldSize == 0) {
 				addToMap();
 			}
+			if (changed) {
+				modified();
+			}
 			return changed;
 		}
 
@@ -449,7 +526,9 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 
 		public V set(int index, V element) {
 			refreshIfEmpty();
-			return getDelegate().set(index, element);
+			V previous = getDelegate().set(index, element);
+			modified();
+			return previous;
 		}
 
 		public void add(int index, V element) {
@@ -459,12 +538,14 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 			if (wasEmpty) {
 				addToMap();
 			}
+			modified();
 		}
 
 		public V remove(int index) {
 			refreshIfEmpty();
 			V value = getDelegate().remove(index);
 			removeIfEmpty();
+			modified();
 			return value;
 		}
 
@@ -593,6 +674,9 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 			if (changed && wasEmpty) {
 				addToMap();
 			}
+			if (changed) {
+				modified();
+			}
 			return changed;
 		}
 
@@ -612,6 +696,9 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 			if (changed && oldSize == 0) {
 				addToMap();
 			}
+			if (changed) {
+				modified();
+			}
 			return changed;
 		}
 
@@ -635,6 +722,7 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 			}
 			delegate.clear();
 			removeIfEmpty(); // maybe shouldn't be removed if this is a sublist
+			modified();
 		}
 
 		@Override
@@ -643,6 +731,7 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 			boolean changed = delegate.remove(o);
 			if (changed) {
 				removeIfEmpty();
+				modified();
 			}
 			return changed;
 		}
@@ -656,6 +745,7 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 			boolean changed = delegate.removeAll(collection);
 			if (changed) {
 				removeIfEmpty();
+				modified();
 			}
 			return changed;
 		}
@@ -666,6 +756,7 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 			boolean changed = delegate.retainAll(c);
 			if (changed) {
 				removeIfEmpty();
+				modified();
 			}
 			return changed;
 		}
@@ -701,6 +792,7 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 
 			public void set(V value) {
 				getDelegateIterator().set(value);
+				modified();
 			}
 
 			public void add(V value) {
@@ -709,6 +801,7 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 				if (wasEmpty) {
 					addToMap();
 				}
+				modified();
 			}
 
 			/**
@@ -735,6 +828,7 @@ public class ListMultimap<K, V> implements Iterable<Map.Entry<K, List<V>>> {
 			public void remove() {
 				delegateIterator.remove();
 				removeIfEmpty();
+				modified();
 			}
 
 			ListIterator<V> getDelegateIterator() {
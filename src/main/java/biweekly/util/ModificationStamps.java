@@ -0,0 +1,90 @@
+package biweekly.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * <p>
+ * Generates the modification stamps that are used to detect changes to
+ * components, properties, and parameters.
+ * </p>
+ * <p>
+ * Every time an object is modified, it is given a new stamp. Stamps come from
+ * a single, always-increasing counter, so if the latest stamp of every object
+ * in a component tree is less than or equal to a stamp that was taken earlier
+ * with {@link #current}, then none of those objects have been modified since.
+ * </p>
+ * <p>
+ * Stamps are assigned lazily. Modifying an object only marks its stamp as
+ * {@link #PENDING}, which is a plain field write. The object takes a new stamp
+ * from the counter the next time its stamp is requested. This way, objects
+ * that are modified many times in a row (for example, while they are being
+ * parsed) touch the shared counter at most once, and only if something (such
+ * as a {@link biweekly.io.WriteCache}) asks for their stamps.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ * @author Michael Angstadt
+ */
+public final class ModificationStamps {
+	private static final AtomicLong counter = new AtomicLong();
+
+	/**
+	 * Marks an object as modified without assigning it a stamp yet. The
+	 * object must replace this value with {@link #next} when its stamp is
+	 * requested.
+	 */
+	public static final long PENDING = -1;
+
+	/**
+	 * Returned by objects whose modifications cannot be detected. Since it is
+	 * greater than every other stamp, such objects are always considered to
+	 * have been modified.
+	 */
+	public static final long ALWAYS_MODIFIED = Long.MAX_VALUE;
+
+	/**
+	 * Generates a new stamp.
+	 * @return the stamp (greater than all stamps generated before it)
+	 */
+	public static long next() {
+		return counter.incrementAndGet();
+	}
+
+	/**
+	 * Gets the most recently generated stamp.
+	 * @return the stamp
+	 */
+	public static long current() {
+		return counter.get();
+	}
+
+	private ModificationStamps() {
+		//hide
+	}
+}
@@ -0,0 +1,135 @@
+package biweekly.util;
+
+import java.util.TimeZone;
+
+import biweekly.component.ICalComponent;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * A single occurrence of a component, as computed by
+ * {@link OccurrenceExpander}.
+ * @author Michael Angstadt
+ */
+public class Occurrence {
+	private final ICalComponent component;
+	private final ICalComponent override;
+	private final ICalDate recurrenceId;
+	private final ICalDate start;
+	private final ICalDate end;
+	private final TimeZone timezone;
+
+	/**
+	 * @param component the component that defines the recurrence
+	 * @param override the component that overrides this occurrence (via a
+	 * RECURRENCE-ID property) or null if the occurrence is not overridden
+	 * @param recurrenceId the original start date of the occurrence
+	 * @param start the start date of the occurrence
+	 * @param end the end date of the occurrence
+	 * @param timezone the timezone the occurrence was computed in
+	 */
+	public Occurrence(ICalComponent component, ICalComponent override, ICalDate recurrenceId, ICalDate start, ICalDate end, TimeZone timezone) {
+		this.component = component;
+		this.override = override;
+		this.recurrenceId = recurrenceId;
+		this.start = start;
+		this.end = end;
+		this.timezone = timezone;
+	}
+
+	/**
+	 * Gets the component that defines the recurrence. If the occurrence
+	 * belongs to an overriding component that has no matching recurring
+	 * component, then this is the overriding component.
+	 * @return the component
+	 */
+	public ICalComponent getComponent() {
+		return component;
+	}
+
+	/**
+	 * Gets the component that overrides this occurrence. The overriding
+	 * component has a RECURRENCE-ID property whose value is the original start
+	 * date of this occurrence.
+	 * @return the overriding component or null if the occurrence is not
+	 * overridden
+	 */
+	public ICalComponent getOverride() {
+		return override;
+	}
+
+	/**
+	 * Determines whether this occurrence is overridden by another component.
+	 * @return true if it is overridden, false if not
+	 * @see #getOverride
+	 */
+	public boolean isOverridden() {
+		return override != null;
+	}
+
+	/**
+	 * Gets the start date the occurrence has according to the recurrence
+	 * rules, before any override is applied.
+	 * @return the original start date
+	 */
+	public ICalDate getRecurrenceId() {
+		return recurrenceId;
+	}
+
+	/**
+	 * Gets the start date of the occurrence.
+	 * @return the start date
+	 */
+	public ICalDate getStart() {
+		return start;
+	}
+
+	/**
+	 * Gets the end date of the occurrence. This is computed from the
+	 * component's DTEND, DUE, or DURATION property. If the component has none
+	 * of these properties, the occurrence lasts one day if its start date does
+	 * not have a time component, and no time at all if it does.
+	 * @return the end date
+	 */
+	public ICalDate getEnd() {
+		return end;
+	}
+
+	/**
+	 * Gets the timezone that the occurrence was computed in. This is the
+	 * timezone of the component's start date, which matters when the
+	 * recurrence crosses a daylight savings boundary.
+	 * @return the timezone
+	 */
+	public TimeZone getTimezone() {
+		return timezone;
+	}
+
+	@Override
+	public String toString() {
+		return "Occurrence [start=" + start + ", end=" + end + ", recurrenceId=" + recurrenceId + ", overridden=" + isOverridden() + ", timezone=" + timezone.getID() + "]";
+	}
+}
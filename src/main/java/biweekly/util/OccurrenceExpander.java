@@ -0,0 +1,479 @@
+package biweekly.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.TimeZone;
+
+import biweekly.ICalendar;
+import biweekly.component.ICalComponent;
+import biweekly.io.TimezoneAssignment;
+import biweekly.io.TimezoneInfo;
+import biweekly.property.DateDue;
+import biweekly.property.DateEnd;
+import biweekly.property.DateStart;
+import biweekly.property.DurationProperty;
+import biweekly.property.RecurrenceId;
+import biweekly.property.Uid;
+import biweekly.property.ValuedProperty;
+import biweekly.util.com.google.ical.compat.javautil.DateIterator;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * <p>
+ * Computes the occurrences of a set of components that fall within a given
+ * time window. Recurrence rules, recurrence dates, and exceptions are
+ * applied, as are the components that override individual occurrences (via
+ * RECURRENCE-ID properties).
+ * </p>
+ * <p>
+ * The occurrences of all components are merged into a single sequence that is
+ * sorted by start date. Each component's recurrence iterator is advanced
+ * directly to the start of the window, so the occurrences that come before
+ * the window are skipped instead of computed.
+ * </p>
+ * <p>
+ * <b>Example:</b>
+ * </p>
+ * 
+ * <pre class="brush:java">
+ * ICalendar ical = ...
+ * OccurrenceExpander expander = new OccurrenceExpander();
+ * expander.add(ical);
+ * 
+ * for (Occurrence occurrence : expander.between(weekStart, weekEnd)) {
+ *   VEvent event = (VEvent)occurrence.getComponent();
+ *   Date start = occurrence.getStart();
+ *   //...
+ * }
+ * </pre>
+ * <p>
+ * Components without a DTSTART property are ignored. The RANGE parameter of
+ * RECURRENCE-ID properties is not supported, so each overriding component
+ * only replaces the single occurrence it refers to.
+ * </p>
+ * @author Michael Angstadt
+ */
+public class OccurrenceExpander {
+	private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+	private static final long ONE_DAY = 24L * 60 * 60 * 1000;
+
+	private final List<Series> series = new ArrayList<Series>();
+
+	/**
+	 * Adds the VEVENT and VTODO components of an iCalendar object.
+	 * @param ical the iCalendar object
+	 * @return this
+	 */
+	public OccurrenceExpander add(ICalendar ical) {
+		List<ICalComponent> components = new ArrayList<ICalComponent>();
+		components.addAll(ical.getEvents());
+		components.addAll(ical.getTodos());
+		return add(components, ical.getTimezoneInfo());
+	}
+
+	/**
+	 * Adds the VEVENT and VTODO components of multiple iCalendar objects.
+	 * @param icals the iCalendar objects
+	 * @return this
+	 */
+	public OccurrenceExpander addAll(Collection<ICalendar> icals) {
+		for (ICalendar ical : icals) {
+			add(ical);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds a list of components (such as VEVENT or VTODO components).
+	 * Components that have a RECURRENCE-ID property override the occurrences
+	 * of the component in this list that has the same UID. An overriding
+	 * component is ignored if its RECURRENCE-ID does not identify an occurrence
+	 * of that component (for example, if the occurrence was excluded by an
+	 * EXDATE property). If there is no component with the same UID, the
+	 * overriding component is treated as a standalone component.
+	 * @param components the components
+	 * @param tzinfo the timezone settings of the iCalendar object the
+	 * components belong to or null if not known (date values that are not in
+	 * UTC will then be treated as if they were in the local timezone)
+	 * @return this
+	 */
+	public OccurrenceExpander add(Collection<? extends ICalComponent> components, TimezoneInfo tzinfo) {
+		Map<String, Series> byUid = new HashMap<String, Series>();
+		Map<String, List<ICalComponent>> overridesByUid = new LinkedHashMap<String, List<ICalComponent>>();
+
+		for (ICalComponent component : components) {
+			String uid = ValuedProperty.getValue(component.getProperty(Uid.class));
+			boolean isOverride = component.getProperty(RecurrenceId.class) != null;
+
+			if (isOverride) {
+				List<ICalComponent> overrides = overridesByUid.get(uid);
+				if (overrides == null) {
+					overrides = new ArrayList<ICalComponent>();
+					overridesByUid.put(uid, overrides);
+				}
+				overrides.add(component);
+				continue;
+			}
+
+			Series s = Series.create(component, tzinfo);
+			if (s == null) {
+				continue;
+			}
+
+			series.add(s);
+			if (uid != null) {
+				byUid.put(uid, s);
+			}
+		}
+
+		for (Map.Entry<String, List<ICalComponent>> entry : overridesByUid.entrySet()) {
+			Series master = (entry.getKey() == null) ? null : byUid.get(entry.getKey());
+			for (ICalComponent override : entry.getValue()) {
+				Series s = Series.create(override, tzinfo);
+				if (s == null) {
+					continue;
+				}
+
+				if (master == null) {
+					//there is no recurring component to override, so treat it as a standalone component
+					series.add(s);
+					continue;
+				}
+
+				ICalDate recurrenceId = ValuedProperty.getValue(override.getProperty(RecurrenceId.class));
+				if (recurrenceId != null && master.isOccurrence(recurrenceId.getTime())) {
+					master.overrides.put(recurrenceId.getTime(), s);
+				}
+			}
+		}
+
+		return this;
+	}
+
+	/**
+	 * Gets all occurrences that overlap the given time window.
+	 * @param start the start of the window (inclusive)
+	 * @param end the end of the window (exclusive)
+	 * @return the occurrences, sorted by start date
+	 */
+	public List<Occurrence> between(Date start, Date end) {
+		List<Occurrence> occurrences = new ArrayList<Occurrence>();
+		Iterator<Occurrence> it = iterator(start, end);
+		while (it.hasNext()) {
+			occurrences.add(it.next());
+		}
+		return occurrences;
+	}
+
+	/**
+	 * <p>
+	 * Creates an iterator that lazily computes all occurrences that overlap
+	 * the given time window.
+	 * </p>
+	 * <p>
+	 * An occurrence overlaps the window if it starts before the end of the
+	 * window and ends after the start of the window. An occurrence with no
+	 * duration overlaps the window if it starts within the window.
+	 * </p>
+	 * @param start the start of the window (inclusive)
+	 * @param end the end of the window (exclusive)
+	 * @return the iterator (the occurrences are sorted by start date)
+	 */
+	public Iterator<Occurrence> iterator(Date start, Date end) {
+		return new MergingIterator(series, start.getTime(), end.getTime());
+	}
+
+	/**
+	 * A component, along with the components that override its occurrences.
+	 */
+	private static class Series {
+		private final ICalComponent component;
+		private final ICalDate start;
+		private final long duration;
+		private final TimeZone timezone;
+		private final Map<Long, Series> overrides = new HashMap<Long, Series>();
+
+		private Series(ICalComponent component, ICalDate start, long duration, TimeZone timezone) {
+			this.component = component;
+			this.start = start;
+			this.duration = duration;
+			this.timezone = timezone;
+		}
+
+		/**
+		 * @param component the component
+		 * @param tzinfo the timezone settings or null if not known
+		 * @return the series or null if the component does not have a start
+		 * date
+		 */
+		static Series create(ICalComponent component, TimezoneInfo tzinfo) {
+			DateStart dtstart = component.getProperty(DateStart.class);
+			ICalDate start = ValuedProperty.getValue(dtstart);
+			if (start == null) {
+				return null;
+			}
+
+			TimeZone timezone = timezone(dtstart, start, tzinfo);
+			long duration = duration(component, start);
+			return new Series(component, start, duration, timezone);
+		}
+
+		/**
+		 * Determines the timezone that a start date is in.
+		 */
+		private static TimeZone timezone(DateStart dtstart, ICalDate start, TimezoneInfo tzinfo) {
+			if (!start.hasTime()) {
+				//dates without times are always parsed under the local timezone
+				return TimeZone.getDefault();
+			}
+
+			if (tzinfo != null) {
+				if (tzinfo.isFloating(dtstart)) {
+					return TimeZone.getDefault();
+				}
+
+				TimezoneAssignment assignment = tzinfo.getTimezoneToWriteIn(dtstart);
+				if (assignment != null) {
+					return assignment.getTimeZone();
+				}
+			}
+
+			DateTimeComponents raw = start.getRawComponents();
+			return (raw != null && raw.isUtc()) ? UTC : TimeZone.getDefault();
+		}
+
+		/**
+		 * Determines how long each occurrence of a component lasts.
+		 */
+		private static long duration(ICalComponent component, ICalDate start) {
+			ICalDate end = ValuedProperty.getValue(component.getProperty(DateEnd.class));
+			if (end == null) {
+				end = ValuedProperty.getValue(component.getProperty(DateDue.class));
+			}
+			if (end != null) {
+				return Math.max(end.getTime() - start.getTime(), 0);
+			}
+
+			Duration duration = ValuedProperty.getValue(component.getProperty(DurationProperty.class));
+			if (duration != null) {
+				return Math.max(duration.add(start).getTime() - start.getTime(), 0);
+			}
+
+			return start.hasTime() ? 0 : ONE_DAY;
+		}
+
+		/**
+		 * Determines if an occurrence of this series starts at the given time.
+		 * Occurrences that are excluded by EXDATE or EXRULE properties are not
+		 * counted.
+		 * @param time the start time
+		 * @return true if an occurrence starts at the given time, false if not
+		 */
+		boolean isOccurrence(long time) {
+			DateIterator dates = Google2445Utils.getDateIterator(component, timezone);
+			dates.advanceTo(new Date(time));
+			return dates.hasNext() && dates.next().getTime() == time;
+		}
+
+		/**
+		 * Creates an occurrence of this series.
+		 * @param recurrenceStart the start date of the occurrence
+		 * @param override the overriding series or null if not overridden
+		 * @return the occurrence
+		 */
+		Occurrence occurrence(long recurrenceStart, Series override) {
+			ICalDate recurrenceId = new ICalDate(new Date(recurrenceStart), start.hasTime());
+			if (override == null) {
+				ICalDate end = new ICalDate(new Date(recurrenceStart + duration), start.hasTime());
+				return new Occurrence(component, null, recurrenceId, recurrenceId, end, timezone);
+			}
+
+			ICalDate end = new ICalDate(new Date(override.start.getTime() + override.duration), override.start.hasTime());
+			return new Occurrence(component, override.component, recurrenceId, override.start, end, override.timezone);
+		}
+	}
+
+	/**
+	 * Computes the occurrences of a single series that overlap the window, in
+	 * start date order.
+	 */
+	private static class SeriesIterator {
+		private final Series series;
+		private final long windowStart, windowEnd;
+		private final DateIterator dates;
+		private final List<Occurrence> movedIn = new ArrayList<Occurrence>();
+		private final long order;
+		private boolean pastWindow = false;
+		private Occurrence next;
+
+		SeriesIterator(Series series, long windowStart, long windowEnd, long order) {
+			this.series = series;
+			this.windowStart = windowStart;
+			this.windowEnd = windowEnd;
+			this.order = order;
+
+			dates = Google2445Utils.getDateIterator(series.component, series.timezone);
+
+			/*
+			 * Skip ahead to the first occurrence that could overlap the
+			 * window. Occurrences that start before the window may still
+			 * overlap it.
+			 */
+			dates.advanceTo(new Date(windowStart - series.duration));
+
+			/*
+			 * An overriding component can move an occurrence into the window
+			 * from anywhere in the recurrence set, so the overridden
+			 * occurrences are computed up front.
+			 */
+			for (Map.Entry<Long, Series> entry : series.overrides.entrySet()) {
+				Series override = entry.getValue();
+				if (overlaps(override.start.getTime(), override.duration)) {
+					movedIn.add(series.occurrence(entry.getKey(), override));
+				}
+			}
+
+			computeNext();
+		}
+
+		/**
+		 * Moves to the next occurrence, setting {@link #next} to null if there
+		 * are no more.
+		 */
+		void computeNext() {
+			Occurrence candidate = null;
+			while (candidate == null && !pastWindow && dates.hasNext()) {
+				long start = dates.next().getTime();
+				if (start >= windowEnd) {
+					//stop computing the recurrence (it may be infinite)
+					pastWindow = true;
+					break;
+				}
+
+				if (!overlaps(start, series.duration)) {
+					continue;
+				}
+
+				if (series.overrides.containsKey(start)) {
+					//overridden occurrences were computed up front
+					continue;
+				}
+
+				candidate = series.occurrence(start, null);
+			}
+
+			//merge in the overridden occurrences
+			if (!movedIn.isEmpty()) {
+				int earliest = 0;
+				for (int i = 1; i < movedIn.size(); i++) {
+					if (movedIn.get(i).getStart().getTime() < movedIn.get(earliest).getStart().getTime()) {
+						earliest = i;
+					}
+				}
+
+				Occurrence moved = movedIn.get(earliest);
+				if (candidate == null || moved.getStart().getTime() < candidate.getStart().getTime()) {
+					if (candidate != null) {
+						//hold onto the candidate until the next call
+						movedIn.add(candidate);
+					}
+					movedIn.remove(earliest);
+					candidate = moved;
+				}
+			}
+
+			next = candidate;
+		}
+
+		private boolean overlaps(long start, long duration) {
+			if (duration == 0) {
+				return start >= windowStart && start < windowEnd;
+			}
+			return start < windowEnd && start + duration > windowStart;
+		}
+	}
+
+	/**
+	 * Merges the occurrences of multiple series using a priority queue.
+	 */
+	private static class MergingIterator implements Iterator<Occurrence> {
+		private final PriorityQueue<SeriesIterator> queue;
+
+		MergingIterator(List<Series> series, long windowStart, long windowEnd) {
+			queue = new PriorityQueue<SeriesIterator>(Math.max(series.size(), 1), new Comparator<SeriesIterator>() {
+				public int compare(SeriesIterator a, SeriesIterator b) {
+					int result = a.next.getStart().compareTo(b.next.getStart());
+					if (result != 0) {
+						return result;
+					}
+
+					//keep the components in the order they were added
+					return (a.order < b.order) ? -1 : ((a.order == b.order) ? 0 : 1);
+				}
+			});
+
+			long order = 0;
+			for (Series s : series) {
+				SeriesIterator it = new SeriesIterator(s, windowStart, windowEnd, order++);
+				if (it.next != null) {
+					queue.add(it);
+				}
+			}
+		}
+
+		public boolean hasNext() {
+			return !queue.isEmpty();
+		}
+
+		public Occurrence next() {
+			SeriesIterator it = queue.poll();
+			if (it == null) {
+				throw new NoSuchElementException();
+			}
+
+			Occurrence occurrence = it.next;
+			it.computeNext();
+			if (it.next != null) {
+				queue.add(it);
+			}
+			return occurrence;
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -102,6 +102,31 @@ public final class StringUtils {
 		return str.substring(0, prefix.length()).equalsIgnoreCase(prefix);
 	}
 
+	/**
+	 * Converts a string to a form that can be used as a case-insensitive hash
+	 * key. Two strings produce equal keys if and only if they are equal
+	 * according to {@link String#equalsIgnoreCase}.
+	 * @param str the string
+	 * @return the key
+	 */
+	public static String caseInsensitiveKey(String str) {
+		char[] chars = null;
+		for (int i = 0; i < str.length(); i++) {
+			char c = str.charAt(i);
+			char folded = Character.toLowerCase(Character.toUpperCase(c));
+			if (c == folded) {
+				continue;
+			}
+
+			if (chars == null) {
+				chars = str.toCharArray();
+			}
+			chars[i] = folded;
+		}
+
+		return (chars == null) ? str : new String(chars);
+	}
+
 	/**
 	 * Joins a collection of values into a delimited list.
 	 * @param collection the collection of values
@@ -18,6 +18,7 @@ import javax.xml.namespace.QName;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
@@ -228,6 +229,30 @@ public final class XmlUtils {
 		}
 	}
 
+	/**
+	 * Configures a {@link XMLInputFactory} to protect it against XML External
+	 * Entity attacks.
+	 * @param factory the factory
+	 * @see <a href=
+	 * "https://www.owasp.org/index.php/XML_External_Entity_%28XXE%29_Prevention_Cheat_Sheet#Java">
+	 * XXE Cheat Sheet</a>
+	 */
+	public static void applyXXEProtection(XMLInputFactory factory) {
+		Map<String, Boolean> properties = new HashMap<String, Boolean>();
+		properties.put(XMLInputFactory.SUPPORT_DTD, false);
+		properties.put(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+		for (Map.Entry<String, Boolean> entry : properties.entrySet()) {
+			String property = entry.getKey();
+			Boolean value = entry.getValue();
+			try {
+				factory.setProperty(property, value);
+			} catch (IllegalArgumentException e) {
+				//property is not supported by the local XML engine, skip it
+			}
+		}
+	}
+
 	/**
 	 * Converts an XML node to a string.
 	 * @param node the XML node
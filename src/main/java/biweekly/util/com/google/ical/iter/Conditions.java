@@ -55,11 +55,12 @@ final class Conditions {
 	 * @return the condition
 	 */
 	static Predicate<DateValue> countCondition(final int count) {
-		return new Predicate<DateValue>() {
+		return new Condition() {
 			private static final long serialVersionUID = -3770774958208833665L;
 			int count_ = count;
 
-			public boolean apply(DateValue value) {
+			@Override
+			boolean apply(long comparable) {
 				return --count_ >= 0;
 			}
 
@@ -77,11 +78,13 @@ final class Conditions {
 	 * @return the condition
 	 */
 	static Predicate<DateValue> untilCondition(final DateValue until) {
-		return new Predicate<DateValue>() {
+		final long untilComparable = DateValueComparison.comparable(until);
+		return new Condition() {
 			private static final long serialVersionUID = -130394842437801858L;
 
-			public boolean apply(DateValue date) {
-				return date.compareTo(until) <= 0;
+			@Override
+			boolean apply(long comparable) {
+				return comparable <= untilComparable;
 			}
 
 			@Override
@@ -91,6 +94,47 @@ final class Conditions {
 		};
 	}
 
+	/**
+	 * Constructs a condition that passes all dates.
+	 * @return the condition
+	 */
+	static Predicate<DateValue> alwaysTrue() {
+		return new Condition() {
+			private static final long serialVersionUID = 7826424405283425591L;
+
+			@Override
+			boolean apply(long comparable) {
+				return true;
+			}
+
+			@Override
+			public String toString() {
+				return "AlwaysTrue";
+			}
+		};
+	}
+
+	/**
+	 * A condition that can be tested against a date in its packed form (see
+	 * {@link DateValueComparison}), which saves {@link RRuleIteratorImpl} from
+	 * having to create a {@link DateValue} object for every date it tests.
+	 */
+	static abstract class Condition implements Predicate<DateValue> {
+		private static final long serialVersionUID = 2524387312540939011L;
+
+		/**
+		 * Tests a date.
+		 * @param comparable the date, as returned by
+		 * {@link DateValueComparison#comparable}
+		 * @return true if the date passes, false if not
+		 */
+		abstract boolean apply(long comparable);
+
+		public boolean apply(DateValue value) {
+			return apply(DateValueComparison.comparable(value));
+		}
+	}
+
 	private Conditions() {
 		//uninstantiable
 	}
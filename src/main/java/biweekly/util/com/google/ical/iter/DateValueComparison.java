@@ -39,6 +39,9 @@
 
 package biweekly.util.com.google.ical.iter;
 
+import biweekly.util.com.google.ical.util.DTBuilder;
+import biweekly.util.com.google.ical.util.TimeUtils;
+import biweekly.util.com.google.ical.values.DateTimeValueImpl;
 import biweekly.util.com.google.ical.values.DateValue;
 import biweekly.util.com.google.ical.values.DateValueImpl;
 import biweekly.util.com.google.ical.values.TimeValue;
@@ -122,6 +125,111 @@ final class DateValueComparison {
     return comp << 17;
   }
 
+  /**
+   * Reduces a set of date fields to a comparable value. This produces the same
+   * value as {@link #comparable(DateValue)} would for a {@link DateValue}
+   * object with the same fields, but without having to create the object.
+   * @param year the year
+   * @param month the month (1-12)
+   * @param day the day of the month
+   * @param hour the hour (ignored if {@code hasTime} is false)
+   * @param minute the minute (ignored if {@code hasTime} is false)
+   * @param second the second (ignored if {@code hasTime} is false)
+   * @param hasTime true if the value has a time component, false if not
+   * @return the value to use for comparisons
+   */
+  static long comparable(int year, int month, int day, int hour, int minute, int second, boolean hasTime) {
+    long comp = ((((long) year << 4) + month) << 5) + day;
+    if (hasTime) {
+      return (((((comp << 5) + hour) << 6) + minute) << 6) + second + 1;
+    }
+    return comp << 17;
+  }
+
+  /**
+   * Reduces the contents of a builder to a comparable value. The builder is
+   * normalized first.
+   * @param builder the builder
+   * @param hasTime true to include the builder's time fields, false to treat
+   * it as a date
+   * @return the value to use for comparisons
+   */
+  static long comparable(DTBuilder builder, boolean hasTime) {
+    builder.normalize();
+    return comparable(builder.year, builder.month, builder.day, builder.hour, builder.minute, builder.second, hasTime);
+  }
+
+  /**
+   * The first instant of the Gregorian calendar, as used by
+   * {@link java.util.GregorianCalendar}. Before this, the JDK switches to the
+   * Julian calendar.
+   */
+  private static final long GREGORIAN_CUTOVER_MILLIS = -12219292800000L;
+
+  private static final long SECS_PER_DAY = 60L * 60 * 24;
+
+  /**
+   * The number of seconds between the Dershowitz/Reingold epoch and
+   * 1970-01-01.
+   */
+  private static final long UNIX_EPOCH_SECS = TimeUtils.fixedFromGregorian(1970, 1, 1) * SECS_PER_DAY;
+
+  /**
+   * Reduces a UTC instant to a comparable date-time value without creating a
+   * {@link java.util.Calendar} object (unless the instant comes before the
+   * Gregorian cutover).
+   * @param millis the number of milliseconds since 1970-01-01 UTC
+   * @return the value to use for comparisons
+   */
+  static long comparableUtc(long millis) {
+    if (millis < GREGORIAN_CUTOVER_MILLIS) {
+      return comparable(TimeUtils.toDateTimeValue(millis, TimeUtils.utcTimezone()));
+    }
+
+    long secs = millis / 1000;
+    if (millis % 1000 < 0) {
+      secs--;
+    }
+    secs += UNIX_EPOCH_SECS;
+
+    int secsInDay = (int) (secs % SECS_PER_DAY);
+    int days = (int) (secs / SECS_PER_DAY);
+    int approx = (int) ((days + 10) * 400L / 146097);
+    int year = (days >= TimeUtils.fixedFromGregorian(approx + 1, 1, 1)) ? approx + 1 : approx;
+    int priorDays = days - TimeUtils.fixedFromGregorian(year, 1, 1);
+    int correction = (days < TimeUtils.fixedFromGregorian(year, 3, 1)) ? 0 : TimeUtils.isLeapYear(year) ? 1 : 2;
+    int month = (12 * (priorDays + correction) + 373) / 367;
+    int day = days - TimeUtils.fixedFromGregorian(year, month, 1) + 1;
+
+    int second = secsInDay % 60;
+    int minutesInDay = secsInDay / 60;
+    return comparable(year, month, day, minutesInDay / 60, minutesInDay % 60, second, true);
+  }
+
+  /**
+   * Converts a value created by one of the {@code comparable} methods back to
+   * a {@link DateValue} object.
+   * @param comparable the comparable value
+   * @return the date value (a {@link TimeValue} if the value has a time
+   * component)
+   */
+  static DateValue toDateValue(long comparable) {
+    int time = (int) (comparable & 0x1ffff);
+    long comp = comparable >> 17;
+    int day = (int) (comp & 0x1f);
+    int month = (int) ((comp >> 5) & 0xf);
+    int year = (int) (comp >> 9);
+    if (time == 0) {
+      return new DateValueImpl(year, month, day);
+    }
+
+    time--;
+    int second = time & 0x3f;
+    int minute = (time >> 6) & 0x3f;
+    int hour = time >> 12;
+    return new DateTimeValueImpl(year, month, day, hour, minute, second);
+  }
+
   private DateValueComparison() {
     //uninstantiable
   }
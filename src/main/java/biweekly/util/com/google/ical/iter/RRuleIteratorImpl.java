@@ -39,17 +39,26 @@
 
 package biweekly.util.com.google.ical.iter;
 
+import java.util.Calendar;
+import java.util.GregorianCalendar;
 import java.util.TimeZone;
 
 import biweekly.util.com.google.ical.util.DTBuilder;
 import biweekly.util.com.google.ical.util.Predicate;
 import biweekly.util.com.google.ical.util.TimeUtils;
 import biweekly.util.com.google.ical.values.DateValue;
-import biweekly.util.com.google.ical.values.DateValueImpl;
 import biweekly.util.com.google.ical.values.TimeValue;
 
 /**
+ * <p>
  * Iterates over dates in an RRULE or EXRULE series.
+ * </p>
+ * <p>
+ * Internally, dates are held in their packed form (see
+ * {@link DateValueComparison}) and {@link DateValue} objects are only created
+ * when they are returned from {@link #next}. This keeps the number of objects
+ * that are created per instance to a minimum.
+ * </p>
  * @author mikesamuel+svn@gmail.com (Mike Samuel)
  * @author Michael Angstadt
  */
@@ -60,6 +69,12 @@ final class RRuleIteratorImpl implements RecurrenceIterator {
 	 */
 	private final Predicate<? super DateValue> condition;
 
+	/**
+	 * The same object as {@link #condition} if it can test packed dates, null
+	 * if not.
+	 */
+	private final Conditions.Condition packedCondition;
+
 	/**
 	 * Applies the various period generators to generate an entire date. This
 	 * may involve generating a set of dates and discarding all but those that
@@ -80,9 +95,15 @@ final class RRuleIteratorImpl implements RecurrenceIterator {
 	private final Generator monthGenerator;
 
 	/**
-	 * A date that has been computed but not yet yielded to the user.
+	 * Used to represent the absence of a packed date.
+	 */
+	private static final long NONE = Long.MIN_VALUE;
+
+	/**
+	 * A date that has been computed but not yet yielded to the user (packed),
+	 * or {@link #NONE}.
 	 */
-	private DateValue pendingUtc;
+	private long pendingUtc = NONE;
 
 	/**
 	 * Used to build successive dates. At the start of the building process,
@@ -97,9 +118,10 @@ final class RRuleIteratorImpl implements RecurrenceIterator {
 	private boolean done;
 
 	/**
-	 * The start date of the recurrence.
+	 * True if the start date of the recurrence has a time component, false if
+	 * not.
 	 */
-	private final DateValue dtStart;
+	private final boolean hasTime;
 
 	/**
 	 * False iff shortcutting advance would break the semantics of the
@@ -115,6 +137,12 @@ final class RRuleIteratorImpl implements RecurrenceIterator {
 	 */
 	private final TimeZone tzid;
 
+	/**
+	 * Used to convert local date-times to UTC. Reused for every conversion.
+	 * Null if no conversion is needed.
+	 */
+	private final Calendar calendar;
+
 	/**
 	 * Creates the iterator.
 	 * @param dtStart the start date of the recurrence
@@ -134,11 +162,13 @@ final class RRuleIteratorImpl implements RecurrenceIterator {
 	RRuleIteratorImpl(DateValue dtStart, TimeZone tzid, Predicate<? super DateValue> condition, Generator instanceGenerator, ThrottledGenerator yearGenerator, Generator monthGenerator, Generator dayGenerator, Generator hourGenerator, Generator minuteGenerator, Generator secondGenerator, boolean canShortcutAdvance) {
 
 		this.condition = condition;
+		this.packedCondition = (condition instanceof Conditions.Condition) ? (Conditions.Condition) condition : null;
 		this.instanceGenerator = instanceGenerator;
 		this.yearGenerator = yearGenerator;
 		this.monthGenerator = monthGenerator;
-		this.dtStart = dtStart;
+		this.hasTime = dtStart instanceof TimeValue;
 		this.tzid = tzid;
+		this.calendar = (hasTime && tzid != null && !tzid.hasSameRules(TimeUtils.utcTimezone())) ? new GregorianCalendar(tzid) : null;
 		this.canShortcutAdvance = canShortcutAdvance;
 
 		int initWorkLimit = 1000;
@@ -182,21 +212,22 @@ final class RRuleIteratorImpl implements RecurrenceIterator {
 			done = true;
 		}
 
+		long dtStartUtc = hasTime ? toUtc(new DTBuilder(dtStart)) : DateValueComparison.comparable(dtStart);
 		while (!done) {
 			pendingUtc = generateInstance();
-			if (pendingUtc == null) {
+			if (pendingUtc == NONE) {
 				done = true;
 				break;
 			}
 
-			if (pendingUtc.compareTo(TimeUtils.toUtc(dtStart, tzid)) >= 0) {
+			if (pendingUtc >= dtStartUtc) {
 				/*
 				 * We only apply the condition to the ones past dtStart to avoid
 				 * counting useless instances.
 				 */
-				if (!condition.apply(pendingUtc)) {
+				if (!test(pendingUtc)) {
 					done = true;
-					pendingUtc = null;
+					pendingUtc = NONE;
 				}
 				break;
 			}
@@ -209,18 +240,21 @@ final class RRuleIteratorImpl implements RecurrenceIterator {
 	}
 
 	public boolean hasNext() {
-		if (pendingUtc == null) {
+		if (pendingUtc == NONE) {
 			fetchNext();
 		}
-		return pendingUtc != null;
+		return pendingUtc != NONE;
 	}
 
 	public DateValue next() {
-		if (pendingUtc == null) {
+		if (pendingUtc == NONE) {
 			fetchNext();
 		}
-		DateValue next = pendingUtc;
-		pendingUtc = null;
+		if (pendingUtc == NONE) {
+			return null;
+		}
+		DateValue next = DateValueComparison.toDateValue(pendingUtc);
+		pendingUtc = NONE;
 		return next;
 	}
 
@@ -233,18 +267,19 @@ final class RRuleIteratorImpl implements RecurrenceIterator {
 		 * Don't throw away a future pending date since the iterators will not
 		 * generate it again.
 		 */
-		if (pendingUtc != null && dateUtc.compareTo(pendingUtc) <= 0) {
+		long targetUtc = DateValueComparison.comparable(dateUtc);
+		if (pendingUtc != NONE && targetUtc <= pendingUtc) {
 			return;
 		}
 
 		DateValue dateLocal = TimeUtils.fromUtc(dateUtc, tzid);
 
 		//short-circuit if we're already past dateUtc
-		if (dateLocal.compareTo(builder.toDate()) <= 0) {
+		if (DateValueComparison.comparable(dateLocal) <= DateValueComparison.comparable(builder, false)) {
 			return;
 		}
 
-		pendingUtc = null;
+		pendingUtc = NONE;
 
 		try {
 			if (canShortcutAdvance) {
@@ -283,18 +318,18 @@ final class RRuleIteratorImpl implements RecurrenceIterator {
 
 			//consume any remaining instances
 			while (!done) {
-				DateValue dUtc = generateInstance();
-				if (dUtc == null) {
+				long dUtc = generateInstance();
+				if (dUtc == NONE) {
 					done = true;
 					return;
 				}
 
-				if (!condition.apply(dUtc)) {
+				if (!test(dUtc)) {
 					done = true;
 					return;
 				}
 
-				if (dUtc.compareTo(dateUtc) >= 0) {
+				if (dUtc >= targetUtc) {
 					pendingUtc = dUtc;
 					break;
 				}
@@ -306,14 +341,14 @@ final class RRuleIteratorImpl implements RecurrenceIterator {
 
 	/** calculates and stored the next date in this recurrence. */
 	private void fetchNext() {
-		if (pendingUtc != null || done) {
+		if (pendingUtc != NONE || done) {
 			return;
 		}
 
-		DateValue dUtc = generateInstance();
+		long dUtc = generateInstance();
 
 		//check the exit condition
-		if (dUtc == null || !condition.apply(dUtc)) {
+		if (dUtc == NONE || !test(dUtc)) {
 			done = true;
 			return;
 		}
@@ -322,33 +357,61 @@ final class RRuleIteratorImpl implements RecurrenceIterator {
 		yearGenerator.workDone();
 	}
 
-	private static final DateValue MIN_DATE = new DateValueImpl(Integer.MIN_VALUE, 1, 1);
-
 	/**
 	 * Make sure the iterator is monotonically increasing. The local time is
 	 * guaranteed to be monotonic, but because of daylight savings shifts, the
 	 * time in UTC may not be.
 	 */
-	private DateValue lastUtc_ = MIN_DATE;
+	private long lastUtc_ = NONE;
 
 	/**
 	 * Generates a date.
-	 * @return a date value in UTC or null if a date value could not be
-	 * generated
+	 * @return the packed date value in UTC or {@link #NONE} if a date value
+	 * could not be generated
 	 */
-	private DateValue generateInstance() {
+	private long generateInstance() {
 		try {
 			do {
 				if (!instanceGenerator.generate(builder)) {
-					return null;
+					return NONE;
 				}
-				DateValue dUtc = dtStart instanceof TimeValue ? TimeUtils.toUtc(builder.toDateTime(), tzid) : builder.toDate();
-				if (dUtc.compareTo(lastUtc_) > 0) {
+				long dUtc = hasTime ? toUtc(builder) : DateValueComparison.comparable(builder, false);
+				if (dUtc > lastUtc_) {
 					return dUtc;
 				}
 			} while (true);
 		} catch (Generator.IteratorShortCircuitingException ex) {
-			return null;
+			return NONE;
+		}
+	}
+
+	/**
+	 * Converts the date-time in the given builder from local time to UTC.
+	 * Behaves the same way as {@link TimeUtils#toUtc}, but without creating
+	 * any objects.
+	 * @param builder the builder (will be normalized)
+	 * @return the packed date-time value in UTC
+	 */
+	private long toUtc(DTBuilder builder) {
+		long local = DateValueComparison.comparable(builder, true);
+		if (calendar == null || builder.year == 0) {
+			return local;
+		}
+
+		calendar.clear();
+		calendar.set(builder.year, builder.month - 1, builder.day, builder.hour, builder.minute, builder.second);
+		return DateValueComparison.comparableUtc(calendar.getTimeInMillis());
+	}
+
+	/**
+	 * Tests a date against the condition.
+	 * @param dUtc the packed date value in UTC
+	 * @return the result of the condition
+	 */
+	private boolean test(long dUtc) {
+		if (packedCondition != null) {
+			return packedCondition.apply(dUtc);
 		}
+		return condition.apply(DateValueComparison.toDateValue(dUtc));
 	}
 }
@@ -449,7 +449,7 @@ public class RecurrenceIteratorFactory {
 			}
 			condition = Conditions.untilCondition(untilUtc);
 		} else {
-			condition = Predicates.alwaysTrue();
+			condition = Conditions.alwaysTrue();
 		}
 
 		//combine filters into a single function
@@ -16,6 +16,8 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Rule;
 import org.junit.Test;
@@ -30,10 +32,12 @@ import biweekly.io.ParseWarning;
 import biweekly.io.WriteContext;
 import biweekly.io.scribe.component.ICalComponentScribe;
 import biweekly.io.scribe.property.ICalPropertyScribe;
+import biweekly.io.scribe.property.SkipMeScribe;
 import biweekly.io.xml.XCalElement;
 import biweekly.parameter.ICalParameters;
 import biweekly.property.ICalProperty;
 import biweekly.property.ProductId;
+import biweekly.property.SkipMeProperty;
 import biweekly.util.XmlUtils;
 
 /*
@@ -163,6 +167,109 @@ public class BiweeklyTest {
 		assertEquals("the ^'best^' app", ical.getProductId().getParameter("X-TEST"));
 	}
 
+	@Test
+	public void parse_parallel() throws Throwable {
+		//@formatter:off
+		String icalStr =
+		"ignored\r\n" +
+		"BEGIN:VCALENDAR\r\n" +
+		"VERSION:2.0\r\n" +
+		"PRODID:one\r\n" +
+		"BEGIN:VEVENT\r\n" +
+		"DTSTART:invalid\r\n" +
+		"END:VEVENT\r\n" +
+		"end:vcalendar \r\n" +
+		"BEGIN:VCALENDAR\r\n" +
+		"VERSION:2.0\r\n" +
+		"PRODID:two\r\n" +
+		"X-FOLDED:value\r\n" +
+		" END:VCALENDAR\r\n" +
+		"END:VCALENDAR\r\n" +
+		"BEGIN:VCALENDAR\r\n" +
+		"VERSION:2.0\r\n" +
+		"PRODID:three\r\n" +
+		"END:VCALENDAR\r\n";
+		//@formatter:on
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			List<List<ParseWarning>> warnings = new ArrayList<List<ParseWarning>>();
+			List<ICalendar> icals = Biweekly.parse(icalStr).warnings(warnings).parallel(executor).all();
+
+			assertEquals(3, icals.size());
+			assertEquals("one", icals.get(0).getProductId().getValue());
+			assertEquals("two", icals.get(1).getProductId().getValue());
+			assertEquals("valueEND:VCALENDAR", icals.get(1).getExperimentalProperty("X-FOLDED").getValue());
+			assertEquals("three", icals.get(2).getProductId().getValue());
+
+			List<List<ParseWarning>> expectedWarnings = new ArrayList<List<ParseWarning>>();
+			List<ICalendar> expected = Biweekly.parse(icalStr).warnings(expectedWarnings).all();
+			assertEquals(expected, icals);
+			assertEquals(expectedWarnings.toString(), warnings.toString());
+			assertEquals(1, warnings.get(0).size());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void parse_parallel_many() throws Throwable {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 200; i++) {
+			sb.append("BEGIN:VCALENDAR\r\n");
+			sb.append("PRODID:").append(i).append("\r\n");
+			sb.append("SKIPME:value\r\n");
+			sb.append("END:VCALENDAR\r\n");
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<ICalendar> icals = Biweekly.parse(sb.toString()).register(new SkipMeScribe()).parallel(executor).all();
+
+			assertEquals(200, icals.size());
+			for (int i = 0; i < icals.size(); i++) {
+				ICalendar ical = icals.get(i);
+				assertEquals(i + "", ical.getProductId().getValue());
+				assertTrue(ical.getProperties(SkipMeProperty.class).isEmpty());
+				assertTrue(ical.getExperimentalProperties().isEmpty());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void parseJson_parallel() throws Throwable {
+		//@formatter:off
+		String json =
+		"[" +
+			"[\"vcalendar\"," +
+				"[" +
+					"[\"prodid\", {}, \"text\", \"one [\\\"]\"]" +
+				"]," +
+				"[]" +
+			"]," +
+			"[\"vcalendar\"," +
+				"[" +
+					"[\"prodid\", {}, \"text\", \"two\"]" +
+				"]," +
+				"[]" +
+			"]" +
+		"]";
+		//@formatter:on
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			List<ICalendar> icals = Biweekly.parseJson(json).parallel(executor).all();
+
+			assertEquals(2, icals.size());
+			assertEquals("one [\"]", icals.get(0).getProductId().getValue());
+			assertEquals("two", icals.get(1).getProductId().getValue());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
 	@Test
 	public void parseXml_first() throws Throwable {
 		//@formatter:off
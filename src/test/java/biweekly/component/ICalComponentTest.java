@@ -24,7 +24,9 @@ import org.junit.Test;
 import biweekly.ICalDataType;
 import biweekly.ValidationWarning;
 import biweekly.property.Description;
+import biweekly.property.ICalProperty;
 import biweekly.property.Location;
+import biweekly.property.PropertyPlaceholder;
 import biweekly.property.RawProperty;
 import biweekly.property.Status;
 import biweekly.property.Summary;
@@ -684,6 +686,99 @@ public class ICalComponentTest {
 		//@formatter:on
 	}
 
+	@Test
+	public void getModificationStamp() {
+		ICalComponentImpl component = new ICalComponentImpl();
+		assertEquals(0, component.getModificationStamp());
+
+		Summary summary = new Summary("value");
+		component.addProperty(summary);
+		long stamp = component.getModificationStamp();
+		assertTrue(stamp > 0);
+
+		summary.setValue("value2");
+		stamp = assertModified(component, stamp);
+
+		summary.setLanguage("en");
+		stamp = assertModified(component, stamp);
+
+		ICalComponentImpl subComponent = new ICalComponentImpl();
+		component.addComponent(subComponent);
+		stamp = assertModified(component, stamp);
+
+		subComponent.addExperimentalProperty("NAME", "value").setValue("value2");
+		stamp = assertModified(component, stamp);
+
+		component.getProperties(Summary.class).get(0).getValue();
+		component.toString();
+		assertEquals(stamp, component.getModificationStamp());
+
+		component.removeProperties(Summary.class);
+		stamp = assertModified(component, stamp);
+	}
+
+	@Test
+	public void placeholders() {
+		ICalComponentImpl component = new ICalComponentImpl();
+		SummaryPlaceholder placeholder1 = new SummaryPlaceholder("one");
+		SummaryPlaceholder placeholder2 = new SummaryPlaceholder("two");
+		component.addProperty(placeholder1);
+		component.addProperty(placeholder2);
+		assertEquals(asList(placeholder1, placeholder2), component.getPropertiesUnparsed());
+
+		assertTrue(component.removeProperty(placeholder1));
+		assertFalse(component.removeProperty(placeholder1));
+		assertEquals(asList(placeholder2), component.getPropertiesUnparsed());
+		assertEquals(0, placeholder1.parsed);
+		assertEquals(0, placeholder2.parsed);
+
+		assertEquals("two", component.getProperty(Summary.class).getValue());
+		assertEquals(0, placeholder1.parsed);
+		assertEquals(1, placeholder2.parsed);
+
+		component.getProperties().clear();
+		component.addProperty(placeholder1);
+		assertEquals("one", component.getProperty(Summary.class).getValue());
+		assertEquals(1, placeholder1.parsed);
+		assertEquals(1, placeholder2.parsed);
+	}
+
+	private static class SummaryPlaceholder extends ICalProperty implements PropertyPlaceholder {
+		private final String value;
+		private int parsed = 0;
+
+		public SummaryPlaceholder(String value) {
+			this.value = value;
+		}
+
+		public Class<? extends ICalProperty> getPropertyClass() {
+			return Summary.class;
+		}
+
+		public List<ICalProperty> parse(ICalComponent parent) {
+			parsed++;
+			List<ICalProperty> list = new ArrayList<ICalProperty>();
+			list.add(new Summary(value));
+			return list;
+		}
+
+		@Override
+		public int hashCode() {
+			return value.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return super.equals(obj) && value.equals(((SummaryPlaceholder) obj).value);
+		}
+	}
+
+	private static long assertModified(ICalComponent component, long previousStamp) {
+		long stamp = component.getModificationStamp();
+		assertTrue(stamp > previousStamp);
+		return stamp;
+	}
+
 	private static class ICalComponentImpl extends ICalComponent {
 		//empty
 	}
@@ -0,0 +1,252 @@
+package biweekly.io;
+
+import static biweekly.util.TestUtils.utc;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.TimeZone;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import biweekly.Biweekly;
+import biweekly.ICalendar;
+import biweekly.component.VAlarm;
+import biweekly.component.VEvent;
+import biweekly.io.scribe.ScribeIndex;
+import biweekly.io.scribe.property.SkipMeScribe;
+import biweekly.property.Attendee;
+import biweekly.property.ICalProperty;
+import biweekly.property.SkipMeProperty;
+import biweekly.property.Summary;
+import biweekly.property.Trigger;
+import biweekly.util.DefaultTimezoneRule;
+import biweekly.util.Duration;
+import biweekly.util.Fingerprint;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class FingerprinterTest {
+	@Rule
+	public final DefaultTimezoneRule tzRule = new DefaultTimezoneRule("America/New_York");
+
+	@Test
+	public void order_insensitive() {
+		VEvent one = new VEvent();
+		one.getProperties().clear();
+		Summary summary = one.setSummary("summary");
+		summary.setLanguage("en");
+		summary.getParameters().put("X-TEST", "a");
+		summary.getParameters().put("X-TEST", "b");
+		one.setDescription("description");
+		one.setLocation("location");
+		one.addAlarm(VAlarm.display(new Trigger(new Duration.Builder().minutes(15).build(), null), "one"));
+		one.addAlarm(VAlarm.display(new Trigger(new Duration.Builder().minutes(5).build(), null), "two"));
+
+		VEvent two = new VEvent();
+		two.getProperties().clear();
+		two.addAlarm(VAlarm.display(new Trigger(new Duration.Builder().minutes(5).build(), null), "two"));
+		two.addAlarm(VAlarm.display(new Trigger(new Duration.Builder().minutes(15).build(), null), "one"));
+		two.setLocation("location");
+		two.setDescription("description");
+		summary = two.setSummary("summary");
+		summary.getParameters().put("X-TEST", "b");
+		summary.getParameters().put("X-TEST", "a");
+		summary.setLanguage("en");
+
+		Fingerprinter fingerprinter = new Fingerprinter();
+		assertEquals(fingerprinter.fingerprint(one), fingerprinter.fingerprint(two));
+	}
+
+	@Test
+	public void detects_changes() {
+		VEvent event = new VEvent();
+		Summary summary = event.setSummary("summary");
+		Fingerprinter fingerprinter = new Fingerprinter();
+		Fingerprint previous = fingerprinter.fingerprint(event);
+
+		summary.setValue("summary2");
+		previous = assertChanged(fingerprinter, event, previous);
+
+		summary.setLanguage("en");
+		previous = assertChanged(fingerprinter, event, previous);
+
+		//duplicate properties are not ignored
+		event.addProperty(new Summary("summary2"));
+		previous = assertChanged(fingerprinter, event, previous);
+
+		VAlarm alarm = VAlarm.display(new Trigger(new Duration.Builder().minutes(15).build(), null), "alarm");
+		event.addAlarm(alarm);
+		previous = assertChanged(fingerprinter, event, previous);
+
+		alarm.getDescription().setValue("alarm2");
+		previous = assertChanged(fingerprinter, event, previous);
+
+		event.getAlarms().clear();
+		previous = assertChanged(fingerprinter, event, previous);
+
+		//property values and parameter values that run together
+		VEvent one = new VEvent();
+		one.getProperties().clear();
+		one.addExperimentalProperty("X-A", "bc");
+		VEvent two = new VEvent();
+		two.getProperties().clear();
+		two.addExperimentalProperty("X-AB", "c");
+		assertNotEquals(fingerprinter.fingerprint(one), fingerprinter.fingerprint(two));
+	}
+
+	private static Fingerprint assertChanged(Fingerprinter fingerprinter, VEvent event, Fingerprint previous) {
+		Fingerprint fingerprint = fingerprinter.fingerprint(event);
+		assertNotEquals(previous, fingerprint);
+		assertEquals(fingerprint, new Fingerprinter().fingerprint(event));
+		return fingerprint;
+	}
+
+	@Test
+	public void same_after_round_trip() throws Throwable {
+		ICalendar ical = new ICalendar();
+		ical.getTimezoneInfo().setDefaultTimezone(new TimezoneAssignment(TimeZone.getTimeZone("America/New_York"), "America/New_York"));
+		VEvent event = new VEvent();
+		event.setSummary("summary, with; special\ncharacters");
+		event.setDateStart(utc(2013, 6, 11, 13, 43, 2));
+		event.addAttendee(new Attendee("John Doe", "jdoe@example.com"));
+		event.addCategories("one", "two");
+		event.addAlarm(VAlarm.display(new Trigger(new Duration.Builder().prior(true).minutes(15).build(), null), "alarm"));
+		ical.addEvent(event);
+
+		String text = Biweekly.write(ical).go();
+		ICalendar parsed = Biweekly.parse(text).first();
+
+		Fingerprinter fingerprinter = new Fingerprinter();
+		assertEquals(fingerprinter.fingerprint(event), fingerprinter.fingerprint(parsed.getEvents().get(0)));
+	}
+
+	@Test
+	public void floating() {
+		//@formatter:off
+		String text =
+		"BEGIN:VCALENDAR\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"UID:uid\r\n" +
+				"DTSTART:20130611T134302\r\n" +
+			"END:VEVENT\r\n" +
+		"END:VCALENDAR\r\n";
+		//@formatter:on
+
+		ICalendar ical = Biweekly.parse(text).first();
+		VEvent event = ical.getEvents().get(0);
+		Fingerprinter fingerprinter = new Fingerprinter();
+		Fingerprint fingerprint = fingerprinter.fingerprint(event, ical.getTimezoneInfo());
+		Fingerprint icalFingerprint = new Fingerprinter().fingerprint(ical);
+
+		TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+
+		//the same object
+		assertEquals(fingerprint, new Fingerprinter().fingerprint(event, ical.getTimezoneInfo()));
+		assertEquals(icalFingerprint, new Fingerprinter().fingerprint(ical));
+
+		//the same data, parsed under a different default timezone
+		ICalendar parsed = Biweekly.parse(text).first();
+		assertEquals(fingerprint, new Fingerprinter().fingerprint(parsed.getEvents().get(0), parsed.getTimezoneInfo()));
+		assertEquals(icalFingerprint, new Fingerprinter().fingerprint(parsed));
+
+		//floating and UTC values are different
+		ical.getTimezoneInfo().setFloating(event.getDateStart(), false);
+		assertNotEquals(fingerprint, fingerprinter.fingerprint(event, ical.getTimezoneInfo()));
+		assertNotEquals(fingerprint, fingerprinter.fingerprint(event));
+	}
+
+	@Test
+	public void stable() {
+		VEvent event = new VEvent();
+		event.setUid("uid");
+		event.setDateTimeStamp(utc(2013, 6, 11, 13, 43, 2));
+		event.setSummary("summary").setLanguage("en");
+
+		//must not change across releases
+		assertEquals(Fingerprint.parse("a735428aaefdc0c7986e497aca1f29f2"), new Fingerprinter().fingerprint(event));
+	}
+
+	@Test
+	public void cache() {
+		ICalendar ical = new ICalendar();
+		VEvent event1 = new VEvent();
+		ical.addEvent(event1);
+		VEvent event2 = new VEvent();
+		ical.addEvent(event2);
+
+		Fingerprinter fingerprinter = new Fingerprinter();
+		Fingerprint before = fingerprinter.fingerprint(ical);
+		assertEquals(3, fingerprinter.size());
+		assertEquals(before, fingerprinter.fingerprint(ical));
+
+		event2.setSummary("summary");
+		assertNotEquals(before, fingerprinter.fingerprint(ical));
+		assertEquals(new Fingerprinter().fingerprint(ical), fingerprinter.fingerprint(ical));
+
+		fingerprinter.clear();
+		assertEquals(0, fingerprinter.size());
+	}
+
+	@Test
+	public void property() {
+		Fingerprinter fingerprinter = new Fingerprinter();
+		Summary one = new Summary("summary");
+		Summary two = new Summary("summary");
+		assertEquals(fingerprinter.fingerprint(one), fingerprinter.fingerprint(two));
+
+		two.setLanguage("en");
+		assertNotEquals(fingerprinter.fingerprint(one), fingerprinter.fingerprint(two));
+	}
+
+	@Test
+	public void skipped_property() {
+		ScribeIndex index = new ScribeIndex();
+		index.register(new SkipMeScribe());
+		Fingerprinter fingerprinter = new Fingerprinter(index);
+		assertNull(fingerprinter.fingerprint(new SkipMeProperty()));
+
+		VEvent event = new VEvent();
+		Fingerprint before = fingerprinter.fingerprint(event);
+		event.addProperty(new SkipMeProperty());
+		assertEquals(before, fingerprinter.fingerprint(event));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void no_scribe() {
+		VEvent event = new VEvent();
+		event.addProperty(new ICalPropertyImpl());
+		new Fingerprinter().fingerprint(event);
+	}
+
+	private static class ICalPropertyImpl extends ICalProperty {
+		//empty
+	}
+}
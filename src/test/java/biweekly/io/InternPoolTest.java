@@ -0,0 +1,210 @@
+package biweekly.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import biweekly.ICalendar;
+import biweekly.component.VEvent;
+import biweekly.io.text.ICalReader;
+import biweekly.parameter.ICalParameters;
+import biweekly.property.Attendee;
+import biweekly.property.Categories;
+import biweekly.property.DateStart;
+import biweekly.property.ICalProperty;
+import biweekly.property.Summary;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class InternPoolTest {
+	//@formatter:off
+	private static final String ICAL =
+	"BEGIN:VCALENDAR\r\n" +
+		"VERSION:2.0\r\n" +
+		"BEGIN:VTIMEZONE\r\n" +
+			"TZID:Test\r\n" +
+			"BEGIN:STANDARD\r\n" +
+				"DTSTART:19700101T000000\r\n" +
+				"TZOFFSETFROM:+0100\r\n" +
+				"TZOFFSETTO:+0100\r\n" +
+			"END:STANDARD\r\n" +
+		"END:VTIMEZONE\r\n" +
+		"BEGIN:VEVENT\r\n" +
+			"DTSTART;TZID=Test:20240101T100000\r\n" +
+			"ATTENDEE;PARTSTAT=ACCEPTED;ROLE=CHAIR:mailto:jdoe@example.com\r\n" +
+		"END:VEVENT\r\n" +
+		"BEGIN:VEVENT\r\n" +
+			"DTSTART;TZID=Test:20240102T100000\r\n" +
+			"ATTENDEE;PARTSTAT=ACCEPTED;ROLE=CHAIR:mailto:jdoe@example.com\r\n" +
+		"END:VEVENT\r\n" +
+	"END:VCALENDAR\r\n";
+	//@formatter:on
+
+	@Test
+	public void intern_string() {
+		InternPool pool = new InternPool(2);
+		String one = pool.intern(new String("one"));
+		assertSame(one, pool.intern(new String("one")));
+		assertNull(pool.intern((String) null));
+
+		pool.intern("two");
+		assertEquals(2, pool.getStringCount());
+
+		//pool is full
+		String three = new String("three");
+		assertSame(three, pool.intern(three));
+		assertNotSame(three, pool.intern(new String("three")));
+		assertEquals(2, pool.getStringCount());
+
+		pool.clear();
+		assertEquals(0, pool.getStringCount());
+	}
+
+	@Test
+	public void intern_parameters() {
+		InternPool pool = new InternPool();
+
+		ICalParameters params1 = new ICalParameters();
+		params1.put("CN", "John Doe");
+		params1.put("PARTSTAT", "ACCEPTED");
+		ICalParameters params2 = new ICalParameters(params1);
+
+		ICalParameters shared1 = pool.intern(params1);
+		ICalParameters shared2 = pool.intern(params2);
+		assertEquals(params1, shared1);
+		assertSame(shared1.getMap(), shared2.getMap());
+		assertEquals(1, pool.getParametersCount());
+
+		//modifying one does not affect the other or the pool
+		shared1.put("CN", "Jane Doe");
+		assertEquals(Arrays.asList("John Doe"), shared2.get("CN"));
+		assertEquals(Arrays.asList("John Doe"), pool.intern(params1).get("CN"));
+
+		//modifying the original parameters does not affect the pool
+		params1.put("RSVP", "TRUE");
+		assertEquals(params2, pool.intern(params2));
+
+		//order matters
+		ICalParameters reversed = new ICalParameters();
+		reversed.put("PARTSTAT", "ACCEPTED");
+		reversed.put("CN", "John Doe");
+		assertNotSame(shared2.getMap(), pool.intern(reversed).getMap());
+	}
+
+	@Test
+	public void intern_parameters_full() {
+		InternPool pool = new InternPool(1);
+		ICalParameters params1 = new ICalParameters();
+		params1.put("CN", "one");
+		pool.intern(params1);
+
+		ICalParameters params2 = new ICalParameters();
+		params2.put("CN", "two");
+		assertSame(params2, pool.intern(params2));
+	}
+
+	@Test
+	public void intern_properties() {
+		InternPool pool = new InternPool();
+
+		Attendee attendee1 = new Attendee(new String("John Doe"), new String("jdoe@example.com"));
+		Attendee attendee2 = new Attendee(new String("John Doe"), new String("jdoe@example.com"));
+		pool.intern(attendee1);
+		pool.intern(attendee2);
+		assertSame(attendee1.getCommonName(), attendee2.getCommonName());
+		assertSame(attendee1.getEmail(), attendee2.getEmail());
+
+		Categories categories1 = new Categories(new String("work"), new String("meeting"));
+		Categories categories2 = new Categories(new String("work"));
+		pool.intern(categories1);
+		pool.intern(categories2);
+		assertSame(categories1.getValues().get(0), categories2.getValues().get(0));
+
+		//values of properties that are not likely to repeat are left alone
+		Summary summary1 = new Summary(new String("summary"));
+		Summary summary2 = new Summary(new String("summary"));
+		pool.intern(summary1);
+		pool.intern(summary2);
+		assertNotSame(summary1.getValue(), summary2.getValue());
+	}
+
+	@Test
+	public void reader() throws Exception {
+		ICalReader reader = new ICalReader(ICAL);
+		reader.setInternPool(new InternPool());
+		ICalendar icalendar = reader.readNext();
+		reader.close();
+
+		Attendee attendee1 = icalendar.getEvents().get(0).getAttendees().get(0);
+		Attendee attendee2 = icalendar.getEvents().get(1).getAttendees().get(0);
+		assertSame(attendee1.getParameters().getMap(), attendee2.getParameters().getMap());
+		assertSame(attendee1.getEmail(), attendee2.getEmail());
+
+		//timezones are assigned before the parameters are pooled
+		DateStart start1 = icalendar.getEvents().get(0).getDateStart();
+		DateStart start2 = icalendar.getEvents().get(1).getDateStart();
+		assertNull(start1.getParameters().getTimezoneId());
+		assertSame(start1.getParameters().getMap(), start2.getParameters().getMap());
+		assertEquals("Test", icalendar.getTimezoneInfo().getTimezone(start1).getComponent().getTimezoneId().getValue());
+	}
+
+	@Test
+	public void reader_lazy() throws Exception {
+		ICalReader reader = new ICalReader(ICAL);
+		reader.setLazyParsing(true);
+		reader.setInternPool(new InternPool());
+		ICalendar icalendar = reader.readNext();
+		reader.close();
+
+		//pooling does not parse the placeholders
+		VEvent event1 = icalendar.getEvents().get(0);
+		VEvent event2 = icalendar.getEvents().get(1);
+		assertEquals(2, event1.getPropertiesUnparsed().size());
+		for (ICalProperty property : event1.getPropertiesUnparsed()) {
+			assertTrue(property instanceof LazyProperty);
+		}
+
+		//the properties are pooled when they are parsed
+		Attendee attendee1 = event1.getAttendees().get(0);
+		Attendee attendee2 = event2.getAttendees().get(0);
+		assertSame(attendee1.getParameters().getMap(), attendee2.getParameters().getMap());
+		assertSame(attendee1.getEmail(), attendee2.getEmail());
+
+		DateStart start1 = event1.getDateStart();
+		DateStart start2 = event2.getDateStart();
+		assertNull(start1.getParameters().getTimezoneId());
+		assertSame(start1.getParameters().getMap(), start2.getParameters().getMap());
+	}
+}
@@ -0,0 +1,156 @@
+package biweekly.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import biweekly.io.text.ICalReader;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class ParseWarningSinkTest {
+	@Test
+	public void collect() {
+		ParseWarningSink sink = ParseWarningSink.collect();
+		ParseWarning one = warning(1);
+		ParseWarning two = warning(2);
+		sink.add(one);
+		sink.add(two);
+
+		assertEquals(2, sink.getCount());
+		assertEquals(2, sink.getWarnings().size());
+		assertSame(one, sink.getWarnings().get(0));
+		assertSame(two, sink.getWarnings().get(1));
+
+		sink.clear();
+		assertEquals(0, sink.getCount());
+		assertEquals(0, sink.getWarnings().size());
+		assertFalse(sink.ignoresAll());
+	}
+
+	@Test
+	public void firstN() {
+		ParseWarningSink sink = ParseWarningSink.firstN(2);
+		for (int i = 0; i < 5; i++) {
+			sink.add(warning(i));
+		}
+
+		assertEquals(5, sink.getCount());
+		assertEquals(2, sink.getWarnings().size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void firstN_negative() {
+		ParseWarningSink.firstN(-1);
+	}
+
+	@Test
+	public void countOnly() {
+		ParseWarningSink sink = ParseWarningSink.countOnly();
+		sink.add(warning(1));
+		sink.add(warning(2));
+
+		assertEquals(2, sink.getCount());
+		assertEquals(0, sink.getWarnings().size());
+		assertFalse(sink.ignoresAll());
+	}
+
+	@Test
+	public void drop() {
+		ParseWarningSink sink = ParseWarningSink.drop();
+		sink.add(warning(1));
+
+		assertEquals(0, sink.getCount());
+		assertEquals(0, sink.getWarnings().size());
+		assertTrue(sink.ignoresAll());
+	}
+
+	@Test
+	public void reader() throws Exception {
+		//@formatter:off
+		String ical =
+		"BEGIN:VCALENDAR\r\n" +
+			"VERSION:2.0\r\n" +
+			"bad line 1\r\n" +
+			"bad line 2\r\n" +
+			"bad line 3\r\n" +
+		"END:VCALENDAR\r\n" +
+		"BEGIN:VCALENDAR\r\n" +
+			"VERSION:2.0\r\n" +
+			"bad line 4\r\n" +
+		"END:VCALENDAR\r\n";
+		//@formatter:on
+
+		ICalReader reader = new ICalReader(ical);
+		reader.setWarningSink(ParseWarningSink.firstN(1));
+
+		reader.readNext();
+		assertEquals(3, reader.getWarningSink().getCount());
+		assertEquals(1, reader.getWarnings().size());
+		assertEquals(Integer.valueOf(3), reader.getWarnings().get(0).getLineNumber());
+
+		reader.readNext();
+		assertEquals(1, reader.getWarningSink().getCount());
+		assertEquals(1, reader.getWarnings().size());
+
+		reader.close();
+	}
+
+	@Test
+	public void reader_property_warnings() throws Exception {
+		//@formatter:off
+		String ical =
+		"BEGIN:VCALENDAR\r\n" +
+			"VERSION:2.0\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"RRULE:FREQ=WEEKLY;COUNT=invalid\r\n" +
+			"END:VEVENT\r\n" +
+		"END:VCALENDAR\r\n";
+		//@formatter:on
+
+		ICalReader reader = new ICalReader(ical);
+		reader.setWarningSink(ParseWarningSink.countOnly());
+		reader.readNext();
+		assertEquals(1, reader.getWarningSink().getCount());
+		reader.close();
+
+		reader = new ICalReader(ical);
+		reader.setWarningSink(ParseWarningSink.drop());
+		reader.readNext();
+		assertEquals(0, reader.getWarnings().size());
+		reader.close();
+	}
+
+	private static ParseWarning warning(int lineNumber) {
+		return new ParseWarning.Builder().lineNumber(lineNumber).message(2, "arg").build();
+	}
+}
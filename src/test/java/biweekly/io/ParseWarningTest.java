@@ -89,6 +89,16 @@ public class ParseWarningTest {
 		assertEquals(Messages.INSTANCE.getParseMessage(2, "arg"), warning.getMessage());
 	}
 
+	@Test
+	public void builder_copy() {
+		ParseWarning original = new ParseWarning.Builder().lineNumber(1).propertyName("PROP").message(2, "arg").build();
+		ParseWarning warning = new ParseWarning.Builder(original).lineNumber(5).build();
+		assertIntEquals(5, warning.getLineNumber());
+		assertEquals("PROP", warning.getPropertyName());
+		assertIntEquals(2, warning.getCode());
+		assertEquals(Messages.INSTANCE.getParseMessage(2, "arg"), warning.getMessage());
+	}
+
 	@Test
 	public void builder_ParseContext() {
 		ParseContext context = new ParseContext();
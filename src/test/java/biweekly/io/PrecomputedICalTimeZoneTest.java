@@ -0,0 +1,307 @@
+package biweekly.io;
+
+import static biweekly.util.TestUtils.utc;
+import static biweekly.util.TestUtils.vtimezoneNewYork;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import biweekly.component.DaylightSavingsTime;
+import biweekly.component.StandardTime;
+import biweekly.component.VTimezone;
+import biweekly.io.ICalTimeZone.Boundary;
+import biweekly.util.DateTimeComponents;
+import biweekly.util.DefaultTimezoneRule;
+import biweekly.util.UtcOffset;
+import biweekly.util.com.google.ical.values.DateTimeValueImpl;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class PrecomputedICalTimeZoneTest {
+	@ClassRule
+	public static final DefaultTimezoneRule tzRule = new DefaultTimezoneRule(3, 0);
+
+	private final UtcOffset minus4 = new UtcOffset(false, 4, 0);
+	private final UtcOffset minus5 = new UtcOffset(false, 5, 0);
+
+	@Test
+	public void getOffset_simple_example() {
+		VTimezone component = new VTimezone("America/New_York");
+		{
+			StandardTime standard = new StandardTime();
+			standard.setDateStart(new DateTimeComponents(1998, 10, 25, 2, 0, 0, false));
+			standard.setTimezoneOffsetFrom(minus4);
+			standard.setTimezoneOffsetTo(minus5);
+			component.addStandardTime(standard);
+
+			DaylightSavingsTime daylight = new DaylightSavingsTime();
+			daylight.setDateStart(new DateTimeComponents(1999, 4, 4, 2, 0, 0, false));
+			daylight.setTimezoneOffsetFrom(minus5);
+			daylight.setTimezoneOffsetTo(minus4);
+			component.addDaylightSavingsTime(daylight);
+		}
+
+		PrecomputedICalTimeZone tz = new PrecomputedICalTimeZone(component);
+		assertEquals("America/New_York", tz.getID());
+		assertTrue(tz.useDaylightTime());
+		assertEquals(2, tz.getTransitionCount());
+
+		//local time
+		assertLocalOffset(-4, tz, 1998, 10, 24, 0, 0, 0);
+		assertLocalOffset(-4, tz, 1998, 10, 25, 1, 59, 59);
+		assertLocalOffset(-5, tz, 1998, 10, 25, 2, 0, 0);
+		assertLocalOffset(-5, tz, 1999, 4, 4, 1, 59, 59);
+		assertLocalOffset(-4, tz, 1999, 4, 4, 2, 0, 0);
+
+		//UTC time (transitions happen at 06:00 UTC and 07:00 UTC)
+		assertUtcOffset(-4, false, tz, utc(1998, 10, 25, 5, 59, 59));
+		assertUtcOffset(-5, false, tz, utc(1998, 10, 25, 6, 0, 0));
+		assertUtcOffset(-5, false, tz, utc(1999, 4, 4, 6, 59, 59));
+		assertUtcOffset(-4, true, tz, utc(1999, 4, 4, 7, 0, 0));
+		assertUtcOffset(-4, true, tz, utc(2050, 1, 1, 0, 0, 0));
+	}
+
+	@Test
+	public void getOffset_no_observances() {
+		VTimezone component = new VTimezone("America/New_York");
+		PrecomputedICalTimeZone tz = new PrecomputedICalTimeZone(component);
+
+		assertFalse(tz.useDaylightTime());
+		assertEquals(0, tz.getRawOffset());
+		assertEquals(0, tz.getTransitionCount());
+		assertUtcOffset(0, false, tz, utc(1999, 4, 4, 7, 0, 0));
+		assertNull(tz.getObservanceBoundary(utc(1999, 4, 4, 7, 0, 0)));
+		assertNull(tz.getObservance(utc(1999, 4, 4, 7, 0, 0)));
+	}
+
+	@Test
+	public void getOffset_matches_java() {
+		PrecomputedICalTimeZone tz = new PrecomputedICalTimeZone(vtimezoneNewYork());
+		TimeZone expected = TimeZone.getTimeZone("America/New_York");
+
+		long start = utc(1970, 1, 1, 0, 0, 0).getTime();
+		long end = utc(2030, 1, 1, 0, 0, 0).getTime();
+		long step = 60 * 60 * 1000;
+		for (long date = start; date < end; date += step) {
+			assertEquals(new Date(date).toString(), expected.getOffset(date), tz.getOffset(date));
+			assertEquals(new Date(date).toString(), expected.inDaylightTime(new Date(date)), tz.inDaylightTime(new Date(date)));
+		}
+	}
+
+	@Test
+	public void getOffset_matches_ICalTimeZone() {
+		VTimezone component = vtimezoneNewYork();
+		PrecomputedICalTimeZone tz = new PrecomputedICalTimeZone(component);
+		ICalTimeZone icalTz = new ICalTimeZone(component);
+
+		int[][] dates = { { 1883, 11, 18 }, { 1918, 4, 1 }, { 1918, 10, 28 }, { 1942, 1, 1 }, { 1977, 4, 25 }, { 2007, 3, 11 }, { 2014, 11, 2 }, { 2099, 7, 1 } };
+		for (int[] date : dates) {
+			for (int hour = 0; hour < 24; hour++) {
+				int millis = hour * 60 * 60 * 1000;
+				assertEquals(icalTz.getOffset(1, date[0], date[1] - 1, date[2], 0, millis), tz.getOffset(1, date[0], date[1] - 1, date[2], 0, millis));
+			}
+		}
+		assertEquals(icalTz.getRawOffset(), tz.getRawOffset());
+		assertEquals(icalTz.getDisplayName(false, TimeZone.SHORT), tz.getDisplayName(false, TimeZone.SHORT));
+		assertEquals(icalTz.getDisplayName(true, TimeZone.SHORT), tz.getDisplayName(true, TimeZone.SHORT));
+	}
+
+	@Test
+	public void year_range() {
+		VTimezone component = vtimezoneNewYork();
+		PrecomputedICalTimeZone tz = new PrecomputedICalTimeZone(component, 2010, 2012);
+		assertEquals(2010, tz.getStartYear());
+		assertEquals(2012, tz.getEndYear());
+
+		//2 transitions per year, plus the last transition of each of the 8 observances before 2010
+		assertEquals(2 * 3 + 8, tz.getTransitionCount());
+
+		//the last transition before the range is kept
+		assertUtcOffset(-5, false, tz, utc(2009, 12, 1, 0, 0, 0));
+		assertUtcOffset(-4, true, tz, utc(2012, 7, 1, 0, 0, 0));
+
+		//dates after the range stay in the last observance
+		assertUtcOffset(-5, false, tz, utc(2013, 7, 1, 0, 0, 0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void year_range_invalid() {
+		new PrecomputedICalTimeZone(vtimezoneNewYork(), 2012, 2010);
+	}
+
+	@Test
+	public void getObservanceBoundary() {
+		VTimezone component = vtimezoneNewYork();
+		PrecomputedICalTimeZone tz = new PrecomputedICalTimeZone(component);
+
+		Boundary boundary = tz.getObservanceBoundary(utc(2014, 1, 15, 0, 0, 0));
+		assertEquals(new DateTimeValueImpl(2013, 11, 3, 2, 0, 0), boundary.getObservanceInStart());
+		assertSame(component.getStandardTimes().get(0), boundary.getObservanceIn());
+		assertEquals(new DateTimeValueImpl(2014, 3, 9, 2, 0, 0), boundary.getObservanceAfterStart());
+		assertSame(component.getDaylightSavingsTime().get(0), boundary.getObservanceAfter());
+
+		boundary = tz.getObservanceBoundary(utc(1800, 1, 1, 0, 0, 0));
+		assertNull(boundary.getObservanceInStart());
+		assertNull(boundary.getObservanceIn());
+		assertEquals(new DateTimeValueImpl(1883, 11, 18, 12, 3, 58), boundary.getObservanceAfterStart());
+	}
+
+	/**
+	 * Transitions that are closer together than the difference between their
+	 * offsets are in a different order in UTC time than in local time.
+	 */
+	@Test
+	public void transitions_out_of_utc_order() {
+		VTimezone component = new VTimezone("Test");
+		StandardTime standard = new StandardTime();
+		standard.setDateStart(new DateTimeComponents(2000, 1, 1, 0, 0, 0, false));
+		standard.setTimezoneOffsetFrom(new UtcOffset(true, 0, 0));
+		standard.setTimezoneOffsetTo(new UtcOffset(true, 2, 0));
+		component.addStandardTime(standard);
+
+		DaylightSavingsTime daylight = new DaylightSavingsTime();
+		daylight.setDateStart(new DateTimeComponents(2000, 1, 1, 1, 0, 0, false));
+		daylight.setTimezoneOffsetFrom(new UtcOffset(true, 2, 0));
+		daylight.setTimezoneOffsetTo(new UtcOffset(true, 1, 0));
+		component.addDaylightSavingsTime(daylight);
+
+		PrecomputedICalTimeZone tz = new PrecomputedICalTimeZone(component);
+
+		//the daylight transition happens at 23:00 UTC, the standard transition at 00:00 UTC
+		assertUtcOffset(0, false, tz, utc(1999, 12, 31, 22, 59, 59));
+		assertUtcOffset(1, true, tz, utc(1999, 12, 31, 23, 30, 0));
+		assertUtcOffset(2, false, tz, utc(2000, 1, 1, 0, 30, 0));
+		assertSame(daylight, tz.getObservance(utc(1999, 12, 31, 23, 30, 0)));
+
+		Boundary boundary = tz.getObservanceBoundary(utc(1999, 12, 31, 23, 30, 0));
+		assertSame(daylight, boundary.getObservanceIn());
+		assertSame(standard, boundary.getObservanceAfter());
+		assertEquals(new DateTimeValueImpl(2000, 1, 1, 0, 0, 0), boundary.getObservanceAfterStart());
+
+		boundary = tz.getObservanceBoundary(utc(1999, 12, 31, 22, 0, 0));
+		assertNull(boundary.getObservanceIn());
+		assertSame(daylight, boundary.getObservanceAfter());
+	}
+
+	/**
+	 * If a DTSTART property in a VTIMEZONE component is missing its time
+	 * component, its time component should default to midnight.
+	 */
+	@Test
+	public void dtstart_missing_time_component() {
+		VTimezone component = new VTimezone("America/Chicago");
+		{
+			DaylightSavingsTime daylight = new DaylightSavingsTime();
+			daylight.setDateStart(new DateTimeComponents(1970, 3, 8, 2, 0, 0, false));
+			daylight.setTimezoneOffsetFrom(new UtcOffset(false, 6, 0));
+			daylight.setTimezoneOffsetTo(new UtcOffset(false, 5, 0));
+			component.addDaylightSavingsTime(daylight);
+
+			StandardTime standard = new StandardTime();
+			standard.setDateStart(new DateTimeComponents(1970, 11, 1)); //missing time
+			standard.setTimezoneOffsetFrom(new UtcOffset(false, 5, 0));
+			standard.setTimezoneOffsetTo(new UtcOffset(false, 6, 0));
+			component.addStandardTime(standard);
+		}
+
+		PrecomputedICalTimeZone tz = new PrecomputedICalTimeZone(component);
+		Boundary boundary = tz.getObservanceBoundary(utc(1970, 12, 1, 0, 0, 0));
+		assertEquals(new DateTimeValueImpl(1970, 11, 1, 0, 0, 0), boundary.getObservanceInStart());
+	}
+
+	@Test
+	public void setRawOffset() {
+		PrecomputedICalTimeZone tz = new PrecomputedICalTimeZone(vtimezoneNewYork());
+		try {
+			tz.setRawOffset(0);
+			fail();
+		} catch (UnsupportedOperationException e) {
+			//expected
+		}
+	}
+
+	@Test
+	public void multiple_threads() throws Exception {
+		final PrecomputedICalTimeZone tz = new PrecomputedICalTimeZone(vtimezoneNewYork());
+		final TimeZone expected = TimeZone.getTimeZone("America/New_York");
+		final long start = utc(1990, 1, 1, 0, 0, 0).getTime();
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+			for (int i = 0; i < 8; i++) {
+				final int thread = i;
+				futures.add(executor.submit(new Callable<Integer>() {
+					public Integer call() {
+						int mismatches = 0;
+						for (int j = 0; j < 10000; j++) {
+							long date = start + (thread * 10000L + j) * 60 * 60 * 1000;
+							if (expected.getOffset(date) != tz.getOffset(date)) {
+								mismatches++;
+							}
+						}
+						return mismatches;
+					}
+				}));
+			}
+
+			for (Future<Integer> future : futures) {
+				assertEquals(Integer.valueOf(0), future.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static void assertLocalOffset(int expectedHours, PrecomputedICalTimeZone tz, int year, int month, int date, int hour, int minute, int second) {
+		int millis = ((hour * 60 + minute) * 60 + second) * 1000;
+		int actual = tz.getOffset(1, year, month - 1, date, 0, millis);
+		assertEquals(expectedHours * 60 * 60 * 1000, actual);
+	}
+
+	private static void assertUtcOffset(int expectedHours, boolean expectedInDaylight, PrecomputedICalTimeZone tz, Date date) {
+		assertEquals(expectedHours * 60 * 60 * 1000, tz.getOffset(date.getTime()));
+		assertEquals(expectedInDaylight, tz.inDaylightTime(date));
+	}
+}
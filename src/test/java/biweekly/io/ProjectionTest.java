@@ -0,0 +1,166 @@
+package biweekly.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+
+import org.junit.Test;
+
+import biweekly.Biweekly;
+import biweekly.ICalendar;
+import biweekly.component.VEvent;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class ProjectionTest {
+	//@formatter:off
+	private static final String ICAL =
+	"BEGIN:VCALENDAR\r\n" +
+		"VERSION:2.0\r\n" +
+		"PRODID:-//Test//EN\r\n" +
+		"BEGIN:VTIMEZONE\r\n" +
+			"TZID:Test\r\n" +
+			"BEGIN:STANDARD\r\n" +
+				"DTSTART:19700101T000000\r\n" +
+				"TZOFFSETFROM:-0500\r\n" +
+				"TZOFFSETTO:-0500\r\n" +
+			"END:STANDARD\r\n" +
+		"END:VTIMEZONE\r\n" +
+		"BEGIN:VEVENT\r\n" +
+			"UID:1\r\n" +
+			"DTSTAMP:20240101T000000Z\r\n" +
+			"DTSTART;TZID=Test:20240101T100000\r\n" +
+			"SUMMARY:Summary\r\n" +
+			"DESCRIPTION:Description\r\n" +
+			"ATTACH;ENCODING=BASE64;VALUE=BINARY:AAECAwQFBgcICQ==\r\n" +
+			"BEGIN:VALARM\r\n" +
+				"ACTION:DISPLAY\r\n" +
+				"TRIGGER:-PT15M\r\n" +
+				"DESCRIPTION:Reminder\r\n" +
+			"END:VALARM\r\n" +
+		"END:VEVENT\r\n" +
+		"BEGIN:VTODO\r\n" +
+			"UID:2\r\n" +
+			"DTSTAMP:20240101T000000Z\r\n" +
+		"END:VTODO\r\n" +
+	"END:VCALENDAR\r\n";
+	//@formatter:on
+
+	//@formatter:off
+	private final Projection projection = new Projection.Builder()
+		.includeComponents("vevent")
+		.includeProperties("UID", "DTSTART", "ATTACH")
+		.excludeProperties("attach")
+	.build();
+	//@formatter:on
+
+	@Test
+	public void includesComponent() {
+		assertTrue(projection.includesComponent("VCALENDAR", null));
+		assertTrue(projection.includesComponent("vevent", "VCALENDAR"));
+		assertFalse(projection.includesComponent("VTODO", "VCALENDAR"));
+		assertFalse(projection.includesComponent("VALARM", "VEVENT"));
+
+		//timezone components are always included
+		assertTrue(projection.includesComponent("VTIMEZONE", "VCALENDAR"));
+		assertTrue(projection.includesComponent("STANDARD", "VTIMEZONE"));
+
+		Projection excludeTimezones = new Projection.Builder().excludeComponents("VTIMEZONE").build();
+		assertFalse(excludeTimezones.includesComponent("VTIMEZONE", "VCALENDAR"));
+		assertTrue(excludeTimezones.includesComponent("VALARM", "VEVENT"));
+	}
+
+	@Test
+	public void includesProperty() {
+		assertTrue(projection.includesProperty("uid", "VEVENT"));
+		assertFalse(projection.includesProperty("SUMMARY", "VEVENT"));
+
+		//exclusions take precedence
+		assertFalse(projection.includesProperty("ATTACH", "VEVENT"));
+
+		//always included
+		assertTrue(projection.includesProperty("VERSION", "VCALENDAR"));
+		assertTrue(projection.includesProperty("TZOFFSETFROM", "STANDARD"));
+	}
+
+	@Test
+	public void text_reader() throws Exception {
+		assertProjected(Biweekly.parse(ICAL).projection(projection).first());
+	}
+
+	@Test
+	public void text_input_stream() throws Exception {
+		assertProjected(Biweekly.parse(new ByteArrayInputStream(ICAL.getBytes("UTF-8"))).projection(projection).first());
+	}
+
+	@Test
+	public void json() throws Exception {
+		String json = Biweekly.writeJson(Biweekly.parse(ICAL).first()).go();
+		assertProjected(Biweekly.parseJson(json).projection(projection).first());
+	}
+
+	@Test
+	public void xml() throws Exception {
+		String xml = Biweekly.writeXml(Biweekly.parse(ICAL).first()).go();
+		assertProjected(Biweekly.parseXml(xml).projection(projection).first());
+	}
+
+	@Test
+	public void no_projection() throws Exception {
+		ICalendar ical = Biweekly.parse(ICAL).first();
+		assertEquals(1, ical.getTodos().size());
+		VEvent event = ical.getEvents().get(0);
+		assertEquals(1, event.getAlarms().size());
+		assertEquals(1, event.getAttachments().size());
+		assertNotNull(event.getSummary());
+	}
+
+	private static void assertProjected(ICalendar ical) {
+		assertNull(ical.getProductId());
+		assertEquals(0, ical.getTodos().size());
+
+		assertEquals(1, ical.getEvents().size());
+		VEvent event = ical.getEvents().get(0);
+		assertEquals("1", event.getUid().getValue());
+		assertNull(event.getSummary());
+		assertNull(event.getDescription());
+		assertNull(event.getDateTimeStamp());
+		assertEquals(0, event.getAttachments().size());
+		assertEquals(0, event.getAlarms().size());
+
+		//the VTIMEZONE component is still parsed
+		TimezoneAssignment assignment = ical.getTimezoneInfo().getTimezone(event.getDateStart());
+		assertNotNull(assignment);
+		assertEquals("Test", assignment.getComponent().getTimezoneId().getValue());
+	}
+}
@@ -4,6 +4,7 @@ import static biweekly.util.TestUtils.assertCollectionContains;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.TimeZone;
@@ -165,6 +166,83 @@ public class TimezoneInfoTest {
 		assertFalse(tzinfo.isFloating(property));
 	}
 
+	@Test
+	public void getTimezoneById() {
+		VTimezone component1 = new VTimezone("one");
+		TimezoneAssignment timezone1 = new TimezoneAssignment(TestUtils.buildTimezone(1, 0), component1);
+		TimezoneAssignment timezone2 = new TimezoneAssignment(TestUtils.buildTimezone(2, 0), new VTimezone("two"));
+		TimezoneAssignment timezone3 = new TimezoneAssignment(TestUtils.buildTimezone(3, 0), "Three/Zone");
+		tzinfo.getTimezones().add(timezone1);
+		tzinfo.getTimezones().add(timezone2);
+		tzinfo.getTimezones().add(timezone3);
+
+		assertSame(timezone1, tzinfo.getTimezoneById("one"));
+		assertSame(timezone2, tzinfo.getTimezoneById("two"));
+		assertNull(tzinfo.getTimezoneById("Three/Zone"));
+		assertNull(tzinfo.getTimezoneById("four"));
+
+		//the component's TZID is changed
+		component1.setTimezoneId("uno");
+		assertNull(tzinfo.getTimezoneById("one"));
+		assertSame(timezone1, tzinfo.getTimezoneById("uno"));
+
+		//the assignment is removed
+		tzinfo.getTimezones().remove(timezone1);
+		assertNull(tzinfo.getTimezoneById("uno"));
+	}
+
+	@Test
+	public void setFloating() {
+		ICalProperty property = new ICalPropertyImpl();
+		ICalProperty other = new ICalPropertyImpl() {
+			@Override
+			public boolean equals(Object obj) {
+				return true;
+			}
+
+			@Override
+			public int hashCode() {
+				return 0;
+			}
+		};
+
+		//properties are compared by reference
+		tzinfo.setFloating(property, true);
+		tzinfo.setFloating(property, true);
+		assertTrue(tzinfo.isFloating(property));
+		assertFalse(tzinfo.isFloating(other));
+
+		tzinfo.setFloating(other, false);
+		assertTrue(tzinfo.isFloating(property));
+
+		tzinfo.setFloating(property, false);
+		assertFalse(tzinfo.isFloating(property));
+	}
+
+	@Test
+	public void getModificationStamp() {
+		assertEquals(0, tzinfo.getModificationStamp());
+
+		ICalProperty property = new ICalPropertyImpl();
+		tzinfo.setFloating(property, true);
+		long stamp = tzinfo.getModificationStamp();
+		assertTrue(stamp > 0);
+
+		VTimezone component = new VTimezone("tz");
+		tzinfo.setDefaultTimezone(new TimezoneAssignment(TimeZone.getDefault(), component));
+		assertTrue(tzinfo.getModificationStamp() > stamp);
+		stamp = tzinfo.getModificationStamp();
+
+		//changes to the VTIMEZONE components are included
+		component.setTimezoneUrl("http://example.com");
+		assertTrue(tzinfo.getModificationStamp() > stamp);
+		stamp = tzinfo.getModificationStamp();
+
+		tzinfo.isFloating(property);
+		tzinfo.getTimezone(property);
+		assertEquals(stamp, tzinfo.getModificationStamp());
+	}
+
 	private class ICalPropertyImpl extends ICalProperty {
 		//empty
 	}
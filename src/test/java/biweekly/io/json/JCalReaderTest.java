@@ -13,10 +13,14 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.StringReader;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.TimeZone;
 
 import org.junit.ClassRule;
@@ -32,6 +36,7 @@ import biweekly.component.RawComponent;
 import biweekly.component.StandardTime;
 import biweekly.component.VEvent;
 import biweekly.component.VTimezone;
+import biweekly.io.ComponentListener;
 import biweekly.io.ICalTimeZone;
 import biweekly.io.ParseContext;
 import biweekly.io.TimezoneAssignment;
@@ -143,6 +148,116 @@ public class JCalReaderTest {
 		assertParseWarnings(reader);
 	}
 
+	@Test
+	public void readNext_listener() throws Throwable {
+		//@formatter:off
+		String json =
+		"[\"vcalendar\"," +
+			"[" +
+				"[\"version\", {}, \"text\", \"2.0\"]" +
+			"]," +
+			"[" +
+				"[\"vtimezone\"," +
+					"[" +
+						"[\"tzid\", {}, \"text\", \"TZ\"]" +
+					"]," +
+					"[" +
+						"[\"standard\"," +
+							"[" +
+								"[\"dtstart\", {}, \"date-time\", \"1970-01-01T00:00:00\"]," +
+								"[\"tzoffsetfrom\", {}, \"utc-offset\", \"+02:00\"]," +
+								"[\"tzoffsetto\", {}, \"utc-offset\", \"+02:00\"]" +
+							"]," +
+							"[]" +
+						"]" +
+					"]" +
+				"]," +
+				"[\"vevent\"," +
+					"[" +
+						"[\"dtstart\", {\"tzid\":\"TZ\"}, \"date-time\", \"2024-01-01T10:00:00\"]" +
+					"]," +
+					"[" +
+						"[\"valarm\", [], []]" +
+					"]" +
+				"]," +
+				"[\"vevent\"," +
+					"[" +
+						"[\"summary\", {}, \"text\", \"two\"]" +
+					"]," +
+					"[]" +
+				"]" +
+			"]" +
+		"]";
+		//@formatter:on
+
+		JCalReader reader = new JCalReader(json);
+		final List<ICalComponent> components = new ArrayList<ICalComponent>();
+		final List<TimezoneInfo> tzinfos = new ArrayList<TimezoneInfo>();
+		ICalendar icalendar = reader.readNext(new ComponentListener() {
+			public void onComponent(ICalComponent component, TimezoneInfo tzinfo, ICalendar ical) {
+				components.add(component);
+				tzinfos.add(tzinfo);
+			}
+		});
+
+		assertSize(icalendar, 0, 0);
+		assertEquals(2, components.size());
+		{
+			VEvent event = (VEvent) components.get(0);
+			assertEquals(utc(2024, 1, 1, 8, 0, 0), event.getDateStart().getValue());
+			assertEquals(1, event.getAlarms().size());
+			assertEquals("TZ", tzinfos.get(0).getTimezone(event.getDateStart()).getComponent().getTimezoneId().getValue());
+		}
+		{
+			VEvent event = (VEvent) components.get(1);
+			assertEquals("two", event.getSummary().getValue());
+		}
+
+		assertParseWarnings(reader);
+		assertNull(reader.readNext());
+	}
+
+	@Test
+	public void reset() throws Throwable {
+		//@formatter:off
+		String json1 =
+		"[" +
+			"[\"vcalendar\"," +
+				"[" +
+					"[\"prodid\", {}, \"text\", \"prodid1\"]" +
+				"]," +
+				"[]" +
+			"]," +
+			"[\"vcalendar\"," +
+				"[" +
+					"[\"prodid\", {}, \"text\", \"unread\"]" +
+				"]," +
+				"[]" +
+			"]" +
+		"]";
+		String json2 =
+		"[\"vcalendar\"," +
+			"[" +
+				"[\"prodid\", {}, \"text\", \"prodid2\"]" +
+			"]," +
+			"[]" +
+		"]";
+		//@formatter:on
+
+		JCalReader reader = new JCalReader(json1);
+		ICalendar ical = reader.readNext();
+		assertEquals("prodid1", ical.getProductId().getValue());
+
+		reader.reset(new StringReader(json2));
+		ical = reader.readNext();
+		assertEquals("prodid2", ical.getProductId().getValue());
+		assertNull(reader.readNext());
+
+		reader.reset(new ByteArrayInputStream(json1.getBytes("UTF-8")));
+		ical = reader.readNext();
+		assertEquals("prodid1", ical.getProductId().getValue());
+	}
+
 	@Test
 	public void read_multiple() throws Throwable {
 		//@formatter:off
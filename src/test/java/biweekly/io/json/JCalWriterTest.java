@@ -11,6 +11,8 @@ import java.io.File;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Rule;
 import org.junit.Test;
@@ -26,6 +28,7 @@ import biweekly.component.VTimezone;
 import biweekly.io.ParseContext;
 import biweekly.io.TimezoneAssignment;
 import biweekly.io.TimezoneInfo;
+import biweekly.io.WriteCache;
 import biweekly.io.WriteContext;
 import biweekly.io.scribe.component.ICalComponentScribe;
 import biweekly.io.scribe.property.ICalPropertyScribe;
@@ -229,6 +232,117 @@ public class JCalWriterTest {
 		assertEquals(expected, actual);
 	}
 
+	@Test
+	public void write_parallel() throws Throwable {
+		ICalendar ical = new ICalendar();
+		ical.setProductId("prodid");
+		for (int i = 0; i < 500; i++) {
+			VEvent event = new VEvent();
+			event.setSummary("summary" + i);
+			event.setDateStart(utc(2013, 6, 11, 13, 43, 2));
+			ical.addEvent(event);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			for (boolean prettyPrint : new boolean[] { false, true }) {
+				StringWriter sw = new StringWriter();
+				JCalWriter writer = new JCalWriter(sw);
+				writer.setPrettyPrint(prettyPrint);
+				writer.write(ical);
+				writer.close();
+				String expected = sw.toString();
+
+				sw = new StringWriter();
+				writer = new JCalWriter(sw);
+				writer.setPrettyPrint(prettyPrint);
+				writer.write(ical, executor);
+				writer.close();
+				assertEquals(expected, sw.toString());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void write_cache() throws Throwable {
+		ICalendar ical = new ICalendar();
+		ical.setProductId("prodid");
+		for (int i = 0; i < 10; i++) {
+			VEvent event = new VEvent();
+			event.setSummary("summary" + i);
+			event.setDateStart(utc(2013, 6, 11, 13, 43, 2));
+			ical.addEvent(event);
+		}
+
+		WriteCache cache = new WriteCache();
+		for (int i = 0; i < 3; i++) {
+			ical.getEvents().get(i).getSummary().setValue("modified" + i);
+
+			StringWriter sw = new StringWriter();
+			JCalWriter writer = new JCalWriter(sw);
+			writer.write(ical);
+			writer.close();
+			String expected = sw.toString();
+
+			sw = new StringWriter();
+			writer = new JCalWriter(sw);
+			writer.setWriteCache(cache);
+			writer.write(ical);
+			writer.close();
+			assertEquals(expected, sw.toString());
+		}
+		assertEquals(12, cache.getMissCount());
+		assertEquals(18, cache.getHitCount());
+	}
+
+	@Test
+	public void write_streaming() throws Throwable {
+		ICalendar ical = new ICalendar();
+		ical.setProductId("prodid");
+
+		StringWriter sw = new StringWriter();
+		JCalWriter writer = new JCalWriter(sw);
+		writer.beginCalendar(ical);
+		for (int i = 1; i <= 2; i++) {
+			VEvent event = new VEvent();
+			event.getProperties().clear();
+			event.setSummary("summary" + i);
+			writer.writeComponent(event);
+		}
+		writer.endCalendar();
+		writer.close();
+
+		//@formatter:off
+		String expected =
+		"[\"vcalendar\"," +
+			"[" +
+				"[\"version\",{},\"text\",\"2.0\"]," +
+				"[\"prodid\",{},\"text\",\"prodid\"]" +
+			"]," +
+			"[" +
+				"[\"vevent\"," +
+					"[" +
+						"[\"summary\",{},\"text\",\"summary1\"]" +
+					"]," +
+					"[" +
+					"]" +
+				"]," +
+				"[\"vevent\"," +
+					"[" +
+						"[\"summary\",{},\"text\",\"summary2\"]" +
+					"]," +
+					"[" +
+					"]" +
+				"]" +
+			"]" +
+		"]";
+		//@formatter:on
+		String actual = sw.toString();
+		assertEquals(expected, actual);
+	}
+
 	@Test
 	public void write_empty() throws Throwable {
 		ICalendar ical = new ICalendar();
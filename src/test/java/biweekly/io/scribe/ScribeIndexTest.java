@@ -5,8 +5,11 @@ import static biweekly.ICalVersion.V2_0;
 import static biweekly.ICalVersion.V2_0_DEPRECATED;
 import static biweekly.util.TestUtils.each;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import javax.xml.namespace.QName;
 
@@ -212,6 +215,48 @@ public class ScribeIndexTest {
 		assertNull(scribe);
 	}
 
+	@Test
+	public void freeze() {
+		ICalPropertyScribe<? extends ICalProperty> customScribe = new ICalPropertyImplScribe();
+		index.register(customScribe);
+
+		ScribeIndex frozen = index.freeze();
+		assertTrue(frozen.isFrozen());
+		assertFalse(index.isFrozen());
+		assertSame(frozen, frozen.freeze());
+		assertEquals(customScribe, frozen.getPropertyScribe(ICalPropertyImpl.class));
+
+		//changes to the original do not affect the frozen copy
+		index.unregister(customScribe);
+		assertEquals(customScribe, frozen.getPropertyScribe(ICalPropertyImpl.class));
+
+		try {
+			frozen.register(new ICalComponentImplScribe());
+			fail();
+		} catch (UnsupportedOperationException e) {
+			//expected
+		}
+
+		try {
+			frozen.unregister(customScribe);
+			fail();
+		} catch (UnsupportedOperationException e) {
+			//expected
+		}
+
+		ScribeIndex copy = new ScribeIndex(frozen);
+		assertFalse(copy.isFrozen());
+		copy.unregister(customScribe);
+		assertNull(copy.getPropertyScribe(ICalPropertyImpl.class));
+	}
+
+	@Test
+	public void getDefault() {
+		ScribeIndex index = ScribeIndex.getDefault();
+		assertTrue(index.isFrozen());
+		assertTrue(index.getComponentScribe("VEVENT", V2_0) instanceof VEventScribe);
+	}
+
 	private class ICalComponentImpl extends ICalComponent {
 		//empty
 	}
@@ -0,0 +1,116 @@
+package biweekly.io.scribe.property;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import biweekly.ICalVersion;
+import biweekly.io.ParseContext;
+import biweekly.io.ParseWarning;
+import biweekly.util.Frequency;
+import biweekly.util.Recurrence;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class RecurrenceCacheTest {
+	private final Recurrence daily = new Recurrence.Builder(Frequency.DAILY).build();
+	private final Recurrence weekly = new Recurrence.Builder(Frequency.WEEKLY).build();
+
+	@Test
+	public void get_put() {
+		RecurrenceCache cache = new RecurrenceCache();
+		ParseContext context = context(1);
+
+		assertNull(cache.get(ICalVersion.V2_0, "FREQ=DAILY", context));
+		cache.put(ICalVersion.V2_0, "FREQ=DAILY", daily, Collections.<ParseWarning> emptyList());
+		assertSame(daily, cache.get(ICalVersion.V2_0, "FREQ=DAILY", context));
+
+		//version is part of the key
+		assertNull(cache.get(ICalVersion.V1_0, "FREQ=DAILY", context));
+
+		assertEquals(1, cache.size());
+		assertEquals(1, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+		assertEquals(0, context.getWarnings().size());
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getHitCount());
+		assertEquals(0, cache.getMissCount());
+	}
+
+	@Test
+	public void warnings_replayed() {
+		RecurrenceCache cache = new RecurrenceCache();
+		ParseWarning warning = new ParseWarning.Builder().lineNumber(1).propertyName("RRULE").message(7, "FREQ", "bad").build();
+		cache.put(ICalVersion.V2_0, "FREQ=bad", daily, Arrays.asList(warning));
+
+		ParseContext context = context(5);
+		context.setPropertyName("EXRULE");
+		assertSame(daily, cache.get(ICalVersion.V2_0, "FREQ=bad", context));
+
+		assertEquals(1, context.getWarnings().size());
+		ParseWarning replayed = context.getWarnings().get(0);
+		assertEquals(warning.getCode(), replayed.getCode());
+		assertEquals(Integer.valueOf(5), replayed.getLineNumber());
+		assertEquals("EXRULE", replayed.getPropertyName());
+	}
+
+	@Test
+	public void eviction() {
+		RecurrenceCache cache = new RecurrenceCache(1);
+		cache.put(ICalVersion.V2_0, "FREQ=DAILY", daily, Collections.<ParseWarning> emptyList());
+		cache.put(ICalVersion.V2_0, "FREQ=WEEKLY", weekly, Collections.<ParseWarning> emptyList());
+		assertEquals(1, cache.size());
+		assertSame(weekly, cache.get(ICalVersion.V2_0, "FREQ=WEEKLY", context(1)));
+
+		cache.setMaxSize(0);
+		assertEquals(0, cache.size());
+		cache.put(ICalVersion.V2_0, "FREQ=DAILY", daily, Collections.<ParseWarning> emptyList());
+		assertNull(cache.get(ICalVersion.V2_0, "FREQ=DAILY", context(1)));
+		assertEquals(0, cache.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void negative_max_size() {
+		new RecurrenceCache(-1);
+	}
+
+	private static ParseContext context(int lineNumber) {
+		ParseContext context = new ParseContext();
+		context.setVersion(ICalVersion.V2_0);
+		context.setLineNumber(lineNumber);
+		return context;
+	}
+}
@@ -8,6 +8,7 @@ import static biweekly.util.TestUtils.utc;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -30,11 +31,13 @@ import biweekly.component.VTimezone;
 import biweekly.io.DataModelConversionException;
 import biweekly.io.ParseContext;
 import biweekly.io.ParseContext.TimezonedDate;
+import biweekly.io.ParseWarning;
 import biweekly.io.TimezoneAssignment;
 import biweekly.io.TimezoneInfo;
 import biweekly.io.json.JCalValue;
 import biweekly.io.json.JsonValue;
 import biweekly.io.scribe.property.Sensei.Check;
+import biweekly.parameter.ICalParameters;
 import biweekly.property.ICalProperty;
 import biweekly.property.RawProperty;
 import biweekly.property.RecurrenceProperty;
@@ -455,6 +458,30 @@ public class RecurrencePropertyScribeTest extends ScribeTest<RecurrenceProperty>
 		sensei.assertParseText("FREQ=WEEKLY;COUNT=5;INTERVAL=10;UNTIL=" + dateTimeStr + ";BYSECOND=58,59;BYMINUTE=3,4;BYHOUR=1,2;BYDAY=MO,TU,WE,TH,FR,SA,SU,5FR;BYMONTHDAY=1,2;BYYEARDAY=100,101;BYWEEKNO=1,2;BYMONTH=5,6;BYSETPOS=7,8,9;WKST=TU;X-NAME=one,two;X-RULE=three").versions(V2_0).run(fullCheck);
 	}
 
+	@Test
+	public void parseText_cache() {
+		String value = "FREQ=WEEKLY;UNTIL=invalid;X-CACHE-TEST=1";
+		long hits = RecurrencePropertyScribe.getCache().getHitCount();
+
+		ParseContext context = new ParseContext();
+		context.setVersion(V2_0);
+		context.setLineNumber(1);
+		RecurrenceProperty first = scribe.parseText(value, ICalDataType.RECUR, new ICalParameters(), context);
+		assertEquals(1, context.getWarnings().size());
+
+		context = new ParseContext();
+		context.setVersion(V2_0);
+		context.setLineNumber(5);
+		RecurrenceProperty second = scribe.parseText(value, ICalDataType.RECUR, new ICalParameters(), context);
+		assertSame(first.getValue(), second.getValue());
+		assertEquals(hits + 1, RecurrencePropertyScribe.getCache().getHitCount());
+
+		assertEquals(1, context.getWarnings().size());
+		ParseWarning warning = context.getWarnings().get(0);
+		assertIntEquals(7, warning.getCode());
+		assertIntEquals(5, warning.getLineNumber());
+	}
+
 	@Test
 	public void parseText_until() {
 		sensei.assertParseText("FREQ=WEEKLY;UNTIL=" + dateTimeStr).versions(V2_0).run(new Check<RecurrenceProperty>() {
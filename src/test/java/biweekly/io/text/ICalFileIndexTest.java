@@ -0,0 +1,199 @@
+package biweekly.io.text;
+
+import static biweekly.io.text.ICalFileTestUtils.HEADER;
+import static biweekly.io.text.ICalFileTestUtils.write;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import biweekly.ICalendar;
+import biweekly.component.VEvent;
+import biweekly.io.TimezoneAssignment;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class ICalFileIndexTest {
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
+	@Test
+	public void build() throws Exception {
+		StringBuilder sb = new StringBuilder(HEADER);
+		for (int i = 0; i < 100; i++) {
+			sb.append("BEGIN:VEVENT\r\n");
+			sb.append("UID:").append(i).append("\r\n");
+			sb.append("DTSTART;TZID=Test:20240101T100000\r\n");
+			sb.append("SUMMARY:Ṧummary ").append(i).append("\r\n");
+			sb.append("BEGIN:VALARM\r\nACTION:DISPLAY\r\nTRIGGER:-PT15M\r\nUID:alarm\r\nEND:VALARM\r\n");
+			sb.append("END:VEVENT\r\n");
+		}
+		sb.append("END:VCALENDAR\r\n");
+		File file = write(tempFolder, sb.toString());
+
+		ICalFileIndex index = ICalFileIndex.build(file);
+		assertEquals(file.length(), index.getFileSize());
+		assertEquals(100, index.getEntries().size());
+
+		List<ICalFileIndex.Entry> entries = index.getEntries("42");
+		assertEquals(1, entries.size());
+		ICalFileIndex.Entry entry = entries.get(0);
+		assertEquals("VEVENT", entry.getComponentName());
+		assertEquals("42", entry.getUid());
+		assertNull(entry.getRecurrenceId());
+		assertEquals("20240101T100000", entry.getDateStart());
+		assertTrue(index.getEntries("alarm").isEmpty());
+
+		ICalendar ical = index.read(file, entry);
+		assertEquals("-//Test//EN", ical.getProductId().getValue());
+		assertEquals(1, ical.getEvents().size());
+		VEvent event = ical.getEvents().get(0);
+		assertEquals("42", event.getUid().getValue());
+		assertEquals("Ṧummary 42", event.getSummary().getValue());
+		assertEquals(1, event.getAlarms().size());
+		TimezoneAssignment assignment = ical.getTimezoneInfo().getTimezone(event.getDateStart());
+		assertNotNull(assignment);
+		assertEquals("Test", assignment.getComponent().getTimezoneId().getValue());
+	}
+
+	@Test
+	public void recurrence_ids_and_multiple_calendars() throws Exception {
+		//@formatter:off
+		String data =
+		HEADER +
+			"BEGIN:VEVENT\r\n" +
+				"UID:r\r\n" +
+				"DTSTART;TZID=Test:20240101T100000\r\n" +
+				"RRULE:FREQ=DAILY\r\n" +
+			"END:VEVENT\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"UID:r\r\n" +
+				"RECURRENCE-ID;TZID=Test:20240102T100000\r\n" +
+				"DTSTART;TZID=\"Te:st\":20240102T1\r\n 10000\r\n" +
+			"END:VEVENT\r\n" +
+			"BEGIN:VTIMEZONE\r\n" +
+				"TZID:Te:st\r\n" +
+				"BEGIN:STANDARD\r\nDTSTART:19700101T000000\r\nTZOFFSETFROM:+0100\r\nTZOFFSETTO:+0100\r\nEND:STANDARD\r\n" +
+			"END:VTIMEZONE\r\n" +
+		"END:VCALENDAR\r\n" +
+		"BEGIN:VCALENDAR\r\n" +
+			"VERSION:2.0\r\n" +
+			"PRODID:two\r\n" +
+			"BEGIN:VTODO\r\n" +
+				"UID:t\r\n" +
+			"END:VTODO\r\n" +
+		"END:VCALENDAR";
+		//@formatter:on
+		File file = write(tempFolder, data);
+
+		ICalFileIndex index = ICalFileIndex.build(file);
+		assertEquals(3, index.getEntries().size());
+
+		List<ICalFileIndex.Entry> entries = index.getEntries("r");
+		assertEquals(2, entries.size());
+		assertNull(entries.get(0).getRecurrenceId());
+		assertEquals("20240102T100000", entries.get(1).getRecurrenceId());
+		assertEquals("20240102T110000", entries.get(1).getDateStart());
+
+		ICalendar ical = index.read(file, entries.get(1));
+		VEvent event = ical.getEvents().get(0);
+		assertEquals("Te:st", ical.getTimezoneInfo().getTimezone(event.getDateStart()).getComponent().getTimezoneId().getValue());
+
+		ICalFileIndex.Entry entry = index.getEntries("t").get(0);
+		assertEquals(1, entry.getCalendar());
+		assertEquals("VTODO", entry.getComponentName());
+		ical = index.read(file, entry);
+		assertEquals("two", ical.getProductId().getValue());
+		assertEquals("t", ical.getTodos().get(0).getUid().getValue());
+		assertTrue(ical.getTimezoneInfo().getComponents().isEmpty());
+	}
+
+	@Test
+	public void save_load() throws Exception {
+		File file = write(tempFolder, HEADER + "BEGIN:VEVENT\r\nUID:1\r\nEND:VEVENT\r\nBEGIN:VJOURNAL\r\nEND:VJOURNAL\r\nEND:VCALENDAR\r\n");
+		ICalFileIndex index = ICalFileIndex.build(file);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		index.save(out);
+		ICalFileIndex loaded = ICalFileIndex.load(new ByteArrayInputStream(out.toByteArray()));
+
+		assertEquals(index.getFileSize(), loaded.getFileSize());
+		assertEquals(index.getEntries().toString(), loaded.getEntries().toString());
+		assertEquals("1", loaded.read(file, loaded.getEntries("1").get(0)).getEvents().get(0).getUid().getValue());
+		assertEquals(1, loaded.read(file, loaded.getEntries().get(1)).getJournals().size());
+
+		try {
+			ICalFileIndex.load(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4 }));
+			fail();
+		} catch (IOException e) {
+			//expected
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void file_changed() throws Exception {
+		File file = write(tempFolder, HEADER + "BEGIN:VEVENT\r\nUID:1\r\nEND:VEVENT\r\nEND:VCALENDAR\r\n");
+		ICalFileIndex index = ICalFileIndex.build(file);
+
+		OutputStream out = new FileOutputStream(file, true);
+		out.write('\n');
+		out.close();
+
+		index.read(file, index.getEntries().get(0));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void file_changed_same_size() throws Exception {
+		String before = HEADER + "BEGIN:VEVENT\r\nUID:1234\r\nEND:VEVENT\r\nEND:VCALENDAR\r\n";
+		String after = HEADER + "X:\r\nBEGIN:VEVENT\r\nUID:\r\nEND:VEVENT\r\nEND:VCALENDAR\r\n";
+		assertEquals(before.length(), after.length());
+
+		File file = write(tempFolder, before);
+		ICalFileIndex index = ICalFileIndex.build(file);
+
+		OutputStream out = new FileOutputStream(file);
+		out.write(after.getBytes("UTF-8"));
+		out.close();
+
+		index.read(file, index.getEntries().get(0));
+	}
+}
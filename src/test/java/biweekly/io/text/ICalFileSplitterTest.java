@@ -0,0 +1,146 @@
+package biweekly.io.text;
+
+import static biweekly.io.text.ICalFileTestUtils.HEADER;
+import static biweekly.io.text.ICalFileTestUtils.write;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import biweekly.ICalendar;
+import biweekly.component.VEvent;
+import biweekly.io.TimezoneAssignment;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class ICalFileSplitterTest {
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
+	@Test
+	public void ranges() throws Exception {
+		StringBuilder sb = new StringBuilder(HEADER);
+		int events = 1000; //large enough to span multiple scan windows
+		for (int i = 0; i < events; i++) {
+			//property names and component names are case-insensitive
+			sb.append((i % 10 == 0) ? "Begin:vevent\r\n" : "BEGIN:VEVENT\r\n");
+			sb.append("UID:").append(i).append("\r\n");
+			sb.append("DTSTART;TZID=Test:20240101T100000\r\n");
+			sb.append("SUMMARY:Ṧummary ").append(i).append("\r\n");
+
+			//folded line that looks like the start of a component
+			sb.append("DESCRIPTION:one\r\n BEGIN:VEVENT\r\n");
+
+			sb.append("BEGIN:VALARM\r\nACTION:DISPLAY\r\nTRIGGER:-PT15M\r\nEND:VALARM\r\n");
+			sb.append("END:VEVENT\r\n");
+		}
+		sb.append("END:VCALENDAR\r\n");
+		File file = write(tempFolder, sb.toString());
+
+		ICalFileSplitter splitter = new ICalFileSplitter(file);
+		try {
+			assertEquals(HEADER.length(), splitter.getHeaderLength());
+
+			for (int count = 1; count <= 7; count++) {
+				long[] bounds = splitter.split(count);
+				List<String> uids = new ArrayList<String>();
+				for (int i = 0; i < count; i++) {
+					ICalReader reader = splitter.reader(bounds[i], bounds[i + 1]);
+					ICalendar ical;
+					while ((ical = reader.readNext()) != null) {
+						assertEquals("-//Test//EN", ical.getProductId().getValue());
+						for (VEvent event : ical.getEvents()) {
+							uids.add(event.getUid().getValue());
+							assertEquals(1, event.getAlarms().size());
+							TimezoneAssignment assignment = ical.getTimezoneInfo().getTimezone(event.getDateStart());
+							assertNotNull(assignment);
+							assertEquals("Test", assignment.getComponent().getTimezoneId().getValue());
+						}
+					}
+					reader.close();
+				}
+
+				assertEquals(events, uids.size());
+				for (int i = 0; i < events; i++) {
+					assertEquals(String.valueOf(i), uids.get(i));
+				}
+			}
+		} finally {
+			splitter.close();
+		}
+	}
+
+	@Test
+	public void concatenated() throws Exception {
+		String ical1 = HEADER + "BEGIN:VEVENT\r\nUID:1\r\nEND:VEVENT\r\nEND:VCALENDAR\r\n";
+		String ical2 = "BEGIN:VCALENDAR\r\nVERSION:2.0\r\nPRODID:two\r\nBEGIN:VTODO\r\nUID:2\r\nEND:VTODO\r\nEND:VCALENDAR\r\n";
+		File file = write(tempFolder, ical1 + ical2);
+
+		ICalFileSplitter splitter = new ICalFileSplitter(file);
+		try {
+			ICalReader reader = splitter.reader(0, ical1.length());
+			ICalendar ical = reader.readNext();
+			assertEquals("1", ical.getEvents().get(0).getUid().getValue());
+			assertNull(reader.readNext());
+
+			reader = splitter.reader(ical1.length() - 5, splitter.size());
+			ical = reader.readNext();
+			assertEquals("two", ical.getProductId().getValue());
+			assertEquals("2", ical.getTodos().get(0).getUid().getValue());
+			assertNull(reader.readNext());
+
+			reader = splitter.reader();
+			assertNotNull(reader.readNext());
+			assertNotNull(reader.readNext());
+			assertNull(reader.readNext());
+		} finally {
+			splitter.close();
+		}
+	}
+
+	@Test
+	public void empty_range() throws Exception {
+		File file = write(tempFolder, HEADER + "BEGIN:VEVENT\r\nUID:1\r\nEND:VEVENT\r\nEND:VCALENDAR\r\n");
+
+		ICalFileSplitter splitter = new ICalFileSplitter(file);
+		try {
+			ICalReader reader = splitter.reader(HEADER.length() + 1, splitter.size());
+			assertNull(reader.readNext());
+		} finally {
+			splitter.close();
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package biweekly.io.text;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.junit.rules.TemporaryFolder;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * Utility methods for the unit tests of the classes that work with iCalendar
+ * files ({@link ICalFileSplitter} and {@link ICalFileIndex}).
+ * @author Michael Angstadt
+ */
+public class ICalFileTestUtils {
+	/**
+	 * The beginning of a VCALENDAR component, including a VTIMEZONE component.
+	 */
+	//@formatter:off
+	public static final String HEADER =
+	"BEGIN:VCALENDAR\r\n" +
+		"VERSION:2.0\r\n" +
+		"PRODID:-//Test//EN\r\n" +
+		"BEGIN:VTIMEZONE\r\n" +
+			"TZID:Test\r\n" +
+			"BEGIN:STANDARD\r\n" +
+				"DTSTART:19700101T000000\r\n" +
+				"TZOFFSETFROM:-0500\r\n" +
+				"TZOFFSETTO:-0500\r\n" +
+			"END:STANDARD\r\n" +
+		"END:VTIMEZONE\r\n";
+	//@formatter:on
+
+	/**
+	 * Writes data to a new temporary file.
+	 * @param folder the temporary folder
+	 * @param data the data (encoded in UTF-8)
+	 * @return the file
+	 * @throws IOException if there's a problem writing the file
+	 */
+	public static File write(TemporaryFolder folder, String data) throws IOException {
+		File file = folder.newFile();
+		OutputStream out = new FileOutputStream(file);
+		try {
+			out.write(data.getBytes("UTF-8"));
+		} finally {
+			out.close();
+		}
+		return file;
+	}
+
+	private ICalFileTestUtils() {
+		//hide
+	}
+}
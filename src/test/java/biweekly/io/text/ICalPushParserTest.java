@@ -0,0 +1,163 @@
+package biweekly.io.text;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import biweekly.ICalendar;
+import biweekly.component.ICalComponent;
+import biweekly.component.VEvent;
+import biweekly.io.ParseWarning;
+import biweekly.io.TimezoneAssignment;
+import biweekly.io.TimezoneInfo;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class ICalPushParserTest {
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	//@formatter:off
+	private static final String ICAL =
+	"BEGIN:VCALENDAR\r\n" +
+		"VERSION:2.0\r\n" +
+		"PRODID:-//Test//EN\r\n" +
+		"BEGIN:VTIMEZONE\r\n" +
+			"TZID:Test\r\n" +
+			"BEGIN:STANDARD\r\n" +
+				"DTSTART:19700101T000000\r\n" +
+				"TZOFFSETFROM:-0500\r\n" +
+				"TZOFFSETTO:-0500\r\n" +
+			"END:STANDARD\r\n" +
+		"END:VTIMEZONE\r\n" +
+		"BEGIN:VEVENT\r\n" +
+			"UID:1\r\n" +
+			"DTSTART;TZID=Test:20240101T100000\r\n" +
+			"SUMMARY:Ṧummary\r\n" +
+			"  one\r\n" +
+		"END:VEVENT\r\n" +
+		"BEGIN:VEVENT\r\n" +
+			"UID:2\r\n" +
+			"malformed line\r\n" +
+		"END:VEVENT\r\n" +
+	"END:VCALENDAR\r\n" +
+	"BEGIN:VCALENDAR\r\n" +
+		"VERSION:2.0\r\n" +
+		"PRODID:two\r\n" +
+	"END:VCALENDAR";
+	//@formatter:on
+
+	@Test
+	public void chunks() throws Exception {
+		byte[] bytes = ICAL.getBytes(UTF8);
+		for (int chunkSize : new int[] { 1, 2, 3, 7, 64, bytes.length }) {
+			CollectingListener listener = new CollectingListener();
+			ICalPushParser parser = new ICalPushParser(listener);
+			for (int i = 0; i < bytes.length; i += chunkSize) {
+				parser.feed(ByteBuffer.wrap(bytes, i, Math.min(chunkSize, bytes.length - i)));
+			}
+
+			//the second VCALENDAR component has not ended yet
+			assertEquals(1, listener.icals.size());
+			parser.end();
+			assertEquals(2, listener.icals.size());
+
+			ICalendar ical = listener.icals.get(0);
+			assertEquals("-//Test//EN", ical.getProductId().getValue());
+			List<VEvent> events = ical.getEvents();
+			assertEquals(2, events.size());
+			assertEquals("Ṧummary one", events.get(0).getSummary().getValue());
+			TimezoneAssignment assignment = ical.getTimezoneInfo().getTimezone(events.get(0).getDateStart());
+			assertNotNull(assignment);
+			assertEquals("Test", assignment.getComponent().getTimezoneId().getValue());
+
+			List<ParseWarning> warnings = listener.warnings.get(0);
+			assertEquals(1, warnings.size());
+			assertEquals(Integer.valueOf(20), warnings.get(0).getLineNumber());
+
+			assertEquals("two", listener.icals.get(1).getProductId().getValue());
+			assertEquals(0, listener.warnings.get(1).size());
+		}
+	}
+
+	@Test
+	public void streaming_components() throws Exception {
+		CollectingListener listener = new CollectingListener();
+		ICalPushParser parser = new ICalPushParser(listener);
+		parser.setStreamingComponents(true);
+
+		byte[] bytes = ICAL.getBytes(UTF8);
+		//a line isn't complete until the first byte of the next line arrives, since the next line could be folded
+		int firstEventEnd = ICAL.substring(0, ICAL.indexOf("BEGIN:VEVENT\r\nUID:2")).getBytes(UTF8).length + 1;
+		parser.feed(ByteBuffer.wrap(bytes, 0, firstEventEnd));
+		assertEquals(1, listener.components.size());
+		assertEquals("1", ((VEvent) listener.components.get(0)).getUid().getValue());
+		assertTrue(listener.icals.isEmpty());
+
+		parser.feed(ByteBuffer.wrap(bytes, firstEventEnd, bytes.length - firstEventEnd));
+		parser.end();
+		assertEquals(2, listener.components.size());
+		assertEquals(2, listener.icals.size());
+		assertEquals(0, listener.icals.get(0).getEvents().size());
+	}
+
+	@Test
+	public void feed_after_end() throws Exception {
+		ICalPushParser parser = new ICalPushParser(new CollectingListener());
+		parser.end();
+		try {
+			parser.feed(ByteBuffer.wrap(ICAL.getBytes(UTF8)));
+			fail();
+		} catch (IllegalStateException e) {
+			//expected
+		}
+	}
+
+	private static class CollectingListener implements ICalPushParser.Listener {
+		private final List<ICalendar> icals = new ArrayList<ICalendar>();
+		private final List<List<ParseWarning>> warnings = new ArrayList<List<ParseWarning>>();
+		private final List<ICalComponent> components = new ArrayList<ICalComponent>();
+
+		public void onComponent(ICalComponent component, TimezoneInfo tzinfo, ICalendar ical) {
+			components.add(component);
+		}
+
+		public void onICalendar(ICalendar ical, List<ParseWarning> warnings) {
+			icals.add(ical);
+			this.warnings.add(warnings);
+		}
+	}
+}
@@ -17,10 +17,14 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.StringReader;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.TimeZone;
 
 import org.junit.ClassRule;
@@ -28,6 +32,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import biweekly.Biweekly;
 import biweekly.ICalDataType;
 import biweekly.ICalendar;
 import biweekly.component.DaylightSavingsTime;
@@ -40,6 +45,7 @@ import biweekly.component.VFreeBusy;
 import biweekly.component.VJournal;
 import biweekly.component.VTimezone;
 import biweekly.component.VTodo;
+import biweekly.io.ComponentListener;
 import biweekly.io.ICalTimeZone;
 import biweekly.io.ParseContext;
 import biweekly.io.ParseWarning;
@@ -152,6 +158,202 @@ public class ICalReaderTest {
 		assertNull(reader.readNext());
 	}
 
+	@Test
+	public void readNext_listener() throws Throwable {
+		//@formatter:off
+		String ical =
+		"BEGIN:VCALENDAR\r\n" +
+			"VERSION:2.0\r\n" +
+			"PRODID:prodid\r\n" +
+			"BEGIN:VTIMEZONE\r\n" +
+				"TZID:TZ\r\n" +
+				"BEGIN:STANDARD\r\n" +
+					"DTSTART:19700101T000000\r\n" +
+					"TZOFFSETFROM:+0200\r\n" +
+					"TZOFFSETTO:+0200\r\n" +
+				"END:STANDARD\r\n" +
+			"END:VTIMEZONE\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"DTSTART;TZID=TZ:20240101T100000\r\n" +
+			"END:VEVENT\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"DTSTART:20240101T100000\r\n" +
+				"BEGIN:VALARM\r\n" +
+				"END:VALARM\r\n" +
+			"END:VEVENT\r\n" +
+			"BEGIN:VTODO\r\n" +
+				"SUMMARY:todo\r\n" +
+			"END:VTODO\r\n" +
+			"X-TEST:value\r\n" +
+		"END:VCALENDAR\r\n";
+		//@formatter:on
+
+		ICalReader reader = new ICalReader(ical);
+		final List<ICalComponent> components = new ArrayList<ICalComponent>();
+		final List<TimezoneInfo> tzinfos = new ArrayList<TimezoneInfo>();
+		ICalendar icalendar = reader.readNext(new ComponentListener() {
+			public void onComponent(ICalComponent component, TimezoneInfo tzinfo, ICalendar ical) {
+				assertEquals("prodid", ical.getProductId().getValue());
+				components.add(component);
+				tzinfos.add(tzinfo);
+			}
+		});
+
+		//components are not added to the ICalendar object
+		assertSize(icalendar, 0, 2);
+		assertEquals("value", icalendar.getExperimentalProperty("X-TEST").getValue());
+		assertEquals(1, icalendar.getTimezoneInfo().getTimezones().size());
+
+		assertEquals(3, components.size());
+		{
+			VEvent event = (VEvent) components.get(0);
+			assertEquals(utc(2024, 1, 1, 8, 0, 0), event.getDateStart().getValue());
+			assertNull(event.getDateStart().getParameters().getTimezoneId());
+
+			TimezoneInfo tzinfo = tzinfos.get(0);
+			assertEquals("TZ", tzinfo.getTimezone(event.getDateStart()).getComponent().getTimezoneId().getValue());
+		}
+		{
+			VEvent event = (VEvent) components.get(1);
+			assertEquals(date(2024, 1, 1, 10, 0, 0), event.getDateStart().getValue());
+			assertEquals(1, event.getAlarms().size());
+
+			TimezoneInfo tzinfo = tzinfos.get(1);
+			assertTrue(tzinfo.isFloating(event.getDateStart()));
+		}
+		{
+			VTodo todo = (VTodo) components.get(2);
+			assertEquals("todo", todo.getSummary().getValue());
+		}
+
+		assertParseWarnings(reader);
+		assertNull(reader.readNext());
+	}
+
+	@Test
+	public void lazyParsing() throws Throwable {
+		//@formatter:off
+		String ical =
+		"BEGIN:VCALENDAR\r\n" +
+			"VERSION:2.0\r\n" +
+			"PRODID:prodid\r\n" +
+			"BEGIN:VTIMEZONE\r\n" +
+				"TZID:TZ\r\n" +
+				"BEGIN:STANDARD\r\n" +
+					"DTSTART:19700101T000000\r\n" +
+					"TZOFFSETFROM:+0200\r\n" +
+					"TZOFFSETTO:+0200\r\n" +
+				"END:STANDARD\r\n" +
+			"END:VTIMEZONE\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"SUMMARY:one\r\n" +
+				"DTSTART;TZID=TZ:20240101T100000\r\n" +
+				"DTEND:invalid\r\n" +
+				"X-TEST:value\r\n" +
+				"SUMMARY:two\r\n" +
+			"END:VEVENT\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"DTSTART:20240101T100000\r\n" +
+			"END:VEVENT\r\n" +
+		"END:VCALENDAR\r\n";
+		//@formatter:on
+
+		ICalReader reader = new ICalReader(ical);
+		assertFalse(reader.isLazyParsing());
+		reader.setLazyParsing(true);
+		ICalendar icalendar = reader.readNext();
+		assertParseWarnings(reader);
+		assertEquals("prodid", icalendar.getProductId().getValue());
+
+		{
+			VEvent event = icalendar.getEvents().get(0);
+
+			assertEquals(utc(2024, 1, 1, 8, 0, 0), event.getDateStart().getValue());
+			assertNull(event.getDateStart().getParameters().getTimezoneId());
+			TimezoneInfo tzinfo = icalendar.getTimezoneInfo();
+			assertEquals("TZ", tzinfo.getTimezone(event.getDateStart()).getComponent().getTimezoneId().getValue());
+
+			//property order is preserved
+			List<Summary> summaries = event.getProperties(Summary.class);
+			assertEquals("one", summaries.get(0).getValue());
+			assertEquals("two", summaries.get(1).getValue());
+
+			//invalid values are converted to raw properties
+			assertNull(event.getDateEnd());
+			assertEquals("invalid", event.getExperimentalProperty("DTEND").getValue());
+		}
+		{
+			VEvent event = icalendar.getEvents().get(1);
+			assertEquals(date(2024, 1, 1, 10, 0, 0), event.getDateStart().getValue());
+			assertTrue(icalendar.getTimezoneInfo().isFloating(event.getDateStart()));
+		}
+
+		assertNull(reader.readNext());
+
+		//the result is the same as when the values are parsed right away
+		ICalendar expected = Biweekly.parse(ical).first();
+		reader = new ICalReader(ical);
+		reader.setLazyParsing(true);
+		ICalendar actual = reader.readNext();
+		assertEquals(expected, actual);
+		assertEquals(expected.getEvents().get(0).getProperties().keySet(), actual.getEvents().get(0).getProperties().keySet());
+	}
+
+	@Test
+	public void reset() throws Throwable {
+		//@formatter:off
+		String ical1 =
+		"BEGIN:VCALENDAR\r\n" +
+			"VERSION:2.0\r\n" +
+			"PRODID;X-TEST=^'one^':one\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"SUMMARY:one\r\n" +
+			"END:VEVENT\r\n" +
+		"END:VCALENDAR\r\n" +
+		"BEGIN:VCALENDAR\r\n" +
+			"VERSION:2.0\r\n" +
+			"PRODID:unread\r\n" +
+		"END:VCALENDAR\r\n";
+		String ical2 =
+		"BEGIN:VCALENDAR\r\n" +
+			"VERSION:1.0\r\n" +
+			"PRODID;X-TEST=^'two^':two\r\n" +
+		"END:VCALENDAR\r\n";
+		String partial =
+		"BEGIN:VCALENDAR\r\n" +
+			"VERSION:2.0\r\n" +
+			"BEGIN:VEVENT\r\n";
+		//@formatter:on
+
+		ICalReader reader = new ICalReader(new ByteArrayInputStream(ical1.getBytes("UTF-8")));
+		reader.setCaretDecodingEnabled(false);
+
+		ICalendar icalendar = reader.readNext();
+		assertEquals("one", icalendar.getProductId().getValue());
+		assertEquals("^'one^'", icalendar.getProductId().getParameter("X-TEST"));
+
+		reader.reset(new ByteArrayInputStream(ical2.getBytes("UTF-8")));
+		icalendar = reader.readNext();
+		assertEquals("two", icalendar.getProductId().getValue());
+		assertVersion(V1_0, icalendar);
+		assertNull(reader.readNext());
+
+		reader.reset(new ByteArrayInputStream(partial.getBytes("UTF-8")));
+		icalendar = reader.readNext();
+		assertEquals(1, icalendar.getEvents().size());
+
+		reader.reset(new StringReader(ical1));
+		assertFalse(reader.isCaretDecodingEnabled());
+		icalendar = reader.readNext();
+		assertEquals("one", icalendar.getProductId().getValue());
+		assertEquals(1, icalendar.getEvents().size());
+
+		reader.reset(new ByteArrayInputStream(ical2.getBytes("UTF-8")));
+		icalendar = reader.readNext();
+		assertEquals("two", icalendar.getProductId().getValue());
+		assertNull(reader.readNext());
+	}
+
 	@Test
 	public void read_multiple() throws Throwable {
 		//@formatter:off
@@ -9,11 +9,25 @@ import static biweekly.util.TestUtils.date;
 import static biweekly.util.TestUtils.each;
 import static biweekly.util.TestUtils.utc;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Rule;
 import org.junit.Test;
@@ -35,6 +49,7 @@ import biweekly.io.ICalTimeZone;
 import biweekly.io.ParseContext;
 import biweekly.io.TimezoneAssignment;
 import biweekly.io.TimezoneInfo;
+import biweekly.io.WriteCache;
 import biweekly.io.WriteContext;
 import biweekly.io.scribe.component.ICalComponentScribe;
 import biweekly.io.scribe.property.ICalPropertyScribe;
@@ -61,6 +76,8 @@ import biweekly.util.DayOfWeek;
 import biweekly.util.Duration;
 import biweekly.util.Frequency;
 import biweekly.util.Gobble;
+import biweekly.util.ICalDate;
+import biweekly.util.ModificationStamps;
 import biweekly.util.Period;
 import biweekly.util.Recurrence;
 import biweekly.util.UtcOffset;
@@ -804,6 +821,340 @@ public class ICalWriterTest {
 		assertEquals(expected, actual);
 	}
 
+	@Test
+	public void streaming() throws Throwable {
+		for (ICalVersion version : ICalVersion.values()) {
+			ICalendar ical = new ICalendar();
+			ical.setTimezoneInfo(americaNewYork());
+
+			List<VEvent> events = new ArrayList<VEvent>();
+			for (int i = 0; i < 3; i++) {
+				VEvent event = new VEvent();
+				event.setSummary("event " + i);
+				event.setDateStart(utc(1996, 7, 4 + i, 12, 0, 0));
+				event.addAlarm(VAlarm.display(new Trigger(new Duration.Builder().prior(true).minutes(15).build(), null), "alarm"));
+				events.add(event);
+			}
+
+			StringWriter sw = new StringWriter();
+			ICalWriter writer = new ICalWriter(sw, version);
+			writer.beginCalendar(ical);
+			for (VEvent event : events) {
+				writer.writeComponent(event);
+			}
+			writer.endCalendar();
+			writer.close();
+			String actual = sw.toString();
+
+			for (VEvent event : events) {
+				ical.addEvent(event);
+			}
+			sw = new StringWriter();
+			writer = new ICalWriter(sw, version);
+			writer.write(ical);
+			writer.close();
+			String expected = sw.toString();
+
+			assertEquals(version.toString(), expected, actual);
+		}
+	}
+
+	@Test
+	public void byte_channel() throws Throwable {
+		for (ICalVersion version : ICalVersion.values()) {
+			ICalendar ical = new ICalendar();
+			ical.setTimezoneInfo(americaNewYork());
+			VEvent event = new VEvent();
+			event.setSummary("Ṧummary 😀 with a long value that is going to have to be folded, and\r\na newline");
+			event.setDateStart(utc(1996, 7, 4, 12, 0, 0));
+			event.setDescription("café").getParameters().put("X-PARAM", "a,b;c");
+			ical.addEvent(event);
+
+			StringWriter sw = new StringWriter();
+			ICalWriter writer = new ICalWriter(sw, version);
+			writer.write(ical);
+			writer.close();
+			String expected = sw.toString();
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			writer = new ICalWriter(Channels.newChannel(out), version);
+			writer.write(ical);
+			writer.close();
+			assertEquals(version.toString(), expected, new String(out.toByteArray(), "UTF-8"));
+
+			ByteBuffer buffer = ByteBuffer.allocate(out.size());
+			writer = new ICalWriter(buffer, version);
+			writer.write(ical);
+			writer.close();
+			assertEquals(version.toString(), expected, new String(buffer.array(), 0, buffer.position(), "UTF-8"));
+		}
+	}
+
+	@Test
+	public void write_parallel() throws Throwable {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			for (ICalVersion version : ICalVersion.values()) {
+				ICalendar ical = new ICalendar();
+				ical.setTimezoneInfo(americaNewYork());
+				for (int i = 0; i < 500; i++) {
+					VEvent event = new VEvent();
+					event.setSummary("event " + i + " with a summary that is long enough to be folded onto a second line");
+					event.setDateStart(utc(1990 + i % 20, 7, 4, 12, 0, 0));
+					event.addAlarm(VAlarm.display(new Trigger(new Duration.Builder().prior(true).minutes(15).build(), null), "alarm"));
+					ical.addEvent(event);
+				}
+				VTodo todo = new VTodo();
+				todo.setSummary("todo");
+				ical.addTodo(todo);
+
+				StringWriter sw = new StringWriter();
+				ICalWriter writer = new ICalWriter(sw, version);
+				writer.write(ical);
+				writer.close();
+				String expected = sw.toString();
+
+				sw = new StringWriter();
+				writer = new ICalWriter(sw, version);
+				writer.write(ical, executor);
+				writer.close();
+				assertEquals(version.toString(), expected, sw.toString());
+
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				writer = new ICalWriter(Channels.newChannel(out), version);
+				writer.write(ical, executor);
+				writer.close();
+				assertEquals(version.toString(), expected, new String(out.toByteArray(), "UTF-8"));
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void write_parallel_executor_busy() throws Throwable {
+		final ICalendar ical = new ICalendar();
+		for (int i = 0; i < 500; i++) {
+			VEvent event = new VEvent();
+			event.setSummary("event " + i);
+			ical.addEvent(event);
+		}
+
+		StringWriter sw = new StringWriter();
+		ICalWriter writer = new ICalWriter(sw, V2_0);
+		writer.write(ical);
+		writer.close();
+		String expected = sw.toString();
+
+		//called from the executor's only worker thread
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<String> future = executor.submit(new Callable<String>() {
+				public String call() throws Exception {
+					StringWriter sw = new StringWriter();
+					ICalWriter writer = new ICalWriter(sw, V2_0);
+					writer.write(ical, executor);
+					writer.close();
+					return sw.toString();
+				}
+			});
+			assertEquals(expected, future.get(10, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdown();
+		}
+
+		//the executor rejects every task
+		sw = new StringWriter();
+		writer = new ICalWriter(sw, V2_0);
+		writer.write(ical, new Executor() {
+			public void execute(Runnable command) {
+				throw new RejectedExecutionException();
+			}
+		});
+		writer.close();
+		assertEquals(expected, sw.toString());
+	}
+
+	@Test
+	public void write_cache() throws Throwable {
+		for (ICalVersion version : ICalVersion.values()) {
+			ICalendar ical = new ICalendar();
+			ical.setTimezoneInfo(americaNewYork());
+			VEvent event1 = new VEvent();
+			event1.setSummary("one");
+			event1.setDateStart(utc(2013, 6, 11, 13, 43, 2));
+			ical.addEvent(event1);
+			VEvent event2 = new VEvent();
+			event2.setSummary("two");
+			ical.addEvent(event2);
+			VEvent event3 = new VEvent();
+			event3.addCategories("three");
+			ical.addEvent(event3);
+
+			WriteCache cache = new WriteCache();
+			WriteCache byteCache = new WriteCache();
+			assertCachedWrite(ical, version, cache, byteCache);
+			assertCachedWrite(ical, version, cache, byteCache);
+			if (version == V2_0) {
+				//3 events + 1 timezone
+				assertEquals(4, cache.size());
+				assertEquals(4, cache.getMissCount());
+				assertEquals(4, cache.getHitCount());
+			}
+
+			event2.getSummary().setLanguage("en");
+			event3.getCategories().get(0).getValues().add("four");
+			assertCachedWrite(ical, version, cache, byteCache);
+			if (version == V2_0) {
+				assertEquals(6, cache.getMissCount());
+				assertEquals(6, cache.getHitCount());
+			}
+
+			event1.getDateStart().setValue(new ICalDate(utc(2014, 6, 11, 13, 43, 2)));
+			assertCachedWrite(ical, version, cache, byteCache);
+
+			ical.getTimezoneInfo().setFloating(event1.getDateStart(), true);
+			assertCachedWrite(ical, version, cache, byteCache);
+
+			cache.clear();
+			assertEquals(0, cache.size());
+		}
+	}
+
+	@Test
+	public void write_cache_untracked_property() throws Throwable {
+		ICalendar ical = new ICalendar();
+		VEvent event = new VEvent();
+		TestProperty property = new TestProperty("one");
+		event.addProperty(property);
+		ical.addEvent(event);
+		assertEquals(ModificationStamps.ALWAYS_MODIFIED, property.getModificationStamp());
+
+		WriteCache cache = new WriteCache();
+		assertTrue(writeWithCache(ical, cache).contains("X-TEST:one\r\n"));
+
+		//the change is not recorded, so the property must not be served from the cache
+		property.value = "two";
+		assertTrue(writeWithCache(ical, cache).contains("X-TEST:two\r\n"));
+		assertEquals(0, cache.getHitCount());
+	}
+
+	private String writeWithCache(ICalendar ical, WriteCache cache) throws IOException {
+		StringWriter sw = new StringWriter();
+		ICalWriter writer = new ICalWriter(sw, V2_0);
+		writer.registerScribe(new TestPropertyMarshaller());
+		writer.setWriteCache(cache);
+		writer.write(ical);
+		writer.close();
+		return sw.toString();
+	}
+
+	private static void assertCachedWrite(ICalendar ical, ICalVersion version, WriteCache cache, WriteCache byteCache) throws Throwable {
+		StringWriter sw = new StringWriter();
+		ICalWriter writer = new ICalWriter(sw, version);
+		writer.write(ical);
+		writer.close();
+		String expected = sw.toString();
+
+		sw = new StringWriter();
+		writer = new ICalWriter(sw, version);
+		writer.setWriteCache(cache);
+		writer.write(ical);
+		writer.close();
+		assertEquals(version.toString(), expected, sw.toString());
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		writer = new ICalWriter(Channels.newChannel(out), version);
+		writer.setWriteCache(byteCache);
+		writer.write(ical);
+		writer.close();
+		assertEquals(version.toString(), expected, new String(out.toByteArray(), "UTF-8"));
+	}
+
+	@Test
+	public void write_cache_parallel() throws Throwable {
+		ICalendar ical = new ICalendar();
+		ical.setTimezoneInfo(americaNewYork());
+		for (int i = 0; i < 200; i++) {
+			VEvent event = new VEvent();
+			event.setSummary("event " + i);
+			event.setDateStart(utc(1990 + i % 20, 7, 4, 12, 0, 0));
+			ical.addEvent(event);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			WriteCache cache = new WriteCache();
+			for (int i = 0; i < 3; i++) {
+				ical.getEvents().get(i * 50).setSummary("modified " + i);
+
+				StringWriter sw = new StringWriter();
+				ICalWriter writer = new ICalWriter(sw, V1_0);
+				writer.write(ical);
+				writer.close();
+				String expected = sw.toString();
+
+				sw = new StringWriter();
+				writer = new ICalWriter(sw, V1_0);
+				writer.setWriteCache(cache);
+				writer.write(ical, executor);
+				writer.close();
+				assertEquals(expected, sw.toString());
+			}
+			assertEquals(202, cache.getMissCount());
+			assertEquals(398, cache.getHitCount());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void streaming_state() throws Throwable {
+		StringWriter sw = new StringWriter();
+		ICalWriter writer = new ICalWriter(sw, V2_0);
+
+		try {
+			writer.writeComponent(new VEvent());
+			fail();
+		} catch (IllegalStateException e) {
+			//expected
+		}
+
+		try {
+			writer.endCalendar();
+			fail();
+		} catch (IllegalStateException e) {
+			//expected
+		}
+
+		writer.beginCalendar(new ICalendar());
+
+		try {
+			writer.beginCalendar(new ICalendar());
+			fail();
+		} catch (IllegalStateException e) {
+			//expected
+		}
+
+		try {
+			writer.write(new ICalendar());
+			fail();
+		} catch (IllegalStateException e) {
+			//expected
+		}
+
+		try {
+			writer.writeComponent(new Party());
+			fail();
+		} catch (IllegalArgumentException e) {
+			//expected
+		}
+
+		writer.endCalendar();
+		writer.write(new ICalendar());
+		writer.close();
+	}
+
 	@Test
 	public void example1() throws Throwable {
 		ICalendar ical = new ICalendar();
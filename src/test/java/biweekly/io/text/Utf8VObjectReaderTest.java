@@ -0,0 +1,285 @@
+package biweekly.io.text;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.mangstadt.vinnie.SyntaxStyle;
+import com.github.mangstadt.vinnie.VObjectProperty;
+import com.github.mangstadt.vinnie.io.Context;
+import com.github.mangstadt.vinnie.io.SyntaxRules;
+import com.github.mangstadt.vinnie.io.VObjectDataListener;
+import com.github.mangstadt.vinnie.io.VObjectReader;
+import com.github.mangstadt.vinnie.io.Warning;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * Checks that {@link Utf8VObjectReader} produces the same output as vinnie's
+ * {@link VObjectReader}.
+ * @author Michael Angstadt
+ */
+public class Utf8VObjectReaderTest {
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	@Test
+	public void same_as_vinnie() throws Exception {
+		//@formatter:off
+		String[] inputs = {
+			"",
+			"\r\n\r\n",
+			"BEGIN:VCALENDAR\r\nVERSION:2.0\r\nEND:VCALENDAR\r\n",
+			"BEGIN:VCALENDAR\nVERSION:2.0\nSUMMARY:one\n two\n\tthree\nEND:VCALENDAR",
+			"BEGIN:VCALENDAR\rVERSION:2.0\rSUMMARY:été Ṧummary 😀\rEND:VCALENDAR\r",
+			"BEGIN:VCALENDAR\r\nVERSION:2.0\r\ngroup.X-TEST;A=1;B=\"x;y:z\",2;C=a^nb^^c^'d^e:value;with:colons\r\nEND:VCALENDAR\r\n",
+			"BEGIN:VCALENDAR\r\nVERSION:2.0\r\nX-TEST;NAMELESS;A=:\r\nmalformed line\r\nBEGIN:\r\nEND:\r\nEND:VEVENT\r\nEND:VCALENDAR\r\n",
+			"BEGIN:VCALENDAR\r\nVERSION:3.0\r\nBEGIN:VEVENT\r\nBEGIN:VALARM\r\nEND:VEVENT\r\nEND:VCALENDAR\r\n",
+			"BEGIN:VCALENDAR\r\nVERSION:1.0\r\nX-TEST;A = 1 ;QUOTED-PRINTABLE;CHARSET=UTF-8:caf=C3=\r\n=A9 =\r\n  done\r\nX-TEST;A=\\;x\\\\y\\z:v\r\nSUMMARY:folded\r\n   \t line\r\nX-BAD;ENCODING=QUOTED-PRINTABLE;CHARSET=nope:a=3Db\r\nX-BAD;ENCODING=QUOTED-PRINTABLE:=ZZ\r\n BEGIN : vevent \r\nEND:VEVENT\r\nEND:VCALENDAR\r\n",
+			"BEGIN:VCALENDAR\r\nVERSION:2.0\r\nEND:VCALENDAR\r\nBEGIN:VCALENDAR\r\nVERSION:1.0\r\nEND:VCALENDAR\r\n",
+			"éBEGIN:VCALENDAR\r\nÿþ:é\r\nX:\r\n",
+		};
+		//@formatter:on
+
+		for (String input : inputs) {
+			byte[] bytes = input.getBytes(UTF8);
+			assertSameAsVinnie(input, bytes, SyntaxStyle.NEW, true);
+			assertSameAsVinnie(input, bytes, SyntaxStyle.NEW, false);
+			assertSameAsVinnie(input, bytes, SyntaxStyle.OLD, true);
+		}
+	}
+
+	@Test
+	public void same_as_vinnie_sample_files() throws Exception {
+		//@formatter:off
+		String[] files = {
+			"outlook-2010.ics",
+			"rfc5545-example1.ics", "rfc5545-example2.ics", "rfc5545-example3.ics",
+			"rfc5545-example4.ics", "rfc5545-example5.ics", "rfc5545-example6.ics",
+			"vcal-example1.vcs", "vcal-example2.vcs", "vcal-example3.vcs"
+		};
+		//@formatter:on
+
+		for (String file : files) {
+			byte[] bytes = read(getClass().getResourceAsStream(file));
+			assertSameAsVinnie(file, bytes, SyntaxStyle.NEW, true);
+		}
+	}
+
+	@Test
+	public void malformed_utf8() throws Exception {
+		byte[] bytes = { 'X', ':', (byte) 0xc3, '\r', '\n', 'Y', (byte) 0xff, ':', (byte) 0xe2, (byte) 0x82, '\r', '\n' };
+		assertSameAsVinnie("malformed", bytes, SyntaxStyle.NEW, true);
+	}
+
+	@Test
+	public void channel_boundaries() throws Exception {
+		StringBuilder sb = new StringBuilder("BEGIN:VCALENDAR\r\n");
+		for (int i = 0; i < 2000; i++) {
+			sb.append("X-TEST;PARAM=é").append(i).append(":Ṧvalue ").append(i).append("\r\n folded\r\n");
+		}
+		sb.append("END:VCALENDAR\r\n");
+		byte[] bytes = sb.toString().getBytes(UTF8);
+
+		List<String> expected = parseWithVinnie(bytes, SyntaxStyle.NEW, true);
+		Utf8VObjectReader reader = new Utf8VObjectReader(Channels.newChannel(new ByteArrayInputStream(bytes)), rules(SyntaxStyle.NEW), UTF8);
+		assertEquals(expected, parse(reader));
+	}
+
+	@Test
+	public void push() throws Exception {
+		String input = "BEGIN:VCALENDAR\r\nVERSION:1.0\r\nSUMMARY:été\r\n folded\r\nX-TEST;ENCODING=QUOTED-PRINTABLE:a=\r\nb\r\nBEGIN:VEVENT\r\nEND:VEVENT\r\nEND:VCALENDAR";
+		byte[] bytes = input.getBytes(UTF8);
+		List<String> expected = parseWithVinnie(bytes, SyntaxStyle.NEW, true);
+
+		for (int chunkSize = 1; chunkSize <= bytes.length; chunkSize++) {
+			Utf8VObjectReader reader = new Utf8VObjectReader(rules(SyntaxStyle.NEW), UTF8);
+			List<String> actual = new ArrayList<String>();
+			for (int i = 0; i < bytes.length; i += chunkSize) {
+				reader.feed(ByteBuffer.wrap(bytes, i, Math.min(chunkSize, bytes.length - i)));
+				actual.addAll(parse(reader));
+				assertTrue(reader.isSuspended());
+			}
+			reader.endInput();
+			actual.addAll(parse(reader));
+
+			assertEquals("chunk size " + chunkSize, expected, actual);
+		}
+	}
+
+	@Test
+	public void non_blocking_channel() throws Exception {
+		String input = "BEGIN:VCALENDAR\r\nVERSION:1.0\r\nSUMMARY:été\r\n folded\r\nX-TEST;ENCODING=QUOTED-PRINTABLE:a=\r\nb\r\nBEGIN:VEVENT\r\nEND:VEVENT\r\nEND:VCALENDAR";
+		byte[] bytes = input.getBytes(UTF8);
+		List<String> expected = parseWithVinnie(bytes, SyntaxStyle.NEW, true);
+
+		for (int chunkSize = 1; chunkSize <= bytes.length; chunkSize++) {
+			Utf8VObjectReader reader = new Utf8VObjectReader(new TrickleChannel(bytes, chunkSize), rules(SyntaxStyle.NEW), UTF8);
+			List<String> actual = new ArrayList<String>();
+			do {
+				actual.addAll(parse(reader));
+			} while (reader.isSuspended());
+
+			assertEquals("chunk size " + chunkSize, expected, actual);
+		}
+	}
+
+	/**
+	 * A non-blocking channel that returns a fixed number of bytes at a time,
+	 * and has no data available after every read.
+	 */
+	private static class TrickleChannel implements ReadableByteChannel {
+		private final byte[] bytes;
+		private final int chunkSize;
+		private int pos = 0;
+		private boolean empty = false;
+
+		public TrickleChannel(byte[] bytes, int chunkSize) {
+			this.bytes = bytes;
+			this.chunkSize = chunkSize;
+		}
+
+		public int read(ByteBuffer dst) {
+			if (pos == bytes.length) {
+				return -1;
+			}
+
+			empty = !empty;
+			if (empty) {
+				return 0;
+			}
+
+			int length = Math.min(Math.min(chunkSize, bytes.length - pos), dst.remaining());
+			dst.put(bytes, pos, length);
+			pos += length;
+			return length;
+		}
+
+		public boolean isOpen() {
+			return true;
+		}
+
+		public void close() {
+			//empty
+		}
+	}
+
+	private static void assertSameAsVinnie(String message, byte[] bytes, SyntaxStyle defaultStyle, boolean caretDecoding) throws IOException {
+		List<String> expected = parseWithVinnie(bytes, defaultStyle, caretDecoding);
+
+		Utf8VObjectReader reader = new Utf8VObjectReader(ByteBuffer.wrap(bytes), rules(defaultStyle), UTF8);
+		reader.setCaretDecodingEnabled(caretDecoding);
+		List<String> actual = parse(reader);
+
+		assertEquals(message, expected, actual);
+	}
+
+	private static List<String> parseWithVinnie(byte[] bytes, SyntaxStyle defaultStyle, boolean caretDecoding) throws IOException {
+		VObjectReader reader = new VObjectReader(new InputStreamReader(new ByteArrayInputStream(bytes), UTF8), rules(defaultStyle));
+		reader.setCaretDecodingEnabled(caretDecoding);
+		final List<String> events = new ArrayList<String>();
+		reader.parse(new VObjectDataListener() {
+			public void onComponentBegin(String name, Context context) {
+				events.add(context.getLineNumber() + " BEGIN " + name);
+			}
+
+			public void onComponentEnd(String name, Context context) {
+				events.add(context.getLineNumber() + " END " + name);
+			}
+
+			public void onProperty(VObjectProperty property, Context context) {
+				events.add(context.getLineNumber() + " PROPERTY " + property);
+			}
+
+			public void onVersion(String value, Context context) {
+				events.add(context.getLineNumber() + " VERSION " + value);
+			}
+
+			public void onWarning(Warning warning, VObjectProperty property, Exception thrown, Context context) {
+				events.add(context.getLineNumber() + " WARNING " + warning + " " + property + " " + (thrown == null ? null : thrown.getClass()));
+			}
+		});
+		return events;
+	}
+
+	private static List<String> parse(final Utf8VObjectReader reader) throws IOException {
+		final List<String> events = new ArrayList<String>();
+		reader.parse(new Utf8VObjectReader.Listener() {
+			public void onComponentBegin(String name) {
+				events.add(reader.getLineNumber() + " BEGIN " + name);
+			}
+
+			public void onComponentEnd(String name) {
+				events.add(reader.getLineNumber() + " END " + name);
+			}
+
+			public void onProperty(VObjectProperty property) {
+				events.add(reader.getLineNumber() + " PROPERTY " + property);
+			}
+
+			public void onVersion(String value) {
+				events.add(reader.getLineNumber() + " VERSION " + value);
+			}
+
+			public void onWarning(Warning warning, VObjectProperty property, Exception thrown) {
+				events.add(reader.getLineNumber() + " WARNING " + warning + " " + property + " " + (thrown == null ? null : thrown.getClass()));
+			}
+		});
+		return events;
+	}
+
+	private static SyntaxRules rules(SyntaxStyle defaultStyle) {
+		SyntaxRules rules = SyntaxRules.iCalendar();
+		rules.setDefaultSyntaxStyle(defaultStyle);
+		return rules;
+	}
+
+	private static byte[] read(InputStream in) throws IOException {
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+			return out.toByteArray();
+		} finally {
+			in.close();
+		}
+	}
+}
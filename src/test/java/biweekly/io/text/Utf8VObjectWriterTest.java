@@ -0,0 +1,203 @@
+package biweekly.io.text;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.util.Random;
+
+import org.junit.Test;
+
+import biweekly.parameter.ICalParameters;
+import biweekly.util.Utf8Writer;
+
+import com.github.mangstadt.vinnie.SyntaxStyle;
+import com.github.mangstadt.vinnie.VObjectParameters;
+import com.github.mangstadt.vinnie.io.VObjectWriter;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * Checks that {@link Utf8VObjectWriter} produces the same output as vinnie's
+ * {@link VObjectWriter}.
+ * @author Michael Angstadt
+ */
+public class Utf8VObjectWriterTest {
+	@Test
+	public void same_as_vinnie() throws Exception {
+		String longValue = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor incididunt ut labore";
+
+		//@formatter:off
+		String[][] properties = {
+			//name, parameter name, parameter value, value
+			{ "SUMMARY", null, null, "value" },
+			{ "SUMMARY", null, null, null },
+			{ "SUMMARY", null, null, longValue + longValue + longValue },
+			{ "SUMMARY", null, null, "one\r\ntwo\nthree\rfour" },
+			{ "SUMMARY", null, null, "été Ṧummary 😀 " + longValue + " 😀😀😀😀😀😀😀😀😀😀😀😀😀😀😀😀😀😀😀😀😀😀😀😀😀😀😀😀😀😀😀😀😀😀😀😀😀😀😀😀" },
+			{ "SUMMARY", null, null, "abcdefghijklmnopqrstuvwxyzabcdefghijklmnopqrstuvwxyzabcdefghijklmno      " },
+			{ "SUMMARY", null, null, "abcdefghijklmnopqrstuvwxyzabcdefghijklmnopqrstuvwxyzabcdefghijklmno      x" },
+			{ "X-TEST", "X-PARAM", "a,b", longValue },
+			{ "X-TEST", "X-PARAM", "a;b:c", "value" },
+			{ "X-TEST", "X-PARAM", "^caret \"quotes\" and\nnewlines\r\n", "value" },
+			{ "X-TEST", "X-PARAM", "back\\slash;semi", "value" },
+			{ "X-TEST", "ENCODING", "QUOTED-PRINTABLE", "café = " + longValue + "\r\n" + longValue },
+			{ "X-TEST", "CHARSET", "UTF-8", "one\r\ntwo é" },
+			{ "X-TEST", "X-PARAM", longValue + longValue, longValue },
+			{ "BAD:NAME", null, null, "value" },
+			{ " BAD", null, null, "value" },
+			{ "", null, null, "value" },
+			{ "X-TEST", "BAD:PARAM", "value", "value" },
+			{ "X-TEST", "X-PARAM", "bad\u0000value", "value" },
+		};
+		//@formatter:on
+
+		for (SyntaxStyle style : SyntaxStyle.values()) {
+			for (boolean caret : new boolean[] { false, true }) {
+				for (String[] property : properties) {
+					ICalParameters parameters = new ICalParameters();
+					if (property[1] != null) {
+						parameters.put(property[1], property[2]);
+						parameters.put(property[1], "second");
+						parameters.put("X-OTHER", "1");
+					}
+
+					String message = style + " " + caret + " " + property[0] + " " + property[2];
+					assertSameAsVinnie(message, style, caret, property[0], parameters, property[3]);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void same_as_vinnie_random() throws Exception {
+		Random random = new Random(1);
+		String chars = "abc  \t=^\",;:\\é😀\r\n";
+
+		for (int i = 0; i < 2000; i++) {
+			StringBuilder sb = new StringBuilder();
+			int length = random.nextInt(300);
+			for (int j = 0; j < length; j++) {
+				int index = random.nextInt(chars.length());
+				char c = chars.charAt(index);
+				sb.append(c);
+				if (Character.isHighSurrogate(c)) {
+					sb.append(chars.charAt(index + 1));
+				}
+			}
+			String value = sb.toString();
+
+			ICalParameters parameters = new ICalParameters();
+			if (random.nextBoolean()) {
+				parameters.put("X-PARAM", value.substring(0, Math.min(value.length(), 20)).replace("\uD83D", "").replace("\uDE00", ""));
+			}
+			if (random.nextInt(4) == 0) {
+				parameters.put("ENCODING", "QUOTED-PRINTABLE");
+			}
+
+			SyntaxStyle style = random.nextBoolean() ? SyntaxStyle.NEW : SyntaxStyle.OLD;
+			assertSameAsVinnie(value, style, random.nextBoolean(), "X-TEST", parameters, value);
+		}
+	}
+
+	@Test
+	public void byte_buffer() throws Exception {
+		ByteBuffer buffer = ByteBuffer.allocate(100);
+		Utf8VObjectWriter writer = new Utf8VObjectWriter(Utf8VObjectWriter.channel(buffer), SyntaxStyle.NEW);
+		writer.writeProperty("SUMMARY", new ICalParameters(), "été");
+		writer.flush();
+
+		buffer.flip();
+		byte[] actual = new byte[buffer.remaining()];
+		buffer.get(actual);
+		assertArrayEquals("SUMMARY:été\r\n".getBytes("UTF-8"), actual);
+	}
+
+	@Test(expected = BufferOverflowException.class)
+	public void byte_buffer_overflow() throws Exception {
+		ByteBuffer buffer = ByteBuffer.allocate(10);
+		Utf8VObjectWriter writer = new Utf8VObjectWriter(Utf8VObjectWriter.channel(buffer), SyntaxStyle.NEW);
+		writer.writeProperty("SUMMARY", new ICalParameters(), "value");
+		writer.flush();
+	}
+
+	@Test
+	public void non_blocking_channel() throws Exception {
+		Pipe pipe = Pipe.open();
+		try {
+			pipe.sink().configureBlocking(false);
+			try {
+				new Utf8VObjectWriter(pipe.sink(), SyntaxStyle.NEW);
+				fail();
+			} catch (IllegalArgumentException e) {
+				//expected
+			}
+		} finally {
+			pipe.sink().close();
+			pipe.source().close();
+		}
+	}
+
+	private static void assertSameAsVinnie(String message, SyntaxStyle style, boolean caret, String name, ICalParameters parameters, String value) throws IOException {
+		ByteArrayOutputStream expectedOut = new ByteArrayOutputStream();
+		VObjectWriter expectedWriter = new VObjectWriter(new Utf8Writer(expectedOut), style);
+		expectedWriter.setCaretEncodingEnabled(caret);
+
+		ByteArrayOutputStream actualOut = new ByteArrayOutputStream();
+		Utf8VObjectWriter actualWriter = new Utf8VObjectWriter(Channels.newChannel(actualOut), style);
+		actualWriter.setCaretEncodingEnabled(caret);
+
+		String expectedException = null;
+		try {
+			expectedWriter.writeBeginComponent("VEVENT");
+			expectedWriter.writeProperty(null, name, new VObjectParameters(parameters.getMap()), value);
+			expectedWriter.writeEndComponent("VEVENT");
+		} catch (IllegalArgumentException e) {
+			expectedException = e.getMessage();
+		}
+		expectedWriter.close();
+
+		String actualException = null;
+		try {
+			actualWriter.writeBeginComponent("VEVENT");
+			actualWriter.writeProperty(name, parameters, value);
+			actualWriter.writeEndComponent("VEVENT");
+		} catch (IllegalArgumentException e) {
+			actualException = e.getMessage();
+		}
+		actualWriter.close();
+
+		assertEquals(message, expectedException, actualException);
+		assertEquals(message, new String(expectedOut.toByteArray(), "UTF-8"), new String(actualOut.toByteArray(), "UTF-8"));
+		assertArrayEquals(message, expectedOut.toByteArray(), actualOut.toByteArray());
+	}
+}
@@ -4,6 +4,7 @@ import static biweekly.io.xml.XCalNamespaceContext.XCAL_NS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
@@ -395,6 +396,36 @@ public class XCalElementTest {
 		assertEquals(XmlUtils.toElementList(xcalElement.getElement().getChildNodes()), elements);
 	}
 
+	@Test
+	public void node() {
+		XCalNode prop = new XCalNode(XCAL_NS, "prop");
+		prop.setAttribute("attr", "value");
+		XCalNode text = new XCalNode(XCAL_NS, "text");
+		text.appendText("one");
+		prop.appendChild(text);
+		XCalNode other = new XCalNode("http://example.com", "text");
+		other.appendText("two");
+		prop.appendChild(other);
+		prop.appendText("three");
+
+		XCalElement xcalElement = new XCalElement(prop);
+		assertEquals("prop", xcalElement.getLocalName());
+		assertEquals("one", xcalElement.first(ICalDataType.TEXT));
+		assertEquals(Arrays.asList("one"), xcalElement.all(ICalDataType.TEXT));
+		assertEquals(2, xcalElement.children().size());
+		assertEquals("onetwothree", xcalElement.getTextContent());
+
+		Element element = xcalElement.getElement();
+		assertSame(element, xcalElement.getElement());
+		assertSame(element.getOwnerDocument(), xcalElement.document());
+		assertEquals("value", element.getAttribute("attr"));
+		assertEquals("onetwothree", element.getTextContent());
+		assertEquals(3, element.getChildNodes().getLength());
+
+		xcalElement.append(ICalDataType.INTEGER, "4");
+		assertEquals("4", xcalElement.first(ICalDataType.INTEGER));
+	}
+
 	private XCalElement build(String innerXml) {
 		return build(innerXml, null);
 	}
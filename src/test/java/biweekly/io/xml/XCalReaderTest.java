@@ -17,15 +17,19 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.TimeZone;
 
 import javax.xml.namespace.QName;
-import javax.xml.transform.TransformerException;
+import javax.xml.stream.XMLStreamException;
 
 import org.custommonkey.xmlunit.XMLUnit;
 import org.junit.BeforeClass;
@@ -46,6 +50,7 @@ import biweekly.component.StandardTime;
 import biweekly.component.VEvent;
 import biweekly.component.VTimezone;
 import biweekly.io.CannotParseException;
+import biweekly.io.ComponentListener;
 import biweekly.io.ICalTimeZone;
 import biweekly.io.ParseContext;
 import biweekly.io.SkipMeException;
@@ -162,6 +167,123 @@ public class XCalReaderTest {
 		reader.close();
 	}
 
+	@Test
+	public void readNext_listener() throws Exception {
+		//@formatter:off
+		String xml =
+		"<icalendar xmlns=\"" + XCAL_NS + "\">" +
+			"<vcalendar>" +
+				"<properties>" +
+					"<version><text>2.0</text></version>" +
+				"</properties>" +
+				"<components>" +
+					"<vtimezone>" +
+						"<properties>" +
+							"<tzid><text>TZ</text></tzid>" +
+						"</properties>" +
+						"<components>" +
+							"<standard>" +
+								"<properties>" +
+									"<dtstart><date-time>1970-01-01T00:00:00</date-time></dtstart>" +
+									"<tzoffsetfrom><utc-offset>+02:00</utc-offset></tzoffsetfrom>" +
+									"<tzoffsetto><utc-offset>+02:00</utc-offset></tzoffsetto>" +
+								"</properties>" +
+							"</standard>" +
+						"</components>" +
+					"</vtimezone>" +
+					"<vevent>" +
+						"<properties>" +
+							"<dtstart>" +
+								"<parameters><tzid><text>TZ</text></tzid></parameters>" +
+								"<date-time>2024-01-01T10:00:00</date-time>" +
+							"</dtstart>" +
+						"</properties>" +
+						"<components>" +
+							"<valarm />" +
+						"</components>" +
+					"</vevent>" +
+					"<vevent>" +
+						"<properties>" +
+							"<summary><text>two</text></summary>" +
+						"</properties>" +
+					"</vevent>" +
+				"</components>" +
+			"</vcalendar>" +
+		"</icalendar>";
+		//@formatter:on
+
+		XCalReader reader = new XCalReader(xml);
+		final List<ICalComponent> components = new ArrayList<ICalComponent>();
+		final List<TimezoneInfo> tzinfos = new ArrayList<TimezoneInfo>();
+		ICalendar icalendar = reader.readNext(new ComponentListener() {
+			public void onComponent(ICalComponent component, TimezoneInfo tzinfo, ICalendar ical) {
+				components.add(component);
+				tzinfos.add(tzinfo);
+			}
+		});
+
+		assertSize(icalendar, 0, 0);
+		assertEquals(2, components.size());
+		{
+			VEvent event = (VEvent) components.get(0);
+			assertEquals(utc(2024, 1, 1, 8, 0, 0), event.getDateStart().getValue());
+			assertEquals(1, event.getAlarms().size());
+			assertEquals("TZ", tzinfos.get(0).getTimezone(event.getDateStart()).getComponent().getTimezoneId().getValue());
+		}
+		{
+			VEvent event = (VEvent) components.get(1);
+			assertEquals("two", event.getSummary().getValue());
+		}
+
+		assertParseWarnings(reader);
+		assertNull(reader.readNext());
+		reader.close();
+	}
+
+	@Test
+	public void reset() throws Exception {
+		//@formatter:off
+		String xml1 =
+		"<icalendar xmlns=\"" + XCAL_NS + "\">" +
+			"<vcalendar>" +
+				"<properties>" +
+					"<prodid><text>one</text></prodid>" +
+				"</properties>" +
+				"<components>" +
+					"<vevent>" +
+						"<properties>" +
+							"<summary><text>Team Meeting</text></summary>";
+		String xml2 =
+		"<icalendar xmlns=\"" + XCAL_NS + "\">" +
+			"<vcalendar>" +
+				"<properties>" +
+					"<prodid><text>two</text></prodid>" +
+				"</properties>" +
+			"</vcalendar>" +
+		"</icalendar>";
+		//@formatter:on
+
+		//the first document is truncated, so the reader is in the middle of a property when it is reset
+		XCalReader reader = new XCalReader(xml1);
+		try {
+			reader.readNext();
+		} catch (IOException e) {
+			//expected
+		}
+
+		reader.reset(new StringReader(xml2));
+		ICalendar ical = reader.readNext();
+		assertSize(ical, 0, 1);
+		assertEquals("two", ical.getProductId().getValue());
+		assertNull(reader.readNext());
+
+		reader.reset(new ByteArrayInputStream(xml2.getBytes("UTF-8")));
+		ical = reader.readNext();
+		assertEquals("two", ical.getProductId().getValue());
+		assertNull(reader.readNext());
+		reader.close();
+	}
+
 	@Test
 	public void read_multiple() throws Exception {
 		//@formatter:off
@@ -495,10 +617,7 @@ public class XCalReaderTest {
 			fail();
 		} catch (IOException e) {
 			Throwable cause = e.getCause();
-			assertTrue(cause instanceof TransformerException);
-
-			cause = cause.getCause();
-			assertTrue(cause instanceof SAXException);
+			assertTrue(cause instanceof XMLStreamException);
 		}
 
 		assertNull(reader.readNext());
@@ -154,6 +154,53 @@ public class XCalWriterTest {
 		assertOutput(expected);
 	}
 
+	@Test
+	public void write_streaming() throws Exception {
+		ical.setProductId("value");
+		ical.getTimezoneInfo().setDefaultTimezone(new TimezoneAssignment(TimeZone.getTimeZone("UTC"), new VTimezone("utc")));
+		writer.beginCalendar(ical);
+		for (int i = 1; i <= 2; i++) {
+			VEvent event = new VEvent();
+			event.getProperties().clear();
+			event.setDescription("value" + i);
+			writer.writeComponent(event);
+		}
+		writer.endCalendar();
+
+		writer.close();
+
+		//@formatter:off
+		String expected =
+		"<icalendar xmlns=\"" + XCAL_NS + "\">" + NEWLINE +
+			"<vcalendar>" +
+				"<properties>" +
+					"<version><text>2.0</text></version>" +
+					"<prodid><text>value</text></prodid>" +
+				"</properties>" +
+				"<components>" +
+					"<vtimezone>" +
+						"<properties>" +
+							"<tzid><text>utc</text></tzid>" +
+						"</properties>" +
+					"</vtimezone>" +
+					"<vevent>" +
+						"<properties>" +
+							"<description><text>value1</text></description>" +
+						"</properties>" +
+					"</vevent>" +
+					"<vevent>" +
+						"<properties>" +
+							"<description><text>value2</text></description>" +
+						"</properties>" +
+					"</vevent>" +
+				"</components>" +
+			"</vcalendar>" +
+		"</icalendar>";
+		//@formatter:on
+
+		assertOutput(expected);
+	}
+
 	@Test
 	public void write_multiple() throws Exception {
 		ical.setProductId("value").setParameter("x-foo", "bar");
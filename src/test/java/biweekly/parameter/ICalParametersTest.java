@@ -8,6 +8,10 @@ import static biweekly.util.TestUtils.assertEqualsMethodEssentials;
 import static biweekly.util.TestUtils.assertListSize;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -59,6 +63,28 @@ public class ICalParametersTest {
 		assertEquals("1", params.first("numbers"));
 	}
 
+	@Test
+	public void sharedCopy() {
+		params.put("NUMBERS", "1");
+		ICalParameters copy = params.sharedCopy();
+		assertSame(params.getMap(), copy.getMap());
+
+		copy.put("NUMBERS", "2");
+		assertEquals(Arrays.asList("1"), params.get("NUMBERS"));
+		assertEquals(Arrays.asList("1", "2"), copy.get("NUMBERS"));
+		assertNotSame(params.getMap(), copy.getMap());
+
+		//get() returns a live view, so it un-shares the data
+		copy = params.sharedCopy();
+		copy.get("NUMBERS").add("3");
+		assertEquals(Arrays.asList("1"), params.get("NUMBERS"));
+		assertEquals(Arrays.asList("1", "3"), copy.get("NUMBERS"));
+
+		copy = params.sharedCopy();
+		params.clear();
+		assertEquals(Arrays.asList("1"), copy.get("NUMBERS"));
+	}
+
 	@Test
 	public void validate_empty() {
 		assertListSize(0, params.validate(V2_0));
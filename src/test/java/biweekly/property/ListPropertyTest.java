@@ -8,12 +8,16 @@ import static biweekly.util.TestUtils.assertValidate;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Test;
 
+import biweekly.util.ModificationStamps;
+
 /*
  Copyright (c) 2013-2024, Michael Angstadt
  All rights reserved.
@@ -56,6 +60,20 @@ public class ListPropertyTest {
 		assertEquals(Arrays.asList("value1", "value2"), property.getValues());
 	}
 
+	@Test
+	public void getModificationStamp() {
+		ListProperty<String> property = new ListProperty<String>();
+		assertEquals(0, property.getModificationStamp());
+		property.getValues().add("value");
+		long stamp = property.getModificationStamp();
+		assertTrue(stamp > 0);
+		assertEquals(stamp, property.getModificationStamp());
+
+		//changes to a list that was passed into the constructor cannot be detected
+		property = new ListProperty<String>(new ArrayList<String>());
+		assertEquals(ModificationStamps.ALWAYS_MODIFIED, property.getModificationStamp());
+	}
+
 	@Test(expected = NullPointerException.class)
 	public void constructor_null_list() {
 		new ListProperty<String>((List<String>) null);
@@ -2,6 +2,7 @@ package biweekly.util;
 
 import static biweekly.util.TestUtils.assertIntEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
@@ -80,11 +81,95 @@ public class CaseClassesTest {
 		assertTrue(dataTypes.contains(PrimeNumber.SEVEN));
 	}
 
+	@Test
+	public void get_counts() {
+		cc.get(3);
+		cc.get(11);
+		cc.get(11);
+
+		assertEquals(2, cc.getHitCount());
+		assertEquals(1, cc.getMissCount());
+		assertEquals(1, cc.getRuntimeDefinedCount());
+	}
+
+	@Test
+	public void get_bounded() {
+		assertBounded(new CaseClassesImpl(2));
+		assertBounded(new HashedCaseClassesImpl(2));
+	}
+
+	private static void assertBounded(CaseClassesImpl cc) {
+		PrimeNumber eleven = cc.get(11);
+		PrimeNumber thirteen = cc.get(13);
+		assertEquals(2, cc.getRuntimeDefinedCount());
+
+		//the cache is full, so new values are not cached
+		PrimeNumber seventeen = cc.get(17);
+		assertIntEquals(17, seventeen.value);
+		assertNotSame(seventeen, cc.get(17));
+		assertEquals(2, cc.getRuntimeDefinedCount());
+
+		//the cached values are still canonical
+		assertSame(eleven, cc.get(11));
+		assertSame(thirteen, cc.get(13));
+		assertSame(PrimeNumber.THREE, cc.get(3));
+	}
+
+	@Test
+	public void get_hashed() {
+		HashedCaseClassesImpl cc = new HashedCaseClassesImpl();
+		assertSame(PrimeNumber.SEVEN, cc.find(7));
+		assertSame(PrimeNumber.SEVEN, cc.get(7));
+
+		PrimeNumber eleven = cc.get(11);
+		assertSame(eleven, cc.get(11));
+
+		for (int i = 100; i < 200; i++) {
+			assertIntEquals(i, cc.get(i).value);
+		}
+		assertEquals(101, cc.getRuntimeDefinedCount());
+		assertEquals(2, cc.getHitCount());
+		assertEquals(101, cc.getMissCount());
+	}
+
+	@Test
+	public void get_concurrent() throws Exception {
+		final HashedCaseClassesImpl cc = new HashedCaseClassesImpl();
+		final PrimeNumber[][] results = new PrimeNumber[4][100];
+		Thread[] threads = new Thread[results.length];
+		for (int t = 0; t < threads.length; t++) {
+			final int index = t;
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					for (int i = 0; i < 100; i++) {
+						results[index][i] = cc.get(i + 100);
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		for (int i = 0; i < 100; i++) {
+			for (PrimeNumber[] result : results) {
+				assertSame(results[0][i], result[i]);
+			}
+		}
+		assertEquals(100, cc.getRuntimeDefinedCount());
+	}
+
 	class CaseClassesImpl extends CaseClasses<PrimeNumber, Integer> {
 		public CaseClassesImpl() {
 			super(PrimeNumber.class);
 		}
 
+		public CaseClassesImpl(int maxRuntimeDefined) {
+			super(PrimeNumber.class, maxRuntimeDefined);
+		}
+
 		@Override
 		protected PrimeNumber create(Integer value) {
 			return new PrimeNumber(value);
@@ -96,6 +181,26 @@ public class CaseClassesTest {
 		}
 	}
 
+	class HashedCaseClassesImpl extends CaseClassesImpl {
+		public HashedCaseClassesImpl() {
+			super();
+		}
+
+		public HashedCaseClassesImpl(int maxRuntimeDefined) {
+			super(maxRuntimeDefined);
+		}
+
+		@Override
+		protected Object keyOfValue(Integer value) {
+			return value;
+		}
+
+		@Override
+		protected Object keyOfObject(PrimeNumber object) {
+			return object.value;
+		}
+	}
+
 	@SuppressWarnings("unused")
 	static class PrimeNumber {
 		public static final PrimeNumber ONE = new PrimeNumber(1);
@@ -45,6 +45,16 @@ public class DateTimeComponentsTest {
 		assertParse(new DateTimeComponents(2013, 7, 22, 15, 6, 30, true), "2013-07-22T15:06:30Z");
 		assertParse(new DateTimeComponents(2013, 7, 22), "20130722");
 		assertParse(new DateTimeComponents(2013, 7, 22), "2013-07-22");
+
+		//incomplete or extra time components
+		assertParse(new DateTimeComponents(2013, 7, 22), "20130722T1506");
+		assertParse(new DateTimeComponents(2013, 7, 22), "20130722 150630");
+		assertParse(new DateTimeComponents(2013, 7, 22, 15, 6, 30, false), "20130722T150630-0500");
+		assertParse(new DateTimeComponents(2013, 7, 22, 15, 6, 30, true), "20130722T15:0630Zabc");
+
+		//force time
+		assertEquals(new DateTimeComponents(2013, 7, 22, 0, 0, 0, false), DateTimeComponents.parse("20130722T1506", true));
+		assertEquals(new DateTimeComponents(2013, 7, 22), DateTimeComponents.parse("20130722T150630Z", false));
 	}
 
 	private void assertParse(DateTimeComponents expected, String input) {
@@ -66,6 +76,10 @@ public class DateTimeComponentsTest {
 		assertToString("20130722", "2013-07-22", new DateTimeComponents(2013, 7, 22, 15, 6, 30, false), false);
 		assertToString("20130722", "2013-07-22", new DateTimeComponents(2013, 7, 22, 15, 6, 30, true), false);
 		assertToString("20130722", "2013-07-22", new DateTimeComponents(2013, 7, 22, 0, 0, 0, false), false);
+
+		//values outside of the normal range
+		assertToString("20131232T246099", "2013-12-32T24:60:99", new DateTimeComponents(2013, 12, 32, 24, 60, 99, false), true);
+		assertToString("20130100T000000", "2013-01-00T00:00:00", new DateTimeComponents(2013, 1, 100, 0, 0, 0, false), true);
 	}
 
 	private void assertToString(String expectedBasic, String expectedExtended, DateTimeComponents components, boolean includeTime) {
@@ -77,6 +91,8 @@ public class DateTimeComponentsTest {
 	public void toDate() throws Throwable {
 		assertToDate(date(2013, 7, 22, 15, 6, 30), new DateTimeComponents(2013, 7, 22, 15, 6, 30, false));
 		assertToDate(utc(2013, 7, 22, 15, 6, 30), new DateTimeComponents(2013, 7, 22, 15, 6, 30, true));
+		assertToDate(utc(2014, 1, 1, 0, 0, 0), new DateTimeComponents(2013, 12, 31, 24, 0, 0, true));
+		assertToDate(utc(1582, 10, 4, 0, 0, 0), new DateTimeComponents(1582, 10, 4, 0, 0, 0, true));
 	}
 
 	private void assertToDate(Date expected, DateTimeComponents components) {
@@ -0,0 +1,87 @@
+package biweekly.util;
+
+import static biweekly.util.TestUtils.assertEqualsAndHash;
+import static biweekly.util.TestUtils.assertEqualsMethodEssentials;
+import static biweekly.util.TestUtils.assertNotEqualsBothWays;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class FingerprintTest {
+	@Test
+	public void parse_toString() {
+		String text = "0123456789abcdef00ff7f8010203040";
+		Fingerprint fingerprint = Fingerprint.parse(text);
+		assertEquals(text, fingerprint.toString());
+
+		//@formatter:off
+		byte[] expected = {
+			0x01, 0x23, 0x45, 0x67, (byte) 0x89, (byte) 0xab, (byte) 0xcd, (byte) 0xef,
+			0x00, (byte) 0xff, 0x7f, (byte) 0x80, 0x10, 0x20, 0x30, 0x40
+		};
+		//@formatter:on
+		assertArrayEquals(expected, fingerprint.toByteArray());
+		assertEquals(fingerprint, new Fingerprint(expected));
+
+		assertEquals(text, Fingerprint.parse(text.toUpperCase()).toString());
+	}
+
+	@Test
+	public void parse_invalid() {
+		for (String text : new String[] { "", "0123", "0123456789abcdef00ff7f801020304", "0123456789abcdef00ff7f8010203040a", "0123456789abcdef00ff7f801020304g" }) {
+			try {
+				Fingerprint.parse(text);
+				fail(text);
+			} catch (IllegalArgumentException e) {
+				//expected
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void constructor_wrong_length() {
+		new Fingerprint(new byte[15]);
+	}
+
+	@Test
+	public void equals_contract() {
+		Fingerprint one = Fingerprint.parse("0123456789abcdef00ff7f8010203040");
+		assertEqualsMethodEssentials(one);
+
+		Fingerprint two = Fingerprint.parse("0123456789abcdef00ff7f8010203040");
+		assertEqualsAndHash(one, two);
+
+		assertNotEqualsBothWays(one, Fingerprint.parse("0123456789abcdef00ff7f8010203041"));
+		assertNotEqualsBothWays(one, Fingerprint.parse("1123456789abcdef00ff7f8010203040"));
+	}
+}
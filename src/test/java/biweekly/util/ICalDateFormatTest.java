@@ -6,12 +6,16 @@ import static biweekly.util.TestUtils.utc;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
 import java.util.TimeZone;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.junit.ClassRule;
 import org.junit.Test;
@@ -99,6 +103,62 @@ public class ICalDateFormatTest {
 		assertEquals(message, expected, actual);
 	}
 
+	@Test
+	public void format_same_as_SimpleDateFormat() {
+		//@formatter:off
+		TimeZone timezones[] = {
+			TimeZone.getTimeZone("UTC"),
+			TimeZone.getTimeZone("America/New_York"),
+			TimeZone.getTimeZone("Asia/Kolkata"), //+05:30
+			TimeZone.getTimeZone("Pacific/Chatham"), //+12:45
+			TimeZone.getTimeZone("America/St_Johns"), //-03:30
+			TimeZone.getTimeZone("Africa/Monrovia"), //-00:44:30 before 1972
+			buildTimezone(-2, 0)
+		};
+		long timestamps[] = {
+			0,
+			-1,
+			utc(1583, 1, 1, 0, 0, 0).getTime(),
+			utc(1582, 10, 14, 23, 59, 59).getTime(), //Julian calendar
+			utc(1900, 2, 28, 23, 59, 59).getTime(),
+			utc(2000, 2, 29, 12, 0, 0).getTime(),
+			utc(2012, 7, 1, 8, 1, 30).getTime() + 999,
+			utc(9999, 12, 31, 23, 59, 59).getTime(),
+			utc(10000, 1, 1, 0, 0, 0).getTime()
+		};
+		//@formatter:on
+
+		for (TimeZone timezone : timezones) {
+			for (long timestamp : timestamps) {
+				assertSameAsSimpleDateFormat(new Date(timestamp), timezone);
+			}
+
+			//every 7 hours and 13 minutes for 80 years
+			long increment = (7 * 60 + 13) * 60 * 1000L;
+			long end = utc(2040, 1, 1, 0, 0, 0).getTime();
+			for (long timestamp = utc(1960, 1, 1, 0, 0, 0).getTime(); timestamp < end; timestamp += increment) {
+				assertSameAsSimpleDateFormat(new Date(timestamp), timezone);
+			}
+		}
+	}
+
+	private static void assertSameAsSimpleDateFormat(Date date, TimeZone timezone) {
+		for (ICalDateFormat format : ICalDateFormat.values()) {
+			String expected = format.getDateFormat(timezone).format(date);
+			String actual = format.format(date, timezone);
+			assertEquals(format.name() + " " + timezone.getID() + " " + date.getTime(), expected, actual);
+		}
+	}
+
+	@Test
+	public void format_StringBuilder() {
+		Date datetime = date(2006, 1, 2, 10, 20, 30);
+
+		StringBuilder sb = new StringBuilder("DTSTART:");
+		assertSame(sb, ICalDateFormat.UTC_TIME_BASIC.format(datetime, null, sb));
+		assertEquals("DTSTART:20060102T092030Z", sb.toString());
+	}
+
 	@Test
 	public void parse() {
 		Date date = date(2012, 7, 1);
@@ -156,6 +216,91 @@ public class ICalDateFormatTest {
 		assertEquals(actual, expected);
 	}
 
+	@Test
+	public void parse_same_as_Calendar() {
+		//@formatter:off
+		String dates[] = {
+			"20120701T070130Z",
+			"20120701T100130+0300",
+			"20120701T100130+03",
+			"2012-07-01T10:01:30-03:30",
+			"20120701T1001:30+03:30",
+			"20120701T100130.5+0130",
+			"20120701T100130.0005Z",
+			"20120701T100130.9999Z",
+			"20000229T000000Z",
+			"20010229T000000Z", //rolls over
+			"20121332T256161Z", //rolls over
+			"20120001T000000Z", //rolls back
+			"20120700T000000Z", //rolls back
+			"15830101T000000Z",
+			"15821014T000000Z", //Julian calendar
+			"99991231T235959-2359",
+			"00010101T000000Z",
+			"20120701T070130Z\n",
+			"20120701T070130+03\r\n"
+		};
+		//@formatter:on
+
+		for (String dateStr : dates) {
+			assertEquals(dateStr, parseWithCalendar(dateStr), ICalDateFormat.parse(dateStr));
+		}
+	}
+
+	private static Date parseWithCalendar(String dateStr) {
+		Matcher m = Pattern.compile("^(\\d{4})-?(\\d{2})-?(\\d{2})T(\\d{2}):?(\\d{2}):?(\\d{2})(\\.\\d+)?(Z|([-+])((\\d{2})|((\\d{2}):?(\\d{2}))))$").matcher(dateStr);
+		assertTrue(dateStr, m.find());
+
+		Calendar c = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+		c.clear();
+		c.set(Calendar.YEAR, Integer.parseInt(m.group(1)));
+		c.set(Calendar.MONTH, Integer.parseInt(m.group(2)) - 1);
+		c.set(Calendar.DATE, Integer.parseInt(m.group(3)));
+		c.set(Calendar.HOUR_OF_DAY, Integer.parseInt(m.group(4)));
+		c.set(Calendar.MINUTE, Integer.parseInt(m.group(5)));
+		c.set(Calendar.SECOND, Integer.parseInt(m.group(6)));
+		c.set(Calendar.MILLISECOND, (m.group(7) == null) ? 0 : (int) Math.round(Double.parseDouble(m.group(7)) * 1000));
+
+		if (!m.group(8).equals("Z")) {
+			int sign = m.group(9).equals("+") ? 1 : -1;
+			int hour = Integer.parseInt((m.group(11) == null) ? m.group(13) : m.group(11));
+			int minute = (m.group(11) == null) ? Integer.parseInt(m.group(14)) : 0;
+			c.set(Calendar.ZONE_OFFSET, (hour * 60 + minute) * 60 * 1000 * sign);
+		}
+
+		return c.getTime();
+	}
+
+	@Test
+	public void parse_invalid_formats() {
+		//@formatter:off
+		String dates[] = {
+			"",
+			"2012070",
+			"2012-07-1",
+			"20120701T",
+			"20120701T1001",
+			"20120701T100130.",
+			"20120701T100130.Z",
+			"20120701T100130+3",
+			"20120701T100130+03:",
+			"20120701T100130+0300Z",
+			"20120701T100130ZZ",
+			"20120701X100130",
+			"20120701\n\n"
+		};
+		//@formatter:on
+
+		for (String dateStr : dates) {
+			try {
+				ICalDateFormat.parse(dateStr);
+				fail("Expected IllegalArgumentException: " + dateStr);
+			} catch (IllegalArgumentException e) {
+				//expected
+			}
+		}
+	}
+
 	@Test(expected = IllegalArgumentException.class)
 	public void parse_invalid() {
 		ICalDateFormat.parse("invalid");
@@ -891,4 +891,39 @@ public class ListMultimapTest {
 		assertTrue(two.isEmpty());
 		assertCollectionContains(map.keySet());
 	}
+
+	@Test
+	public void getModificationStamp() {
+		ListMultimap<String, String> map = new ListMultimap<String, String>();
+		assertEquals(0, map.getModificationStamp());
+
+		map.put("foo", "1");
+		long stamp = assertModified(map, 0);
+
+		List<String> list = map.get("foo");
+		list.add("2");
+		stamp = assertModified(map, stamp);
+
+		list.set(0, "3");
+		stamp = assertModified(map, stamp);
+
+		Iterator<String> it = list.iterator();
+		it.next();
+		it.remove();
+		stamp = assertModified(map, stamp);
+
+		map.removeAll("bar");
+		map.remove("foo", "4");
+		map.get("foo").size();
+		assertEquals(stamp, map.getModificationStamp());
+
+		map.removeAll("foo");
+		stamp = assertModified(map, stamp);
+	}
+
+	private static long assertModified(ListMultimap<String, String> map, long previousStamp) {
+		long stamp = map.getModificationStamp();
+		assertTrue(stamp > previousStamp);
+		return stamp;
+	}
 }
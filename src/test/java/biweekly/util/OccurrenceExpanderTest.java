@@ -0,0 +1,297 @@
+package biweekly.util;
+
+import static biweekly.util.TestUtils.utc;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+import biweekly.Biweekly;
+import biweekly.ICalendar;
+import biweekly.component.VEvent;
+import biweekly.component.VTodo;
+
+/*
+ Copyright (c) 2013-2024, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class OccurrenceExpanderTest {
+	@Test
+	public void between() {
+		//@formatter:off
+		String str =
+		"BEGIN:VCALENDAR\r\n" +
+			"VERSION:2.0\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"UID:daily\r\n" +
+				"DTSTART:20240101T090000Z\r\n" +
+				"DTEND:20240101T100000Z\r\n" +
+				"RRULE:FREQ=DAILY\r\n" +
+				"EXDATE:20240104T090000Z\r\n" +
+			"END:VEVENT\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"UID:daily\r\n" +
+				"RECURRENCE-ID:20240103T090000Z\r\n" +
+				"DTSTART:20240103T120000Z\r\n" +
+				"DTEND:20240103T130000Z\r\n" +
+			"END:VEVENT\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"UID:once\r\n" +
+				"DTSTART:20240102T093000Z\r\n" +
+				"DURATION:PT15M\r\n" +
+			"END:VEVENT\r\n" +
+			"BEGIN:VTODO\r\n" +
+				"UID:todo\r\n" +
+				"DTSTART:20240105T000000Z\r\n" +
+			"END:VTODO\r\n" +
+		"END:VCALENDAR\r\n";
+		//@formatter:on
+
+		ICalendar ical = Biweekly.parse(str).first();
+		VEvent daily = ical.getEvents().get(0);
+		VEvent override = ical.getEvents().get(1);
+		VEvent once = ical.getEvents().get(2);
+		VTodo todo = ical.getTodos().get(0);
+
+		OccurrenceExpander expander = new OccurrenceExpander().add(ical);
+		List<Occurrence> occurrences = expander.between(utc(2024, 1, 2, 0, 0, 0), utc(2024, 1, 6, 0, 0, 0));
+		Iterator<Occurrence> it = occurrences.iterator();
+
+		Occurrence occurrence = it.next();
+		assertSame(daily, occurrence.getComponent());
+		assertNull(occurrence.getOverride());
+		assertEquals(utc(2024, 1, 2, 9, 0, 0), occurrence.getStart());
+		assertEquals(utc(2024, 1, 2, 10, 0, 0), occurrence.getEnd());
+		assertEquals("UTC", occurrence.getTimezone().getID());
+
+		occurrence = it.next();
+		assertSame(once, occurrence.getComponent());
+		assertEquals(utc(2024, 1, 2, 9, 30, 0), occurrence.getStart());
+		assertEquals(utc(2024, 1, 2, 9, 45, 0), occurrence.getEnd());
+
+		occurrence = it.next();
+		assertSame(daily, occurrence.getComponent());
+		assertSame(override, occurrence.getOverride());
+		assertTrue(occurrence.isOverridden());
+		assertEquals(utc(2024, 1, 3, 9, 0, 0), occurrence.getRecurrenceId());
+		assertEquals(utc(2024, 1, 3, 12, 0, 0), occurrence.getStart());
+		assertEquals(utc(2024, 1, 3, 13, 0, 0), occurrence.getEnd());
+
+		//Jan 4 is excluded
+
+		occurrence = it.next();
+		assertSame(todo, occurrence.getComponent());
+		assertEquals(utc(2024, 1, 5, 0, 0, 0), occurrence.getStart());
+		assertEquals(utc(2024, 1, 5, 0, 0, 0), occurrence.getEnd());
+
+		occurrence = it.next();
+		assertSame(daily, occurrence.getComponent());
+		assertEquals(utc(2024, 1, 5, 9, 0, 0), occurrence.getStart());
+
+		assertFalse(it.hasNext());
+	}
+
+	@Test
+	public void between_overlapping_start_of_window() {
+		VEvent event = new VEvent();
+		event.setDateStart(utc(2024, 1, 1, 22, 0, 0));
+		event.setDateEnd(utc(2024, 1, 2, 2, 0, 0));
+		event.setRecurrenceRule(new Recurrence.Builder(Frequency.DAILY).build());
+
+		OccurrenceExpander expander = new OccurrenceExpander().add(Arrays.asList(event), null);
+		List<Occurrence> occurrences = expander.between(utc(2024, 1, 10, 0, 0, 0), utc(2024, 1, 11, 0, 0, 0));
+
+		assertEquals(2, occurrences.size());
+		assertEquals(utc(2024, 1, 9, 22, 0, 0), occurrences.get(0).getStart());
+		assertEquals(utc(2024, 1, 10, 22, 0, 0), occurrences.get(1).getStart());
+	}
+
+	@Test
+	public void between_override_moved() {
+		//@formatter:off
+		String str =
+		"BEGIN:VCALENDAR\r\n" +
+			"VERSION:2.0\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"UID:weekly\r\n" +
+				"DTSTART:20240101T090000Z\r\n" +
+				"RRULE:FREQ=WEEKLY\r\n" +
+			"END:VEVENT\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"UID:weekly\r\n" +
+				"RECURRENCE-ID:20240108T090000Z\r\n" +
+				"DTSTART:20240301T090000Z\r\n" +
+			"END:VEVENT\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"UID:weekly\r\n" +
+				"RECURRENCE-ID:20240304T090000Z\r\n" +
+				"DTSTART:20240601T090000Z\r\n" +
+			"END:VEVENT\r\n" +
+		"END:VCALENDAR\r\n";
+		//@formatter:on
+
+		ICalendar ical = Biweekly.parse(str).first();
+		OccurrenceExpander expander = new OccurrenceExpander().add(ical);
+		List<Occurrence> occurrences = expander.between(utc(2024, 3, 1, 0, 0, 0), utc(2024, 3, 8, 0, 0, 0));
+
+		//the Jan 8 occurrence was moved in, and the Mar 4 occurrence was moved out
+		assertEquals(1, occurrences.size());
+		assertEquals(utc(2024, 1, 8, 9, 0, 0), occurrences.get(0).getRecurrenceId());
+		assertEquals(utc(2024, 3, 1, 9, 0, 0), occurrences.get(0).getStart());
+	}
+
+	@Test
+	public void between_override_excluded() {
+		//@formatter:off
+		String str =
+		"BEGIN:VCALENDAR\r\n" +
+			"VERSION:2.0\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"UID:daily\r\n" +
+				"DTSTART:20240101T090000Z\r\n" +
+				"RRULE:FREQ=DAILY\r\n" +
+				"EXDATE:20240102T090000Z\r\n" +
+			"END:VEVENT\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"UID:daily\r\n" +
+				"RECURRENCE-ID:20240102T090000Z\r\n" +
+				"DTSTART:20240103T120000Z\r\n" +
+			"END:VEVENT\r\n" +
+		"END:VCALENDAR\r\n";
+		//@formatter:on
+
+		ICalendar ical = Biweekly.parse(str).first();
+		OccurrenceExpander expander = new OccurrenceExpander().add(ical);
+
+		//the excluded occurrence stays excluded, whether or not the window contains the overridden start date
+		List<Occurrence> occurrences = expander.between(utc(2024, 1, 2, 0, 0, 0), utc(2024, 1, 4, 0, 0, 0));
+		assertEquals(1, occurrences.size());
+		assertNull(occurrences.get(0).getOverride());
+		assertEquals(utc(2024, 1, 3, 9, 0, 0), occurrences.get(0).getStart());
+
+		occurrences = expander.between(utc(2024, 1, 3, 11, 0, 0), utc(2024, 1, 3, 13, 0, 0));
+		assertEquals(0, occurrences.size());
+	}
+
+	@Test
+	public void between_override_not_an_occurrence() {
+		//@formatter:off
+		String str =
+		"BEGIN:VCALENDAR\r\n" +
+			"VERSION:2.0\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"UID:daily\r\n" +
+				"DTSTART:20240101T090000Z\r\n" +
+				"RRULE:FREQ=DAILY;COUNT=3\r\n" +
+			"END:VEVENT\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"UID:daily\r\n" +
+				"RECURRENCE-ID:20240102T100000Z\r\n" +
+				"DTSTART:20240102T120000Z\r\n" +
+			"END:VEVENT\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"UID:daily\r\n" +
+				"RECURRENCE-ID:20240110T090000Z\r\n" +
+				"DTSTART:20240102T130000Z\r\n" +
+			"END:VEVENT\r\n" +
+		"END:VCALENDAR\r\n";
+		//@formatter:on
+
+		ICalendar ical = Biweekly.parse(str).first();
+		OccurrenceExpander expander = new OccurrenceExpander().add(ical);
+
+		//neither RECURRENCE-ID matches an occurrence, so the overriding components are ignored
+		List<Occurrence> occurrences = expander.between(utc(2024, 1, 1, 0, 0, 0), utc(2024, 1, 11, 0, 0, 0));
+		assertEquals(3, occurrences.size());
+		for (Occurrence occurrence : occurrences) {
+			assertNull(occurrence.getOverride());
+		}
+		assertEquals(utc(2024, 1, 1, 9, 0, 0), occurrences.get(0).getStart());
+		assertEquals(utc(2024, 1, 2, 9, 0, 0), occurrences.get(1).getStart());
+		assertEquals(utc(2024, 1, 3, 9, 0, 0), occurrences.get(2).getStart());
+	}
+
+	@Test
+	public void between_timezone() {
+		//@formatter:off
+		String str =
+		"BEGIN:VCALENDAR\r\n" +
+			"VERSION:2.0\r\n" +
+			"BEGIN:VTIMEZONE\r\n" +
+				"TZID:TZ\r\n" +
+				"BEGIN:STANDARD\r\n" +
+					"DTSTART:19700101T000000\r\n" +
+					"TZOFFSETFROM:+0200\r\n" +
+					"TZOFFSETTO:+0200\r\n" +
+				"END:STANDARD\r\n" +
+			"END:VTIMEZONE\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"DTSTART;TZID=TZ:20240101T010000\r\n" +
+				"RRULE:FREQ=DAILY;BYHOUR=1\r\n" +
+			"END:VEVENT\r\n" +
+		"END:VCALENDAR\r\n";
+		//@formatter:on
+
+		ICalendar ical = Biweekly.parse(str).first();
+		OccurrenceExpander expander = new OccurrenceExpander().add(ical);
+		List<Occurrence> occurrences = expander.between(utc(2024, 1, 2, 0, 0, 0), utc(2024, 1, 3, 0, 0, 0));
+
+		//1am in the +02:00 timezone is 11pm UTC the previous day
+		assertEquals(1, occurrences.size());
+		assertEquals(utc(2024, 1, 2, 23, 0, 0), occurrences.get(0).getStart());
+		assertEquals("TZ", occurrences.get(0).getTimezone().getID());
+	}
+
+	@Test
+	public void iterator_infinite() {
+		VEvent event = new VEvent();
+		event.setDateStart(utc(2024, 1, 1, 0, 0, 0));
+		event.setRecurrenceRule(new Recurrence.Builder(Frequency.MINUTELY).build());
+
+		OccurrenceExpander expander = new OccurrenceExpander().add(Arrays.asList(event), null);
+		Iterator<Occurrence> it = expander.iterator(utc(2024, 6, 1, 0, 0, 0), utc(2024, 6, 1, 0, 3, 0));
+
+		assertEquals(utc(2024, 6, 1, 0, 0, 0), it.next().getStart());
+		assertEquals(utc(2024, 6, 1, 0, 1, 0), it.next().getStart());
+		assertEquals(utc(2024, 6, 1, 0, 2, 0), it.next().getStart());
+		assertFalse(it.hasNext());
+	}
+
+	@Test
+	public void empty() {
+		OccurrenceExpander expander = new OccurrenceExpander().add(Arrays.asList(new VEvent()), null);
+		assertTrue(expander.between(new Date(0), new Date()).isEmpty());
+	}
+}
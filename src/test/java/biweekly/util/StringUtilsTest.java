@@ -2,6 +2,7 @@ package biweekly.util;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
@@ -75,6 +76,24 @@ public class StringUtilsTest {
 		assertFalse(StringUtils.startsWithIgnoreCase("m", "mailto:"));
 	}
 
+	@Test
+	public void caseInsensitiveKey() {
+		String str = "accepted";
+		assertSame(str, StringUtils.caseInsensitiveKey(str));
+		assertEquals("accepted", StringUtils.caseInsensitiveKey("ACCEPTED"));
+		assertEquals("x-foo", StringUtils.caseInsensitiveKey("X-Foo"));
+
+		//must agree with String.equalsIgnoreCase()
+		String[] strings = { "\u0130", "i", "I", "\u0131", "\u00df", "SS", "\u03c3", "\u03c2", "\u03a3" };
+		for (String a : strings) {
+			for (String b : strings) {
+				boolean expected = a.equalsIgnoreCase(b);
+				boolean actual = StringUtils.caseInsensitiveKey(a).equals(StringUtils.caseInsensitiveKey(b));
+				assertEquals(a + " " + b, expected, actual);
+			}
+		}
+	}
+
 	@Test
 	public void join_multiple() {
 		Collection<String> values = Arrays.asList("one", "two", "three");
@@ -44,6 +44,8 @@ import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 
+import biweekly.util.com.google.ical.util.DTBuilder;
+import biweekly.util.com.google.ical.util.TimeUtils;
 import biweekly.util.com.google.ical.values.DateTimeValueImpl;
 import biweekly.util.com.google.ical.values.DateValue;
 import biweekly.util.com.google.ical.values.DateValueImpl;
@@ -88,6 +90,54 @@ public class DateValueComparisonTest {
 		}
 	}
 
+	@Test
+	public void toDateValue() {
+		//@formatter:off
+		DateValue[] values = {
+			new DateValueImpl(2006, 4, 11),
+			new DateTimeValueImpl(2006, 4, 11, 0, 0, 0),
+			new DateTimeValueImpl(2006, 12, 31, 23, 59, 59),
+			new DateValueImpl(1, 1, 1),
+			new DateValueImpl(-44, 3, 15),
+			new DateTimeValueImpl(-44, 3, 15, 12, 30, 0),
+		};
+		//@formatter:on
+
+		for (DateValue value : values) {
+			DateValue actual = DateValueComparison.toDateValue(DateValueComparison.comparable(value));
+			assertEquals(value, actual);
+		}
+	}
+
+	@Test
+	public void comparable_builder() {
+		DTBuilder builder = new DTBuilder(2006, 1, 32, 24, 0, 0);
+		assertEquals(DateValueComparison.comparable(new DateTimeValueImpl(2006, 2, 2, 0, 0, 0)), DateValueComparison.comparable(builder, true));
+		assertEquals(DateValueComparison.comparable(new DateValueImpl(2006, 2, 2)), DateValueComparison.comparable(builder, false));
+	}
+
+	@Test
+	public void comparableUtc() {
+		//@formatter:off
+		long[] millis = {
+			0,
+			-1,
+			1000,
+			951782400000L, //2000-02-29
+			1142899199000L,
+			4102444799999L,
+			-12219292800000L, //Gregorian cutover
+			-12219292800001L,
+			-62135596800000L,
+		};
+		//@formatter:on
+
+		for (long m : millis) {
+			DateValue expected = TimeUtils.toDateTimeValue(m, TimeUtils.utcTimezone());
+			assertEquals(String.valueOf(m), expected, DateValueComparison.toDateValue(DateValueComparison.comparableUtc(m)));
+		}
+	}
+
 	private static final int sign3(int i) {
 		return i < 0 ? -1 : i != 0 ? 1 : 0;
 	}